@@ -4,4 +4,4 @@
 #   https://cloud.yandex.com/en/docs/iam/operations/authorized-key/create
 # export YDB_SERVICE_ACCOUNT_KEY_FILE_CREDENTIALS=$(pwd)/yc-fednew-iot1sa1.json
 
-java -Xms256m -Xmx8192m -classpath 'lib/*' tech.ydb.importer.YdbImporter $@
+java -Xms256m -Xmx8192m $JAVA_OPTS -classpath 'lib/*' tech.ydb.importer.YdbImporter $@
@@ -0,0 +1,374 @@
+package tech.ydb.importer.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a {@link VerificationBenchmark} result file with a stored baseline.
+ * The entries are matched by source, mode and batch/pool/fetch sizes, and
+ * the import throughput of each matching entry must not drop by more than
+ * the tolerance. Exits with 1 on a regression, so it can gate a CI job.
+ */
+public class BenchmarkComparator {
+
+    public static final double DEFAULT_TOLERANCE = 0.10;
+
+    private final double tolerance;
+
+    public BenchmarkComparator(double tolerance) {
+        if (tolerance < 0.0 || tolerance >= 1.0) {
+            throw new IllegalArgumentException("Illegal tolerance: " + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    public static void main(String[] args) {
+        String baseline = null;
+        String result = null;
+        double tolerance = DEFAULT_TOLERANCE;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--tolerance":
+                        tolerance = Double.parseDouble(args[++i]);
+                        break;
+                    case "--help":
+                    case "-h":
+                        printHelp();
+                        return;
+                    default:
+                        if (baseline == null) {
+                            baseline = args[i];
+                        } else if (result == null) {
+                            result = args[i];
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                }
+            }
+            if (result == null) {
+                throw new IllegalArgumentException("Both baseline and result files are required");
+            }
+            boolean ok = new BenchmarkComparator(tolerance)
+                    .compare(Paths.get(baseline), Paths.get(result), System.out);
+            System.exit(ok ? 0 : 1);
+        } catch (IOException | RuntimeException ex) {
+            System.err.println(ex.getMessage());
+            printHelp();
+            System.exit(2);
+        }
+    }
+
+    private static void printHelp() {
+        System.out.println(String.join("\n",
+                "Usage: BenchmarkComparator BASELINE.json RESULT.json [--tolerance X]",
+                "",
+                "  --tolerance X   allowed import throughput drop (default 0.10, that is 10%)",
+                "",
+                "Exit code: 0 - no regression, 1 - regression found, 2 - bad arguments or input."));
+    }
+
+    /**
+     * Prints the comparison table.
+     *
+     * @param baselineFile Stored result file
+     * @param resultFile New result file
+     * @param out Output stream for the report
+     * @return true if no regression was found, false otherwise
+     * @throws IOException
+     */
+    public boolean compare(Path baselineFile, Path resultFile, PrintStream out) throws IOException {
+        Map<String, Entry> baseline = load(baselineFile);
+        Map<String, Entry> current = load(resultFile);
+
+        out.printf("%-12s %-12s %7s %5s %7s %12s %12s %8s  %s%n",
+                "Source", "Mode", "Batch", "Pool", "Fetch",
+                "Base r/s", "Current r/s", "Change", "Status");
+        int regressions = 0;
+        int compared = 0;
+        for (Entry b : baseline.values()) {
+            Entry c = current.get(b.key());
+            String status;
+            String change = "-";
+            String curRate = "-";
+            if (c == null) {
+                status = "MISSING";
+            } else if (c.failed) {
+                status = b.failed ? "FAILED (also in baseline)" : "REGRESSION: failed";
+                if (!b.failed) {
+                    regressions++;
+                }
+            } else {
+                curRate = String.format("%,.0f", c.rowsPerSec);
+                if (b.failed || b.rowsPerSec <= 0.0) {
+                    status = "NEW OK";
+                } else {
+                    compared++;
+                    double ratio = c.rowsPerSec / b.rowsPerSec;
+                    change = String.format("%+.1f%%", (ratio - 1.0) * 100.0);
+                    if (ratio < 1.0 - tolerance) {
+                        status = "REGRESSION";
+                        regressions++;
+                    } else {
+                        status = "OK";
+                    }
+                }
+            }
+            out.printf("%-12s %-12s %7d %5d %7d %12s %12s %8s  %s%n",
+                    b.source, b.label, b.batchSize, b.poolSize, b.fetchSize,
+                    b.failed ? "-" : String.format("%,.0f", b.rowsPerSec),
+                    curRate, change, status);
+        }
+        for (Entry c : current.values()) {
+            if (!baseline.containsKey(c.key())) {
+                out.printf("%-12s %-12s %7d %5d %7d %12s %12s %8s  %s%n",
+                        c.source, c.label, c.batchSize, c.poolSize, c.fetchSize,
+                        "-", c.failed ? "-" : String.format("%,.0f", c.rowsPerSec), "-", "NOT IN BASELINE");
+            }
+        }
+        out.printf("Compared %d entries with tolerance %.0f%%: %s%n", compared, tolerance * 100.0,
+                regressions == 0 ? "no regressions" : regressions + " regression(s)");
+        return regressions == 0;
+    }
+
+    private static Map<String, Entry> load(Path file) throws IOException {
+        String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Object root = new JsonParser(text).parse();
+        if (!(root instanceof Map)) {
+            throw new IllegalArgumentException("Not a benchmark result file: " + file);
+        }
+        Map<?, ?> top = (Map<?, ?>) root;
+        Map<?, ?> params = asMap(top.get("params"));
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (Object runObj : asList(top.get("runs"))) {
+            Map<?, ?> run = asMap(runObj);
+            String source = String.valueOf(run.get("source"));
+            long totalRows = asLong(run.get("totalRows"), 0L);
+            boolean runFailed = run.get("error") != null;
+            for (Object modeObj : asList(run.get("modes"))) {
+                Map<?, ?> mode = asMap(modeObj);
+                Entry e = new Entry();
+                e.source = source;
+                e.label = String.valueOf(mode.get("label"));
+                // files written before the sweep support keep the sizes in params only
+                e.batchSize = (int) asLong(mode.get("batchSize"), asLong(params.get("batchSize"), 0L));
+                e.poolSize = (int) asLong(mode.get("poolSize"), asLong(params.get("poolSize"), 0L));
+                e.fetchSize = (int) asLong(mode.get("fetchSize"), asLong(params.get("fetchSize"), 0L));
+                long importMs = asLong(mode.get("importMs"), 0L);
+                Object rate = mode.get("importRowsPerSec");
+                if (rate instanceof Number) {
+                    e.rowsPerSec = ((Number) rate).doubleValue();
+                } else if (importMs > 0L) {
+                    e.rowsPerSec = totalRows / (importMs / 1000.0);
+                }
+                e.failed = runFailed || !asList(mode.get("failures")).isEmpty();
+                entries.put(e.key(), e);
+            }
+        }
+        return entries;
+    }
+
+    private static Map<?, ?> asMap(Object o) {
+        return (o instanceof Map) ? (Map<?, ?>) o : Collections.emptyMap();
+    }
+
+    private static List<?> asList(Object o) {
+        return (o instanceof List) ? (List<?>) o : Collections.emptyList();
+    }
+
+    private static long asLong(Object o, long def) {
+        return (o instanceof Number) ? ((Number) o).longValue() : def;
+    }
+
+    private static final class Entry {
+        String source;
+        String label;
+        int batchSize;
+        int poolSize;
+        int fetchSize;
+        double rowsPerSec;
+        boolean failed;
+
+        String key() {
+            return source + "|" + label + "|" + batchSize + "|" + poolSize + "|" + fetchSize;
+        }
+    }
+
+    /**
+     * Just enough of JSON for the files written by the benchmark:
+     * objects become maps, arrays become lists, numbers become doubles.
+     */
+    static final class JsonParser {
+        private final String text;
+        private int pos;
+
+        JsonParser(String text) {
+            this.text = text;
+        }
+
+        Object parse() {
+            Object v = value();
+            skipSpace();
+            if (pos < text.length()) {
+                throw error("Unexpected trailing data");
+            }
+            return v;
+        }
+
+        private Object value() {
+            skipSpace();
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            char c = text.charAt(pos);
+            switch (c) {
+                case '{':
+                    return object();
+                case '[':
+                    return array();
+                case '"':
+                    return string();
+                default:
+                    if (text.startsWith("null", pos)) {
+                        pos += 4;
+                        return null;
+                    }
+                    if (text.startsWith("true", pos)) {
+                        pos += 4;
+                        return Boolean.TRUE;
+                    }
+                    if (text.startsWith("false", pos)) {
+                        pos += 5;
+                        return Boolean.FALSE;
+                    }
+                    return number();
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return m;
+            }
+            while (true) {
+                skipSpace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                String name = string();
+                skipSpace();
+                expect(':');
+                m.put(name, value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return m;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> l = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return l;
+            }
+            while (true) {
+                l.add(value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return l;
+                }
+            }
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(e);
+                }
+            }
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Unexpected character '" + text.charAt(pos) + "'");
+            }
+            return Double.valueOf(text.substring(start, pos));
+        }
+
+        private char peek() {
+            return (pos < text.length()) ? text.charAt(pos) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " at position " + pos);
+        }
+    }
+}
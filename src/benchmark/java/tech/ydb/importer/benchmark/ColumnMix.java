@@ -0,0 +1,185 @@
+package tech.ydb.importer.benchmark;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import tech.ydb.table.values.DecimalType;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Type;
+
+/**
+ * Representative source column layouts for the conversion benchmarks.
+ * The first column of each mix is the non-null primary key.
+ */
+public enum ColumnMix {
+
+    NARROW_INT(
+            col("id", PrimitiveType.Int64, Types.BIGINT, 0D, r -> r.nextLong()),
+            col("qty", PrimitiveType.Int32, Types.INTEGER, 0D, r -> r.nextInt(100_000)),
+            col("code", PrimitiveType.Uint8, Types.SMALLINT, 0D, r -> r.nextInt(256)),
+            col("flag", PrimitiveType.Bool, Types.BOOLEAN, 0D, r -> r.nextBoolean()),
+            col("ref_id", PrimitiveType.Int64, Types.BIGINT, 0.1D, r -> r.nextLong()),
+            col("status", PrimitiveType.Int32, Types.INTEGER, 0D, r -> r.nextInt(10))),
+    WIDE_TEXT(
+            col("id", PrimitiveType.Int64, Types.BIGINT, 0D, r -> r.nextLong()),
+            col("tag", PrimitiveType.Text, Types.VARCHAR, 0D, r -> text(r, 16)),
+            col("title", PrimitiveType.Text, Types.VARCHAR, 0D, r -> text(r, 120)),
+            col("body", PrimitiveType.Text, Types.VARCHAR, 0.05D, r -> text(r, 1000)),
+            col("notes", PrimitiveType.Text, Types.VARCHAR, 0.2D, r -> text(r, 400))),
+    DECIMAL(
+            col("id", PrimitiveType.Int64, Types.BIGINT, 0D, r -> r.nextLong()),
+            col("amount", DecimalType.of(22, 9), Types.NUMERIC, 0D, r -> decimal(r, 13, 9)),
+            col("price", DecimalType.of(35, 10), Types.NUMERIC, 0D, r -> decimal(r, 25, 10)),
+            col("rate", DecimalType.of(10, 4), Types.DECIMAL, 0.1D, r -> decimal(r, 6, 4)),
+            col("ratio", PrimitiveType.Double, Types.DOUBLE, 0D, r -> r.nextDouble())),
+    TIMESTAMP(
+            col("id", PrimitiveType.Int64, Types.BIGINT, 0D, r -> r.nextLong()),
+            col("created", PrimitiveType.Timestamp, Types.TIMESTAMP, 0D, r -> timestamp(r)),
+            col("updated", PrimitiveType.Datetime, Types.TIMESTAMP, 0.1D, r -> timestamp(r)),
+            col("day", PrimitiveType.Date, Types.DATE, 0D, r -> new Date(timestamp(r).getTime())),
+            col("logged", PrimitiveType.Text, Types.TIMESTAMP, 0D, r -> timestamp(r)),
+            col("epoch_ms", PrimitiveType.Int64, Types.TIMESTAMP, 0D, r -> timestamp(r))),
+    UUID_KEYS(
+            col("id", PrimitiveType.Uuid, Types.VARCHAR, 0D, r -> uuid(r).toString()),
+            col("parent", PrimitiveType.Uuid, Types.BINARY, 0.1D, r -> uuidBytes(uuid(r))),
+            col("owner", PrimitiveType.Uuid, Types.VARCHAR, 0D, r -> uuid(r).toString()),
+            col("seq", PrimitiveType.Int64, Types.BIGINT, 0D, r -> r.nextLong())),
+    NULLABLE(
+            col("id", PrimitiveType.Int64, Types.BIGINT, 0D, r -> r.nextLong()),
+            col("a_int", PrimitiveType.Int32, Types.INTEGER, 0.8D, r -> r.nextInt()),
+            col("a_long", PrimitiveType.Int64, Types.BIGINT, 0.8D, r -> r.nextLong()),
+            col("a_text", PrimitiveType.Text, Types.VARCHAR, 0.8D, r -> text(r, 40)),
+            col("a_num", DecimalType.of(22, 9), Types.NUMERIC, 0.8D, r -> decimal(r, 13, 9)),
+            col("a_ts", PrimitiveType.Timestamp, Types.TIMESTAMP, 0.8D, r -> timestamp(r)),
+            col("a_flag", PrimitiveType.Bool, Types.BOOLEAN, 0.8D, r -> r.nextBoolean()));
+
+    /** Name of the synthetic key column added to the target structure. */
+    public static final String SYNTH_KEY = "ydb_synth_key";
+
+    private static final long TS_BASE = 1_600_000_000_000L;
+    private static final String CHARS = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private final List<Column> columns;
+
+    ColumnMix(Column... columns) {
+        this.columns = Arrays.asList(columns);
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param withSynthKey true to add the synthetic key column
+     * @return Target structure, with all columns but the key being optional
+     */
+    public StructType structType(boolean withSynthKey) {
+        final Map<String, Type> types = new HashMap<>();
+        for (int i = 0; i < columns.size(); ++i) {
+            final Column c = columns.get(i);
+            types.put(c.name, (i == 0) ? c.type : c.type.makeOptional());
+        }
+        if (withSynthKey) {
+            types.put(SYNTH_KEY, PrimitiveType.Text);
+        }
+        return StructType.of(types);
+    }
+
+    /**
+     * @param count Number of rows
+     * @param seed Random seed, same seed gives the same rows
+     * @return Row values in the column order, with nulls by the column null ratios
+     */
+    public Object[][] generate(int count, long seed) {
+        final Random r = new Random(seed);
+        final Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; ++i) {
+            final Object[] row = new Object[columns.size()];
+            for (int j = 0; j < row.length; ++j) {
+                final Column c = columns.get(j);
+                row[j] = (r.nextDouble() < c.nullRatio) ? null : c.generator.apply(r);
+            }
+            rows[i] = row;
+        }
+        return rows;
+    }
+
+    private static Column col(String name, Type type, int sqlType, double nullRatio,
+            Function<Random, Object> generator) {
+        return new Column(name, type, sqlType, nullRatio, generator);
+    }
+
+    private static String text(Random r, int maxLength) {
+        final int length = maxLength / 2 + r.nextInt(maxLength / 2 + 1);
+        final char[] v = new char[length];
+        for (int i = 0; i < length; ++i) {
+            v[i] = CHARS.charAt(r.nextInt(CHARS.length()));
+        }
+        return new String(v);
+    }
+
+    private static BigDecimal decimal(Random r, int intDigits, int scale) {
+        final BigInteger unscaled = new BigInteger((intDigits + scale) * 3, r);
+        return new BigDecimal(r.nextBoolean() ? unscaled : unscaled.negate(), scale);
+    }
+
+    private static Timestamp timestamp(Random r) {
+        final Timestamp ts = new Timestamp(TS_BASE + (r.nextLong() & 0xFFFFFFFFFL));
+        ts.setNanos(r.nextInt(1_000_000) * 1000);
+        return ts;
+    }
+
+    private static UUID uuid(Random r) {
+        return new UUID(r.nextLong(), r.nextLong());
+    }
+
+    private static byte[] uuidBytes(UUID v) {
+        return ByteBuffer.allocate(16)
+                .putLong(v.getMostSignificantBits())
+                .putLong(v.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Source column of a mix.
+     */
+    public static final class Column {
+        private final String name;
+        private final Type type;
+        private final int sqlType;
+        private final double nullRatio;
+        private final Function<Random, Object> generator;
+
+        Column(String name, Type type, int sqlType, double nullRatio, Function<Random, Object> generator) {
+            this.name = name;
+            this.type = type;
+            this.sqlType = sqlType;
+            this.nullRatio = nullRatio;
+            this.generator = generator;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getSqlType() {
+            return sqlType;
+        }
+    }
+}
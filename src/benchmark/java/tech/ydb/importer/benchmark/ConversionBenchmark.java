@@ -0,0 +1,301 @@
+package tech.ydb.importer.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tech.ydb.importer.target.ArrowBatchBuilder;
+import tech.ydb.importer.target.ArrowValueWriter;
+import tech.ydb.importer.target.RowValueWriter;
+import tech.ydb.importer.target.SynthKey;
+import tech.ydb.importer.target.ValueReader;
+import tech.ydb.importer.target.ValueWriter;
+import tech.ydb.table.query.BulkUpsertData;
+import tech.ydb.table.query.arrow.ApacheArrowWriter;
+import tech.ydb.table.values.ListType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Value;
+import tech.ydb.table.values.VoidValue;
+
+/**
+ * JMH benchmark of the conversion path of a single batch: reading the rows
+ * from an in-memory result set through the ValueReader implementations,
+ * writing them with the selected ValueWriter, hashing the synthetic key,
+ * and building the bulk upsert payload.
+ *
+ * The score is in rows per second; run with "-prof gc" to get the allocation
+ * per row as gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ConversionBenchmark {
+
+    /** Rows per batch, the benchmark operation being a single row. */
+    public static final int BATCH_ROWS = 1000;
+
+    /**
+     * Destination of the converted values.
+     */
+    public enum WriterMode {
+        /** Values are only read and converted, to measure the readers alone. */
+        READ_ONLY,
+        /** YDB values, sent as the ROW payload. */
+        ROW,
+        /** Apache Arrow vectors, sent as the ARROW payload. */
+        ARROW
+    }
+
+    @Param({"NARROW_INT", "WIDE_TEXT", "DECIMAL", "TIMESTAMP", "UUID_KEYS", "NULLABLE"})
+    ColumnMix mix;
+
+    @Param({"READ_ONLY", "ROW", "ARROW"})
+    WriterMode mode;
+
+    @Param({"false", "true"})
+    boolean synthKey;
+
+    private StructType paramType;
+    private ListType paramListType;
+    private ValueReader[] readers;
+    private int[] targetIdx;
+    private int synthKeyIdx;
+    private InMemoryResultSet rs;
+    private SynthKey key;
+    private LastValueWriter lastWriter;
+    private RowValueWriter rowWriter;
+    private ArrowValueWriter arrowWriter;
+    private ArrowBatchBuilder arrowBuilder;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final List<ColumnMix.Column> columns = mix.getColumns();
+        paramType = mix.structType(synthKey);
+        paramListType = ListType.of(paramType);
+        readers = new ValueReader[columns.size()];
+        targetIdx = new int[columns.size()];
+        for (int i = 0; i < readers.length; ++i) {
+            final ColumnMix.Column c = columns.get(i);
+            readers[i] = ValueReader.getReader(c.getType(), c.getSqlType());
+            targetIdx[i] = paramType.getMemberIndex(c.getName());
+        }
+        synthKeyIdx = synthKey ? paramType.getMemberIndex(ColumnMix.SYNTH_KEY) : -1;
+        key = synthKey ? new SynthKey() : null;
+        rs = new InMemoryResultSet(mix.generate(BATCH_ROWS, 1L));
+        switch (mode) {
+            case READ_ONLY:
+                lastWriter = new LastValueWriter(paramType.getMembersCount());
+                break;
+            case ROW:
+                rowWriter = new RowValueWriter(paramType);
+                break;
+            case ARROW:
+                arrowWriter = new ArrowValueWriter(paramType);
+                arrowBuilder = new ArrowBatchBuilder(paramType, BATCH_ROWS);
+                break;
+            default:
+                throw new IllegalStateException(mode.name());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (arrowBuilder != null) {
+            arrowBuilder.close();
+            arrowBuilder = null;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_ROWS)
+    public Object convertBatch() throws Exception {
+        rs.rewind();
+        switch (mode) {
+            case READ_ONLY:
+                return readOnly();
+            case ROW:
+                return rowBatch();
+            default:
+                return arrowBatch();
+        }
+    }
+
+    private Object readOnly() throws Exception {
+        while (rs.next()) {
+            readRow(lastWriter);
+        }
+        return lastWriter;
+    }
+
+    private Object rowBatch() throws Exception {
+        final List<Value<?>> batch = new ArrayList<>(BATCH_ROWS);
+        while (rs.next()) {
+            final Value<?>[] values = new Value[paramType.getMembersCount()];
+            Arrays.fill(values, VoidValue.of());
+            rowWriter.setValues(values);
+            readRow(rowWriter);
+            batch.add(paramType.newValueUnsafe(values));
+        }
+        return new BulkUpsertData(paramListType.newValue(batch));
+    }
+
+    private Object arrowBatch() throws Exception {
+        final ApacheArrowWriter.Batch batch = arrowBuilder.newBatch();
+        while (rs.next()) {
+            arrowWriter.setRow(batch.writeNextRow());
+            readRow(arrowWriter);
+        }
+        return batch.buildBatch();
+    }
+
+    private void readRow(ValueWriter writer) throws Exception {
+        for (int i = 0; i < readers.length; ++i) {
+            readers[i].read(rs, i + 1, targetIdx[i], writer, key);
+        }
+        if (key != null) {
+            writer.writeText(synthKeyIdx, key.buildString());
+        }
+    }
+
+    /**
+     * Keeps the last value of each column, so that the conversions
+     * are not eliminated as dead code.
+     */
+    static final class LastValueWriter implements ValueWriter {
+        private final long[] primitives;
+        private final Object[] objects;
+
+        LastValueWriter(int size) {
+            this.primitives = new long[size];
+            this.objects = new Object[size];
+        }
+
+        @Override
+        public void writeNull(int idx) {
+            objects[idx] = null;
+        }
+
+        @Override
+        public void writeBool(int idx, boolean v) {
+            primitives[idx] = v ? 1L : 0L;
+        }
+
+        @Override
+        public void writeUint8(int idx, int v) {
+            primitives[idx] = v;
+        }
+
+        @Override
+        public void writeUint16(int idx, int v) {
+            primitives[idx] = v;
+        }
+
+        @Override
+        public void writeInt32(int idx, int v) {
+            primitives[idx] = v;
+        }
+
+        @Override
+        public void writeUint32(int idx, long v) {
+            primitives[idx] = v;
+        }
+
+        @Override
+        public void writeInt64(int idx, long v) {
+            primitives[idx] = v;
+        }
+
+        @Override
+        public void writeUint64(int idx, long v) {
+            primitives[idx] = v;
+        }
+
+        @Override
+        public void writeFloat(int idx, float v) {
+            primitives[idx] = Float.floatToRawIntBits(v);
+        }
+
+        @Override
+        public void writeDouble(int idx, double v) {
+            primitives[idx] = Double.doubleToRawLongBits(v);
+        }
+
+        @Override
+        public void writeText(int idx, String v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeBytes(int idx, byte[] v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeUuid(int idx, String v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeUuid(int idx, UUID v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeDate(int idx, LocalDate v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeDate32(int idx, LocalDate v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeDatetime(int idx, Instant v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeDatetime64(int idx, Instant v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeTimestamp(int idx, Instant v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeTimestamp64(int idx, Instant v) {
+            objects[idx] = v;
+        }
+
+        @Override
+        public void writeDecimal(int idx, BigDecimal v) {
+            objects[idx] = v;
+        }
+    }
+}
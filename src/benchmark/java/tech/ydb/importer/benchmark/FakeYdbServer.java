@@ -0,0 +1,430 @@
+package tech.ydb.importer.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import tech.ydb.proto.OperationProtos;
+import tech.ydb.proto.StatusCodesProtos.StatusIds;
+import tech.ydb.proto.ValueProtos;
+import tech.ydb.proto.YdbIssueMessage;
+import tech.ydb.proto.discovery.DiscoveryProtos;
+import tech.ydb.proto.discovery.v1.DiscoveryServiceGrpc;
+import tech.ydb.proto.table.YdbTable;
+import tech.ydb.proto.table.v1.TableServiceGrpc;
+
+/**
+ * In-process gRPC server implementing the subset of the YDB API used by
+ * the upload path: endpoint discovery, table sessions and BulkUpsert.
+ * The rows are decoded and counted, optionally verified against their
+ * declared types, and discarded.
+ *
+ * Each BulkUpsert call can be delayed by a fixed latency plus a random jitter,
+ * and rejected with the OVERLOADED or UNAVAILABLE status with the configured
+ * probabilities, to reproduce the backpressure of a busy database.
+ */
+public class FakeYdbServer implements AutoCloseable {
+
+    public static final String DATABASE = "/local";
+
+    private final int requestedPort;
+    private volatile long latencyMs = 0L;
+    private volatile long jitterMs = 0L;
+    private volatile double overloadedRatio = 0D;
+    private volatile double unavailableRatio = 0D;
+    private volatile boolean verify = false;
+
+    private final AtomicLong sessionIds = new AtomicLong();
+    private final LongAdder rowBatches = new LongAdder();
+    private final LongAdder arrowBatches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final Map<String, LongAdder> tableRows = new ConcurrentHashMap<>();
+
+    private Server server;
+    private ScheduledExecutorService delayer;
+
+    /**
+     * @param port Port to listen on, 0 to pick a free one
+     */
+    public FakeYdbServer(int port) {
+        this.requestedPort = port;
+    }
+
+    public FakeYdbServer start() throws IOException {
+        delayer = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "fake-ydb-delay");
+            t.setDaemon(true);
+            return t;
+        });
+        server = ServerBuilder.forPort(requestedPort)
+                .maxInboundMessageSize(64 * 1024 * 1024)
+                .addService(new Discovery())
+                .addService(new Tables())
+                .build()
+                .start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.shutdownNow();
+            try {
+                server.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ix) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (delayer != null) {
+            delayer.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getPort();
+    }
+
+    public String getConnectionString() {
+        return "grpc://localhost:" + getPort() + DATABASE;
+    }
+
+    /**
+     * @param latencyMs Fixed delay of each BulkUpsert response
+     * @param jitterMs Maximum random delay added to the fixed one
+     */
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    /**
+     * @param overloadedRatio Share of the BulkUpsert calls rejected with OVERLOADED
+     * @param unavailableRatio Share of the BulkUpsert calls rejected with UNAVAILABLE
+     */
+    public void setFailures(double overloadedRatio, double unavailableRatio) {
+        this.overloadedRatio = overloadedRatio;
+        this.unavailableRatio = unavailableRatio;
+    }
+
+    /**
+     * @param verify true to fully decode each payload and check it against its declared types
+     */
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    public long getRowBatches() {
+        return rowBatches.sum();
+    }
+
+    public long getArrowBatches() {
+        return arrowBatches.sum();
+    }
+
+    /**
+     * @return Number of the rows accepted
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * @param tablePath Target table path
+     * @return Number of the rows accepted for the table
+     */
+    public long getRows(String tablePath) {
+        final LongAdder v = tableRows.get(tablePath);
+        return (v == null) ? 0L : v.sum();
+    }
+
+    /**
+     * @return Size of the accepted BulkUpsert requests
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getOverloaded() {
+        return overloaded.sum();
+    }
+
+    public long getUnavailable() {
+        return unavailable.sum();
+    }
+
+    /**
+     * @return Number of the payloads which failed the verification
+     */
+    public long getInvalid() {
+        return invalid.sum();
+    }
+
+    public String formatStats() {
+        return String.format("%,d rows in %,d ROW and %,d ARROW batches, %,d bytes, "
+                + "%,d OVERLOADED, %,d UNAVAILABLE, %,d invalid",
+                getRows(), getRowBatches(), getArrowBatches(), getBytes(),
+                getOverloaded(), getUnavailable(), getInvalid());
+    }
+
+    private void bulkUpsert(YdbTable.BulkUpsertRequest request,
+            StreamObserver<YdbTable.BulkUpsertResponse> observer) {
+        final double r = ThreadLocalRandom.current().nextDouble();
+        OperationProtos.Operation op;
+        if (r < overloadedRatio) {
+            overloaded.increment();
+            op = failure(StatusIds.StatusCode.OVERLOADED, "injected overload");
+        } else if (r < overloadedRatio + unavailableRatio) {
+            unavailable.increment();
+            op = failure(StatusIds.StatusCode.UNAVAILABLE, "injected unavailability");
+        } else {
+            op = accept(request);
+        }
+        final YdbTable.BulkUpsertResponse response = YdbTable.BulkUpsertResponse.newBuilder()
+                .setOperation(op).build();
+        final long jitter = jitterMs;
+        final long delay = latencyMs + ((jitter > 0L) ? ThreadLocalRandom.current().nextLong(jitter + 1L) : 0L);
+        if (delay > 0L) {
+            delayer.schedule(() -> reply(observer, response), delay, TimeUnit.MILLISECONDS);
+        } else {
+            reply(observer, response);
+        }
+    }
+
+    private OperationProtos.Operation accept(YdbTable.BulkUpsertRequest request) {
+        final long count;
+        try {
+            if (request.hasArrowBatchSettings()) {
+                count = arrowRows(request.getArrowBatchSettings().getSchema(), request.getData());
+                arrowBatches.increment();
+            } else {
+                count = valueRows(request.getRows());
+                rowBatches.increment();
+            }
+        } catch (Exception ex) {
+            invalid.increment();
+            return failure(StatusIds.StatusCode.BAD_REQUEST, "invalid payload: " + ex.getMessage());
+        }
+        rows.add(count);
+        bytes.add(request.getSerializedSize());
+        tableRows.computeIfAbsent(request.getTable(), k -> new LongAdder()).add(count);
+        return success(YdbTable.BulkUpsertResult.getDefaultInstance());
+    }
+
+    private long valueRows(ValueProtos.TypedValue tv) {
+        final int count = tv.getValue().getItemsCount();
+        if (!verify) {
+            return count;
+        }
+        final ValueProtos.StructType st = tv.getType().getListType().getItem().getStructType();
+        final int width = st.getMembersCount();
+        if (width == 0) {
+            throw new IllegalArgumentException("rows are not a list of structures");
+        }
+        for (int i = 0; i < count; ++i) {
+            final ValueProtos.Value row = tv.getValue().getItems(i);
+            if (row.getItemsCount() != width) {
+                throw new IllegalArgumentException("row " + i + " has " + row.getItemsCount()
+                        + " values for " + width + " columns");
+            }
+            for (int j = 0; j < width; ++j) {
+                if (!st.getMembers(j).getType().hasOptionalType()
+                        && row.getItems(j).getValueCase() == ValueProtos.Value.ValueCase.NULL_FLAG_VALUE) {
+                    throw new IllegalArgumentException("row " + i + " has NULL in the required column "
+                            + st.getMembers(j).getName());
+                }
+            }
+        }
+        return count;
+    }
+
+    private long arrowRows(ByteString schemaBytes, ByteString data) throws IOException {
+        if (!verify) {
+            try (ReadChannel ch = channelFrom(data)) {
+                final MessageMetadataResult message = MessageSerializer.readMessage(ch);
+                if (message == null) {
+                    throw new IllegalArgumentException("empty record batch");
+                }
+                return ((RecordBatch) message.getMessage().header(new RecordBatch())).length();
+            }
+        }
+        try (BufferAllocator alloc = new RootAllocator()) {
+            final Schema schema;
+            try (ReadChannel ch = channelFrom(schemaBytes)) {
+                schema = MessageSerializer.deserializeSchema(ch);
+            }
+            try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, alloc);
+                    ReadChannel ch = channelFrom(data);
+                    ArrowRecordBatch batch = MessageSerializer.deserializeRecordBatch(ch, alloc)) {
+                new VectorLoader(root).load(batch);
+                final int count = root.getRowCount();
+                for (FieldVector v : root.getFieldVectors()) {
+                    if (v.getValueCount() != count) {
+                        throw new IllegalArgumentException("column " + v.getName() + " has "
+                                + v.getValueCount() + " values for " + count + " rows");
+                    }
+                    if (!v.getField().isNullable() && v.getNullCount() > 0) {
+                        throw new IllegalArgumentException("column " + v.getName() + " has "
+                                + v.getNullCount() + " NULLs while not nullable");
+                    }
+                }
+                return count;
+            }
+        }
+    }
+
+    private static ReadChannel channelFrom(ByteString bytes) {
+        return new ReadChannel(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static OperationProtos.Operation success(Message result) {
+        final OperationProtos.Operation.Builder op = OperationProtos.Operation.newBuilder()
+                .setReady(true)
+                .setStatus(StatusIds.StatusCode.SUCCESS);
+        if (result != null) {
+            op.setResult(Any.pack(result));
+        }
+        return op.build();
+    }
+
+    private static OperationProtos.Operation failure(StatusIds.StatusCode code, String message) {
+        return OperationProtos.Operation.newBuilder()
+                .setReady(true)
+                .setStatus(code)
+                .addIssues(YdbIssueMessage.IssueMessage.newBuilder().setMessage(message))
+                .build();
+    }
+
+    private static <T> void reply(StreamObserver<T> observer, T response) {
+        observer.onNext(response);
+        observer.onCompleted();
+    }
+
+    private final class Discovery extends DiscoveryServiceGrpc.DiscoveryServiceImplBase {
+        @Override
+        public void listEndpoints(DiscoveryProtos.ListEndpointsRequest request,
+                StreamObserver<DiscoveryProtos.ListEndpointsResponse> observer) {
+            final DiscoveryProtos.ListEndpointsResult result = DiscoveryProtos.ListEndpointsResult.newBuilder()
+                    .addEndpoints(DiscoveryProtos.EndpointInfo.newBuilder()
+                            .setAddress("localhost")
+                            .setPort(getPort())
+                            .setNodeId(1)
+                            .setLocation("fake"))
+                    .setSelfLocation("fake")
+                    .build();
+            reply(observer, DiscoveryProtos.ListEndpointsResponse.newBuilder()
+                    .setOperation(success(result)).build());
+        }
+    }
+
+    private final class Tables extends TableServiceGrpc.TableServiceImplBase {
+        @Override
+        public void createSession(YdbTable.CreateSessionRequest request,
+                StreamObserver<YdbTable.CreateSessionResponse> observer) {
+            final YdbTable.CreateSessionResult result = YdbTable.CreateSessionResult.newBuilder()
+                    .setSessionId("fake-session-" + sessionIds.incrementAndGet())
+                    .build();
+            reply(observer, YdbTable.CreateSessionResponse.newBuilder()
+                    .setOperation(success(result)).build());
+        }
+
+        @Override
+        public void deleteSession(YdbTable.DeleteSessionRequest request,
+                StreamObserver<YdbTable.DeleteSessionResponse> observer) {
+            reply(observer, YdbTable.DeleteSessionResponse.newBuilder()
+                    .setOperation(success(null)).build());
+        }
+
+        @Override
+        public void keepAlive(YdbTable.KeepAliveRequest request,
+                StreamObserver<YdbTable.KeepAliveResponse> observer) {
+            final YdbTable.KeepAliveResult result = YdbTable.KeepAliveResult.newBuilder()
+                    .setSessionStatus(YdbTable.KeepAliveResult.SessionStatus.SESSION_STATUS_READY)
+                    .build();
+            reply(observer, YdbTable.KeepAliveResponse.newBuilder()
+                    .setOperation(success(result)).build());
+        }
+
+        @Override
+        public void bulkUpsert(YdbTable.BulkUpsertRequest request,
+                StreamObserver<YdbTable.BulkUpsertResponse> observer) {
+            FakeYdbServer.this.bulkUpsert(request, observer);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 2136;
+        long latency = 0L;
+        long jitter = 0L;
+        double overload = 0D;
+        double unavail = 0D;
+        boolean verify = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--latency-ms":
+                    latency = Long.parseLong(args[++i]);
+                    break;
+                case "--jitter-ms":
+                    jitter = Long.parseLong(args[++i]);
+                    break;
+                case "--overloaded":
+                    overload = Double.parseDouble(args[++i]);
+                    break;
+                case "--unavailable":
+                    unavail = Double.parseDouble(args[++i]);
+                    break;
+                case "--verify":
+                    verify = true;
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.err.println("Usage: FakeYdbServer [--port N] [--latency-ms N] [--jitter-ms N]"
+                            + " [--overloaded RATIO] [--unavailable RATIO] [--verify]");
+                    System.exit(1);
+            }
+        }
+        final FakeYdbServer server = new FakeYdbServer(port);
+        server.setLatency(latency, jitter);
+        server.setFailures(overload, unavail);
+        server.setVerify(verify);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.printf("Fake YDB listening at %s%n", server.getConnectionString());
+        while (true) {
+            Thread.sleep(10_000L);
+            System.out.printf("Fake YDB: %s%n", server.formatStats());
+        }
+    }
+}
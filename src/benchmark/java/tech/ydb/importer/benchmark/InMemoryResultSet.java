@@ -0,0 +1,133 @@
+package tech.ydb.importer.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import tech.ydb.importer.synthetic.ResultSetAdapter;
+
+/**
+ * Forward-only result set over pre-generated rows, which can be rewound
+ * to replay the same rows without any allocation on the read path.
+ */
+public class InMemoryResultSet extends ResultSetAdapter {
+
+    private final Object[][] rows;
+    private int position = -1;
+    private boolean lastNull = false;
+    private boolean closed = false;
+
+    /**
+     * @param rows Row values indexed by the zero-based column number, null for SQL NULL
+     */
+    public InMemoryResultSet(Object[][] rows) {
+        this.rows = rows;
+    }
+
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    public void rewind() {
+        position = -1;
+    }
+
+    private Object value(int columnIndex) {
+        final Object v = rows[position][columnIndex - 1];
+        lastNull = (v == null);
+        return v;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (position + 1 >= rows.length) {
+            position = rows.length;
+            return false;
+        }
+        ++position;
+        return true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed;
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return lastNull;
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return value(columnIndex);
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        return (v == null) ? null : v.toString();
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        return (v != null) && (Boolean) v;
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        return (v == null) ? 0 : ((Number) v).intValue();
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        return (v == null) ? 0L : ((Number) v).longValue();
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        return (v == null) ? 0F : ((Number) v).floatValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        return (v == null) ? 0D : ((Number) v).doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        return (BigDecimal) value(columnIndex);
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        return (byte[]) value(columnIndex);
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        return (Date) value(columnIndex);
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        return (Time) value(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        return (Timestamp) value(columnIndex);
+    }
+}
@@ -0,0 +1,81 @@
+package tech.ydb.importer.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tech.ydb.importer.target.ArrowBatchBuilder;
+import tech.ydb.importer.target.ArrowValueWriter;
+import tech.ydb.importer.target.RowValueWriter;
+import tech.ydb.importer.target.ValueReader;
+import tech.ydb.table.query.BulkUpsertData;
+import tech.ydb.table.query.arrow.ApacheArrowWriter;
+import tech.ydb.table.values.ListType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Value;
+import tech.ydb.table.values.VoidValue;
+
+/**
+ * Bulk upsert payloads built from the generated rows of a column mix,
+ * through the same readers and writers as the importer uses.
+ */
+public final class SampleBatches {
+
+    private SampleBatches() {
+    }
+
+    /**
+     * @param mix Column mix
+     * @param arrow true for the Arrow payloads, false for the ROW ones
+     * @param batchRows Rows per batch
+     * @param count Number of the distinct batches
+     * @return Payloads, which can be uploaded any number of times
+     * @throws Exception
+     */
+    public static List<BulkUpsertData> build(ColumnMix mix, boolean arrow, int batchRows, int count)
+            throws Exception {
+        final StructType paramType = mix.structType(false);
+        final List<ColumnMix.Column> columns = mix.getColumns();
+        final ValueReader[] readers = new ValueReader[columns.size()];
+        final int[] targetIdx = new int[columns.size()];
+        for (int i = 0; i < readers.length; ++i) {
+            readers[i] = ValueReader.getReader(columns.get(i).getType(), columns.get(i).getSqlType());
+            targetIdx[i] = paramType.getMemberIndex(columns.get(i).getName());
+        }
+        final List<BulkUpsertData> result = new ArrayList<>(count);
+        if (arrow) {
+            final ArrowValueWriter writer = new ArrowValueWriter(paramType);
+            try (ArrowBatchBuilder builder = new ArrowBatchBuilder(paramType, batchRows)) {
+                for (int b = 0; b < count; ++b) {
+                    final InMemoryResultSet rs = new InMemoryResultSet(mix.generate(batchRows, b));
+                    final ApacheArrowWriter.Batch batch = builder.newBatch();
+                    while (rs.next()) {
+                        writer.setRow(batch.writeNextRow());
+                        for (int i = 0; i < readers.length; ++i) {
+                            readers[i].read(rs, i + 1, targetIdx[i], writer, null);
+                        }
+                    }
+                    result.add(batch.buildBatch());
+                }
+            }
+        } else {
+            final RowValueWriter writer = new RowValueWriter(paramType);
+            final ListType listType = ListType.of(paramType);
+            for (int b = 0; b < count; ++b) {
+                final InMemoryResultSet rs = new InMemoryResultSet(mix.generate(batchRows, b));
+                final List<Value<?>> batch = new ArrayList<>(batchRows);
+                while (rs.next()) {
+                    final Value<?>[] values = new Value[paramType.getMembersCount()];
+                    Arrays.fill(values, VoidValue.of());
+                    writer.setValues(values);
+                    for (int i = 0; i < readers.length; ++i) {
+                        readers[i].read(rs, i + 1, targetIdx[i], writer, null);
+                    }
+                    batch.add(paramType.newValueUnsafe(values));
+                }
+                result.add(new BulkUpsertData(listType.newValue(batch)));
+            }
+        }
+        return result;
+    }
+}
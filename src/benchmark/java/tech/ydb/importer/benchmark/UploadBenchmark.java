@@ -0,0 +1,186 @@
+package tech.ydb.importer.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.config.TargetConfig;
+import tech.ydb.importer.target.LatencyHistogram;
+import tech.ydb.importer.target.ProgressCounter;
+import tech.ydb.importer.target.TableCounters;
+import tech.ydb.importer.target.TargetCP;
+import tech.ydb.importer.target.UploadBatch;
+import tech.ydb.importer.target.UploadRetry;
+import tech.ydb.importer.target.WriterPool;
+import tech.ydb.importer.target.YdbUpsertOp;
+import tech.ydb.table.query.BulkUpsertData;
+
+/**
+ * Upload path benchmark against the in-process fake YDB server: pre-built
+ * batches are pushed through the WriterPool and YdbUpsertOp with the
+ * configured server latency and failure rates, and the sustained
+ * throughput, retries and upload latencies are reported.
+ */
+public class UploadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int batches = 2000;
+        int batchSize = 1000;
+        int writers = 4;
+        int queue = 16;
+        int tables = 1;
+        String mixArg = "NARROW_INT";
+        boolean arrow = false;
+        long latency = 5L;
+        long jitter = 5L;
+        double overload = 0D;
+        double unavail = 0D;
+        boolean verify = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batches":
+                    batches = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch-size":
+                    batchSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--writers":
+                    writers = Integer.parseInt(args[++i]);
+                    break;
+                case "--queue":
+                    queue = Integer.parseInt(args[++i]);
+                    break;
+                case "--tables":
+                    tables = Integer.parseInt(args[++i]);
+                    break;
+                case "--mix":
+                    mixArg = args[++i];
+                    break;
+                case "--mode":
+                    arrow = "ARROW".equalsIgnoreCase(args[++i]);
+                    break;
+                case "--latency-ms":
+                    latency = Long.parseLong(args[++i]);
+                    break;
+                case "--jitter-ms":
+                    jitter = Long.parseLong(args[++i]);
+                    break;
+                case "--overloaded":
+                    overload = Double.parseDouble(args[++i]);
+                    break;
+                case "--unavailable":
+                    unavail = Double.parseDouble(args[++i]);
+                    break;
+                case "--verify":
+                    verify = true;
+                    break;
+                case "--help":
+                case "-h":
+                    printHelp();
+                    return;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.err.println("Use --help for usage.");
+                    System.exit(1);
+            }
+        }
+
+        final ColumnMix mix = ColumnMix.valueOf(mixArg);
+        System.out.printf("=== Upload Benchmark ===%n");
+        System.out.printf("Batches:        %,d x %,d rows of %s, %s%n",
+                batches, batchSize, mix, arrow ? "ARROW" : "ROW");
+        System.out.printf("Writers:        %d, queue %d, tables %d%n", writers, queue, tables);
+        System.out.printf("Server:         %d+%d ms, %.1f%% OVERLOADED, %.1f%% UNAVAILABLE%n%n",
+                latency, jitter, overload * 100D, unavail * 100D);
+
+        final List<BulkUpsertData> payloads = SampleBatches.build(mix, arrow, batchSize, 16);
+
+        try (FakeYdbServer server = new FakeYdbServer(0)) {
+            server.setLatency(latency, jitter);
+            server.setFailures(overload, unavail);
+            server.setVerify(verify);
+            server.start();
+
+            final TargetConfig tc = new TargetConfig();
+            tc.setConnectionString(server.getConnectionString());
+            final ProgressCounter progress = new ProgressCounter();
+            try (TargetCP target = new TargetCP(tc, writers)) {
+                final WriterPool pool = new WriterPool(writers, queue, progress, null,
+                        new UploadRetry(tc.getUploadRetryAttempts(), tc.getUploadRetryBackoffMs(),
+                                tc.getUploadRetryMaxBackoffMs(), tc.getUploadRetryDeadlineMs()));
+                try {
+                    final List<TableDecision> tabs = new ArrayList<>(tables);
+                    final List<YdbUpsertOp> ops = new ArrayList<>(tables);
+                    for (int t = 0; t < tables; ++t) {
+                        final TableDecision tab = new TableDecision("bench", "upload_" + t, null);
+                        final TableCounters counters = progress.forTable(tab);
+                        tabs.add(tab);
+                        ops.add(new YdbUpsertOp(target.getRetryCtx(),
+                                target.getDatabase() + "/bench/upload_" + t,
+                                "Failed to upload", count -> progress.countWrittenRows(counters, count)));
+                    }
+
+                    final long started = System.nanoTime();
+                    for (int b = 0; b < batches; ++b) {
+                        final int t = b % tables;
+                        pool.submit(new UploadBatch(ops.get(t), payloads.get(b % payloads.size()),
+                                batchSize, null, tabs.get(t)));
+                    }
+                    final List<CompletableFuture<Void>> drained = new ArrayList<>(tables);
+                    for (TableDecision tab : tabs) {
+                        drained.add(pool.whenDrained(tab));
+                    }
+                    CompletableFuture.allOf(drained.toArray(new CompletableFuture<?>[0])).join();
+                    final long elapsed = System.nanoTime() - started;
+                    pool.shutdownAndWait();
+                    report(progress, server, tabs, elapsed);
+                } finally {
+                    pool.close();
+                }
+            }
+        }
+    }
+
+    private static void report(ProgressCounter progress, FakeYdbServer server,
+            List<TableDecision> tabs, long elapsedNanos) {
+        final double seconds = elapsedNanos / 1e9;
+        long written = 0L;
+        for (TableCounters tc : progress.getTables()) {
+            written += tc.getRowsWritten();
+        }
+        boolean failed = false;
+        for (TableDecision tab : tabs) {
+            failed |= tab.isFailure();
+        }
+        System.out.printf("=== Results ===%n");
+        System.out.printf("Rows written:   %,d in %.2f s, %,.0f rows/s%n", written, seconds, written / seconds);
+        System.out.printf("Payload:        %.1f MB/s%n", server.getBytes() / seconds / (1024D * 1024D));
+        System.out.printf("Upload:         %s%n", progress.getLatency(LatencyHistogram.Stage.UPLOAD).format());
+        System.out.printf("Queue wait:     %s%n", progress.getLatency(LatencyHistogram.Stage.QUEUE).format());
+        System.out.printf("Pool retries:   %,d%n", progress.getUploadRetries());
+        System.out.printf("Server:         %s%n", server.formatStats());
+        if (failed || server.getInvalid() > 0) {
+            System.err.println("Some batches failed to upload");
+            System.exit(1);
+        }
+    }
+
+    private static void printHelp() {
+        System.out.println("Usage: UploadBenchmark [options]");
+        System.out.println("  --batches N        number of batches to upload (default 2000)");
+        System.out.println("  --batch-size N     rows per batch (default 1000)");
+        System.out.println("  --writers N        writer threads (default 4)");
+        System.out.println("  --queue N          writer queue capacity (default 16)");
+        System.out.println("  --tables N         number of target tables (default 1)");
+        System.out.println("  --mix NAME         column mix: NARROW_INT, WIDE_TEXT, DECIMAL, TIMESTAMP,"
+                + " UUID_KEYS, NULLABLE");
+        System.out.println("  --mode ROW|ARROW   payload format (default ROW)");
+        System.out.println("  --latency-ms N     server latency per upload (default 5)");
+        System.out.println("  --jitter-ms N      maximum random latency added (default 5)");
+        System.out.println("  --overloaded R     share of uploads rejected with OVERLOADED (default 0)");
+        System.out.println("  --unavailable R    share of uploads rejected with UNAVAILABLE (default 0)");
+        System.out.println("  --verify           decode and check every payload on the server");
+    }
+}
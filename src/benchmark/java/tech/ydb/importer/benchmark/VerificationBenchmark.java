@@ -6,7 +6,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -23,7 +27,10 @@ import tech.ydb.importer.integration.verification.TableScenario;
 
 /**
  * Benchmark that loads scenarios, imports to YDB in selected modes,
- * verifies row-by-row, writes timings to bench-results/benchmark-N.json
+ * verifies row-by-row, writes timings to bench-results/benchmark-N.json.
+ * Batch, pool and fetch sizes accept comma-separated lists, and every
+ * combination of them is run for each mode. The results can be checked
+ * against a baseline file with {@link BenchmarkComparator}.
  */
 public class VerificationBenchmark {
 
@@ -32,14 +39,17 @@ public class VerificationBenchmark {
 
     public static void main(String[] args) throws Exception {
         int rows = 10_000;
-        int batchSize = 2000;
+        List<Integer> batchSizes = Collections.singletonList(2000);
         int genBatchSize = -1;
-        int poolSize = 4;
+        List<Integer> poolSizes = Collections.singletonList(4);
         int genPoolSize = 4;
-        int fetchSize = 10_000;
+        List<Integer> fetchSizes = Collections.singletonList(10_000);
         String sourcesArg = "postgres";
         String modesArg = "ROW+PART";
         boolean verify = true;
+        String csvFile = null;
+        String baselineFile = null;
+        double tolerance = BenchmarkComparator.DEFAULT_TOLERANCE;
 
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
@@ -47,19 +57,19 @@ public class VerificationBenchmark {
                     rows = Integer.parseInt(args[++i]);
                     break;
                 case "--batch-size":
-                    batchSize = Integer.parseInt(args[++i]);
+                    batchSizes = parseInts(args[++i]);
                     break;
                 case "--gen-batch-size":
                     genBatchSize = Integer.parseInt(args[++i]);
                     break;
                 case "--pool-size":
-                    poolSize = Integer.parseInt(args[++i]);
+                    poolSizes = parseInts(args[++i]);
                     break;
                 case "--gen-pool-size":
                     genPoolSize = Integer.parseInt(args[++i]);
                     break;
                 case "--fetch-size":
-                    fetchSize = Integer.parseInt(args[++i]);
+                    fetchSizes = parseInts(args[++i]);
                     break;
                 case "--sources":
                     sourcesArg = args[++i];
@@ -70,6 +80,15 @@ public class VerificationBenchmark {
                 case "--no-verify":
                     verify = false;
                     break;
+                case "--csv":
+                    csvFile = args[++i];
+                    break;
+                case "--baseline":
+                    baselineFile = args[++i];
+                    break;
+                case "--tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
                 case "--help":
                 case "-h":
                     printHelp();
@@ -93,36 +112,57 @@ public class VerificationBenchmark {
         System.out.printf("Sources:        %s%n", String.join(",", sources));
         System.out.printf("Modes:          %s%n", joinSelectedModes(selectedModes, allLabels));
         System.out.printf("Rows per table: %,d%n", rows);
-        System.out.printf("Batch size:     %,d%n", batchSize);
+        System.out.printf("Batch size:     %s%n", joinInts(batchSizes));
         System.out.printf("Gen batch:      %s%n",
                 genBatchSize > 0
                         ? String.format("%,d", genBatchSize)
                         : "per-dialect default");
-        System.out.printf("Pool size:      %d%n", poolSize);
+        System.out.printf("Pool size:      %s%n", joinInts(poolSizes));
         System.out.printf("Gen pool:       %d%n", genPoolSize);
-        System.out.printf("Fetch size:     %,d%n%n", fetchSize);
+        System.out.printf("Fetch size:     %s%n%n", joinInts(fetchSizes));
+
+        List<Settings> sweep = new ArrayList<>();
+        for (int batchSize : batchSizes) {
+            for (int poolSize : poolSizes) {
+                for (int fetchSize : fetchSizes) {
+                    sweep.add(new Settings(batchSize, poolSize, fetchSize));
+                }
+            }
+        }
 
         List<SourceRun> runs = new ArrayList<>();
         for (String name : sources) {
             runs.add(runSource(name, selectedModes, allLabels, allParts, allArrow, rows,
-                    batchSize, genBatchSize, poolSize, genPoolSize, fetchSize,
-                    verify));
+                    sweep, genBatchSize, genPoolSize, verify));
         }
 
         printRowCounts(runs);
         printOverallSummary(runs);
+        if (sweep.size() > 1) {
+            printBestSettings(runs);
+        }
         printFailures(runs);
-        writeJson(rows, batchSize, poolSize, fetchSize, runs);
+        Path out = writeJson(rows, batchSizes, poolSizes, fetchSizes, runs);
+        if (csvFile != null) {
+            writeCsv(Paths.get(csvFile), runs);
+        }
+
+        boolean regression = false;
+        if (baselineFile != null) {
+            System.out.printf("%n=== Baseline %s ===%n", baselineFile);
+            regression = !new BenchmarkComparator(tolerance)
+                    .compare(Paths.get(baselineFile), out, System.out);
+        }
 
-        if (anyError(runs)) {
+        if (anyError(runs) || regression) {
             System.exit(1);
         }
     }
 
     private static SourceRun runSource(String name, List<Integer> selectedModes,
             String[] allLabels, boolean[] allParts, boolean[] allArrow,
-            int rows, int batchSize, int genBatchSize, int poolSize,
-            int genPoolSize, int fetchSize, boolean verify) {
+            int rows, List<Settings> sweep, int genBatchSize,
+            int genPoolSize, boolean verify) {
         System.out.printf("=== Source: %s ===%n", name);
         SourceRun run = new SourceRun(name);
 
@@ -148,13 +188,15 @@ public class VerificationBenchmark {
                     run.totalRows, name);
 
             for (int idx : selectedModes) {
-                LocalYdbTestContainer ydb = new LocalYdbTestContainer();
-                ydb.start();
-                try {
-                    run.modes.add(runMode(allLabels[idx], allParts[idx], allArrow[idx], runner,
-                            ydb, batchSize, poolSize, fetchSize, verify));
-                } finally {
-                    ydb.stop();
+                for (Settings settings : sweep) {
+                    LocalYdbTestContainer ydb = new LocalYdbTestContainer();
+                    ydb.start();
+                    try {
+                        run.modes.add(runMode(allLabels[idx], allParts[idx], allArrow[idx], runner,
+                                ydb, settings, verify));
+                    } finally {
+                        ydb.stop();
+                    }
                 }
             }
         } catch (Exception e) {
@@ -191,14 +233,14 @@ public class VerificationBenchmark {
     }
 
     private static ModeResult runMode(String label, boolean usePartitions, boolean useArrow,
-            ScenarioRunner runner, LocalYdbTestContainer ydb, int batchSize,
-            int poolSize, int fetchSize, boolean verify) throws Exception {
+            ScenarioRunner runner, LocalYdbTestContainer ydb, Settings settings,
+            boolean verify) throws Exception {
 
-        System.out.printf("=== Import [%s] ===%n", label);
+        System.out.printf("=== Import [%s] %s ===%n", label, settings);
 
         long importStart = System.currentTimeMillis();
-        runner.runImport(ydb, batchSize, poolSize, fetchSize, usePartitions, useArrow,
-                TARGET_PREFIX);
+        runner.runImport(ydb, settings.batchSize, settings.poolSize, settings.fetchSize,
+                usePartitions, useArrow, TARGET_PREFIX);
         long importMs = System.currentTimeMillis() - importStart;
 
         long totalRows = runner.totalRows();
@@ -224,7 +266,7 @@ public class VerificationBenchmark {
         System.out.printf("Total [%s]:   %.1fs%n%n",
                 label, (importMs + verifyMs) / 1000.0);
 
-        return new ModeResult(label, importMs, verifyMs, failures);
+        return new ModeResult(label, settings, importMs, verifyMs, failures);
     }
 
     private static String shortMessage(Throwable t) {
@@ -245,18 +287,58 @@ public class VerificationBenchmark {
                 "",
                 "Options:",
                 "  --rows N              rows per table (default 10000)",
-                "  --batch-size N        YDB importer batch size (default 2000)",
+                "  --batch-size LIST     YDB importer batch sizes (default 2000)",
                 "  --gen-batch-size N    rows per source INSERT (default per-dialect)",
-                "  --pool-size N         importer worker pool size (default 4)",
+                "  --pool-size LIST      importer worker pool sizes (default 4)",
                 "  --gen-pool-size N     threads for source data loading (default 4)",
-                "  --fetch-size N        JDBC fetchSize (default 10000)",
+                "  --fetch-size LIST     JDBC fetch sizes (default 10000)",
                 "  --sources LIST        comma-separated from: postgres, mysql, oracle,",
                 "                        clickhouse, mariadb, vertica, hana, greenplum, db2",
                 "                        (default postgres)",
                 "  --modes LIST          comma-separated from: ROW, ROW+PART, ARROW, ARROW+PART",
                 "                        (default ROW+PART)",
                 "  --no-verify           skip verification step",
-                "  --help, -h            show this help"));
+                "  --csv FILE            also write the results as CSV",
+                "  --baseline FILE       compare the results with a stored result file,",
+                "                        exit with 1 on a regression",
+                "  --tolerance X         allowed throughput drop against the baseline",
+                "                        (default 0.10, that is 10%)",
+                "  --help, -h            show this help",
+                "",
+                "The LIST options take comma-separated values, and every combination",
+                "of them is run for each source and mode."));
+    }
+
+    private static List<Integer> parseInts(String values) {
+        List<Integer> result = new ArrayList<>();
+        for (String v : values.split(",")) {
+            v = v.trim();
+            if (v.isEmpty()) {
+                continue;
+            }
+            int x = Integer.parseInt(v);
+            if (x < 1) {
+                throw new IllegalArgumentException("Expected a positive value, got " + v);
+            }
+            if (!result.contains(x)) {
+                result.add(x);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Empty value list: " + values);
+        }
+        return result;
+    }
+
+    private static String joinInts(List<Integer> values) {
+        StringBuilder sb = new StringBuilder();
+        for (int v : values) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(v);
+        }
+        return sb.toString();
     }
 
     private static List<String> parseSources(String sources) {
@@ -382,18 +464,18 @@ public class VerificationBenchmark {
 
     private static void printOverallSummary(List<SourceRun> runs) {
         System.out.printf("=== Overall Summary ===%n");
-        System.out.printf("%-12s %-12s %10s %12s %10s %12s %10s %10s%n",
-                "Source", "Mode", "Import(s)", "Import r/s",
+        System.out.printf("%-12s %-12s %7s %5s %7s %10s %12s %10s %12s %10s %10s%n",
+                "Source", "Mode", "Batch", "Pool", "Fetch", "Import(s)", "Import r/s",
                 "Verify(s)", "Verify r/s", "Total(s)", "Result");
         for (SourceRun run : runs) {
             if (run.error != null) {
-                System.out.printf("%-12s %-12s %10s %12s %10s %12s %10s %10s%n",
-                        run.source, "-", "-", "-", "-", "-", "-", "ERROR");
+                System.out.printf("%-12s %-12s %7s %5s %7s %10s %12s %10s %12s %10s %10s%n",
+                        run.source, "-", "-", "-", "-", "-", "-", "-", "-", "-", "ERROR");
                 continue;
             }
             if (run.modes.isEmpty()) {
-                System.out.printf("%-12s %-12s %10s %12s %10s %12s %10s %10s%n",
-                        run.source, "-", "-", "-", "-", "-", "-", "no modes");
+                System.out.printf("%-12s %-12s %7s %5s %7s %10s %12s %10s %12s %10s %10s%n",
+                        run.source, "-", "-", "-", "-", "-", "-", "-", "-", "-", "no modes");
                 continue;
             }
             for (ModeResult r : run.modes) {
@@ -407,8 +489,9 @@ public class VerificationBenchmark {
                         : String.format("%12s", "-");
                 String result = r.failures.isEmpty()
                         ? "OK" : r.failures.size() + " fail";
-                System.out.printf("%-12s %-12s %10.1f %12s %s %s %10.1f %10s%n",
-                        run.source, r.label, impSec,
+                System.out.printf("%-12s %-12s %7d %5d %7d %10.1f %12s %s %s %10.1f %10s%n",
+                        run.source, r.label, r.settings.batchSize, r.settings.poolSize,
+                        r.settings.fetchSize, impSec,
                         rate(run.totalRows, r.importMs),
                         verSecStr, verRateStr,
                         impSec + verSec, result);
@@ -416,6 +499,33 @@ public class VerificationBenchmark {
         }
     }
 
+    /**
+     * Prints the fastest import settings of each source and mode,
+     * ignoring the combinations which failed verification.
+     */
+    private static void printBestSettings(List<SourceRun> runs) {
+        System.out.printf("%n=== Best settings ===%n");
+        System.out.printf("%-12s %-12s %7s %5s %7s %12s%n",
+                "Source", "Mode", "Batch", "Pool", "Fetch", "Import r/s");
+        for (SourceRun run : runs) {
+            Map<String, ModeResult> best = new LinkedHashMap<>();
+            for (ModeResult r : run.modes) {
+                if (!r.failures.isEmpty() || r.importMs <= 0) {
+                    continue;
+                }
+                ModeResult cur = best.get(r.label);
+                if (cur == null || r.importMs < cur.importMs) {
+                    best.put(r.label, r);
+                }
+            }
+            for (ModeResult r : best.values()) {
+                System.out.printf("%-12s %-12s %7d %5d %7d %12s%n",
+                        run.source, r.label, r.settings.batchSize, r.settings.poolSize,
+                        r.settings.fetchSize, rate(run.totalRows, r.importMs));
+            }
+        }
+    }
+
     private static void printFailures(List<SourceRun> runs) {
         boolean any = false;
         for (SourceRun run : runs) {
@@ -466,8 +576,8 @@ public class VerificationBenchmark {
         return false;
     }
 
-    private static void writeJson(int rows, int batchSize, int poolSize,
-            int fetchSize, List<SourceRun> runs) throws IOException {
+    private static Path writeJson(int rows, List<Integer> batchSizes, List<Integer> poolSizes,
+            List<Integer> fetchSizes, List<SourceRun> runs) throws IOException {
         Path dir = Paths.get("bench-results");
         Files.createDirectories(dir);
         int n = 1;
@@ -481,9 +591,9 @@ public class VerificationBenchmark {
         sb.append("{\n");
         sb.append("  \"params\": {\n");
         sb.append("    \"rows\": ").append(rows).append(",\n");
-        sb.append("    \"batchSize\": ").append(batchSize).append(",\n");
-        sb.append("    \"poolSize\": ").append(poolSize).append(",\n");
-        sb.append("    \"fetchSize\": ").append(fetchSize).append("\n");
+        sb.append("    \"batchSize\": ").append(jsonParam(batchSizes)).append(",\n");
+        sb.append("    \"poolSize\": ").append(jsonParam(poolSizes)).append(",\n");
+        sb.append("    \"fetchSize\": ").append(jsonParam(fetchSizes)).append("\n");
         sb.append("  },\n");
         sb.append("  \"runs\": [\n");
         for (int i = 0; i < runs.size(); i++) {
@@ -495,6 +605,48 @@ public class VerificationBenchmark {
 
         Files.write(out, sb.toString().getBytes(StandardCharsets.UTF_8));
         System.out.printf("%nResults written to %s%n", out);
+        return out;
+    }
+
+    /**
+     * A single value is written as a number, like before the sweep support,
+     * and a list of values as an array.
+     */
+    private static String jsonParam(List<Integer> values) {
+        if (values.size() == 1) {
+            return String.valueOf(values.get(0));
+        }
+        return "[" + joinInts(values) + "]";
+    }
+
+    private static void writeCsv(Path out, List<SourceRun> runs) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("source,mode,batchSize,poolSize,fetchSize,rows,importMs,importRowsPerSec,")
+                .append("verifyMs,failures\n");
+        for (SourceRun run : runs) {
+            for (ModeResult r : run.modes) {
+                sb.append(run.source).append(',')
+                        .append(r.label).append(',')
+                        .append(r.settings.batchSize).append(',')
+                        .append(r.settings.poolSize).append(',')
+                        .append(r.settings.fetchSize).append(',')
+                        .append(run.totalRows).append(',')
+                        .append(r.importMs).append(',')
+                        .append(String.format(Locale.ROOT, "%.1f", rowsPerSec(run.totalRows, r.importMs))).append(',')
+                        .append(r.verifyMs).append(',')
+                        .append(r.failures.size()).append('\n');
+            }
+        }
+        Path dir = out.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Files.write(out, sb.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.printf("CSV written to %s%n", out);
+    }
+
+    private static double rowsPerSec(long rows, long ms) {
+        return (ms <= 0) ? 0.0 : rows / (ms / 1000.0);
     }
 
     private static void appendRunJson(StringBuilder sb, SourceRun run) {
@@ -515,7 +667,7 @@ public class VerificationBenchmark {
         } else {
             sb.append("\n");
             for (int i = 0; i < run.modes.size(); i++) {
-                appendModeJson(sb, run.modes.get(i));
+                appendModeJson(sb, run.modes.get(i), run.totalRows);
                 sb.append(i < run.modes.size() - 1 ? ",\n" : "\n");
             }
             sb.append("      ]\n");
@@ -523,10 +675,15 @@ public class VerificationBenchmark {
         sb.append("    }");
     }
 
-    private static void appendModeJson(StringBuilder sb, ModeResult r) {
+    private static void appendModeJson(StringBuilder sb, ModeResult r, long totalRows) {
         sb.append("        {\n");
         sb.append("          \"label\": \"").append(jsonEscape(r.label)).append("\",\n");
+        sb.append("          \"batchSize\": ").append(r.settings.batchSize).append(",\n");
+        sb.append("          \"poolSize\": ").append(r.settings.poolSize).append(",\n");
+        sb.append("          \"fetchSize\": ").append(r.settings.fetchSize).append(",\n");
         sb.append("          \"importMs\": ").append(r.importMs).append(",\n");
+        sb.append("          \"importRowsPerSec\": ")
+                .append(String.format(Locale.ROOT, "%.1f", rowsPerSec(totalRows, r.importMs))).append(",\n");
         sb.append("          \"verifyMs\": ").append(r.verifyMs).append(",\n");
         sb.append("          \"failures\": [");
         if (r.failures.isEmpty()) {
@@ -566,15 +723,34 @@ public class VerificationBenchmark {
         return sb.toString();
     }
 
+    private static final class Settings {
+        final int batchSize;
+        final int poolSize;
+        final int fetchSize;
+
+        Settings(int batchSize, int poolSize, int fetchSize) {
+            this.batchSize = batchSize;
+            this.poolSize = poolSize;
+            this.fetchSize = fetchSize;
+        }
+
+        @Override
+        public String toString() {
+            return "batch=" + batchSize + " pool=" + poolSize + " fetch=" + fetchSize;
+        }
+    }
+
     private static final class ModeResult {
         final String label;
+        final Settings settings;
         final long importMs;
         final long verifyMs;
         final List<Failure> failures;
 
-        ModeResult(String label, long importMs, long verifyMs,
+        ModeResult(String label, Settings settings, long importMs, long verifyMs,
                    List<Failure> failures) {
             this.label = label;
+            this.settings = settings;
             this.importMs = importMs;
             this.verifyMs = verifyMs;
             this.failures = failures;
@@ -8,10 +8,12 @@ import java.util.function.Function;
 import tech.ydb.core.Issue;
 import tech.ydb.core.Result;
 import tech.ydb.core.Status;
+import tech.ydb.importer.target.TargetCP;
 import tech.ydb.importer.target.TargetTable;
 import tech.ydb.table.Session;
 import tech.ydb.table.SessionRetryContext;
 import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.settings.DescribeTableSettings;
 
 /**
  * This tasks checks for table existence, drops existing tables if desired, or grabs the existing
@@ -25,10 +27,18 @@ public class CreateTableTask implements Callable<CreateTableTask.Out> {
 
     private final YdbImporter owner;
     private final TargetTable table;
+    private final TargetListing listing;
+    private final DdlThrottle throttle;
 
     public CreateTableTask(YdbImporter owner, TargetTable table) {
+        this(owner, table, null, null);
+    }
+
+    CreateTableTask(YdbImporter owner, TargetTable table, TargetListing listing, DdlThrottle throttle) {
         this.owner = owner;
         this.table = table;
+        this.listing = listing;
+        this.throttle = throttle;
     }
 
     @Override
@@ -36,13 +46,23 @@ public class CreateTableTask implements Callable<CreateTableTask.Out> {
         try {
             final String fullName = owner.getTargetCP().getDatabase() + "/" + table.getFullName();
             LOG.debug("\tchecking full path: {}", fullName);
-            SessionRetryContext retryCtx = owner.getTargetCP().getRetryCtx();
-            Result<TableDescription> describeResult = retryCtx.supplyResult(
-                    session -> session.describeTable(fullName)
-            ).join();
-            final boolean tableExists = describeResult.isSuccess();
+            final boolean replace = owner.getConfig().getTarget().isReplaceExisting();
+            Boolean listed = (listing == null) ? null : listing.exists(fullName);
+            Result<TableDescription> describeResult = null;
+            if (listed == null || (listed && !replace)) {
+                // the structure of the existing table is needed, unless it is replaced
+                SessionRetryContext retryCtx = owner.getTargetCP().getRetryCtx();
+                // the shard key bounds let the readers group rows by the actual partitions
+                DescribeTableSettings settings = new DescribeTableSettings();
+                settings.setIncludeShardKeyBounds(true);
+                describeResult = retryCtx.supplyResult(
+                        session -> session.describeTable(fullName, settings)
+                ).join();
+            }
+            final boolean tableExists = (describeResult != null)
+                    ? describeResult.isSuccess() : listed;
             if (tableExists) {
-                if (!owner.getConfig().getTarget().isReplaceExisting()) {
+                if (!replace) {
                     LOG.info("Table already exists: {}", table.getFullName());
                     return new Out(table, describeResult.getValue());
                 }
@@ -65,17 +85,46 @@ public class CreateTableTask implements Callable<CreateTableTask.Out> {
         }
     }
 
-    private void runSchemaOperation(Function<Session, CompletableFuture<Status>> fn, String msg) {
+    private void runSchemaOperation(Function<Session, CompletableFuture<Status>> fn, String msg)
+            throws InterruptedException {
+        runSchemaOperation(owner.getTargetCP(), throttle, fn, msg);
+    }
+
+    /**
+     * Runs the schema operation, retrying it while the database reports overload.
+     *
+     * @param target Target database
+     * @param throttle Concurrency limit of schema operations, or null for none
+     * @param fn Schema operation
+     * @param msg Error message prefix
+     */
+    static void runSchemaOperation(TargetCP target, DdlThrottle throttle,
+            Function<Session, CompletableFuture<Status>> fn, String msg)
+            throws InterruptedException {
+        int attempt = 0;
         while (true) {
-            Status status = owner.getTargetCP().getRetryCtx().supplyStatus(fn).join();
+            Status status;
+            if (throttle != null) {
+                throttle.acquire();
+            }
+            boolean overloaded = false;
+            try {
+                status = target.getRetryCtx().supplyStatus(fn).join();
+                overloaded = !status.isSuccess() && canRetry(status);
+            } finally {
+                if (throttle != null) {
+                    throttle.release(overloaded);
+                }
+            }
             if (status.isSuccess()) {
                 return;
             }
-            if (canRetry(status)) {
+            if (overloaded) {
                 LOG.debug("\t Retry schema operation due to error {}", status);
-                try {
+                if (throttle != null) {
+                    Thread.sleep(DdlThrottle.backoff(attempt++));
+                } else {
                     Thread.sleep(ThreadLocalRandom.current().nextLong(1000L, 5000L));
-                } catch (InterruptedException ix) {
                 }
             } else {
                 status.expectSuccess(msg);
@@ -0,0 +1,83 @@
+package tech.ydb.importer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adaptive concurrency limit for the schema operations on the target database.
+ * The limit is halved on each "Request exceeded a limit" response, and grows
+ * by one after a full window of successful operations.
+ * Overloaded operations are retried after an exponential backoff with jitter.
+ */
+class DdlThrottle {
+
+    private static final long BACKOFF_BASE_MS = 250L;
+    private static final long BACKOFF_MAX_MS = 30000L;
+
+    private final int maxLimit;
+    private int limit;
+    private int running = 0;
+    private int successes = 0;
+    private long operations = 0L;
+    private long overloads = 0L;
+    private long firstStart = 0L;
+    private long lastFinish = 0L;
+
+    DdlThrottle(int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.limit = this.maxLimit;
+    }
+
+    /**
+     * Waits until the operation fits into the current concurrency limit.
+     */
+    synchronized void acquire() throws InterruptedException {
+        while (running >= limit) {
+            wait();
+        }
+        running++;
+        if (firstStart == 0L) {
+            firstStart = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Completes the operation.
+     *
+     * @param overloaded true if the database rejected the operation as overloaded
+     */
+    synchronized void release(boolean overloaded) {
+        running--;
+        lastFinish = System.currentTimeMillis();
+        if (overloaded) {
+            overloads++;
+            successes = 0;
+            limit = Math.max(1, limit / 2);
+        } else {
+            operations++;
+            if (++successes >= limit && limit < maxLimit) {
+                successes = 0;
+                limit++;
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * @param attempt Number of the retry, starting with 0
+     * @return Delay before the next retry of an overloaded operation
+     */
+    static long backoff(int attempt) {
+        long ms = BACKOFF_BASE_MS << Math.min(attempt, 16);
+        ms = Math.min(ms, BACKOFF_MAX_MS);
+        // full jitter over the upper half, to spread the retries of parallel workers
+        return ms / 2 + ThreadLocalRandom.current().nextLong(ms / 2 + 1);
+    }
+
+    synchronized String report() {
+        double seconds = Math.max(1L, lastFinish - firstStart) / 1000.0;
+        return String.format("%d schema operations in %.1f s (%.1f ops/s), "
+                + "%d overload retries, concurrency %d of %d",
+                operations, seconds, operations / seconds, overloads, limit, maxLimit);
+    }
+
+}
@@ -0,0 +1,193 @@
+package tech.ydb.importer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Weighted fair dispatcher of load tasks to the reader threads.
+ * At most one task per reader thread runs at a time, so that the queued
+ * tasks stay in the scheduler and can be reordered. The next task comes
+ * from the flow with the smallest virtual time, which grows by 1/weight
+ * per dispatched task, skipping the flows at their concurrency cap.
+ * With equal weights and no caps this is a plain round-robin over tables.
+ */
+class LoadScheduler {
+
+    private final ExecutorService executor;
+    private final int slots;
+    private final List<Flow> flows = new ArrayList<>();
+    private int running;
+    private int pending;
+    private int total;
+    private boolean started;
+    private boolean closed;
+    private double clock;
+    private Throwable failure;
+
+    LoadScheduler(ExecutorService executor, int slots) {
+        this.executor = executor;
+        this.slots = slots;
+    }
+
+    /**
+     * Registers the tasks of a single table, or of a bundle of tables.
+     * The tasks may be added both before and after the start.
+     *
+     * @param maxRunning Maximum number of concurrently running tasks, 0 for no limit
+     * @param weight Share of the reader threads relative to the other flows
+     * @param tasks Tasks to be run in the given order
+     */
+    synchronized void add(int maxRunning, int weight, List<? extends Callable<Boolean>> tasks) {
+        add(maxRunning, weight, tasks, null);
+    }
+
+    /**
+     * Registers the tasks of a single table, or of a bundle of tables,
+     * with an action to run once all of them have completed.
+     *
+     * @param maxRunning Maximum number of concurrently running tasks, 0 for no limit
+     * @param weight Share of the reader threads relative to the other flows
+     * @param tasks Tasks to be run in the given order
+     * @param onDone Completion action, run on the reader thread, or null
+     */
+    synchronized void add(int maxRunning, int weight, List<? extends Callable<Boolean>> tasks,
+            Runnable onDone) {
+        if (tasks.isEmpty()) {
+            if (onDone != null) {
+                onDone.run();
+            }
+            return;
+        }
+        Flow flow = new Flow(maxRunning, weight, tasks, onDone);
+        // a late flow starts at the current virtual time, to not take over the readers
+        flow.vtime = clock;
+        flows.add(flow);
+        pending += tasks.size();
+        total += tasks.size();
+        if (started) {
+            dispatch();
+        }
+    }
+
+    /**
+     * @return Total number of tasks added so far.
+     */
+    synchronized int getTotal() {
+        return total;
+    }
+
+    synchronized void start() {
+        started = true;
+        dispatch();
+    }
+
+    /**
+     * Marks that no more tasks will be added.
+     */
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Waits for all tasks to complete after the scheduler has been closed,
+     * or for the first task failure.
+     */
+    synchronized void await() throws Exception {
+        while (running > 0 || (failure == null && (pending > 0 || !closed))) {
+            wait();
+        }
+        if (failure instanceof Exception) {
+            throw (Exception) failure;
+        }
+        if (failure != null) {
+            throw new Exception("Load task failed", failure);
+        }
+    }
+
+    private void dispatch() {
+        while (failure == null && running < slots && pending > 0) {
+            Flow best = null;
+            for (Flow f : flows) {
+                if (f.tasks.isEmpty() || (f.maxRunning > 0 && f.running >= f.maxRunning)) {
+                    continue;
+                }
+                if (best == null || f.vtime < best.vtime) {
+                    best = f;
+                }
+            }
+            if (best == null) {
+                return;
+            }
+            final Flow flow = best;
+            final Callable<Boolean> task = flow.tasks.poll();
+            clock = flow.vtime;
+            flow.vtime += 1.0 / flow.weight;
+            flow.running++;
+            running++;
+            pending--;
+            executor.submit(() -> runTask(flow, task));
+        }
+    }
+
+    private void runTask(Flow flow, Callable<Boolean> task) {
+        Throwable error = null;
+        try {
+            task.call();
+        } catch (Throwable ex) {
+            error = ex;
+        }
+        boolean flowDone = false;
+        synchronized (this) {
+            if (error != null && failure == null) {
+                failure = error;
+            }
+            flow.running--;
+            if (flow.tasks.isEmpty() && flow.running == 0) {
+                flows.remove(flow);
+                flowDone = true;
+            }
+            if (!flowDone || flow.onDone == null) {
+                running--;
+                dispatch();
+                notifyAll();
+            }
+        }
+        if (flowDone && flow.onDone != null) {
+            // the slot is held until the completion action returns, so await() covers it
+            try {
+                flow.onDone.run();
+            } catch (Throwable ex) {
+                error = ex;
+            }
+            synchronized (this) {
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                running--;
+                dispatch();
+                notifyAll();
+            }
+        }
+    }
+
+    private static final class Flow {
+
+        private final int maxRunning;
+        private final int weight;
+        private final ArrayDeque<Callable<Boolean>> tasks;
+        private final Runnable onDone;
+        private int running;
+        private double vtime;
+
+        Flow(int maxRunning, int weight, List<? extends Callable<Boolean>> tasks, Runnable onDone) {
+            this.maxRunning = maxRunning;
+            this.weight = weight;
+            this.tasks = new ArrayDeque<>(tasks);
+            this.onDone = onDone;
+        }
+    }
+}
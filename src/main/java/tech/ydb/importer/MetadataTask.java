@@ -3,6 +3,8 @@ package tech.ydb.importer;
 import java.sql.Connection;
 import java.util.concurrent.Callable;
 
+import tech.ydb.importer.source.AnyTableLister;
+import tech.ydb.importer.source.MetadataCache;
 import tech.ydb.importer.source.TableMetadata;
 
 /**
@@ -26,7 +28,12 @@ public class MetadataTask implements Callable<MetadataTask.Out> {
     public Out call() throws Exception {
         try (Connection con = owner.getSourceCP().getConnection()) {
             con.setAutoCommit(true);
-            TableMetadata tm = owner.getTableLister().readMetadata(con, td);
+            TableMetadata tm = readMetadata(con);
+            if (owner.getConfig().getWorkers().isBundleSmallTables()
+                    && tm.getTasks().size() == 1) {
+                // only single-task tables are candidates for bundling
+                tm.setRowCount(owner.getTableLister().estimateRowCount(con, td));
+            }
             return new Out(td, tm);
         } catch (Throwable ex) {
             LOG.error("Metadata retrieval failure for table {}.{}",
@@ -35,6 +42,30 @@ public class MetadataTask implements Callable<MetadataTask.Out> {
         return new Out(td, null);
     }
 
+    private TableMetadata readMetadata(Connection con) throws Exception {
+        final AnyTableLister lister = owner.getTableLister();
+        final MetadataCache cache = owner.getMetadataCache();
+        if (cache == null) {
+            return lister.readMetadata(con, td);
+        }
+        // the trusted cache is used without checking the source table
+        String fingerprint = cache.isTrusted() ? null : lister.fingerprint(con, td);
+        TableMetadata tm = cache.get(td, fingerprint);
+        if (tm != null) {
+            LOG.info("Table {}.{}: cached plan with {} read tasks",
+                    td.getSchema(), td.getTable(), tm.getTasks().size());
+            return tm;
+        }
+        if (cache.isTrusted()) {
+            fingerprint = lister.fingerprint(con, td);
+        }
+        tm = lister.readMetadata(con, td);
+        if (fingerprint != null && tm.isValid()) {
+            cache.put(td, fingerprint, tm);
+        }
+        return tm;
+    }
+
     public static final class Out {
 
         private final TableDecision td;
@@ -0,0 +1,66 @@
+package tech.ydb.importer;
+
+import tech.ydb.importer.target.TargetTable;
+
+/**
+ * Runs the post-load statements of the target table, like the deferred
+ * secondary index creation, once all of the table data has been written.
+ * For the failed table, only the statements restoring its regular settings are run.
+ */
+class PostLoadTask implements Runnable {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(PostLoadTask.class);
+
+    private final YdbImporter owner;
+    private final TargetTable table;
+    private final DdlThrottle throttle;
+
+    PostLoadTask(YdbImporter owner, TargetTable table, DdlThrottle throttle) {
+        this.owner = owner;
+        this.table = table;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void run() {
+        for (String yql : table.getRestoreScript()) {
+            if (!execute(yql)) {
+                return;
+            }
+        }
+        if (table.getOriginal().isFailure()) {
+            if (!table.getPostLoadScript().isEmpty()) {
+                LOG.warn("Skipping post-load statements of failed table {}", table.getFullName());
+            }
+            return;
+        }
+        for (String yql : table.getPostLoadScript()) {
+            if (!execute(yql)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return false if interrupted, true otherwise
+     */
+    private boolean execute(String yql) {
+        long tv = System.currentTimeMillis();
+        try {
+            LOG.debug("\tpost-load for {}: {}", table.getFullName(), yql);
+            CreateTableTask.runSchemaOperation(owner.getTargetCP(), throttle,
+                    session -> session.executeSchemeQuery(yql),
+                    "post-load statement problem");
+            LOG.info("Post-load statement on {} completed in {} ms",
+                    table.getFullName(), System.currentTimeMillis() - tv);
+        } catch (InterruptedException ix) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Throwable ex) {
+            // the data is in place, so the table is not marked as failed
+            LOG.error("Post-load statement failed on {}: {}", table.getFullName(), yql, ex);
+        }
+        return true;
+    }
+
+}
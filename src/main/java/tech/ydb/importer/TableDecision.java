@@ -102,6 +102,61 @@ public class TableDecision implements TableIdentity {
         return (fromOptions != null) ? fromOptions : true;
     }
 
+    /**
+     * @return Maximum number of concurrently running read tasks, 0 for no limit.
+     */
+    public int maxReadTasks() {
+        if (tableRef != null && tableRef.getMaxReadTasks() != null) {
+            return tableRef.getMaxReadTasks();
+        }
+        Integer fromOptions = (options != null) ? options.getMaxReadTasks() : null;
+        return (fromOptions != null) ? fromOptions : 0;
+    }
+
+    /**
+     * @return Maximum number of queued or running upload batches, 0 for no limit.
+     */
+    public int maxUploadBatches() {
+        if (tableRef != null && tableRef.getMaxUploadBatches() != null) {
+            return tableRef.getMaxUploadBatches();
+        }
+        Integer fromOptions = (options != null) ? options.getMaxUploadBatches() : null;
+        return (fromOptions != null) ? fromOptions : 0;
+    }
+
+    /**
+     * @return Scheduling weight of the table relative to the other tables.
+     */
+    public int weight() {
+        if (tableRef != null && tableRef.getWeight() != null) {
+            return tableRef.getWeight();
+        }
+        Integer fromOptions = (options != null) ? options.getWeight() : null;
+        return (fromOptions != null) ? fromOptions : 1;
+    }
+
+    /**
+     * @return true to create the source secondary indexes after the data load.
+     */
+    public boolean deferredIndexes() {
+        if (tableRef != null && tableRef.getDeferredIndexes() != null) {
+            return tableRef.getDeferredIndexes();
+        }
+        Boolean fromOptions = (options != null) ? options.getDeferredIndexes() : null;
+        return (fromOptions != null) ? fromOptions : false;
+    }
+
+    /**
+     * @return true to create the target table with load-based auto partitioning disabled until its data is loaded.
+     */
+    public boolean bulkLoadProfile() {
+        if (tableRef != null && tableRef.getBulkLoadProfile() != null) {
+            return tableRef.getBulkLoadProfile();
+        }
+        Boolean fromOptions = (options != null) ? options.getBulkLoadProfile() : null;
+        return (fromOptions != null) ? fromOptions : false;
+    }
+
     public TableMetadata getMetadata() {
         return metadata;
     }
@@ -0,0 +1,84 @@
+package tech.ydb.importer;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import tech.ydb.core.Result;
+import tech.ydb.core.StatusCode;
+import tech.ydb.proto.scheme.SchemeOperationProtos;
+import tech.ydb.scheme.SchemeClient;
+import tech.ydb.scheme.description.ListDirectoryResult;
+
+/**
+ * Existing tables of the target database, found by listing each target directory
+ * once instead of describing every target table.
+ */
+class TargetListing {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(TargetListing.class);
+
+    private final SchemeClient client;
+    // directory path -> names of the tables in it, or null when the listing failed
+    private final Map<String, CompletableFuture<Set<String>>> directories = new ConcurrentHashMap<>();
+
+    TargetListing(SchemeClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param fullPath Full path of the table
+     * @return TRUE if the table exists, FALSE if it does not,
+     *     or null if the directory could not be listed.
+     */
+    Boolean exists(String fullPath) {
+        int pos = fullPath.lastIndexOf('/');
+        if (pos <= 0) {
+            return null;
+        }
+        String dir = fullPath.substring(0, pos);
+        Set<String> tables = directories.computeIfAbsent(dir, this::list).join();
+        if (tables == null) {
+            return null;
+        }
+        return tables.contains(fullPath.substring(pos + 1));
+    }
+
+    /**
+     * @return Number of directories listed so far.
+     */
+    int getDirectoryCount() {
+        return directories.size();
+    }
+
+    private CompletableFuture<Set<String>> list(String dir) {
+        return client.listDirectory(dir).thenApply(r -> toTables(dir, r));
+    }
+
+    private static Set<String> toTables(String dir, Result<ListDirectoryResult> result) {
+        if (!result.isSuccess()) {
+            if (result.getStatus().getCode() == StatusCode.SCHEME_ERROR) {
+                // the directory does not exist yet
+                return new HashSet<>();
+            }
+            LOG.debug("Cannot list directory {}: {}", dir, result.getStatus());
+            return null;
+        }
+        Set<String> tables = new HashSet<>();
+        for (SchemeOperationProtos.Entry e : result.getValue().getChildren()) {
+            switch (e.getType()) {
+                case TABLE:
+                case COLUMN_TABLE:
+                    tables.add(e.getName());
+                    break;
+                default:
+                    break;
+            }
+        }
+        LOG.debug("Listed directory {}: {} tables", dir, tables.size());
+        return tables;
+    }
+
+}
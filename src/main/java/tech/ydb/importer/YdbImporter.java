@@ -1,46 +1,62 @@
 package tech.ydb.importer;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.BiConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tech.ydb.importer.config.ImporterConfig;
 import tech.ydb.importer.config.JdomHelper;
+import tech.ydb.importer.config.TargetConfig;
 import tech.ydb.importer.source.AnyTableLister;
+import tech.ydb.importer.source.MetadataCache;
 import tech.ydb.importer.source.SourceCP;
 import tech.ydb.importer.source.TableMapList;
 import tech.ydb.importer.source.TaskInfo;
+import tech.ydb.importer.target.BufferBudget;
+import tech.ydb.importer.target.BundleLoadTask;
+import tech.ydb.importer.target.DeadLetterFile;
+import tech.ydb.importer.target.GenerateDataTask;
 import tech.ydb.importer.target.LoadDataTask;
+import tech.ydb.importer.target.MetricsEndpoint;
 import tech.ydb.importer.target.ProgressCounter;
+import tech.ydb.importer.target.RowRateLimiter;
+import tech.ydb.importer.target.RunReport;
 import tech.ydb.importer.target.TargetCP;
 import tech.ydb.importer.target.TargetTable;
+import tech.ydb.importer.target.UploadRetry;
 import tech.ydb.importer.target.WriterPool;
 import tech.ydb.importer.target.YdbTableBuilder;
+import tech.ydb.table.description.KeyRange;
 import tech.ydb.table.description.TableColumn;
 import tech.ydb.table.description.TableDescription;
 import tech.ydb.table.values.StructType;
 import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
 
 /**
  * YDB Importer main application logic and entry point.
@@ -54,8 +70,12 @@ public class YdbImporter {
     private final ImporterConfig config;
     private final TableMapList tableMaps;
     private SourceCP sourceCP = null;
-    private TargetCP targetCP = null;
+    private volatile TargetCP targetCP = null;
     private AnyTableLister tableLister = null;
+    private MetadataCache metadataCache = null;
+    private ExecutorService prefetchWorkers = null;
+    private ExecutorService convertWorkers = null;
+    private BufferBudget bufferBudget = null;
 
     public YdbImporter(ImporterConfig config) {
         this.config = config;
@@ -82,6 +102,36 @@ public class YdbImporter {
         return tableLister;
     }
 
+    /**
+     * @return Cache of the table metadata and read plans, or null when not configured.
+     */
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * @return Executor opening the next source queries ahead of time,
+     *     or null when query prefetch is disabled.
+     */
+    public ExecutorService getPrefetchWorkers() {
+        return prefetchWorkers;
+    }
+
+    /**
+     * @return Executor running the conversion stage of pipelined reader tasks,
+     *     or null when the pipelined mode is disabled.
+     */
+    public ExecutorService getConvertWorkers() {
+        return convertWorkers;
+    }
+
+    /**
+     * @return Memory limit of the partition buffers, or null when not limited.
+     */
+    public BufferBudget getBufferBudget() {
+        return bufferBudget;
+    }
+
     public void run() throws Exception {
         String jdbcClassName = config.getSource().getClassName();
         if (!JdomHelper.isBlank(jdbcClassName)) {
@@ -90,13 +140,17 @@ public class YdbImporter {
         }
         LOG.info("Connecting to the source database {}",
                 config.getSource().getJdbcUrl());
-        sourceCP = new SourceCP(config.getSource(), config.getWorkers().getReaderPoolSize());
+        sourceCP = new SourceCP(config.getSource(), sourcePoolSize());
+        // the target connection gets established while the source tables are listed
+        final CompletableFuture<TargetCP> targetReady = connectTarget();
         try {
             final List<TableDecision> tables = new ArrayList<>();
             try (Connection con = sourceCP.getConnection()) {
                 con.setAutoCommit(true);
                 LOG.info("Initializing the table lister...");
                 tableLister = AnyTableLister.getInstance(tableMaps, con);
+                tableLister.setBulkCatalog(config.getSource().isBulkMetadata());
+                metadataCache = openMetadataCache();
                 LOG.info("Retrieving table list...");
                 for (TableDecision nd : tableLister.selectTables(con)) {
                     tables.add(nd);
@@ -104,34 +158,23 @@ public class YdbImporter {
             }
             LOG.info("\ttotal {} tables to be processed", tables.size());
             LOG.info("Starting async workers...");
+            final ExecutorService metadataWorkers = Executors.newFixedThreadPool(
+                    config.getWorkers().getMetadataPoolSize(), new HelperFactory("metadata"));
+            final ExecutorService ddlWorkers = Executors.newFixedThreadPool(
+                    config.getWorkers().getDdlPoolSize(), new HelperFactory("ddl"));
+            final ExecutorService hookWorkers = Executors.newSingleThreadExecutor(new HelperFactory("hooks"));
             final ExecutorService workers = makeWorkers();
             try {
-                LOG.info("Retrieving table metadata...");
-                retrieveSourceMetadata(tables, workers);
-                LOG.info("\ttotal {} tables with metadata", tables.size());
-                if (!tables.isEmpty()) {
-                    // Save the table creation scripts to file
-                    dumpTableScripts(tables);
-                    if (config.hasTarget()) {
-                        LOG.info("Connecting to the target database {}",
-                                config.getTarget().getConnectionString());
-                        targetCP = new TargetCP(config.getTarget(), config.getWorkers().getWriterPoolSize());
-                        // Drop/Create/Read metadata from target
-                        createMissingTables(workers, tables);
-                        // Load data if necessary
-                        if (config.getTarget().isLoadData()) {
-                            invokeBeforeReadHooks(tables);
-                            try {
-                                loadTableData(workers, tables);
-                            } finally {
-                                invokeAfterReadHooks(tables);
-                            }
-                        }
-                    }
-                }
+                processTables(tables, targetReady, metadataWorkers, ddlWorkers, hookWorkers, workers);
                 LOG.info("Shutting down workers...");
                 workers.shutdown();
             } finally {
+                if (metadataCache != null) {
+                    metadataCache.save();
+                }
+                metadataWorkers.shutdownNow();
+                ddlWorkers.shutdownNow();
+                hookWorkers.shutdownNow();
                 if (!workers.isShutdown()) {
                     List<Runnable> pending = workers.shutdownNow();
                     if (pending != null && !pending.isEmpty()) {
@@ -144,100 +187,127 @@ public class YdbImporter {
                 LOG.info("Closing source connection pool...");
                 sourceCP.close();
             }
-            if (targetCP != null) {
-                LOG.info("Closing target connection pool...");
-                targetCP.close();
-            }
+            closeTarget(targetReady);
         }
     }
 
-    private ExecutorService makeWorkers() {
-        return Executors.newFixedThreadPool(config.getWorkers().getReaderPoolSize(), new WorkerFactory());
+    private MetadataCache openMetadataCache() {
+        String fileName = config.getSource().getMetadataCacheFile();
+        if (JdomHelper.isBlank(fileName)) {
+            return null;
+        }
+        MetadataCache cache = new MetadataCache(new File(fileName),
+                config.getSource().getJdbcUrl(), config.getPlanSignature(),
+                config.getSource().isMetadataCacheTrusted());
+        cache.load();
+        return cache;
     }
 
-    private void retrieveSourceMetadata(List<TableDecision> tables, ExecutorService workers)
-            throws Exception {
-        List<Future<MetadataTask.Out>> metadatas = new ArrayList<>(tables.size());
-        for (TableDecision td : tables) {
-            metadatas.add(workers.submit(new MetadataTask(this, td)));
-        }
-        tables.clear();
-        for (Future<MetadataTask.Out> outf : metadatas) {
-            MetadataTask.Out out = outf.get();
-            if (out.isSuccess()) {
-                // proceed only with tables which had no failures
-                out.getTd().setMetadata(out.getTm());
-                new YdbTableBuilder(out.getTd()).build();
-                if (out.getTd().getTarget() != null) {
-                    tables.add(out.getTd());
-                } else {
-                    // Mark the failed table, as we failed to convert it.
-                    out.getTd().setFailure(true);
-                }
-            } else {
-                // Mark the failed table, as no metadata was obtained.
-                out.getTd().setFailure(true);
-            }
+    private int sourcePoolSize() {
+        int readers = config.getWorkers().getReaderPoolSize();
+        if (config.getSource().isPrefetchQueries()) {
+            // each reader may hold one more connection for the query opened ahead
+            readers *= 2;
         }
+        // metadata retrieval and read hooks run alongside the readers
+        return readers + config.getWorkers().getMetadataPoolSize() + 1;
     }
 
-    private void dumpTableScripts(List<TableDecision> tables) throws Exception {
-        if (config.getTarget() == null || config.getTarget().getScript() == null) {
-            return;
+    private CompletableFuture<TargetCP> connectTarget() {
+        if (config.isDiscardTarget()) {
+            LOG.info("Discarding the data instead of writing it, no target tables will be created");
         }
-        String fileName = config.getTarget().getScript().getFileName();
-        try (OutputStreamWriter osw = new OutputStreamWriter(
-                new FileOutputStream(fileName), StandardCharsets.UTF_8)) {
-            try (BufferedWriter writer = new BufferedWriter(osw)) {
-                for (TableDecision td : tables) {
-                    if (td.isFailure()) {
-                        continue;
-                    }
-                    for (TargetTable blobTable : td.getBlobTargets().values()) {
-                        YdbTableBuilder.appendTo(writer, blobTable);
-                    }
-                    for (TargetTable clobTable : td.getClobTargets().values()) {
-                        YdbTableBuilder.appendTo(writer, clobTable);
-                    }
-                    YdbTableBuilder.appendTo(writer, td.getTarget());
-                }
-            }
+        if (!config.hasTarget()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        LOG.info("Connecting to the target database {}",
+                config.getTarget().getConnectionString());
+        ExecutorService connector = Executors.newSingleThreadExecutor(new HelperFactory("connect"));
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                targetCP = new TargetCP(config.getTarget(), config.getWorkers().getWriterPoolSize());
+                return targetCP;
+            }, connector);
+        } finally {
+            connector.shutdown();
         }
-        LOG.info("YDB DDL saved to {}", fileName);
     }
 
-    private void createMissingTables(ExecutorService es, List<TableDecision> tables)
-            throws Exception {
-        if (config.getTarget() == null) {
+    private void closeTarget(CompletableFuture<TargetCP> targetReady) {
+        TargetCP cp;
+        try {
+            cp = targetReady.join();
+        } catch (CompletionException | CancellationException ex) {
+            // the connection failure has already been reported
             return;
         }
-        LOG.info("Target tables creation started.");
-        final List<Future<CreateTableTask.Out>> results = new ArrayList<>();
-        for (TableDecision td : tables) {
-            if (td.isFailure()) {
-                continue;
-            }
-            for (TargetTable yt : td.getBlobTargets().values()) {
-                results.add(es.submit(new CreateTableTask(this, yt)));
+        if (cp != null) {
+            LOG.info("Closing target connection pool...");
+            cp.close();
+        }
+    }
+
+    private ExecutorService makeWorkers() {
+        return Executors.newFixedThreadPool(config.getWorkers().getReaderPoolSize(), new WorkerFactory());
+    }
+
+    /**
+     * Moves every table through its own chain of phases: metadata retrieval and
+     * conversion, target table creation, the read hook and the data load.
+     * Each phase has its own executor, so the data of the first tables
+     * is loaded while the other tables are still being described or created.
+     */
+    private void processTables(List<TableDecision> tables, CompletableFuture<TargetCP> targetReady,
+            ExecutorService metadataWorkers, ExecutorService ddlWorkers,
+            ExecutorService hookWorkers, ExecutorService workers) throws Exception {
+        final boolean loadData = config.isDiscardTarget()
+                || (config.hasTarget() && (config.getTarget().isLoadData() || config.getTarget().isGenerateData()));
+        final DdlThrottle ddlThrottle = new DdlThrottle(config.getWorkers().getDdlPoolSize());
+        try (ScriptFile script = ScriptFile.open(config, tables);
+                LoadPhase load = loadData ? new LoadPhase(workers, ddlWorkers, ddlThrottle) : null) {
+            final TablePhases phases = new TablePhases(targetReady, metadataWorkers,
+                    ddlWorkers, hookWorkers, ddlThrottle, script, load);
+            LOG.info("Retrieving table metadata...");
+            final List<CompletableFuture<Void>> flows = new ArrayList<>(tables.size());
+            for (TableDecision td : tables) {
+                flows.add(phases.start(td));
             }
-            for (TargetTable yt : td.getClobTargets().values()) {
-                results.add(es.submit(new CreateTableTask(this, yt)));
+            try {
+                awaitAll(flows);
+                LOG.info("\ttotal {} tables with metadata", phases.getDescribed().size());
+                if (config.hasTarget()) {
+                    LOG.info("Target tables creation completed {} of {}.",
+                            phases.createSuccess.get(), phases.createTotal.get());
+                    LOG.info("\tDDL: {}", phases.ddlReport());
+                }
+                if (load != null) {
+                    load.finish(phases.getDescribed());
+                }
+            } finally {
+                if (load != null && !isGenerateData()) {
+                    invokeAfterReadHooks(phases.getDescribed());
+                }
             }
-            results.add(es.submit(new CreateTableTask(this, td.getTarget())));
         }
-        int successCount = 0;
-        for (Future<CreateTableTask.Out> rf : results) {
-            CreateTableTask.Out r = rf.get();
-            if (r.isSuccess()) {
-                ++successCount;
-                if (r.getExistingTable() != null) {
-                    adjustTargetStructure(r.getTable(), r.getExistingTable());
-                }
-            } else {
-                r.getTable().getOriginal().setFailure(true);
+    }
+
+    /**
+     * @return true if the target tables get generated rows instead of the source data
+     */
+    private boolean isGenerateData() {
+        return config.hasTarget() && config.getTarget().isGenerateData();
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> flows) throws Exception {
+        try {
+            CompletableFuture.allOf(flows.toArray(new CompletableFuture<?>[0])).get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
+            throw ex;
         }
-        LOG.info("Target tables creation completed {} of {}.", successCount, results.size());
     }
 
     private void adjustTargetStructure(TargetTable table, TableDescription desc) {
@@ -250,113 +320,512 @@ public class YdbImporter {
             }
         }
         table.setFields(StructType.of(fields));
-    }
-
-    private void invokeBeforeReadHooks(List<TableDecision> tables) throws SQLException {
-        runReadHooks(tables, true, (con, td) -> {
-            try {
-                tableLister.beforeTableRead(con, td);
-            } catch (SQLException ex) {
-                LOG.warn("beforeTableRead failed for table {}.{}",
-                        td.getSchema(), td.getTable(), ex);
-                td.setFailure(true);
+        if (desc.getKeyRanges() != null && desc.getKeyRanges().size() > 1) {
+            final List<Value<?>> bounds = new ArrayList<>();
+            for (KeyRange kr : desc.getKeyRanges()) {
+                kr.getTo().ifPresent(kb -> bounds.add(kb.getValue()));
             }
-        });
+            table.setPartitionBounds(bounds);
+        }
     }
 
     private void invokeAfterReadHooks(List<TableDecision> tables) throws SQLException {
-        runReadHooks(tables, false, (con, td) -> {
-            try {
-                tableLister.afterTableRead(con, td);
-            } catch (SQLException ex) {
-                LOG.warn("afterTableRead failed for table {}.{}",
-                        td.getSchema(), td.getTable(), ex);
-            }
-        });
-    }
-
-    private void runReadHooks(List<TableDecision> tables, boolean skipFailed,
-            BiConsumer<Connection, TableDecision> action) throws SQLException {
         try (Connection con = sourceCP.getConnection()) {
             con.setAutoCommit(true);
             for (TableDecision td : tables) {
-                if (skipFailed && td.isFailure()) {
-                    continue;
+                try {
+                    tableLister.afterTableRead(con, td);
+                } catch (SQLException ex) {
+                    LOG.warn("afterTableRead failed for table {}.{}",
+                            td.getSchema(), td.getTable(), ex);
                 }
-                action.accept(con, td);
             }
         }
     }
 
-    private void loadTableData(ExecutorService es, List<TableDecision> tables) throws Exception {
-        if (config.getTarget() == null) {
-            return;
+    private boolean isSmallTable(TableDecision td) {
+        if (!config.getWorkers().isBundleSmallTables()) {
+            return false;
         }
-        int writerPoolSize = config.getWorkers().getWriterPoolSize();
-        int bufferCount = config.getWorkers().getBufferCount();
-        try (ProgressCounter progress = new ProgressCounter()) {
-            progress.start();
+        long rowCount = td.getMetadata().getRowCount();
+        // BLOB and CLOB identifiers depend on the per-table task layout
+        return rowCount >= 0L
+                && rowCount < config.getWorkers().getSmallTableRows()
+                && td.getMetadata().getTasks().size() == 1
+                && td.getBlobTargets().isEmpty()
+                && td.getClobTargets().isEmpty();
+    }
 
-            WriterPool writerPool = new WriterPool(writerPoolSize, bufferCount, progress);
-            try {
-                final List<Future<Boolean>> results = new ArrayList<>();
-                submitLoadTasks(es, tables, progress, writerPool, results);
-                if (results.isEmpty()) {
-                    LOG.info("No valid tables to be loaded, nothing to do.");
-                    return;
+    /**
+     * Chain of phases of a single table, each phase running on its own executor.
+     */
+    private final class TablePhases {
+
+        private final CompletableFuture<TargetCP> targetReady;
+        private final ExecutorService metadataWorkers;
+        private final ExecutorService ddlWorkers;
+        private final ExecutorService hookWorkers;
+        private final ScriptFile script;
+        private final LoadPhase load;
+        private final List<TableDecision> described = new ArrayList<>();
+        private final AtomicInteger createTotal = new AtomicInteger();
+        private final AtomicInteger createSuccess = new AtomicInteger();
+        private final DdlThrottle ddlThrottle;
+        private TargetListing listing = null;
+
+        TablePhases(CompletableFuture<TargetCP> targetReady, ExecutorService metadataWorkers,
+                ExecutorService ddlWorkers, ExecutorService hookWorkers, DdlThrottle ddlThrottle,
+                ScriptFile script, LoadPhase load) {
+            this.targetReady = targetReady;
+            this.metadataWorkers = metadataWorkers;
+            this.ddlWorkers = ddlWorkers;
+            this.hookWorkers = hookWorkers;
+            this.ddlThrottle = ddlThrottle;
+            this.script = script;
+            this.load = load;
+        }
+
+        CompletableFuture<Void> start(TableDecision td) {
+            CompletableFuture<TableDecision> ready = CompletableFuture
+                    .supplyAsync(() -> describe(td), metadataWorkers);
+            if (!config.hasTarget()) {
+                if (load == null) {
+                    return ready.thenAccept(t -> { });
                 }
-                for (Future<Boolean> rf : results) {
-                    rf.get();
+                // no target tables to create when the data gets discarded
+                return ready.thenAcceptAsync(t -> {
+                    if (t != null) {
+                        load.submit(t);
+                    }
+                }, hookWorkers);
+            }
+            CompletableFuture<TableDecision> created = ready
+                    .thenCombine(targetReady, (t, cp) -> t)
+                    .thenCompose(this::create);
+            if (load == null) {
+                return created.thenAccept(t -> { });
+            }
+            return created.thenAcceptAsync(t -> {
+                if (t != null) {
+                    load.submit(t);
                 }
+            }, hookWorkers);
+        }
 
-                writerPool.shutdownAndWait();
-                int failed = 0;
-                for (TableDecision td : tables) {
-                    if (td.isFailure()) {
-                        ++failed;
+        synchronized List<TableDecision> getDescribed() {
+            return new ArrayList<>(described);
+        }
+
+        /**
+         * @return The table with metadata and target definition, or null on failure.
+         */
+        private TableDecision describe(TableDecision td) {
+            MetadataTask.Out out;
+            try {
+                out = new MetadataTask(YdbImporter.this, td).call();
+            } catch (Exception ex) {
+                out = new MetadataTask.Out(td, null);
+            }
+            if (!out.isSuccess()) {
+                // Mark the failed table, as no metadata was obtained.
+                td.setFailure(true);
+                return null;
+            }
+            td.setMetadata(out.getTm());
+            // without a load here, the tables get created in their final form
+            new YdbTableBuilder(td, load != null || !config.hasTarget()).build();
+            if (td.getTarget() == null) {
+                // Mark the failed table, as we failed to convert it.
+                td.setFailure(true);
+                return null;
+            }
+            synchronized (this) {
+                described.add(td);
+            }
+            script.append(td);
+            return td;
+        }
+
+        /**
+         * Drops, creates or reads the structure of the target tables of a single source table.
+         */
+        private CompletableFuture<TableDecision> create(TableDecision td) {
+            if (td == null || td.isFailure()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final List<CompletableFuture<CreateTableTask.Out>> parts = new ArrayList<>();
+            for (TargetTable yt : td.getBlobTargets().values()) {
+                parts.add(CompletableFuture.supplyAsync(() -> createTable(yt), ddlWorkers));
+            }
+            for (TargetTable yt : td.getClobTargets().values()) {
+                parts.add(CompletableFuture.supplyAsync(() -> createTable(yt), ddlWorkers));
+            }
+            parts.add(CompletableFuture.supplyAsync(() -> createTable(td.getTarget()), ddlWorkers));
+            return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(x -> {
+                for (CompletableFuture<CreateTableTask.Out> part : parts) {
+                    CreateTableTask.Out r = part.join();
+                    createTotal.incrementAndGet();
+                    if (r.isSuccess()) {
+                        createSuccess.incrementAndGet();
+                        if (r.getExistingTable() != null) {
+                            adjustTargetStructure(r.getTable(), r.getExistingTable());
+                            // the existing table is left as is, including its indexes
+                            r.getTable().clearPostLoadScript();
+                        }
+                    } else {
+                        r.getTable().getOriginal().setFailure(true);
                     }
                 }
-                LOG.info("Table data load completed {} of {} tables.",
-                        tables.size() - failed, tables.size());
-            } finally {
-                writerPool.close();
+                if (td.isFailure() && parts.get(parts.size() - 1).join().isSuccess()) {
+                    // the main table is not loaded, but still gets its regular settings back
+                    new PostLoadTask(YdbImporter.this, td.getTarget(), ddlThrottle).run();
+                }
+                return td.isFailure() ? null : td;
+            });
+        }
+
+        private synchronized TargetListing getListing() {
+            if (listing == null) {
+                listing = new TargetListing(targetCP.getSchemeClient());
+            }
+            return listing;
+        }
+
+        private String ddlReport() {
+            int dirs;
+            synchronized (this) {
+                dirs = (listing == null) ? 0 : listing.getDirectoryCount();
+            }
+            return ddlThrottle.report() + ", " + dirs + " directories listed";
+        }
+
+        private CreateTableTask.Out createTable(TargetTable yt) {
+            try {
+                return new CreateTableTask(YdbImporter.this, yt, getListing(), ddlThrottle).call();
+            } catch (Exception ex) {
+                return new CreateTableTask.Out(yt, false);
             }
         }
     }
 
     /**
-     * Submits one task for each partition, or one task for a table without partitions.
-     * Tasks are picked from each table in round-robin order.
+     * Data load state shared by all tables: writers, progress and the reader scheduler.
+     * Tables are scheduled for loading one by one, as soon as their targets are ready.
      */
-    private void submitLoadTasks(ExecutorService es, List<TableDecision> tables,
-            ProgressCounter progress, WriterPool writerPool, List<Future<Boolean>> results) {
-        ArrayDeque<Iterator<LoadDataTask>> queue = new ArrayDeque<>();
-        for (TableDecision td : tables) {
-            if (td.isFailure()) {
-                continue;
+    private final class LoadPhase implements AutoCloseable {
+
+        private final ProgressCounter progress;
+        private final WriterPool writerPool;
+        private final LoadScheduler scheduler;
+        private final ExecutorService ddlWorkers;
+        private final DdlThrottle ddlThrottle;
+        private final DeadLetterFile deadLetter;
+        private final MetricsEndpoint metrics;
+        private final RowRateLimiter limiter;
+        private final List<LoadDataTask> small = new ArrayList<>();
+        private final List<TableDecision> smallTables = new ArrayList<>();
+        private final List<CompletableFuture<Void>> postLoads = new ArrayList<>();
+        private int bundleCount = 0;
+
+        LoadPhase(ExecutorService es, ExecutorService ddlWorkers, DdlThrottle ddlThrottle)
+                throws IOException {
+            this.ddlWorkers = ddlWorkers;
+            this.ddlThrottle = ddlThrottle;
+            final String deadLetterFile = config.getTarget().getDeadLetterFile();
+            this.deadLetter = (deadLetterFile == null || config.isDiscardTarget()) ? null
+                    : new DeadLetterFile(deadLetterFile, config.getTarget().getDeadLetterMaxRows());
+            if (deadLetter != null && config.getWorkers().isUseArrow()) {
+                LOG.warn("Apache Arrow batches cannot be split, rejected rows fail the table "
+                        + "instead of going to {}", deadLetterFile);
+            }
+            if (config.getSource().isPrefetchQueries()) {
+                prefetchWorkers = Executors.newFixedThreadPool(
+                        config.getWorkers().getReaderPoolSize(), new HelperFactory("prefetch"));
+            }
+            if (config.getWorkers().isPipelined()) {
+                // every running reader task gets its own set of conversion threads
+                convertWorkers = Executors.newFixedThreadPool(
+                        config.getWorkers().getReaderPoolSize() * config.getWorkers().getConvertThreads(),
+                        new HelperFactory("convert"));
+            }
+            if (config.getWorkers().getPartitionBufferBytes() > 0L) {
+                bufferBudget = new BufferBudget(config.getWorkers().getPartitionBufferBytes());
+            }
+            this.progress = new ProgressCounter();
+            this.progress.start();
+            final TargetConfig tc = config.getTarget();
+            // the discarded batches never reach the writer threads
+            this.writerPool = new WriterPool(config.isDiscardTarget() ? 1 : config.getWorkers().getWriterPoolSize(),
+                    config.getWorkers().getBufferCount(), progress, deadLetter,
+                    new UploadRetry(tc.getUploadRetryAttempts(), tc.getUploadRetryBackoffMs(),
+                            tc.getUploadRetryMaxBackoffMs(), tc.getUploadRetryDeadlineMs()));
+            this.metrics = openMetrics();
+            this.limiter = (isGenerateData() && tc.getGenerateRate() > 0L)
+                    ? new RowRateLimiter(tc.getGenerateRate()) : null;
+            this.scheduler = new LoadScheduler(es, config.getWorkers().getReaderPoolSize());
+            this.scheduler.start();
+        }
+
+        private MetricsEndpoint openMetrics() {
+            final int port = config.getWorkers().getMetricsPort();
+            if (port == 0) {
+                return null;
+            }
+            try {
+                return new MetricsEndpoint(config.getWorkers().getMetricsHost(), port,
+                        progress, writerPool, config.getWorkers().getReaderPoolSize());
+            } catch (IOException ex) {
+                // the metrics are optional, the load goes on without them
+                LOG.warn("Cannot start the metrics endpoint on port {}", port, ex);
+                return null;
+            }
+        }
+
+        /**
+         * Runs the read hook of the table, then submits one task for each partition,
+         * or one task for a table without partitions. Tasks are picked from each table
+         * by the scheduler, according to the table weights and concurrency caps.
+         * With small table bundling enabled, single-task tables below the row count
+         * threshold are grouped into shared tasks.
+         */
+        void submit(TableDecision td) {
+            if (isGenerateData()) {
+                submitGenerated(td);
+                return;
+            }
+            try (Connection con = sourceCP.getConnection()) {
+                con.setAutoCommit(true);
+                tableLister.beforeTableRead(con, td);
+            } catch (SQLException ex) {
+                LOG.warn("beforeTableRead failed for table {}.{}",
+                        td.getSchema(), td.getTable(), ex);
+                td.setFailure(true);
+                return;
             }
             List<TaskInfo> taskInfos = td.getMetadata().getTasks();
             for (int i = 0; i < taskInfos.size(); i++) {
                 taskInfos.get(i).setIndex(i);
             }
+            if (isSmallTable(td)) {
+                small.add(new LoadDataTask(YdbImporter.this, progress, td, taskInfos.get(0), writerPool));
+                smallTables.add(td);
+                if (small.size() >= config.getWorkers().getSmallTablesPerTask()) {
+                    flushSmall();
+                }
+                return;
+            }
             LOG.info("Table {}.{}: submitting {} task{}",
                     td.getSchema(), td.getTable(), taskInfos.size(),
                     taskInfos.size() == 1 ? "" : "s");
             List<LoadDataTask> tasks = new ArrayList<>(taskInfos.size());
             for (TaskInfo ti : taskInfos) {
-                tasks.add(new LoadDataTask(this, progress, td, ti, writerPool));
+                tasks.add(new LoadDataTask(YdbImporter.this, progress, td, ti, writerPool));
+            }
+            scheduler.add(td.maxReadTasks(), td.weight(), tasks,
+                    afterLoad(Collections.singletonList(td)));
+        }
+
+        /**
+         * Submits the tasks uploading the generated rows to the target table,
+         * without any source reads.
+         */
+        private void submitGenerated(TableDecision td) {
+            List<GenerateDataTask> tasks = GenerateDataTask.forTable(YdbImporter.this,
+                    progress, td, writerPool, limiter);
+            LOG.info("Table {}.{}: submitting {} generator task{}",
+                    td.getSchema(), td.getTable(), tasks.size(), tasks.size() == 1 ? "" : "s");
+            scheduler.add(td.maxReadTasks(), td.weight(), tasks,
+                    afterLoad(Collections.singletonList(td)));
+        }
+
+        /**
+         * @return Action scheduling the post-load statements of the tables
+         *     for the moment their last batches get written.
+         */
+        private Runnable afterLoad(List<TableDecision> tables) {
+            final List<TableDecision> copy = new ArrayList<>(tables);
+            if (config.isDiscardTarget()) {
+                return () -> { };
             }
-            queue.add(tasks.iterator());
+            return () -> {
+                for (TableDecision td : copy) {
+                    // the failed tables still get their regular settings back
+                    if (td.getTarget().getRestoreScript().isEmpty()
+                            && (td.isFailure() || td.getTarget().getPostLoadScript().isEmpty())) {
+                        continue;
+                    }
+                    PostLoadTask task = new PostLoadTask(YdbImporter.this, td.getTarget(), ddlThrottle);
+                    CompletableFuture<Void> f = writerPool.whenDrained(td).thenRunAsync(task, ddlWorkers);
+                    synchronized (postLoads) {
+                        postLoads.add(f);
+                    }
+                }
+            };
         }
-        while (!queue.isEmpty()) {
-            Iterator<LoadDataTask> it = queue.poll();
-            results.add(es.submit(it.next()));
-            if (it.hasNext()) {
-                queue.add(it);
+
+        private void flushSmall() {
+            if (small.isEmpty()) {
+                return;
+            }
+            scheduler.add(0, 1, Collections.singletonList(
+                    new BundleLoadTask(sourceCP, tableLister.defaultAutoCommit(), small)),
+                    afterLoad(smallTables));
+            small.clear();
+            smallTables.clear();
+            bundleCount++;
+        }
+
+        /**
+         * Waits for all scheduled tasks and for the writers to complete.
+         */
+        void finish(List<TableDecision> tables) throws Exception {
+            // all the tables have passed the hooks thread by now
+            flushSmall();
+            if (bundleCount > 0) {
+                LOG.info("Small tables bundled into {} task{}", bundleCount, bundleCount == 1 ? "" : "s");
+            }
+            scheduler.close();
+            if (scheduler.getTotal() == 0) {
+                LOG.info("No valid tables to be loaded, nothing to do.");
+                return;
+            }
+            scheduler.await();
+
+            writerPool.shutdownAndWait();
+            final List<CompletableFuture<Void>> pending;
+            synchronized (postLoads) {
+                pending = new ArrayList<>(postLoads);
+            }
+            if (!pending.isEmpty()) {
+                LOG.info("Waiting for the post-load statements of {} tables...", pending.size());
+                awaitAll(pending);
+            }
+            int failed = 0;
+            for (TableDecision td : tables) {
+                if (td.isFailure()) {
+                    ++failed;
+                }
+            }
+            LOG.info("Table data load completed {} of {} tables.",
+                    tables.size() - failed, tables.size());
+            if (config.isDiscardTarget()) {
+                progress.logReadReport();
+            } else if (isGenerateData()) {
+                progress.logWriteReport();
+            }
+            final String reportFile = config.getWorkers().getReportFile();
+            if (reportFile != null) {
+                new RunReport(progress, config.getWorkers().getReaderPoolSize(),
+                        writerPool.getWriterCount()).write(reportFile, tables);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (metrics != null) {
+                    metrics.close();
+                }
+                writerPool.close();
+                progress.close();
+                if (deadLetter != null) {
+                    deadLetter.close();
+                }
+                if (bufferBudget != null) {
+                    LOG.info("Partition buffers peak memory {} MB of {} MB",
+                            bufferBudget.getPeak() >> 20, bufferBudget.getLimit() >> 20);
+                }
+            } finally {
+                if (prefetchWorkers != null) {
+                    prefetchWorkers.shutdownNow();
+                    prefetchWorkers = null;
+                }
+                if (convertWorkers != null) {
+                    convertWorkers.shutdownNow();
+                    convertWorkers = null;
+                }
+                bufferBudget = null;
             }
         }
     }
 
+    /**
+     * YDB DDL script file. The statements are collected table by table as the
+     * tables get converted, and written in the order of the table list on close,
+     * so that the script does not depend on the conversion timing.
+     */
+    private static final class ScriptFile implements AutoCloseable {
+
+        private final String fileName;
+        private final List<TableDecision> tables;
+        private final Map<TableDecision, String> ddl = new IdentityHashMap<>();
+        private final Map<TableDecision, String> postLoad = new IdentityHashMap<>();
+
+        private ScriptFile(String fileName, List<TableDecision> tables) {
+            this.fileName = fileName;
+            this.tables = tables;
+        }
+
+        static ScriptFile open(ImporterConfig config, List<TableDecision> tables) {
+            if (config.getTarget() == null || config.getTarget().getScript() == null) {
+                return new ScriptFile(null, tables);
+            }
+            return new ScriptFile(config.getTarget().getScript().getFileName(), tables);
+        }
+
+        void append(TableDecision td) {
+            if (fileName == null || td.isFailure()) {
+                return;
+            }
+            final StringWriter text = new StringWriter();
+            final StringBuilder yqlAfter = new StringBuilder();
+            try (BufferedWriter writer = new BufferedWriter(text)) {
+                for (TargetTable blobTable : td.getBlobTargets().values()) {
+                    YdbTableBuilder.appendTo(writer, blobTable);
+                }
+                for (TargetTable clobTable : td.getClobTargets().values()) {
+                    YdbTableBuilder.appendTo(writer, clobTable);
+                }
+                YdbTableBuilder.appendTo(writer, td.getTarget());
+                for (String yql : td.getTarget().getRestoreScript()) {
+                    yqlAfter.append(yql);
+                }
+                for (String yql : td.getTarget().getPostLoadScript()) {
+                    yqlAfter.append(yql);
+                }
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+            synchronized (this) {
+                ddl.put(td, text.toString());
+                postLoad.put(td, yqlAfter.toString());
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (fileName == null) {
+                return;
+            }
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(fileName), StandardCharsets.UTF_8))) {
+                final StringBuilder after = new StringBuilder();
+                for (TableDecision td : tables) {
+                    String text = ddl.get(td);
+                    if (text != null) {
+                        writer.append(text);
+                        after.append(postLoad.get(td));
+                    }
+                }
+                if (after.length() > 0) {
+                    writer.append("-- To be executed after the data load").append(YdbTableBuilder.EOL);
+                    writer.append(after);
+                }
+            }
+            LOG.info("YDB DDL saved to {}", fileName);
+        }
+    }
+
     public static void main(String[] args) {
         LOG.info("{} version {}", YdbImporter.class.getSimpleName(), getVersion());
         if (args.length != 1) {
@@ -407,4 +876,21 @@ public class YdbImporter {
         }
     }
 
+    public static final class HelperFactory implements ThreadFactory {
+
+        private final String kind;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public HelperFactory(String kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread t = new Thread(r, "YdbImporter-" + kind + "-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
 }
@@ -1,11 +1,17 @@
 package tech.ydb.importer.config;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.jdom2.Element;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 
 /**
  * Importer configuration includes the worker settings, source and target settings, and table
@@ -23,6 +29,7 @@ public class ImporterConfig extends tech.ydb.importer.config.JdomHelper {
     private final List<TableMap> tableMaps = new ArrayList<>();
     private final List<TableRef> tableRefs = new ArrayList<>();
     private final Map<String, TableOptions> optionsMap = new HashMap<>();
+    private String planSignature = "";
 
     public ImporterConfig() {
         this.workers = new WorkerConfig();
@@ -44,6 +51,28 @@ public class ImporterConfig extends tech.ydb.importer.config.JdomHelper {
         for (Element ctr : getChildren(c, "table-ref")) {
             tableRefs.add(new TableRef(ctr, this.optionsMap));
         }
+        this.planSignature = computePlanSignature(c);
+    }
+
+    /**
+     * Digest of the table selection and table option settings, which define
+     * the read and partitioning plans of the tables.
+     */
+    private static String computePlanSignature(Element c) {
+        final XMLOutputter xo = new XMLOutputter(Format.getCompactFormat());
+        final StringBuilder sb = new StringBuilder();
+        for (String name : new String[]{"table-options", "table-map", "table-ref"}) {
+            for (Element el : c.getChildren(name)) {
+                sb.append(xo.outputString(el)).append('\n');
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
     public WorkerConfig getWorkers() {
@@ -82,6 +111,14 @@ public class ImporterConfig extends tech.ydb.importer.config.JdomHelper {
         return optionsMap;
     }
 
+    public String getPlanSignature() {
+        return planSignature;
+    }
+
+    public void setPlanSignature(String planSignature) {
+        this.planSignature = planSignature;
+    }
+
     public boolean validate() {
         boolean retval = true;
         if (source == null) {
@@ -100,7 +137,7 @@ public class ImporterConfig extends tech.ydb.importer.config.JdomHelper {
     }
 
     public boolean hasTarget() {
-        if (target == null) {
+        if (target == null || target.isDiscard()) {
             return false;
         }
         if (isBlank(target.getConnectionString())) {
@@ -108,4 +145,12 @@ public class ImporterConfig extends tech.ydb.importer.config.JdomHelper {
         }
         return true;
     }
+
+    /**
+     * @return true for the source-only runs, which build the batches
+     *     and drop them instead of writing to the target database
+     */
+    public boolean isDiscardTarget() {
+        return target != null && target.isDiscard();
+    }
 }
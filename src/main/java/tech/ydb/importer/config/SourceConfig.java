@@ -21,6 +21,10 @@ public class SourceConfig extends JdomHelper {
     private String password;
     private int fetchSize = 10000;
     private int retryCount = 10;
+    private boolean prefetchQueries = false;
+    private boolean bulkMetadata = false;
+    private String metadataCacheFile;
+    private boolean metadataCacheTrusted = false;
 
     public SourceConfig() {
     }
@@ -49,6 +53,19 @@ public class SourceConfig extends JdomHelper {
                 }
                 this.retryCount = rc;
             }
+            Element prefetchEl = getOneChild(c, "prefetch-queries");
+            if (prefetchEl != null) {
+                this.prefetchQueries = parseBoolean(prefetchEl, null, getText(prefetchEl));
+            }
+            Element bulkEl = getOneChild(c, "bulk-metadata");
+            if (bulkEl != null) {
+                this.bulkMetadata = parseBoolean(bulkEl, null, getText(bulkEl));
+            }
+            Element cacheEl = getOneChild(c, "metadata-cache");
+            if (cacheEl != null) {
+                this.metadataCacheFile = getAttr(cacheEl, "file");
+                this.metadataCacheTrusted = getBoolean(cacheEl, "trust", false);
+            }
         }
     }
 
@@ -108,4 +125,36 @@ public class SourceConfig extends JdomHelper {
         this.retryCount = retryCount;
     }
 
+    public boolean isPrefetchQueries() {
+        return prefetchQueries;
+    }
+
+    public void setPrefetchQueries(boolean prefetchQueries) {
+        this.prefetchQueries = prefetchQueries;
+    }
+
+    public boolean isBulkMetadata() {
+        return bulkMetadata;
+    }
+
+    public void setBulkMetadata(boolean bulkMetadata) {
+        this.bulkMetadata = bulkMetadata;
+    }
+
+    public String getMetadataCacheFile() {
+        return metadataCacheFile;
+    }
+
+    public void setMetadataCacheFile(String metadataCacheFile) {
+        this.metadataCacheFile = metadataCacheFile;
+    }
+
+    public boolean isMetadataCacheTrusted() {
+        return metadataCacheTrusted;
+    }
+
+    public void setMetadataCacheTrusted(boolean metadataCacheTrusted) {
+        this.metadataCacheTrusted = metadataCacheTrusted;
+    }
+
 }
@@ -18,4 +18,5 @@ public enum SourceType {
     VERTICA,
     HANA,
     GREENPLUM,
+    SYNTHETIC,
 }
@@ -21,6 +21,11 @@ public class TableOptions extends JdomHelper {
     private Boolean useSourcePartitions;
     private Integer ydbPartitionCount;
     private Boolean partitionBuffers;
+    private Integer maxReadTasks;
+    private Integer maxUploadBatches;
+    private Integer weight;
+    private Boolean bulkLoadProfile;
+    private Boolean deferredIndexes;
 
     public TableOptions(String name, String template) {
         this.name = name;
@@ -69,6 +74,11 @@ public class TableOptions extends JdomHelper {
         this.useSourcePartitions = TableRef.parseOptionalBoolean(c, "use-source-partitions");
         this.ydbPartitionCount = TableRef.parseAutoableCount(c, "ydb-partition-count", true);
         this.partitionBuffers = TableRef.parseOptionalBoolean(c, "use-partition-buffers");
+        this.maxReadTasks = TableRef.parseOptionalPositive(c, "max-read-tasks");
+        this.maxUploadBatches = TableRef.parseOptionalPositive(c, "max-upload-batches");
+        this.weight = TableRef.parseOptionalPositive(c, "weight");
+        this.bulkLoadProfile = TableRef.parseOptionalBoolean(c, "bulk-load-profile");
+        this.deferredIndexes = TableRef.parseOptionalBoolean(c, "deferred-indexes");
     }
 
     public String getName() {
@@ -163,6 +173,46 @@ public class TableOptions extends JdomHelper {
         this.partitionBuffers = partitionBuffers;
     }
 
+    public Integer getMaxReadTasks() {
+        return maxReadTasks;
+    }
+
+    public void setMaxReadTasks(Integer maxReadTasks) {
+        this.maxReadTasks = maxReadTasks;
+    }
+
+    public Integer getMaxUploadBatches() {
+        return maxUploadBatches;
+    }
+
+    public void setMaxUploadBatches(Integer maxUploadBatches) {
+        this.maxUploadBatches = maxUploadBatches;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
+    public Boolean getBulkLoadProfile() {
+        return bulkLoadProfile;
+    }
+
+    public void setBulkLoadProfile(Boolean bulkLoadProfile) {
+        this.bulkLoadProfile = bulkLoadProfile;
+    }
+
+    public Boolean getDeferredIndexes() {
+        return deferredIndexes;
+    }
+
+    public void setDeferredIndexes(Boolean deferredIndexes) {
+        this.deferredIndexes = deferredIndexes;
+    }
+
     /**
      * The store type to be used by the target tables.
      */
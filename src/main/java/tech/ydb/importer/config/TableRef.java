@@ -32,6 +32,11 @@ public class TableRef extends JdomHelper implements TableIdentity {
     private String ydbPartitionTo;
     private Boolean useSourcePartitions;
     private Boolean partitionBuffers;
+    private Integer maxReadTasks;
+    private Integer maxUploadBatches;
+    private Integer weight;
+    private Boolean bulkLoadProfile;
+    private Boolean deferredIndexes;
 
     public TableRef() {
     }
@@ -72,6 +77,11 @@ public class TableRef extends JdomHelper implements TableIdentity {
         validateYdbPartition(c);
         this.useSourcePartitions = parseOptionalBoolean(c, "use-source-partitions");
         this.partitionBuffers = parseOptionalBoolean(c, "use-partition-buffers");
+        this.maxReadTasks = parseOptionalPositive(c, "max-read-tasks");
+        this.maxUploadBatches = parseOptionalPositive(c, "max-upload-batches");
+        this.weight = parseOptionalPositive(c, "weight");
+        this.bulkLoadProfile = parseOptionalBoolean(c, "bulk-load-profile");
+        this.deferredIndexes = parseOptionalBoolean(c, "deferred-indexes");
     }
 
     static Boolean parseOptionalBoolean(Element c, String name) {
@@ -82,6 +92,24 @@ public class TableRef extends JdomHelper implements TableIdentity {
         return parseBoolean(el, null, getText(el));
     }
 
+    static Integer parseOptionalPositive(Element c, String name) {
+        Element el = getOneChild(c, name);
+        if (el == null) {
+            return null;
+        }
+        String text = getText(el);
+        int n;
+        try {
+            n = Integer.parseInt(text.trim());
+        } catch (NumberFormatException ex) {
+            throw raiseIllegal(c, name, text);
+        }
+        if (n < 1) {
+            throw raise(c, name + " must be a positive integer");
+        }
+        return n;
+    }
+
     private static String parseAutoableText(Element c, String name) {
         String value = getText(c, name, null);
         if (value == null) {
@@ -269,4 +297,44 @@ public class TableRef extends JdomHelper implements TableIdentity {
         this.partitionBuffers = partitionBuffers;
     }
 
+    public Integer getMaxReadTasks() {
+        return maxReadTasks;
+    }
+
+    public void setMaxReadTasks(Integer maxReadTasks) {
+        this.maxReadTasks = maxReadTasks;
+    }
+
+    public Integer getMaxUploadBatches() {
+        return maxUploadBatches;
+    }
+
+    public void setMaxUploadBatches(Integer maxUploadBatches) {
+        this.maxUploadBatches = maxUploadBatches;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
+    public Boolean getBulkLoadProfile() {
+        return bulkLoadProfile;
+    }
+
+    public void setBulkLoadProfile(Boolean bulkLoadProfile) {
+        this.bulkLoadProfile = bulkLoadProfile;
+    }
+
+    public Boolean getDeferredIndexes() {
+        return deferredIndexes;
+    }
+
+    public void setDeferredIndexes(Boolean deferredIndexes) {
+        this.deferredIndexes = deferredIndexes;
+    }
+
 }
@@ -27,6 +27,14 @@ public class TargetConfig extends tech.ydb.importer.config.JdomHelper {
     private boolean loadData;
     private int maxBatchRows;
     private int maxBlobRows;
+    private String deadLetterFile;
+    private long deadLetterMaxRows;
+    private int uploadRetryAttempts;
+    private long uploadRetryBackoffMs;
+    private long uploadRetryMaxBackoffMs;
+    private long uploadRetryDeadlineMs;
+    private long generateRows;
+    private long generateRate;
 
     public TargetConfig() {
         this.type = TargetType.YDB;
@@ -35,6 +43,10 @@ public class TargetConfig extends tech.ydb.importer.config.JdomHelper {
         this.loadData = false;
         this.maxBatchRows = 100;
         this.maxBlobRows = 100;
+        this.uploadRetryAttempts = 10;
+        this.uploadRetryBackoffMs = 500L;
+        this.uploadRetryMaxBackoffMs = 30000L;
+        this.uploadRetryDeadlineMs = 600000L;
     }
 
     public TargetConfig(Element c) {
@@ -44,6 +56,10 @@ public class TargetConfig extends tech.ydb.importer.config.JdomHelper {
         this.loadData = false;
         this.maxBatchRows = 100;
         this.maxBlobRows = 100;
+        this.uploadRetryAttempts = 10;
+        this.uploadRetryBackoffMs = 500L;
+        this.uploadRetryMaxBackoffMs = 30000L;
+        this.uploadRetryDeadlineMs = 600000L;
         if (c != null) {
             this.type = TargetType.valueOf(
                     getAttr(c, "type", "ydb").toUpperCase());
@@ -84,6 +100,44 @@ public class TargetConfig extends tech.ydb.importer.config.JdomHelper {
                     throw raiseIllegal(elx, null, String.valueOf(this.maxBatchRows));
                 }
             }
+            elx = getOneChild(c, "dead-letter");
+            if (elx != null) {
+                this.deadLetterFile = getAttr(elx, "file");
+                this.deadLetterMaxRows = getLong(elx, "max-rows", 1000L);
+                if (this.deadLetterMaxRows < 0L) {
+                    throw raiseIllegal(elx, "max-rows");
+                }
+            }
+            elx = getOneChild(c, "upload-retry");
+            if (elx != null) {
+                this.uploadRetryAttempts = getInt(elx, "attempts", this.uploadRetryAttempts);
+                if (this.uploadRetryAttempts < 1) {
+                    throw raiseIllegal(elx, "attempts");
+                }
+                this.uploadRetryBackoffMs = getLong(elx, "backoff-ms", this.uploadRetryBackoffMs);
+                if (this.uploadRetryBackoffMs < 0L) {
+                    throw raiseIllegal(elx, "backoff-ms");
+                }
+                this.uploadRetryMaxBackoffMs = getLong(elx, "max-backoff-ms", this.uploadRetryMaxBackoffMs);
+                if (this.uploadRetryMaxBackoffMs < this.uploadRetryBackoffMs) {
+                    throw raiseIllegal(elx, "max-backoff-ms");
+                }
+                this.uploadRetryDeadlineMs = getLong(elx, "deadline-ms", this.uploadRetryDeadlineMs);
+                if (this.uploadRetryDeadlineMs < 0L) {
+                    throw raiseIllegal(elx, "deadline-ms");
+                }
+            }
+            elx = getOneChild(c, "generate-data");
+            if (elx != null) {
+                this.generateRows = getLong(elx, "rows", 1000000L);
+                if (this.generateRows < 1L) {
+                    throw raiseIllegal(elx, "rows");
+                }
+                this.generateRate = getLong(elx, "rate", 0L);
+                if (this.generateRate < 0L) {
+                    throw raiseIllegal(elx, "rate");
+                }
+            }
             elx = getOneChild(c, "max-blob-rows");
             if (elx != null) {
                 this.maxBlobRows = getInt(elx);
@@ -102,6 +156,13 @@ public class TargetConfig extends tech.ydb.importer.config.JdomHelper {
         this.type = type;
     }
 
+    /**
+     * @return true if the batches are dropped instead of being written
+     */
+    public boolean isDiscard() {
+        return type == TargetType.DISCARD;
+    }
+
     public YdbAuthMode getAuthMode() {
         return authMode;
     }
@@ -190,4 +251,94 @@ public class TargetConfig extends tech.ydb.importer.config.JdomHelper {
         this.maxBlobRows = maxBlobRows;
     }
 
+    /**
+     * @return File for the rows rejected by the target database,
+     *     or null to fail the table on the first rejected batch.
+     */
+    public String getDeadLetterFile() {
+        return deadLetterFile;
+    }
+
+    public void setDeadLetterFile(String deadLetterFile) {
+        this.deadLetterFile = deadLetterFile;
+    }
+
+    /**
+     * @return Rejected rows allowed per table before the table fails.
+     */
+    public long getDeadLetterMaxRows() {
+        return deadLetterMaxRows;
+    }
+
+    public void setDeadLetterMaxRows(long deadLetterMaxRows) {
+        this.deadLetterMaxRows = deadLetterMaxRows;
+    }
+
+    /**
+     * @return Maximum uploads of a batch failed with transient errors, including the first one.
+     */
+    public int getUploadRetryAttempts() {
+        return uploadRetryAttempts;
+    }
+
+    public void setUploadRetryAttempts(int uploadRetryAttempts) {
+        this.uploadRetryAttempts = uploadRetryAttempts;
+    }
+
+    public long getUploadRetryBackoffMs() {
+        return uploadRetryBackoffMs;
+    }
+
+    public void setUploadRetryBackoffMs(long uploadRetryBackoffMs) {
+        this.uploadRetryBackoffMs = uploadRetryBackoffMs;
+    }
+
+    public long getUploadRetryMaxBackoffMs() {
+        return uploadRetryMaxBackoffMs;
+    }
+
+    public void setUploadRetryMaxBackoffMs(long uploadRetryMaxBackoffMs) {
+        this.uploadRetryMaxBackoffMs = uploadRetryMaxBackoffMs;
+    }
+
+    /**
+     * @return Maximum time from the first failure of a batch to its last retry, 0 for no limit.
+     */
+    public long getUploadRetryDeadlineMs() {
+        return uploadRetryDeadlineMs;
+    }
+
+    public void setUploadRetryDeadlineMs(long uploadRetryDeadlineMs) {
+        this.uploadRetryDeadlineMs = uploadRetryDeadlineMs;
+    }
+
+    /**
+     * @return true if the target tables get generated rows instead of the source data
+     */
+    public boolean isGenerateData() {
+        return generateRows > 0L;
+    }
+
+    /**
+     * @return Number of the rows generated for each table, 0 to load the source data
+     */
+    public long getGenerateRows() {
+        return generateRows;
+    }
+
+    public void setGenerateRows(long generateRows) {
+        this.generateRows = generateRows;
+    }
+
+    /**
+     * @return Limit of the generated rows per second over all the tables, 0 for no limit
+     */
+    public long getGenerateRate() {
+        return generateRate;
+    }
+
+    public void setGenerateRate(long generateRate) {
+        this.generateRate = generateRate;
+    }
+
 }
@@ -6,6 +6,12 @@ package tech.ydb.importer.config;
  */
 public enum TargetType {
 
-    YDB
+    YDB,
+
+    /**
+     * No target database: the batches are built and dropped, to measure
+     * the source read and conversion throughput alone.
+     */
+    DISCARD
 
 }
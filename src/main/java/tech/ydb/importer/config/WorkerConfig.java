@@ -9,11 +9,24 @@ import org.jdom2.Element;
 public class WorkerConfig extends tech.ydb.importer.config.JdomHelper {
 
     private static final int MAX_SIZE = 1000;
+    // metadata threads hold source connections besides the readers, so only a few by default
+    private static final int DEFAULT_METADATA_POOL_SIZE = 2;
 
     private int readerPoolSize = 1;
     private int writerPoolSize = 1;
     private int bufferCount = 1;
+    private int metadataPoolSize = 1;
+    private int ddlPoolSize = 1;
     private boolean useArrow = false;
+    private int convertThreads = 0;
+    private int ringSlots = 4;
+    private int chunkRows = 1000;
+    private long smallTableRows = 0L;
+    private int smallTablesPerTask = 50;
+    private long partitionBufferBytes = 0L;
+    private int metricsPort = 0;
+    private String metricsHost = null;
+    private String reportFile = null;
 
     public WorkerConfig() {
     }
@@ -24,6 +37,14 @@ public class WorkerConfig extends tech.ydb.importer.config.JdomHelper {
         Element writerEl = getOneChild(c, "writer-pool");
         this.writerPoolSize = (writerEl != null) ? validatedSize(getInt(writerEl, "size")) : this.readerPoolSize;
 
+        Element metadataEl = getOneChild(c, "metadata-pool");
+        this.metadataPoolSize = (metadataEl != null)
+                ? validatedSize(getInt(metadataEl, "size"))
+                : Math.min(DEFAULT_METADATA_POOL_SIZE, this.readerPoolSize);
+
+        Element ddlEl = getOneChild(c, "ddl-pool");
+        this.ddlPoolSize = (ddlEl != null) ? validatedSize(getInt(ddlEl, "size")) : this.writerPoolSize;
+
         Element bufEl = getOneChild(c, "buffer-count");
         this.bufferCount = (bufEl != null) ? validatedSize(getInt(bufEl)) : this.readerPoolSize;
 
@@ -31,6 +52,48 @@ public class WorkerConfig extends tech.ydb.importer.config.JdomHelper {
         if (useArrowEl != null) {
             this.useArrow = parseBoolean(useArrowEl, null, getText(useArrowEl));
         }
+
+        Element pipelineEl = getOneChild(c, "pipeline");
+        if (pipelineEl != null) {
+            this.convertThreads = validatedSize(getInt(pipelineEl, "threads", 1));
+            this.ringSlots = validatedSize(getInt(pipelineEl, "slots", this.ringSlots));
+            this.chunkRows = getInt(pipelineEl, "chunk-rows", this.chunkRows);
+            if (this.chunkRows < 1 || this.chunkRows > 1000000) {
+                throw raiseIllegal(pipelineEl, "chunk-rows");
+            }
+        }
+
+        Element partEl = getOneChild(c, "partition-buffers");
+        if (partEl != null) {
+            long mb = getLong(partEl, "memory-mb");
+            if (mb < 1L) {
+                throw raiseIllegal(partEl, "memory-mb");
+            }
+            this.partitionBufferBytes = mb * 1024L * 1024L;
+        }
+
+        Element metricsEl = getOneChild(c, "metrics");
+        if (metricsEl != null) {
+            this.metricsPort = getInt(metricsEl, "port");
+            if (this.metricsPort < 1 || this.metricsPort > 65535) {
+                throw raiseIllegal(metricsEl, "port");
+            }
+            this.metricsHost = getAttr(metricsEl, "host", null);
+        }
+
+        Element reportEl = getOneChild(c, "report");
+        if (reportEl != null) {
+            this.reportFile = getAttr(reportEl, "file");
+        }
+
+        Element smallEl = getOneChild(c, "small-tables");
+        if (smallEl != null) {
+            this.smallTableRows = getLong(smallEl, "max-rows");
+            if (this.smallTableRows < 0L) {
+                throw raiseIllegal(smallEl, "max-rows");
+            }
+            this.smallTablesPerTask = validatedSize(getInt(smallEl, "per-task", this.smallTablesPerTask));
+        }
     }
 
     private static int validatedSize(int v) {
@@ -59,6 +122,22 @@ public class WorkerConfig extends tech.ydb.importer.config.JdomHelper {
         this.writerPoolSize = writerPoolSize;
     }
 
+    public int getMetadataPoolSize() {
+        return metadataPoolSize;
+    }
+
+    public void setMetadataPoolSize(int metadataPoolSize) {
+        this.metadataPoolSize = metadataPoolSize;
+    }
+
+    public int getDdlPoolSize() {
+        return ddlPoolSize;
+    }
+
+    public void setDdlPoolSize(int ddlPoolSize) {
+        this.ddlPoolSize = ddlPoolSize;
+    }
+
     public int getBufferCount() {
         return bufferCount;
     }
@@ -75,4 +154,104 @@ public class WorkerConfig extends tech.ydb.importer.config.JdomHelper {
         this.useArrow = useArrow;
     }
 
+    /**
+     * @return Number of conversion threads per reader task, 0 when the pipelined mode is off.
+     */
+    public int getConvertThreads() {
+        return convertThreads;
+    }
+
+    public void setConvertThreads(int convertThreads) {
+        this.convertThreads = convertThreads;
+    }
+
+    public boolean isPipelined() {
+        return convertThreads > 0;
+    }
+
+    public int getRingSlots() {
+        return ringSlots;
+    }
+
+    public void setRingSlots(int ringSlots) {
+        this.ringSlots = ringSlots;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    public void setChunkRows(int chunkRows) {
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * @return Approximate row count below which tables get bundled
+     *     into shared reader tasks, 0 when bundling is off.
+     */
+    public long getSmallTableRows() {
+        return smallTableRows;
+    }
+
+    public void setSmallTableRows(long smallTableRows) {
+        this.smallTableRows = smallTableRows;
+    }
+
+    public boolean isBundleSmallTables() {
+        return smallTableRows > 0L;
+    }
+
+    public int getSmallTablesPerTask() {
+        return smallTablesPerTask;
+    }
+
+    public void setSmallTablesPerTask(int smallTablesPerTask) {
+        this.smallTablesPerTask = smallTablesPerTask;
+    }
+
+    /**
+     * @return Memory limit of the partition buffers of all reader tasks, in bytes,
+     *     0 when not limited.
+     */
+    public long getPartitionBufferBytes() {
+        return partitionBufferBytes;
+    }
+
+    public void setPartitionBufferBytes(long partitionBufferBytes) {
+        this.partitionBufferBytes = partitionBufferBytes;
+    }
+
+    /**
+     * @return Port of the metrics HTTP endpoint, 0 when the endpoint is disabled.
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
+
+    /**
+     * @return Address of the metrics HTTP endpoint, null for all the interfaces.
+     */
+    public String getMetricsHost() {
+        return metricsHost;
+    }
+
+    public void setMetricsHost(String metricsHost) {
+        this.metricsHost = metricsHost;
+    }
+
+    /**
+     * @return Name of the JSON performance report written at the end of the load, or null.
+     */
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    public void setReportFile(String reportFile) {
+        this.reportFile = reportFile;
+    }
+
 }
@@ -1,6 +1,7 @@
 package tech.ydb.importer.source;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -8,14 +9,21 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import tech.ydb.importer.TableDecision;
 import tech.ydb.importer.config.SourceType;
 import tech.ydb.importer.config.TableIdentity;
 import tech.ydb.importer.config.TableRef;
 import tech.ydb.importer.source.RangeSplitter.Range;
+import tech.ydb.importer.trace.ImporterEvents;
 
 /**
  *
@@ -26,12 +34,55 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
     private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory
             .getLogger(AnyTableLister.class);
 
+    // sampled key values per YDB partition when computing the boundaries
+    protected static final int KEY_SAMPLES_PER_PARTITION = 64;
+
     protected final TableMapList tableMaps;
+    private volatile boolean bulkCatalog = false;
+    // schema name -> catalog snapshot holder
+    private final Map<String, SchemaCatalog> catalogs = new ConcurrentHashMap<>();
 
     public AnyTableLister(TableMapList tableMaps) {
         this.tableMaps = tableMaps;
     }
 
+    /**
+     * Enables serving column lists and keys from per-schema catalog snapshots,
+     * for the source types that support it.
+     *
+     * @param bulkCatalog true to enable the bulk catalog mode
+     */
+    public void setBulkCatalog(boolean bulkCatalog) {
+        this.bulkCatalog = bulkCatalog;
+    }
+
+    /**
+     * Retrieves the data dictionary of a whole schema with set-based queries.
+     * The lister must then use {@link #catalogEntry} in its metadata lookups.
+     *
+     * @param con Source connection
+     * @param schema Schema name
+     * @return The catalog snapshot, or null when the bulk mode is not supported
+     * @throws SQLException
+     */
+    protected CatalogSnapshot loadCatalog(Connection con, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * @return The catalog snapshot entry of the table,
+     *     or null when not in the bulk mode or the table is not in the snapshot.
+     */
+    protected CatalogSnapshot.Entry catalogEntry(Connection con, TableIdentity ti) {
+        if (!bulkCatalog || ti.getSchema() == null) {
+            return null;
+        }
+        CatalogSnapshot snapshot = catalogs
+                .computeIfAbsent(ti.getSchema(), SchemaCatalog::new)
+                .get(con);
+        return (snapshot == null) ? null : snapshot.get(ti.getTable());
+    }
+
     protected abstract List<String> listSchemas(Connection con) throws SQLException;
 
     protected abstract List<String> listTables(Connection con, String schema) throws SQLException;
@@ -79,6 +130,145 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
     protected abstract void grabPrimaryKey(Connection con, TableIdentity ti, TableMetadata tm)
             throws SQLException;
 
+    /**
+     * Retrieves the approximate row count of a table, without failing on errors.
+     * The catalog snapshot statistics are used when available.
+     * Tables defined by a custom query are not counted.
+     *
+     * @param con Source connection
+     * @param td Table to count
+     * @return The approximate number of rows, or -1 if not known
+     */
+    public long estimateRowCount(Connection con, TableDecision td) {
+        if (td.getTableRef() != null && td.getTableRef().hasQueryText()) {
+            return -1L;
+        }
+        CatalogSnapshot.Entry entry = catalogEntry(con, td);
+        if (entry != null && entry.getRowCount() >= 0L) {
+            return entry.getRowCount();
+        }
+        try {
+            return grabRowCount(con, td);
+        } catch (SQLException ex) {
+            LOG.debug("Cannot retrieve the row count for {}.{}", td.getSchema(), td.getTable(), ex);
+            return -1L;
+        }
+    }
+
+    // Retrieve the secondary indexes, by default through the JDBC driver metadata
+    protected List<IndexInfo> grabIndexes(Connection con, TableIdentity ti) throws SQLException {
+        final Map<String, List<String>> columns = new LinkedHashMap<>();
+        final Map<String, Boolean> unique = new HashMap<>();
+        try (ResultSet rs = con.getMetaData().getIndexInfo(null, ti.getSchema(), ti.getTable(), false, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name == null || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    continue;
+                }
+                // expression columns come as null, and the index gets dropped below
+                columns.computeIfAbsent(name, k -> new ArrayList<>()).add(column);
+                unique.put(name, !rs.getBoolean("NON_UNIQUE"));
+            }
+        }
+        final List<IndexInfo> retval = new ArrayList<>();
+        for (Map.Entry<String, List<String>> me : columns.entrySet()) {
+            if (!me.getValue().contains(null)) {
+                retval.add(new IndexInfo(me.getKey(), me.getValue(), unique.get(me.getKey())));
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Groups the index rows: index name, unique flag and column name,
+     * ordered by the index name and the column position.
+     */
+    protected static List<IndexInfo> collectIndexes(ResultSet rs) throws SQLException {
+        final List<IndexInfo> retval = new ArrayList<>();
+        String current = null;
+        boolean unique = false;
+        List<String> columns = new ArrayList<>();
+        while (rs.next()) {
+            String name = rs.getString(1);
+            if (current != null && !current.equals(name)) {
+                retval.add(new IndexInfo(current, columns, unique));
+                columns = new ArrayList<>();
+            }
+            current = name;
+            unique = rs.getBoolean(2);
+            columns.add(rs.getString(3));
+        }
+        if (current != null) {
+            retval.add(new IndexInfo(current, columns, unique));
+        }
+        return retval;
+    }
+
+    /**
+     * Adds the source secondary indexes which can be recreated on the target table.
+     * Indexes over unknown columns, and the ones covered by the primary key, are skipped.
+     */
+    private void secondaryIndexes(Connection con, TableDecision td, TableMetadata tm) throws SQLException {
+        final List<String> key = new ArrayList<>();
+        for (ColumnInfo ci : tm.getKey()) {
+            key.add(ci.getName());
+        }
+        for (IndexInfo ii : grabIndexes(con, td)) {
+            boolean known = true;
+            for (String name : ii.getColumns()) {
+                if (tm.findColumn(name) == null) {
+                    known = false;
+                    break;
+                }
+            }
+            if (!known || ii.getColumns().isEmpty()
+                    || (key.size() >= ii.getColumns().size()
+                        && key.subList(0, ii.getColumns().size()).equals(ii.getColumns()))) {
+                LOG.debug("Skipping index {} of table {}.{}", ii.getName(), td.getSchema(), td.getTable());
+                continue;
+            }
+            tm.addIndex(ii);
+        }
+    }
+
+    /**
+     * Computes a cheap fingerprint of the table definition, used to validate
+     * the cached metadata. Tables defined by a custom query have no fingerprint.
+     *
+     * @param con Source connection
+     * @param td Table to check
+     * @return The fingerprint, or null if one cannot be obtained
+     */
+    public String fingerprint(Connection con, TableDecision td) {
+        if (td.getTableRef() != null && td.getTableRef().hasQueryText()) {
+            return null;
+        }
+        try {
+            return grabFingerprint(con, td);
+        } catch (SQLException ex) {
+            LOG.debug("Cannot retrieve the fingerprint for {}.{}", td.getSchema(), td.getTable(), ex);
+            return null;
+        }
+    }
+
+    // Describe the table definition state, by default as the list of JDBC column descriptors
+    protected String grabFingerprint(Connection con, TableIdentity ti) throws SQLException {
+        final StringBuilder sb = new StringBuilder();
+        try (ResultSet rs = con.getMetaData().getColumns(null, ti.getSchema(), ti.getTable(), null)) {
+            while (rs.next()) {
+                sb.append(rs.getString("COLUMN_NAME")).append(':')
+                        .append(rs.getInt("DATA_TYPE")).append(':')
+                        .append(rs.getInt("COLUMN_SIZE")).append(':')
+                        .append(rs.getInt("DECIMAL_DIGITS")).append(';');
+            }
+        }
+        if (sb.length() == 0) {
+            return null;
+        }
+        return "jdbc:" + Integer.toHexString(sb.toString().hashCode()) + ":" + sb.length();
+    }
+
     public List<TableDecision> selectTables(Connection con) throws SQLException {
         final HashSet<SourceTableName> keys = new HashSet<>();
         final List<TableDecision> retval = new ArrayList<>();
@@ -135,16 +325,50 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
         }
     }
 
+    private List<ColumnInfo> columnNames(Connection con, TableDecision td) throws SQLException {
+        CatalogSnapshot.Entry entry = catalogEntry(con, td);
+        if (entry == null) {
+            return grabColumnNames(con, td);
+        }
+        List<ColumnInfo> cols = new ArrayList<>(entry.getColumns().size());
+        for (String name : entry.getColumns()) {
+            cols.add(new ColumnInfo(name));
+        }
+        return cols;
+    }
+
+    private void primaryKey(Connection con, TableDecision td, TableMetadata tm) throws SQLException {
+        CatalogSnapshot.Entry entry = catalogEntry(con, td);
+        if (entry == null) {
+            grabPrimaryKey(con, td, tm);
+            return;
+        }
+        for (String name : entry.getKey()) {
+            tm.addKey(name);
+        }
+    }
+
     public TableMetadata readMetadata(Connection con, TableDecision td) throws SQLException {
+        final ImporterEvents.Span span = ImporterEvents.get().metadataQuery(td.getSchema() + "." + td.getTable());
+        TableMetadata tm = null;
+        try {
+            tm = grabMetadata(con, td);
+            return tm;
+        } finally {
+            span.end((tm == null) ? 0 : tm.getColumns().size(), (tm == null) ? "FAILED" : "OK");
+        }
+    }
+
+    private TableMetadata grabMetadata(Connection con, TableDecision td) throws SQLException {
         final TableMetadata tm = new TableMetadata();
         if (td.getTableRef() == null) {
-            tm.addColumns(grabColumnNames(con, td));
+            tm.addColumns(columnNames(con, td));
             grabColumnTypes(con, td, tm);
-            grabPrimaryKey(con, td, tm);
+            primaryKey(con, td, tm);
         } else {
             if (!td.getTableRef().hasQueryText()) {
                 // With non-custom SQL let's read the columns from the data dictionary.
-                tm.addColumns(grabColumnNames(con, td));
+                tm.addColumns(columnNames(con, td));
             }
             // Columns get appended to TableMetadata if they are missing.
             grabColumnTypes(con, td, tm);
@@ -154,11 +378,15 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
                 // If the key is not declared, and the table does not have an associated query,
                 // try to grab the key columns from the source database.
                 if (!td.getTableRef().hasQueryText()) {
-                    grabPrimaryKey(con, td, tm);
+                    primaryKey(con, td, tm);
                 }
             }
         }
         validateClobColumns(td, tm);
+        if (td.deferredIndexes()
+                && (td.getTableRef() == null || !td.getTableRef().hasQueryText())) {
+            secondaryIndexes(con, td, tm);
+        }
         new AutoBoundsResolver(this).resolve(con, td, tm);
         List<TaskInfo> tasks;
         String readPlan;
@@ -200,11 +428,18 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
         }
         LOG.info("Table {}.{}: {}, {}", td.getSchema(), td.getTable(), readPlan, ydbPlan);
         tm.setTasks(tasks);
+        tm.setReadPlan(readPlan);
         return tm;
     }
 
     protected void grabColumnTypes(Connection con, TableDecision td, TableMetadata tm)
             throws SQLException {
+        if (td.getTableRef() == null || !td.getTableRef().hasQueryText()) {
+            CatalogSnapshot.Entry entry = catalogEntry(con, td);
+            if (entry != null && entry.applyTypes(tm)) {
+                return;
+            }
+        }
         String sql = "SELECT q.* FROM (" + makeSelectSql(td, tm.getColumns())
                 + ") q WHERE 0=1"; // retrieve zero rows
         try (PreparedStatement ps = con.prepareStatement(sql)) {
@@ -258,6 +493,90 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
         }
     }
 
+    /**
+     * Collects a random sample of the non-null values of a key column, which is used
+     * to place the YDB partition boundaries. By default the whole column is scanned,
+     * unless the database supports the table sampling clause.
+     *
+     * @param con Source connection
+     * @param td Source table
+     * @param ci Key column
+     * @param binary true to return the values as hex strings of the column bytes
+     * @param partitions Number of the YDB partitions being planned
+     * @return Sampled values, in no particular order
+     * @throws SQLException
+     */
+    protected List<String> sampleKeyValues(Connection con, TableDecision td, ColumnInfo ci,
+            boolean binary, int partitions) throws SQLException {
+        final int limit = partitions * KEY_SAMPLES_PER_PARTITION;
+        String source;
+        if (td.getTableRef() != null && td.getTableRef().hasQueryText()) {
+            source = "(" + td.getTableRef().getQueryText() + ") subq";
+        } else {
+            source = safeId(td.getSchema()) + "." + safeId(td.getTable());
+            long rows = estimateRowCount(con, td);
+            if (rows > 4L * limit) {
+                // read about twice the sample size, the reservoir below trims the rest
+                String clause = sampleClause(200.0 * limit / rows);
+                if (clause != null) {
+                    source = source + " " + clause;
+                }
+            }
+        }
+        final String quotedCol = safeId(ci.getName());
+        final String sql = "SELECT " + quotedCol + " FROM " + source
+                + " WHERE " + quotedCol + " IS NOT NULL";
+        final List<String> sample = new ArrayList<>(limit);
+        long seen = 0;
+        try (Statement s = con.createStatement()) {
+            s.setFetchSize(1000);
+            try (ResultSet rs = s.executeQuery(sql)) {
+                while (rs.next()) {
+                    String value = binary ? toHex(rs.getBytes(1)) : rs.getString(1);
+                    if (value == null) {
+                        continue;
+                    }
+                    // reservoir sampling keeps a uniform sample of the fixed size
+                    ++seen;
+                    if (sample.size() < limit) {
+                        sample.add(value);
+                    } else {
+                        long pos = ThreadLocalRandom.current().nextLong(seen);
+                        if (pos < limit) {
+                            sample.set((int) pos, value);
+                        }
+                    }
+                }
+            }
+        }
+        LOG.debug("Sampled {} of {} key values for {}.{}", sample.size(), seen,
+                td.getSchema(), td.getTable());
+        return sample;
+    }
+
+    /**
+     * @param percent Share of the table rows to read, from 0 to 100
+     * @return Table sampling clause to put after the table name, or null if not supported
+     */
+    protected String sampleClause(double percent) {
+        return null;
+    }
+
+    protected static String formatPercent(double percent) {
+        return String.format(Locale.ROOT, "%.6f", Math.max(0.000001, Math.min(percent, 99.0)));
+    }
+
+    static String toHex(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder(value.length * 2);
+        for (byte b : value) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
     protected String makeSelectSql(String schema, String table, List<ColumnInfo> columns) {
         StringBuilder sql = new StringBuilder();
         sql.append("SELECT ");
@@ -341,6 +660,8 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
                 return new GreenplumTableLister(tableMaps);
             case CLICKHOUSE:
                 return new ClickHouseTableLister(tableMaps);
+            case SYNTHETIC:
+                return new SyntheticTableLister(tableMaps);
             case DB2:
                 if (isDb2Luw(con)) {
                     return new DB2TableLister(tableMaps);
@@ -359,4 +680,36 @@ public abstract class AnyTableLister extends tech.ydb.importer.config.JdomHelper
         return version != null && version.startsWith("SQL");
     }
 
+    /**
+     * Lazily loaded catalog snapshot of a single schema.
+     * A failed load falls back to the per-table lookups.
+     */
+    private final class SchemaCatalog {
+
+        private final String schema;
+        private boolean loaded;
+        private CatalogSnapshot snapshot;
+
+        SchemaCatalog(String schema) {
+            this.schema = schema;
+        }
+
+        synchronized CatalogSnapshot get(Connection con) {
+            if (!loaded) {
+                loaded = true;
+                try {
+                    long tv = System.currentTimeMillis();
+                    snapshot = loadCatalog(con, schema);
+                    if (snapshot != null) {
+                        LOG.info("Catalog of schema {} loaded: {} tables in {} ms",
+                                schema, snapshot.size(), System.currentTimeMillis() - tv);
+                    }
+                } catch (SQLException ex) {
+                    LOG.warn("Bulk catalog retrieval failed for schema {}, "
+                            + "falling back to per-table lookups", schema, ex);
+                }
+            }
+            return snapshot;
+        }
+    }
 }
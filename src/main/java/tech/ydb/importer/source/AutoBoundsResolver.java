@@ -12,8 +12,10 @@ import tech.ydb.importer.TableDecision;
 import tech.ydb.importer.config.TableOptions;
 import tech.ydb.importer.config.TableRef;
 import tech.ydb.importer.source.RangeSplitter.Range;
+import tech.ydb.importer.target.SynthKey;
 import tech.ydb.importer.target.TargetTable;
 import tech.ydb.importer.target.YdbTypeMapper;
+import tech.ydb.table.values.PrimitiveType;
 
 /**
  * Resolves source side split bounds and YDB PARTITION_AT_KEYS cuts for a table.
@@ -114,10 +116,14 @@ final class AutoBoundsResolver {
         }
         boolean isAuto = (requestedN == TableRef.AUTO);
         if (tm.getKey().isEmpty()) {
-            logSkip(isAuto, td, "No key on {}.{}, YDB partitioning skipped");
+            resolveSynthKeyPartition(td, tm, ref, isAuto, requestedN);
             return;
         }
         ColumnInfo leading = tm.getKey().iterator().next();
+        if (YdbTypeMapper.partitionableString(leading, td.getOptions())) {
+            resolveSampledPartition(con, td, tm, ref, leading, isAuto, requestedN);
+            return;
+        }
         SplitColumnType type;
         try {
             type = RangeSplitter.detectType(leading.getSqlType(), leading.getSqlScale());
@@ -178,6 +184,87 @@ final class AutoBoundsResolver {
         tryMirrorPreSplit(con, td, tm, partitions, leading.getName(), type);
     }
 
+    /**
+     * Keyless tables get the synthetic key, which is a base64 encoded digest,
+     * so the equal ranges can be computed without looking at the data.
+     */
+    private void resolveSynthKeyPartition(TableDecision td, TableMetadata tm, TableRef ref,
+            boolean isAuto, int requestedN) {
+        int n = partitionCount(ref, isAuto, requestedN);
+        if (n < 2) {
+            return;
+        }
+        if (hasPartitionRange(ref)) {
+            LOG.warn("ydb-partition-from/to is ignored for the synthetic key of {}.{}",
+                    td.getSchema(), td.getTable());
+        }
+        List<String> cuts = SynthKey.uniformCuts(n);
+        applyCuts(td, tm, cuts, cuts.size() + 1, "by synthetic key hash", false);
+    }
+
+    /**
+     * Text and binary keys are split at the quantiles of the sampled key values.
+     */
+    private void resolveSampledPartition(Connection con, TableDecision td, TableMetadata tm,
+            TableRef ref, ColumnInfo leading, boolean isAuto, int requestedN) throws SQLException {
+        int n = partitionCount(ref, isAuto, requestedN);
+        if (n < 2) {
+            return;
+        }
+        if (hasPartitionRange(ref)) {
+            LOG.warn("ydb-partition-from/to needs an integer key, ignored for {}.{}",
+                    td.getSchema(), td.getTable());
+        }
+        boolean binary = YdbTypeMapper.convertType(leading, td.getOptions()) == PrimitiveType.Bytes;
+        List<String> sample = lister.sampleKeyValues(con, td, leading, binary, n);
+        List<String> cuts = quantileCuts(sample, n);
+        if (cuts.isEmpty()) {
+            logSkip(isAuto, td, "Not enough distinct key values in {}.{}, YDB partitioning skipped");
+            return;
+        }
+        applyCuts(td, tm, cuts, cuts.size() + 1, "by sampled key values", false);
+    }
+
+    /**
+     * Partition count for the keys without the min/max based equal split:
+     * the explicit ydb-partition-count, or the split-count for auto.
+     */
+    private static int partitionCount(TableRef ref, boolean isAuto, int requestedN) {
+        if (!isAuto) {
+            return requestedN;
+        }
+        if (ref != null && ref.hasSplit() && ref.getSplitCount() >= 2) {
+            return ref.getSplitCount();
+        }
+        return 0;
+    }
+
+    private static boolean hasPartitionRange(TableRef ref) {
+        return ref != null && (ref.getYdbPartitionFrom() != null || ref.getYdbPartitionTo() != null);
+    }
+
+    /**
+     * Picks n - 1 distinct boundaries at the equal-frequency positions of the sample,
+     * ordered as YDB compares the keys: by code points, which is the UTF-8 byte order.
+     * Hex strings of the binary keys follow the same order.
+     */
+    static List<String> quantileCuts(List<String> sample, int n) {
+        List<String> sorted = new ArrayList<>(sample);
+        Collections.sort(sorted, YdbTypeMapper::compareText);
+        List<String> cuts = new ArrayList<>(n - 1);
+        for (int i = 1; i < n && !sorted.isEmpty(); i++) {
+            String value = sorted.get((int) ((long) i * sorted.size() / n));
+            if (cuts.isEmpty() || YdbTypeMapper.compareText(cuts.get(cuts.size() - 1), value) < 0) {
+                cuts.add(value);
+            }
+        }
+        // the lowest value as the first boundary makes an empty partition
+        if (!cuts.isEmpty() && cuts.get(0).equals(sorted.get(0))) {
+            cuts.remove(0);
+        }
+        return cuts;
+    }
+
     private void resolveColumnHashPartition(TableDecision td, TableMetadata tm) {
         int n = td.ydbPartitionCount();
         if (n == TableRef.AUTO || n == TableRef.NONE) {
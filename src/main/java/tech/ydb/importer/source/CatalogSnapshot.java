@@ -0,0 +1,235 @@
+package tech.ydb.importer.source;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the data dictionary of a single source schema,
+ * retrieved with a few set-based queries instead of per-table lookups.
+ * Holds the column lists, catalog type details and the chosen key columns.
+ * When the lister maps the catalog type names to the JDBC types, the column
+ * types are served from the snapshot as well, without a probe query per table.
+ */
+public class CatalogSnapshot {
+
+    private final Map<String, Entry> tables = new HashMap<>();
+    // table -> unique index -> columns, for the tables without a primary key
+    private final Map<String, Map<String, List<String>>> uniques = new HashMap<>();
+
+    /**
+     * @param table Table name, as stored in the catalog
+     * @return The table entry, or null if the table is not in the snapshot
+     */
+    public Entry get(String table) {
+        return tables.get(table);
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    /**
+     * Appends the next column of the table, in the table column order.
+     *
+     * @param table Table name
+     * @param column Column name
+     * @param nativeType Source-specific type name, or null
+     * @param datetimePrecision Fractional seconds precision, or null
+     */
+    public void addColumn(String table, String column, String nativeType, Integer datetimePrecision) {
+        Entry e = tables.computeIfAbsent(table, k -> new Entry());
+        e.columns.add(column);
+        if (nativeType != null) {
+            e.nativeTypes.put(column, nativeType);
+        }
+        if (datetimePrecision != null) {
+            e.datetimePrecisions.put(column, datetimePrecision);
+        }
+    }
+
+    /**
+     * Sets the JDBC type of a column, as the driver would report it.
+     * Columns left without a type make the table fall back to the probe query.
+     *
+     * @param table Table name
+     * @param column Column name, already added with {@link #addColumn}
+     * @param type JDBC type details
+     */
+    public void setColumnType(String table, String column, ColumnType type) {
+        Entry e = tables.get(table);
+        if (e != null && type != null) {
+            e.columnTypes.put(column, type);
+        }
+    }
+
+    /**
+     * Sets the approximate row count of the table, from the catalog statistics.
+     *
+     * @param table Table name
+     * @param rows Number of rows, negative if not known
+     */
+    public void setRowCount(String table, long rows) {
+        Entry e = tables.get(table);
+        if (e != null) {
+            e.rowCount = rows;
+        }
+    }
+
+    /**
+     * Appends the next primary key column of the table, in the key order.
+     */
+    public void addKeyColumn(String table, String column) {
+        Entry e = tables.get(table);
+        if (e != null) {
+            e.key.add(column);
+        }
+    }
+
+    /**
+     * Appends the next column of a unique index of the table, in the index order.
+     */
+    public void addUniqueColumn(String table, String index, String column) {
+        uniques.computeIfAbsent(table, k -> new LinkedHashMap<>())
+                .computeIfAbsent(index, k -> new ArrayList<>())
+                .add(column);
+    }
+
+    /**
+     * Uses the unique index with the fewest columns, then the first by name,
+     * as the key of each table without a primary key.
+     */
+    public void resolveKeys() {
+        for (Map.Entry<String, Map<String, List<String>>> me : uniques.entrySet()) {
+            Entry e = tables.get(me.getKey());
+            if (e == null || !e.key.isEmpty()) {
+                continue;
+            }
+            String bestName = null;
+            List<String> best = null;
+            for (Map.Entry<String, List<String>> ix : me.getValue().entrySet()) {
+                List<String> cols = ix.getValue();
+                if (best == null || cols.size() < best.size()
+                        || (cols.size() == best.size() && ix.getKey().compareTo(bestName) < 0)) {
+                    bestName = ix.getKey();
+                    best = cols;
+                }
+            }
+            if (best != null) {
+                e.key.addAll(best);
+            }
+        }
+        uniques.clear();
+    }
+
+    /**
+     * Catalog data of a single table.
+     */
+    public static class Entry {
+
+        private final List<String> columns = new ArrayList<>();
+        private final List<String> key = new ArrayList<>();
+        private final Map<String, String> nativeTypes = new HashMap<>();
+        private final Map<String, Integer> datetimePrecisions = new HashMap<>();
+        private final Map<String, ColumnType> columnTypes = new HashMap<>();
+        private long rowCount = -1L;
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public List<String> getKey() {
+            return key;
+        }
+
+        public Map<String, String> getNativeTypes() {
+            return nativeTypes;
+        }
+
+        public Map<String, Integer> getDatetimePrecisions() {
+            return datetimePrecisions;
+        }
+
+        public Map<String, ColumnType> getColumnTypes() {
+            return columnTypes;
+        }
+
+        /**
+         * @return Approximate number of rows, or -1 if not known
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Copies the column types to the table metadata.
+         *
+         * @param tm Table metadata with the columns of this entry
+         * @return true if every column got its type, false if the types must be probed
+         */
+        public boolean applyTypes(TableMetadata tm) {
+            if (tm.getColumns().isEmpty()) {
+                return false;
+            }
+            for (ColumnInfo ci : tm.getColumns()) {
+                if (!columnTypes.containsKey(ci.getName())) {
+                    return false;
+                }
+            }
+            for (ColumnInfo ci : tm.getColumns()) {
+                columnTypes.get(ci.getName()).applyTo(ci);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * JDBC type details of a column, taken from the catalog.
+     */
+    public static class ColumnType {
+
+        private final int sqlType;
+        private final int precision;
+        private final int scale;
+        private final boolean nullable;
+        private final boolean unsigned;
+
+        public ColumnType(int sqlType, int precision, int scale, boolean nullable, boolean unsigned) {
+            this.sqlType = sqlType;
+            this.precision = precision;
+            this.scale = scale;
+            this.nullable = nullable;
+            this.unsigned = unsigned;
+        }
+
+        public int getSqlType() {
+            return sqlType;
+        }
+
+        public int getPrecision() {
+            return precision;
+        }
+
+        public int getScale() {
+            return scale;
+        }
+
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        public boolean isUnsigned() {
+            return unsigned;
+        }
+
+        void applyTo(ColumnInfo ci) {
+            ci.setSqlType(sqlType);
+            ci.setSqlPrecision(precision);
+            ci.setSqlScale(scale);
+            ci.setNullable(nullable);
+            ci.setUnsigned(unsigned);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package tech.ydb.importer.source;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Secondary index of the source table, as part of source table metadata.
+ */
+public class IndexInfo {
+
+    private final String name;
+    private final List<String> columns;
+    private final boolean unique;
+
+    public IndexInfo(String name, List<String> columns, boolean unique) {
+        this.name = name;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.unique = unique;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Source names of the indexed columns, in the index order. */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+}
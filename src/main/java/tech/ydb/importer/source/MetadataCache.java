@@ -0,0 +1,274 @@
+package tech.ydb.importer.source;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.IllegalDataException;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import tech.ydb.importer.config.JdomHelper;
+import tech.ydb.importer.config.TableIdentity;
+
+/**
+ * Local file with the source table metadata and read plans of the previous runs.
+ * Entries are keyed by the source URL, schema and table name, and are valid while
+ * the table fingerprint and the plan signature of the configuration stay the same.
+ */
+public class MetadataCache extends JdomHelper {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(MetadataCache.class);
+
+    private final File file;
+    private final String sourceUrl;
+    private final String signature;
+    private final boolean trusted;
+    private final Map<String, Element> entries = new LinkedHashMap<>();
+    private int hits = 0;
+    private int misses = 0;
+    private boolean modified = false;
+
+    /**
+     * @param file Cache file
+     * @param sourceUrl Source database URL
+     * @param signature Plan signature of the current configuration
+     * @param trusted true to use the entries without fingerprint checks
+     */
+    public MetadataCache(File file, String sourceUrl, String signature, boolean trusted) {
+        this.file = file;
+        this.sourceUrl = sourceUrl;
+        this.signature = signature;
+        this.trusted = trusted;
+    }
+
+    public boolean isTrusted() {
+        return trusted;
+    }
+
+    /**
+     * Reads the cache file, if it exists. An unreadable file is logged and ignored.
+     */
+    public synchronized void load() {
+        if (!file.isFile()) {
+            LOG.info("Metadata cache {} does not exist yet", file);
+            return;
+        }
+        try {
+            Element root = readDocument(file);
+            // copied, as the live child list cannot be iterated while detaching
+            for (Element el : new ArrayList<>(root.getChildren("table"))) {
+                entries.put(key(el.getAttributeValue("source"),
+                        el.getAttributeValue("schema"), el.getAttributeValue("name")),
+                        el.detach());
+            }
+            LOG.info("Metadata cache {} loaded, {} entries", file, entries.size());
+        } catch (Exception ex) {
+            LOG.warn("Cannot read metadata cache {}, starting with an empty one", file, ex);
+            entries.clear();
+        }
+    }
+
+    /**
+     * @param ti Table identity
+     * @param fingerprint Current table fingerprint, ignored for the trusted cache
+     * @return Cached metadata, or null if missing or outdated
+     */
+    public synchronized TableMetadata get(TableIdentity ti, String fingerprint) {
+        Element el = entries.get(key(sourceUrl, ti.getSchema(), ti.getTable()));
+        if (el == null
+                || !signature.equals(el.getAttributeValue("signature"))
+                || (!trusted && (fingerprint == null
+                        || !fingerprint.equals(el.getAttributeValue("fingerprint"))))) {
+            misses++;
+            return null;
+        }
+        try {
+            TableMetadata tm = fromXml(el);
+            hits++;
+            return tm;
+        } catch (Exception ex) {
+            LOG.warn("Malformed metadata cache entry for {}.{}", ti.getSchema(), ti.getTable(), ex);
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Stores the freshly retrieved metadata of the table.
+     *
+     * @param ti Table identity
+     * @param fingerprint Table fingerprint
+     * @param tm Table metadata
+     */
+    public synchronized void put(TableIdentity ti, String fingerprint, TableMetadata tm) {
+        Element el;
+        try {
+            el = toXml(tm);
+        } catch (IllegalDataException ex) {
+            // key values which cannot be represented in XML
+            LOG.debug("Table {}.{} cannot be cached", ti.getSchema(), ti.getTable(), ex);
+            return;
+        }
+        el.setAttribute("source", sourceUrl);
+        el.setAttribute("schema", ti.getSchema());
+        el.setAttribute("name", ti.getTable());
+        el.setAttribute("fingerprint", fingerprint);
+        el.setAttribute("signature", signature);
+        entries.put(key(sourceUrl, ti.getSchema(), ti.getTable()), el);
+        modified = true;
+    }
+
+    /**
+     * Writes the cache file if any entries have changed.
+     */
+    public synchronized void save() {
+        LOG.info("Metadata cache: {} hits, {} misses", hits, misses);
+        if (!modified) {
+            return;
+        }
+        Element root = new Element("metadata-cache");
+        for (Element el : entries.values()) {
+            root.addContent(el.clone());
+        }
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            File temp = File.createTempFile("metadata-cache", ".tmp", parent);
+            try (OutputStream os = new FileOutputStream(temp)) {
+                new XMLOutputter(Format.getPrettyFormat()
+                        .setTextMode(Format.TextMode.PRESERVE)).output(new Document(root), os);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            modified = false;
+            LOG.info("Metadata cache {} saved, {} entries", file, entries.size());
+        } catch (Exception ex) {
+            LOG.warn("Cannot write metadata cache {}", file, ex);
+        }
+    }
+
+    private static String key(String source, String schema, String table) {
+        return source + '\u0000' + schema + '\u0000' + table;
+    }
+
+    private static Element toXml(TableMetadata tm) {
+        Element el = new Element("table");
+        el.setAttribute("rows", String.valueOf(tm.getRowCount()));
+        if (tm.getReadPlan() != null) {
+            el.setAttribute("read-plan", tm.getReadPlan());
+        }
+        for (ColumnInfo ci : tm.getColumns()) {
+            Element c = new Element("column");
+            c.setAttribute("name", ci.getName());
+            c.setAttribute("type", String.valueOf(ci.getSqlType()));
+            c.setAttribute("precision", String.valueOf(ci.getSqlPrecision()));
+            c.setAttribute("scale", String.valueOf(ci.getSqlScale()));
+            c.setAttribute("nullable", String.valueOf(ci.isNullable()));
+            c.setAttribute("blob-object", String.valueOf(ci.isBlobAsObject()));
+            c.setAttribute("unsigned", String.valueOf(ci.isUnsigned()));
+            el.addContent(c);
+        }
+        for (ColumnInfo ci : tm.getKey()) {
+            el.addContent(new Element("key").setAttribute("name", ci.getName()));
+        }
+        for (IndexInfo ii : tm.getIndexes()) {
+            Element x = new Element("index");
+            x.setAttribute("name", ii.getName());
+            x.setAttribute("unique", String.valueOf(ii.isUnique()));
+            for (String name : ii.getColumns()) {
+                x.addContent(new Element("column").setAttribute("name", name));
+            }
+            el.addContent(x);
+        }
+        YdbPartitioning yp = tm.getYdbPartitioning();
+        if (yp.isKeyRange()) {
+            Element p = new Element("key-range");
+            if (yp.getStrategy() != null) {
+                p.setAttribute("strategy", yp.getStrategy());
+            }
+            p.setAttribute("one-per-task", String.valueOf(yp.isOnePartitionPerTask()));
+            for (String cut : yp.getCuts()) {
+                p.addContent(new Element("cut").setText(cut));
+            }
+            el.addContent(p);
+        } else if (yp.isHash()) {
+            Element p = new Element("hash");
+            p.setAttribute("partitions", String.valueOf(yp.getHashPartitions()));
+            p.setAttribute("column", yp.getHashColumn());
+            el.addContent(p);
+        }
+        for (TaskInfo ti : tm.getTasks()) {
+            Element t = new Element("task");
+            t.setAttribute("name", ti.getName());
+            for (TaskQuery tq : ti.getQueries()) {
+                t.addContent(new Element("query")
+                        .setAttribute("name", tq.getName())
+                        .setText(tq.getSql()));
+            }
+            el.addContent(t);
+        }
+        return el;
+    }
+
+    private static TableMetadata fromXml(Element el) {
+        TableMetadata tm = new TableMetadata();
+        tm.setRowCount(Long.parseLong(getAttr(el, "rows")));
+        tm.setReadPlan(el.getAttributeValue("read-plan"));
+        for (Element c : el.getChildren("column")) {
+            ColumnInfo ci = new ColumnInfo(c.getAttributeValue("name"));
+            ci.setSqlType(Integer.parseInt(getAttr(c, "type")));
+            ci.setSqlPrecision(Integer.parseInt(getAttr(c, "precision")));
+            ci.setSqlScale(Integer.parseInt(getAttr(c, "scale")));
+            ci.setNullable(getBoolean(c, "nullable", true));
+            ci.setBlobAsObject(getBoolean(c, "blob-object", false));
+            ci.setUnsigned(getBoolean(c, "unsigned", false));
+            tm.addColumn(ci);
+        }
+        for (Element k : el.getChildren("key")) {
+            tm.addKey(k.getAttributeValue("name"));
+        }
+        for (Element x : el.getChildren("index")) {
+            List<String> columns = new ArrayList<>();
+            for (Element c : x.getChildren("column")) {
+                columns.add(c.getAttributeValue("name"));
+            }
+            tm.addIndex(new IndexInfo(x.getAttributeValue("name"), columns,
+                    getBoolean(x, "unique", false)));
+        }
+        Element p = el.getChild("key-range");
+        if (p != null) {
+            List<String> cuts = new ArrayList<>();
+            for (Element cut : p.getChildren("cut")) {
+                cuts.add(cut.getText());
+            }
+            tm.setYdbPartitioning(YdbPartitioning.keyRange(cuts,
+                    p.getAttributeValue("strategy"), getBoolean(p, "one-per-task", false)));
+        }
+        p = el.getChild("hash");
+        if (p != null) {
+            tm.setYdbPartitioning(YdbPartitioning.hash(
+                    Integer.parseInt(getAttr(p, "partitions")), getAttr(p, "column")));
+        }
+        List<TaskInfo> tasks = new ArrayList<>();
+        for (Element t : el.getChildren("task")) {
+            List<TaskQuery> queries = new ArrayList<>();
+            for (Element q : t.getChildren("query")) {
+                queries.add(new TaskQuery(q.getAttributeValue("name"), q.getText()));
+            }
+            tasks.add(new TaskInfo(t.getAttributeValue("name"), queries));
+        }
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("No read tasks in the cache entry");
+        }
+        tm.setTasks(tasks);
+        return tm;
+    }
+
+}
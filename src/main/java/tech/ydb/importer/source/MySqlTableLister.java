@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import tech.ydb.importer.TableDecision;
@@ -86,6 +87,26 @@ public class MySqlTableLister extends AnyTableLister {
         return -1L;
     }
 
+    @Override
+    protected String grabFingerprint(Connection con, TableIdentity ti) throws SQLException {
+        // ALTER TABLE rebuilds the table, which resets its creation time
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT t.create_time, "
+                + "  (SELECT COUNT(*) FROM information_schema.columns c "
+                + "   WHERE c.table_schema=t.table_schema AND c.table_name=t.table_name) "
+                + "FROM information_schema.tables t "
+                + "WHERE t.table_schema=? AND t.table_name=?")) {
+            ps.setString(1, ti.getSchema());
+            ps.setString(2, ti.getTable());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return "my:" + rs.getString(1) + ":" + rs.getInt(2);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     protected List<ColumnInfo> grabColumnNames(Connection con, TableIdentity ti) throws SQLException {
         final List<ColumnInfo> cols = new ArrayList<>();
@@ -114,6 +135,13 @@ public class MySqlTableLister extends AnyTableLister {
     protected void grabColumnTypes(Connection con, TableDecision td, TableMetadata tm)
             throws SQLException {
         super.grabColumnTypes(con, td, tm);
+        CatalogSnapshot.Entry entry = catalogEntry(con, td);
+        if (entry != null) {
+            for (java.util.Map.Entry<String, Integer> me : entry.getDatetimePrecisions().entrySet()) {
+                fixupDatetimeScale(tm.findColumn(me.getKey()), me.getValue());
+            }
+            return;
+        }
         try (PreparedStatement ps = con.prepareStatement(
                 "SELECT column_name, datetime_precision FROM information_schema.columns "
                 + "WHERE table_schema=? AND table_name=?")) {
@@ -122,16 +150,130 @@ public class MySqlTableLister extends AnyTableLister {
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     int frac = rs.getInt(2);
-                    if (rs.wasNull() || frac <= 0) {
+                    if (rs.wasNull()) {
                         continue;
                     }
-                    ColumnInfo ci = tm.findColumn(rs.getString(1));
-                    if (ci != null && ci.getSqlType() == java.sql.Types.TIMESTAMP) {
-                        ci.setSqlScale(frac);
+                    fixupDatetimeScale(tm.findColumn(rs.getString(1)), frac);
+                }
+            }
+        }
+    }
+
+    private static void fixupDatetimeScale(ColumnInfo ci, int frac) {
+        if (frac > 0 && ci != null && ci.getSqlType() == java.sql.Types.TIMESTAMP) {
+            ci.setSqlScale(frac);
+        }
+    }
+
+    @Override
+    protected CatalogSnapshot loadCatalog(Connection con, String schema) throws SQLException {
+        final CatalogSnapshot snapshot = new CatalogSnapshot();
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT table_name, column_name, datetime_precision, "
+                + "  data_type, column_type, numeric_precision, numeric_scale, "
+                + "  character_maximum_length, is_nullable "
+                + "FROM information_schema.columns "
+                + "WHERE table_schema=? "
+                + "ORDER BY table_name, ordinal_position")) {
+            ps.setString(1, schema);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int frac = rs.getInt(3);
+                    Integer precision = (rs.wasNull() || frac <= 0) ? null : frac;
+                    snapshot.addColumn(rs.getString(1), rs.getString(2), null, precision);
+                    snapshot.setColumnType(rs.getString(1), rs.getString(2),
+                            catalogType(rs.getString(4), rs.getString(5), rs.getLong(6),
+                                    rs.getInt(7), rs.getLong(8), "YES".equals(rs.getString(9))));
+                }
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT table_name, table_rows FROM information_schema.tables "
+                + "WHERE table_schema=?")) {
+            ps.setString(1, schema);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long rows = rs.getLong(2);
+                    if (!rs.wasNull()) {
+                        snapshot.setRowCount(rs.getString(1), rows);
                     }
                 }
             }
         }
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT tc.table_name, tc.constraint_type, tc.constraint_name, kcu.column_name "
+                + "FROM information_schema.table_constraints tc "
+                + "INNER JOIN information_schema.key_column_usage kcu "
+                + "  ON kcu.constraint_name=tc.constraint_name "
+                + "  AND kcu.table_schema=tc.table_schema "
+                + "  AND kcu.table_name=tc.table_name "
+                + "WHERE tc.table_schema=? "
+                + "  AND tc.constraint_type IN ('PRIMARY KEY', 'UNIQUE') "
+                + "ORDER BY tc.table_name, tc.constraint_name, kcu.ordinal_position")) {
+            ps.setString(1, schema);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if ("PRIMARY KEY".equals(rs.getString(2))) {
+                        snapshot.addKeyColumn(rs.getString(1), rs.getString(4));
+                    } else {
+                        snapshot.addUniqueColumn(rs.getString(1), rs.getString(3), rs.getString(4));
+                    }
+                }
+            }
+        }
+        snapshot.resolveKeys();
+        return snapshot;
+    }
+
+    /**
+     * Maps the catalog column type to the JDBC type reported by the driver.
+     * The unsigned types, TINYINT(1) and the types with the driver-specific
+     * mapping are left to the probe query.
+     *
+     * @return The JDBC type, or null if the type must be probed
+     */
+    static CatalogSnapshot.ColumnType catalogType(String dataType, String columnType,
+            long numericPrecision, int numericScale, long charLength, boolean nullable) {
+        if (dataType == null || columnType == null
+                || columnType.toLowerCase(Locale.ROOT).contains("unsigned")) {
+            return null;
+        }
+        final int length = (int) Math.min(charLength, Integer.MAX_VALUE);
+        final int precision = (int) Math.min(numericPrecision, Integer.MAX_VALUE);
+        switch (dataType.toLowerCase(Locale.ROOT)) {
+            case "tinyint":
+                if (columnType.toLowerCase(Locale.ROOT).startsWith("tinyint(1)")) {
+                    // reported as BIT by default
+                    return null;
+                }
+                return new CatalogSnapshot.ColumnType(java.sql.Types.TINYINT, precision, 0, nullable, false);
+            case "smallint":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.SMALLINT, precision, 0, nullable, false);
+            case "mediumint":
+            case "int":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.INTEGER, precision, 0, nullable, false);
+            case "bigint":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.BIGINT, precision, 0, nullable, false);
+            case "decimal":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.DECIMAL, precision, numericScale,
+                        nullable, false);
+            case "float":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.REAL, precision, 0, nullable, false);
+            case "double":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.DOUBLE, precision, 0, nullable, false);
+            case "char":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.CHAR, length, 0, nullable, false);
+            case "varchar":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.VARCHAR, length, 0, nullable, false);
+            case "date":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.DATE, 10, 0, nullable, false);
+            case "datetime":
+            case "timestamp":
+                // the fractional seconds come from the datetime precision, see grabColumnTypes
+                return new CatalogSnapshot.ColumnType(java.sql.Types.TIMESTAMP, 19, 0, nullable, false);
+            default:
+                return null;
+        }
     }
 
     @Override
@@ -205,6 +347,27 @@ public class MySqlTableLister extends AnyTableLister {
         }
     }
 
+    @Override
+    protected List<IndexInfo> grabIndexes(Connection con, TableIdentity ti) throws SQLException {
+        // functional key parts have no column name
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT s.index_name, CASE WHEN s.non_unique = 0 THEN 1 ELSE 0 END, s.column_name "
+                + "FROM information_schema.statistics s "
+                + "WHERE s.table_schema=? AND s.table_name=? "
+                + "  AND s.index_name <> 'PRIMARY' "
+                + "  AND s.index_type IN ('BTREE', 'HASH') "
+                + "  AND NOT EXISTS (SELECT 1 FROM information_schema.statistics x "
+                + "    WHERE x.table_schema=s.table_schema AND x.table_name=s.table_name "
+                + "      AND x.index_name=s.index_name AND x.column_name IS NULL) "
+                + "ORDER BY s.index_name, s.seq_in_index")) {
+            ps.setString(1, ti.getSchema());
+            ps.setString(2, ti.getTable());
+            try (ResultSet rs = ps.executeQuery()) {
+                return collectIndexes(rs);
+            }
+        }
+    }
+
     @Override
     protected String safeId(String id) {
         if (id.contains("`")) {
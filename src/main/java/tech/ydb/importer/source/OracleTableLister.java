@@ -71,6 +71,29 @@ public class OracleTableLister extends AnyTableLister {
         return -1L;
     }
 
+    @Override
+    protected String sampleClause(double percent) {
+        return "SAMPLE BLOCK (" + formatPercent(percent) + ")";
+    }
+
+    @Override
+    protected String grabFingerprint(Connection con, TableIdentity ti) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT TO_CHAR(last_ddl_time, 'YYYYMMDDHH24MISS') FROM all_objects "
+                + "WHERE owner=? AND object_name=? "
+                + "  AND object_type IN ('TABLE', 'VIEW', 'MATERIALIZED VIEW') "
+                + "ORDER BY last_ddl_time DESC")) {
+            ps.setString(1, ti.getSchema());
+            ps.setString(2, ti.getTable());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return "ddl:" + rs.getString(1);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     protected List<ColumnInfo> grabColumnNames(Connection con, TableIdentity ti) throws SQLException {
         final List<ColumnInfo> cols = new ArrayList<>();
@@ -143,6 +166,13 @@ public class OracleTableLister extends AnyTableLister {
     protected void grabColumnTypes(Connection con, TableDecision td, TableMetadata tm)
             throws SQLException {
         super.grabColumnTypes(con, td, tm);
+        CatalogSnapshot.Entry entry = catalogEntry(con, td);
+        if (entry != null) {
+            for (java.util.Map.Entry<String, String> me : entry.getNativeTypes().entrySet()) {
+                fixupColumnType(tm.findColumn(me.getKey()), me.getValue());
+            }
+            return;
+        }
         try (PreparedStatement ps = con.prepareStatement(
                 "SELECT column_name, data_type FROM all_tab_columns "
                 + "WHERE owner=? AND table_name=?")) {
@@ -150,19 +180,82 @@ public class OracleTableLister extends AnyTableLister {
             ps.setString(2, td.getTable());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    ColumnInfo ci = tm.findColumn(rs.getString(1));
-                    if (ci == null) {
-                        continue;
-                    }
-                    String dataType = rs.getString(2);
-                    if ("BINARY_FLOAT".equals(dataType)) {
-                        ci.setSqlType(java.sql.Types.REAL);
-                    } else if ("BINARY_DOUBLE".equals(dataType)) {
-                        ci.setSqlType(java.sql.Types.DOUBLE);
+                    fixupColumnType(tm.findColumn(rs.getString(1)), rs.getString(2));
+                }
+            }
+        }
+    }
+
+    private static void fixupColumnType(ColumnInfo ci, String dataType) {
+        if (ci == null) {
+            return;
+        }
+        if ("BINARY_FLOAT".equals(dataType)) {
+            ci.setSqlType(java.sql.Types.REAL);
+        } else if ("BINARY_DOUBLE".equals(dataType)) {
+            ci.setSqlType(java.sql.Types.DOUBLE);
+        }
+    }
+
+    @Override
+    protected CatalogSnapshot loadCatalog(Connection con, String schema) throws SQLException {
+        final CatalogSnapshot snapshot = new CatalogSnapshot();
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT table_name, column_name, data_type FROM all_tab_columns "
+                + "WHERE owner=? ORDER BY table_name, column_id")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.addColumn(rs.getString(1), rs.getString(2), rs.getString(3), null);
+                }
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT table_name, num_rows FROM all_tables WHERE owner=?")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long rows = rs.getLong(2);
+                    if (!rs.wasNull()) {
+                        snapshot.setRowCount(rs.getString(1), rows);
                     }
                 }
             }
         }
+        try (PreparedStatement ps = con.prepareStatement("SELECT cols.table_name, cols.column_name "
+                + "FROM all_constraints cons, all_cons_columns cols "
+                + "WHERE cols.owner = ? "
+                + "  AND cons.constraint_type = 'P' "
+                + "  AND cons.constraint_name = cols.constraint_name "
+                + "  AND cons.owner = cols.owner "
+                + "ORDER BY cols.table_name, cols.position")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.addKeyColumn(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement(""
+                + "SELECT ix.table_name, ix.owner || '.' || ix.index_name, ic.column_name "
+                + "FROM all_indexes ix "
+                + "INNER JOIN all_ind_columns ic "
+                + "  ON ix.owner=ic.index_owner AND ix.index_name=ic.index_name "
+                + "WHERE ix.uniqueness='UNIQUE' AND ix.table_owner=? "
+                + "ORDER BY ix.table_name, ix.owner, ix.index_name, ic.column_position")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.addUniqueColumn(rs.getString(1), rs.getString(2), rs.getString(3));
+                }
+            }
+        }
+        snapshot.resolveKeys();
+        return snapshot;
     }
 
     private void grabIndexColumns(Connection con, String ixSchema, String ixName, TableMetadata tm)
@@ -180,6 +273,29 @@ public class OracleTableLister extends AnyTableLister {
         }
     }
 
+    @Override
+    protected List<IndexInfo> grabIndexes(Connection con, TableIdentity ti) throws SQLException {
+        // function-based and domain indexes cannot be recreated as plain column indexes
+        try (PreparedStatement ps = con.prepareStatement(""
+                + "SELECT ix.index_name, "
+                + "  CASE WHEN ix.uniqueness='UNIQUE' THEN 1 ELSE 0 END, ic.column_name "
+                + "FROM all_indexes ix "
+                + "INNER JOIN all_ind_columns ic "
+                + "  ON ix.owner=ic.index_owner AND ix.index_name=ic.index_name "
+                + "WHERE ix.table_owner=? AND ix.table_name=? "
+                + "  AND ix.index_type IN ('NORMAL', 'BITMAP') "
+                + "  AND NOT EXISTS (SELECT 1 FROM all_constraints cons "
+                + "    WHERE cons.owner=ix.table_owner AND cons.table_name=ix.table_name "
+                + "      AND cons.constraint_type='P' AND cons.index_name=ix.index_name) "
+                + "ORDER BY ix.index_name, ic.column_position")) {
+            ps.setString(1, ti.getSchema());
+            ps.setString(2, ti.getTable());
+            try (ResultSet rs = ps.executeQuery()) {
+                return collectIndexes(rs);
+            }
+        }
+    }
+
     @Override
     protected String safeId(String id) {
         if (id.contains("\"")) {
@@ -22,6 +22,9 @@ public class PostgresTableLister extends AnyTableLister {
 
     public static final Set<String> SKIP_SCHEMAS;
 
+    // native type marker for the large object columns in the catalog snapshot
+    private static final String BLOB_TYPE = "lo";
+
     static {
         final Set<String> x = new HashSet<>();
         x.add("information_schema");
@@ -97,6 +100,67 @@ public class PostgresTableLister extends AnyTableLister {
         return -1L;
     }
 
+    /**
+     * The equal-frequency histogram of the planner statistics gives the key boundaries
+     * without reading the table, when it is fine enough for the partition count.
+     */
+    @Override
+    protected List<String> sampleKeyValues(Connection con, TableDecision td, ColumnInfo ci,
+            boolean binary, int partitions) throws SQLException {
+        if (!binary && (td.getTableRef() == null || !td.getTableRef().hasQueryText())) {
+            final List<String> bounds = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT unnest(s.histogram_bounds::text::text[]) FROM pg_catalog.pg_stats s "
+                    + "WHERE s.schemaname = ? AND s.tablename = ? AND s.attname = ?")) {
+                ps.setString(1, td.getSchema());
+                ps.setString(2, td.getTable());
+                ps.setString(3, ci.getName());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        bounds.add(rs.getString(1));
+                    }
+                }
+            }
+            if (bounds.size() > 2 * partitions) {
+                return bounds;
+            }
+        }
+        return super.sampleKeyValues(con, td, ci, binary, partitions);
+    }
+
+    @Override
+    protected String sampleClause(double percent) {
+        return "TABLESAMPLE SYSTEM (" + formatPercent(percent) + ")";
+    }
+
+    /**
+     * PostgreSQL does not track the DDL time, so the fingerprint combines the digest
+     * of the column definitions with the storage file and the number of partitions.
+     */
+    @Override
+    protected String grabFingerprint(Connection con, TableIdentity ti) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT c.relfilenode, "
+                + "  (SELECT md5(string_agg(a.attname || ':' || a.atttypid || ':' || a.atttypmod, "
+                + "       ',' ORDER BY a.attnum)) "
+                + "   FROM pg_catalog.pg_attribute a "
+                + "   WHERE a.attrelid = c.\"oid\" AND a.attnum > 0 AND NOT a.attisdropped), "
+                + "  (SELECT COUNT(*) FROM pg_catalog.pg_inherits i WHERE i.inhparent = c.\"oid\") "
+                + "FROM pg_catalog.pg_class c "
+                + "INNER JOIN pg_catalog.pg_namespace n "
+                + "  ON n.\"oid\" = c.relnamespace "
+                + "WHERE n.nspname = ? AND c.relname = ?")) {
+            ps.setString(1, ti.getSchema());
+            ps.setString(2, ti.getTable());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return "pg:" + rs.getLong(1) + ":" + rs.getString(2) + ":" + rs.getLong(3);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     protected List<ColumnInfo> grabColumnNames(Connection con, TableIdentity ti) throws SQLException {
         final List<ColumnInfo> cols = new ArrayList<>();
@@ -266,6 +330,34 @@ public class PostgresTableLister extends AnyTableLister {
         }
     }
 
+    @Override
+    protected List<IndexInfo> grabIndexes(Connection con, TableIdentity ti) throws SQLException {
+        // Same filters as in chooseBestUniqueIndexAsKey(), without the uniqueness requirement.
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT ic.relname, ix.indisunique, a.attname "
+                + "FROM pg_catalog.pg_index ix "
+                + "CROSS JOIN LATERAL generate_series(0, ix.indnkeyatts - 1) AS k(pos) "
+                + "INNER JOIN pg_catalog.pg_class ic "
+                + "  ON ic.\"oid\" = ix.indexrelid "
+                + "INNER JOIN pg_catalog.pg_class c "
+                + "  ON c.\"oid\" = ix.indrelid "
+                + "INNER JOIN pg_catalog.pg_namespace n "
+                + "  ON n.\"oid\" = c.relnamespace "
+                + "INNER JOIN pg_catalog.pg_attribute a "
+                + "  ON a.attrelid = ix.indrelid AND a.attnum = ix.indkey[k.pos] "
+                + "WHERE n.nspname = ? AND c.relname = ? "
+                + "  AND ix.indisvalid AND NOT ix.indisprimary "
+                + "  AND ix.indpred IS NULL "
+                + "  AND ix.indexprs IS NULL "
+                + "ORDER BY ic.relname, k.pos")) {
+            ps.setString(1, ti.getSchema());
+            ps.setString(2, ti.getTable());
+            try (ResultSet rs = ps.executeQuery()) {
+                return collectIndexes(rs);
+            }
+        }
+    }
+
     @Override
     protected String safeId(String id) {
         if (id.contains("\"")) {
@@ -279,6 +371,15 @@ public class PostgresTableLister extends AnyTableLister {
             throws SQLException {
         // Basic implementation comes from the parent.
         super.grabColumnTypes(con, td, tm);
+        CatalogSnapshot.Entry entry = catalogEntry(con, td);
+        if (entry != null) {
+            for (java.util.Map.Entry<String, String> me : entry.getNativeTypes().entrySet()) {
+                if (BLOB_TYPE.equals(me.getValue())) {
+                    markBlob(tm.findColumn(me.getKey()));
+                }
+            }
+            return;
+        }
         // Grab the BLOB columns, which are a magic in PostgreSQL.
         final String sqlBlob = ""
                 + "SELECT a.attname "
@@ -295,15 +396,164 @@ public class PostgresTableLister extends AnyTableLister {
             ps.setString(2, td.getTable());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    String colname = rs.getString(1);
-                    ColumnInfo ci = tm.findColumn(colname);
-                    if (ci != null) {
-                        ci.setSqlType(java.sql.Types.BLOB);
-                        ci.setBlobAsObject(true);
+                    markBlob(tm.findColumn(rs.getString(1)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps the catalog column type to the JDBC type reported by the driver.
+     * The unconstrained numerics, the large objects and the other types
+     * with the driver-specific mapping are left to the probe query.
+     *
+     * @param typeName Name of the column type
+     * @param typmod Type modifier, -1 when not set
+     * @param nullable true for the nullable columns
+     * @return The JDBC type, or null if the type must be probed
+     */
+    static CatalogSnapshot.ColumnType catalogType(String typeName, int typmod, boolean nullable) {
+        if (typeName == null) {
+            return null;
+        }
+        switch (typeName) {
+            case "int2":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.SMALLINT, 5, 0, nullable, false);
+            case "int4":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.INTEGER, 10, 0, nullable, false);
+            case "int8":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.BIGINT, 19, 0, nullable, false);
+            case "float4":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.REAL, 8, 0, nullable, false);
+            case "float8":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.DOUBLE, 17, 0, nullable, false);
+            case "bool":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.BIT, 1, 0, nullable, false);
+            case "numeric":
+                if (typmod < 4) {
+                    return null;
+                }
+                return new CatalogSnapshot.ColumnType(java.sql.Types.NUMERIC,
+                        ((typmod - 4) >> 16) & 0xFFFF, (typmod - 4) & 0xFFFF, nullable, false);
+            case "varchar":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.VARCHAR,
+                        (typmod < 4) ? Integer.MAX_VALUE : typmod - 4, 0, nullable, false);
+            case "bpchar":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.CHAR,
+                        (typmod < 4) ? 1 : typmod - 4, 0, nullable, false);
+            case "text":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.VARCHAR, Integer.MAX_VALUE, 0,
+                        nullable, false);
+            case "date":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.DATE, 13, 0, nullable, false);
+            case "timestamp": {
+                int scale = (typmod < 0) ? 6 : typmod;
+                return new CatalogSnapshot.ColumnType(java.sql.Types.TIMESTAMP,
+                        (scale > 0) ? 20 + scale : 19, scale, nullable, false);
+            }
+            case "bytea":
+                return new CatalogSnapshot.ColumnType(java.sql.Types.BINARY, Integer.MAX_VALUE, 0,
+                        nullable, false);
+            default:
+                return null;
+        }
+    }
+
+    private static void markBlob(ColumnInfo ci) {
+        if (ci != null) {
+            ci.setSqlType(java.sql.Types.BLOB);
+            ci.setBlobAsObject(true);
+        }
+    }
+
+    @Override
+    protected CatalogSnapshot loadCatalog(Connection con, String schema) throws SQLException {
+        final CatalogSnapshot snapshot = new CatalogSnapshot();
+        // Columns, with the large object columns of regular tables marked.
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT c.relname, a.attname, "
+                + "  CASE WHEN t.typname IN ('oid', 'lo') AND c.relkind IN ('r', 'p') "
+                + "    THEN '" + BLOB_TYPE + "' END, "
+                + "  t.typname, a.atttypmod, a.attnotnull, c.reltuples "
+                + "FROM pg_catalog.pg_attribute a "
+                + "INNER JOIN pg_catalog.pg_class c "
+                + "  ON c.\"oid\" = a.attrelid "
+                + "INNER JOIN pg_catalog.pg_namespace n "
+                + "  ON n.\"oid\" = c.relnamespace "
+                + "INNER JOIN pg_catalog.pg_type t "
+                + "  ON t.\"oid\" = a.atttypid "
+                + "WHERE n.nspname = ? "
+                + "  AND c.relkind IN ('r', 'p', 'v', 'm', 'f') "
+                + "  AND a.attnum > 0 AND NOT a.attisdropped "
+                + "ORDER BY c.relname, a.attnum")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.addColumn(rs.getString(1), rs.getString(2), rs.getString(3), null);
+                    snapshot.setColumnType(rs.getString(1), rs.getString(2),
+                            catalogType(rs.getString(4), rs.getInt(5), !rs.getBoolean(6)));
+                    long rows = rs.getLong(7);
+                    if (!rs.wasNull()) {
+                        snapshot.setRowCount(rs.getString(1), rows);
                     }
                 }
             }
         }
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT c.relname, ia.attname "
+                + "FROM pg_catalog.pg_attribute ia "
+                + "INNER JOIN pg_catalog.pg_index ix "
+                + "  ON ix.indexrelid = ia.attrelid "
+                + "INNER JOIN pg_catalog.pg_constraint x "
+                + "  ON x.conindid = ix.indexrelid "
+                + "INNER JOIN pg_catalog.pg_class c "
+                + "  ON c.\"oid\" = x.conrelid "
+                + "INNER JOIN pg_catalog.pg_namespace n "
+                + "  ON n.\"oid\" = c.relnamespace "
+                + "WHERE n.nspname = ? "
+                + "  AND x.contype = 'p' "
+                + "  AND ix.indisvalid AND ix.indisunique "
+                + "ORDER BY c.relname, ia.attnum")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.addKeyColumn(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        // Same rules as in chooseBestUniqueIndexAsKey().
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT c.relname, ic.relname, a.attname "
+                + "FROM pg_catalog.pg_index ix "
+                + "CROSS JOIN LATERAL generate_series(0, ix.indnkeyatts - 1) AS k(pos) "
+                + "INNER JOIN pg_catalog.pg_class ic "
+                + "  ON ic.\"oid\" = ix.indexrelid "
+                + "INNER JOIN pg_catalog.pg_class c "
+                + "  ON c.\"oid\" = ix.indrelid "
+                + "INNER JOIN pg_catalog.pg_namespace n "
+                + "  ON n.\"oid\" = c.relnamespace "
+                + "INNER JOIN pg_catalog.pg_attribute a "
+                + "  ON a.attrelid = ix.indrelid AND a.attnum = ix.indkey[k.pos] "
+                + "LEFT JOIN pg_catalog.pg_constraint x "
+                + "  ON x.conindid = ix.indexrelid AND x.contype = 'p' "
+                + "WHERE n.nspname = ? "
+                + "  AND ix.indisvalid AND ix.indisunique "
+                + "  AND x.conindid IS NULL "
+                + "  AND ix.indpred IS NULL "
+                + "  AND ix.indexprs IS NULL "
+                + "ORDER BY c.relname, ic.relname, k.pos")) {
+            ps.setString(1, schema);
+            ps.setFetchSize(10000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.addUniqueColumn(rs.getString(1), rs.getString(2), rs.getString(3));
+                }
+            }
+        }
+        snapshot.resolveKeys();
+        return snapshot;
     }
 
 }
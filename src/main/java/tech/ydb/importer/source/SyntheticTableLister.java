@@ -0,0 +1,113 @@
+package tech.ydb.importer.source;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.config.TableIdentity;
+import tech.ydb.importer.synthetic.SyntheticColumn;
+import tech.ydb.importer.synthetic.SyntheticConnection;
+import tech.ydb.importer.synthetic.SyntheticModel;
+
+/**
+ * Source table metadata retrieval - synthetic source specifics.
+ * The layout comes from the connection model, while the column types
+ * are still retrieved with the regular zero-row query.
+ */
+public class SyntheticTableLister extends AnyTableLister {
+
+    public SyntheticTableLister(TableMapList tableMaps) {
+        super(tableMaps);
+    }
+
+    private static SyntheticModel model(Connection con) throws SQLException {
+        return con.unwrap(SyntheticConnection.class).getModel();
+    }
+
+    @Override
+    protected List<String> listSchemas(Connection con) throws SQLException {
+        return Collections.singletonList(model(con).getSchema());
+    }
+
+    @Override
+    protected List<String> listTables(Connection con, String schema) throws SQLException {
+        final SyntheticModel model = model(con);
+        if (!model.getSchema().equals(schema)) {
+            return Collections.emptyList();
+        }
+        return model.getTables();
+    }
+
+    @Override
+    protected String safeId(String id) {
+        if (id.contains("\"")) {
+            throw new IllegalArgumentException("Double quotes within the identifier: " + id);
+        }
+        return "\"" + id + "\"";
+    }
+
+    @Override
+    protected long grabRowCount(Connection con, TableIdentity ti) throws SQLException {
+        final SyntheticModel model = model(con);
+        if (model.tableIndex(ti.getTable()) < 0) {
+            return -1L;
+        }
+        return model.getRows();
+    }
+
+    @Override
+    protected List<ColumnInfo> grabColumnNames(Connection con, TableIdentity ti) throws SQLException {
+        final List<ColumnInfo> retval = new ArrayList<>();
+        for (SyntheticColumn sc : model(con).getColumns()) {
+            retval.add(new ColumnInfo(sc.getName()));
+        }
+        return retval;
+    }
+
+    @Override
+    protected void grabPrimaryKey(Connection con, TableIdentity ti, TableMetadata tm) throws SQLException {
+        tm.addKey(SyntheticModel.KEY_COLUMN);
+    }
+
+    @Override
+    protected List<IndexInfo> grabIndexes(Connection con, TableIdentity ti) throws SQLException {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected String grabFingerprint(Connection con, TableIdentity ti) throws SQLException {
+        final String url = model(con).getUrl();
+        return "synthetic:" + Integer.toHexString(url.hashCode()) + ":" + url.length();
+    }
+
+    @Override
+    protected String sampleClause(double percent) {
+        return "TABLESAMPLE BERNOULLI (" + formatPercent(percent) + ")";
+    }
+
+    @Override
+    protected List<TaskInfo> loadPartitions(Connection con, TableDecision td, TableMetadata tm)
+            throws SQLException {
+        if (td.getTableRef() != null && td.getTableRef().hasQueryText()) {
+            return Collections.emptyList();
+        }
+        final SyntheticModel model = model(con);
+        final List<TaskInfo> tasks = new ArrayList<>();
+        final String baseSql = makeSelectSql(td.getSchema(), td.getTable(), tm.getColumns());
+        for (int i = 0; i < model.getPartitions(); ++i) {
+            String partName = model.partitionName(i);
+            String sql = baseSql + " PARTITION (" + safeId(partName) + ")";
+            String label = td.getSchema() + "." + td.getTable() + "#" + partName;
+            tasks.add(new TaskInfo(label, sql));
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean defaultAutoCommit() {
+        return true;
+    }
+}
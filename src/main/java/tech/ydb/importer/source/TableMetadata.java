@@ -22,6 +22,8 @@ public class TableMetadata {
     private List<TaskInfo> tasks = Collections.emptyList();
     private YdbPartitioning ydbPartitioning = YdbPartitioning.ydbDefault();
     private List<TaskInfo> sourcePartitions;
+    private String readPlan;
+    private final List<IndexInfo> indexes = new ArrayList<>();
 
     public boolean isValid() {
         return !columns.isEmpty();
@@ -116,6 +118,14 @@ public class TableMetadata {
         this.ydbPartitioning = ydbPartitioning;
     }
 
+    public List<IndexInfo> getIndexes() {
+        return Collections.unmodifiableList(indexes);
+    }
+
+    public void addIndex(IndexInfo index) {
+        indexes.add(index);
+    }
+
     public List<TaskInfo> getSourcePartitions() {
         return sourcePartitions;
     }
@@ -124,4 +134,15 @@ public class TableMetadata {
         this.sourcePartitions = sourcePartitions;
     }
 
+    /**
+     * @return Description of how the table is split into the read tasks, or null if unknown
+     */
+    public String getReadPlan() {
+        return readPlan;
+    }
+
+    public void setReadPlan(String readPlan) {
+        this.readPlan = readPlan;
+    }
+
 }
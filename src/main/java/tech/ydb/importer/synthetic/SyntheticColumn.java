@@ -0,0 +1,239 @@
+package tech.ydb.importer.synthetic;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Column of a synthetic table: the JDBC type description and the generator
+ * of its values, which are a pure function of the row hash.
+ */
+public final class SyntheticColumn {
+
+    private static final long TS_BASE = 1_500_000_000_000L;
+    private static final long TS_SPAN = 400_000_000_000L;
+    private static final long DATE_BASE = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final char[] CHARS =
+            "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; ++i) {
+            POW10[i] = POW10[i - 1] * 10L;
+        }
+    }
+
+    /**
+     * Supported column kinds, named as in the URL column list.
+     */
+    public enum Kind {
+        INT(Types.INTEGER, "INTEGER"),
+        BIGINT(Types.BIGINT, "BIGINT"),
+        DOUBLE(Types.DOUBLE, "DOUBLE"),
+        DECIMAL(Types.DECIMAL, "DECIMAL"),
+        BOOL(Types.BOOLEAN, "BOOLEAN"),
+        TEXT(Types.VARCHAR, "VARCHAR"),
+        UUID(Types.VARCHAR, "VARCHAR"),
+        DATE(Types.DATE, "DATE"),
+        TIMESTAMP(Types.TIMESTAMP, "TIMESTAMP"),
+        BYTES(Types.VARBINARY, "VARBINARY"),
+        CLOB(Types.CLOB, "CLOB"),
+        BLOB(Types.BLOB, "BLOB");
+
+        private final int sqlType;
+        private final String typeName;
+
+        Kind(int sqlType, String typeName) {
+            this.sqlType = sqlType;
+            this.typeName = typeName;
+        }
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final int precision;
+    private final int scale;
+    private final boolean key;
+
+    SyntheticColumn(String name, Kind kind, int precision, int scale, boolean key) {
+        this.name = name;
+        this.kind = kind;
+        this.precision = precision;
+        this.scale = scale;
+        this.key = key;
+    }
+
+    /**
+     * Parses the column specification, like "text:64" or "decimal:22:9".
+     *
+     * @param index Column position, used to build the column name
+     * @param spec Column specification
+     * @return Column definition
+     */
+    static SyntheticColumn parse(int index, String spec) {
+        final String[] parts = spec.trim().split(":");
+        final Kind kind;
+        try {
+            kind = Kind.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown synthetic column type: " + spec);
+        }
+        int precision;
+        int scale = 0;
+        switch (kind) {
+            case INT:
+                precision = 10;
+                break;
+            case BIGINT:
+                precision = 19;
+                break;
+            case DOUBLE:
+                precision = 15;
+                break;
+            case DECIMAL:
+                precision = (parts.length > 1) ? Integer.parseInt(parts[1]) : 22;
+                scale = (parts.length > 2) ? Integer.parseInt(parts[2]) : 9;
+                if (precision < 1 || scale < 0 || scale > precision) {
+                    throw new IllegalArgumentException("Illegal synthetic decimal column: " + spec);
+                }
+                break;
+            case BOOL:
+                precision = 1;
+                break;
+            case UUID:
+                precision = 36;
+                break;
+            case DATE:
+                precision = 10;
+                break;
+            case TIMESTAMP:
+                precision = 26;
+                scale = 6;
+                break;
+            case TEXT:
+            case BYTES:
+                precision = (parts.length > 1) ? Integer.parseInt(parts[1]) : 64;
+                break;
+            default: // LOBs
+                precision = (parts.length > 1) ? Integer.parseInt(parts[1]) : 4096;
+                break;
+        }
+        if (precision < 1) {
+            throw new IllegalArgumentException("Illegal synthetic column size: " + spec);
+        }
+        return new SyntheticColumn("c" + index + "_" + kind.name().toLowerCase(Locale.ROOT),
+                kind, precision, scale, false);
+    }
+
+    static SyntheticColumn key(String name) {
+        return new SyntheticColumn(name, Kind.BIGINT, 19, 0, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isKey() {
+        return key;
+    }
+
+    public int getSqlType() {
+        return kind.sqlType;
+    }
+
+    public String getTypeName() {
+        return kind.typeName;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Generates the non-null column value.
+     *
+     * @param h Hash of the table, row and column
+     * @return Value of the JDBC class which matches the column type
+     */
+    Object generate(long h) {
+        switch (kind) {
+            case INT:
+                return (int) h;
+            case BIGINT:
+                return h;
+            case DOUBLE:
+                return unit(h) * 1_000_000D;
+            case DECIMAL: {
+                final int digits = Math.min(precision, 18);
+                final long unscaled = Long.remainderUnsigned(h >>> 1, POW10[digits]);
+                return BigDecimal.valueOf(((h & 1L) == 0L) ? unscaled : -unscaled, scale);
+            }
+            case BOOL:
+                return (h & 1L) == 1L;
+            case TEXT:
+            case CLOB:
+                return text(h);
+            case UUID:
+                return new UUID(h, SyntheticModel.mix(h)).toString();
+            case DATE:
+                return Date.valueOf(LocalDate.ofEpochDay(DATE_BASE + Long.remainderUnsigned(h, 10_000L)));
+            case TIMESTAMP: {
+                final Timestamp ts = new Timestamp(TS_BASE + Long.remainderUnsigned(h, TS_SPAN));
+                ts.setNanos((int) Long.remainderUnsigned(h >>> 20, 1_000_000L) * 1000);
+                return ts;
+            }
+            default: // BYTES, BLOB
+                return bytes(h);
+        }
+    }
+
+    /** Length between the half and the full declared size. */
+    private int length(long h) {
+        return precision / 2 + (int) Long.remainderUnsigned(h, precision / 2 + 1);
+    }
+
+    private String text(long h) {
+        final char[] v = new char[length(h)];
+        long state = h;
+        for (int i = 0; i < v.length; i += 8) {
+            state = SyntheticModel.mix(state);
+            long bits = state;
+            for (int j = i; j < i + 8 && j < v.length; ++j) {
+                v[j] = CHARS[(int) ((bits & 0xFFL) % CHARS.length)];
+                bits >>>= 8;
+            }
+        }
+        return new String(v);
+    }
+
+    private byte[] bytes(long h) {
+        final byte[] v = new byte[length(h)];
+        long state = h;
+        for (int i = 0; i < v.length; i += 8) {
+            state = SyntheticModel.mix(state);
+            long bits = state;
+            for (int j = i; j < i + 8 && j < v.length; ++j) {
+                v[j] = (byte) bits;
+                bits >>>= 8;
+            }
+        }
+        return v;
+    }
+
+    static double unit(long h) {
+        return (h >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,78 @@
+package tech.ydb.importer.synthetic;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver of the synthetic source, which generates the table rows
+ * in memory instead of reading them from a database.
+ *
+ * @see SyntheticModel for the URL format
+ */
+public class SyntheticDriver implements Driver {
+
+    static {
+        try {
+            DriverManager.registerDriver(new SyntheticDriver());
+        } catch (SQLException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        final Properties props = new Properties();
+        if (info != null) {
+            // the pool passes the credentials, which are not settings
+            for (String name : info.stringPropertyNames()) {
+                if (!"user".equals(name) && !"password".equals(name)) {
+                    props.setProperty(name, info.getProperty(name));
+                }
+            }
+        }
+        try {
+            return new SyntheticConnection(SyntheticModel.parse(url, props));
+        } catch (IllegalArgumentException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return url != null && url.startsWith(SyntheticModel.URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -0,0 +1,227 @@
+package tech.ydb.importer.synthetic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Layout of the synthetic database, parsed from the JDBC URL:
+ * <pre>
+ * jdbc:synthetic:schema=synth;tables=4;rows=1000000;columns=int,text:64,decimal:22:9,blob:4096;
+ *     nulls=0.1;skew=0.5;partitions=8;seed=1
+ * </pre>
+ * All the tables of the schema share the same layout: the BIGINT primary key "id"
+ * followed by the listed columns. Row values are computed from the seed,
+ * the table number and the row number, so every read returns the same data.
+ */
+public final class SyntheticModel {
+
+    public static final String URL_PREFIX = "jdbc:synthetic:";
+    public static final String KEY_COLUMN = "id";
+
+    private static final String DEFAULT_COLUMNS = "int,text:64,decimal:22:9,timestamp";
+
+    private final String url;
+    private final String schema;
+    private final List<String> tables;
+    private final long rows;
+    private final List<SyntheticColumn> columns;
+    private final Map<String, Integer> columnIndex;
+    private final double nulls;
+    private final double skew;
+    private final int partitions;
+    private final long seed;
+
+    private SyntheticModel(String url, Map<String, String> params) {
+        this.url = url;
+        this.schema = param(params, "schema", "synth");
+        final String prefix = param(params, "table", "t");
+        final int tableCount = Integer.parseInt(param(params, "tables", "1"));
+        if (tableCount < 1) {
+            throw new IllegalArgumentException("Synthetic table count must be positive");
+        }
+        final List<String> names = new ArrayList<>(tableCount);
+        for (int i = 0; i < tableCount; ++i) {
+            names.add(prefix + i);
+        }
+        this.tables = Collections.unmodifiableList(names);
+        this.rows = Long.parseLong(param(params, "rows", "1000000"));
+        this.nulls = Double.parseDouble(param(params, "nulls", "0.1"));
+        this.skew = Double.parseDouble(param(params, "skew", "0"));
+        this.partitions = Integer.parseInt(param(params, "partitions", "0"));
+        this.seed = Long.parseLong(param(params, "seed", "1"));
+        if (rows < 0L || nulls < 0D || nulls > 1D || skew < 0D || skew > 1D || partitions < 0) {
+            throw new IllegalArgumentException("Illegal synthetic source settings: " + url);
+        }
+        final List<SyntheticColumn> cols = new ArrayList<>();
+        cols.add(SyntheticColumn.key(KEY_COLUMN));
+        for (String spec : param(params, "columns", DEFAULT_COLUMNS).split(",")) {
+            if (!spec.trim().isEmpty()) {
+                cols.add(SyntheticColumn.parse(cols.size(), spec));
+            }
+        }
+        this.columns = Collections.unmodifiableList(cols);
+        this.columnIndex = new HashMap<>();
+        for (int i = 0; i < cols.size(); ++i) {
+            columnIndex.put(cols.get(i).getName().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    /**
+     * Parses the synthetic source URL, with the connection properties
+     * overriding the URL settings.
+     *
+     * @param url JDBC URL
+     * @param info Connection properties, can be null
+     * @return The parsed model
+     */
+    public static SyntheticModel parse(String url, Properties info) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            throw new IllegalArgumentException("Not a synthetic source URL: " + url);
+        }
+        final Map<String, String> params = new HashMap<>();
+        for (String item : url.substring(URL_PREFIX.length()).split(";")) {
+            final int pos = item.indexOf('=');
+            if (pos > 0) {
+                params.put(item.substring(0, pos).trim().toLowerCase(Locale.ROOT),
+                        item.substring(pos + 1).trim());
+            } else if (!item.trim().isEmpty()) {
+                throw new IllegalArgumentException("Illegal synthetic source setting: " + item);
+            }
+        }
+        if (info != null) {
+            for (String name : info.stringPropertyNames()) {
+                params.put(name.toLowerCase(Locale.ROOT), info.getProperty(name));
+            }
+        }
+        return new SyntheticModel(url, params);
+    }
+
+    private static String param(Map<String, String> params, String name, String def) {
+        final String v = params.get(name);
+        return (v == null || v.isEmpty()) ? def : v;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public List<String> getTables() {
+        return tables;
+    }
+
+    /**
+     * @param name Table name
+     * @return Table number, or -1 if the table does not exist
+     */
+    public int tableIndex(String name) {
+        return tables.indexOf(name);
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public List<SyntheticColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param name Column name, case insensitive
+     * @return Column position, or -1 if the column does not exist
+     */
+    public int columnIndex(String name) {
+        final Integer v = columnIndex.get(name.toLowerCase(Locale.ROOT));
+        return (v == null) ? -1 : v;
+    }
+
+    public double getNulls() {
+        return nulls;
+    }
+
+    public double getSkew() {
+        return skew;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @param part Partition number
+     * @return Partition name
+     */
+    public String partitionName(int part) {
+        return "p" + part;
+    }
+
+    /**
+     * @param name Partition name
+     * @return Partition number, or -1 if the partition does not exist
+     */
+    public int partitionIndex(String name) {
+        for (int i = 0; i < partitions; ++i) {
+            if (partitionName(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** First row of the partition, with the rows split evenly between the partitions. */
+    public long partitionStart(int part) {
+        return (long) (rows * (double) part / partitions);
+    }
+
+    /**
+     * Key of the row. Keys grow with the row number, and with a positive skew
+     * grow faster towards the end, so equal key ranges hold different row counts.
+     *
+     * @param row Row number
+     * @return Key value
+     */
+    public long key(long row) {
+        if (skew == 0D) {
+            return row + 1L;
+        }
+        return 1L + (long) Math.floor(Math.pow(row, 1D + skew));
+    }
+
+    /**
+     * Hash of the cell, the source of both the null decision and the value.
+     */
+    long cellHash(int table, long row, int column) {
+        return mix(seed * 0x9E3779B97F4A7C15L + table * 0xC2B2AE3D27D4EB4FL
+                + row * 0x165667B19E3779F9L + column * 0xD6E8FEB86659FD93L);
+    }
+
+    /**
+     * @return The cell value, or null
+     */
+    Object value(int table, long row, int column) {
+        final SyntheticColumn c = columns.get(column);
+        if (c.isKey()) {
+            return key(row);
+        }
+        final long h = cellHash(table, row, column);
+        if (nulls > 0D && SyntheticColumn.unit(h) < nulls) {
+            return null;
+        }
+        return c.generate(mix(h));
+    }
+
+    /** SplitMix64 finalizer. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
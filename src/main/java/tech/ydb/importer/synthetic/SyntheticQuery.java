@@ -0,0 +1,780 @@
+package tech.ydb.importer.synthetic;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsed query over a synthetic table. Only the statement shapes generated
+ * by the importer are understood:
+ * <pre>
+ * SELECT "a", "b" FROM "s"."t" [PARTITION ("p0")] [TABLESAMPLE BERNOULLI (n)] [WHERE ...]
+ * SELECT min("a"), max("a") FROM ...
+ * SELECT q.* FROM (SELECT ...) q WHERE ...
+ * </pre>
+ * with the WHERE clause built of column comparisons with literals,
+ * IS [NOT] NULL checks, constant comparisons like 0=1, AND, OR and parentheses.
+ * Conditions on the key column narrow down the range of the scanned rows.
+ */
+final class SyntheticQuery {
+
+    private final SyntheticModel model;
+    private final int table;
+    private long from;
+    private long to;
+    private double sample = 1D;
+    private final List<Condition> filters = new ArrayList<>();
+    private int[] projection;
+    private boolean[] maximum;
+
+    private SyntheticQuery(SyntheticModel model, int table) {
+        this.model = model;
+        this.table = table;
+        this.from = 0L;
+        this.to = model.getRows();
+    }
+
+    /**
+     * @param model Synthetic database layout
+     * @param sql Query text
+     * @return Parsed query
+     * @throws SQLException on unsupported query text or unknown objects
+     */
+    static SyntheticQuery parse(SyntheticModel model, String sql) throws SQLException {
+        final Parser p = new Parser(model, sql);
+        try {
+            final SyntheticQuery q = p.query();
+            if (!p.atEnd()) {
+                throw p.error("unexpected " + p.peek());
+            }
+            q.narrow();
+            return q;
+        } catch (IllegalArgumentException ex) {
+            throw new SQLSyntaxErrorException(ex.getMessage() + " in synthetic query: " + sql, ex);
+        }
+    }
+
+    int getTable() {
+        return table;
+    }
+
+    long getFrom() {
+        return from;
+    }
+
+    long getTo() {
+        return to;
+    }
+
+    /**
+     * @return Table column positions of the result columns
+     */
+    int[] getProjection() {
+        return projection;
+    }
+
+    /**
+     * @return null for the plain queries, otherwise true for max() and false for min()
+     *     for each result column
+     */
+    boolean[] getAggregates() {
+        return maximum;
+    }
+
+    /**
+     * @return Flags of the table columns needed for the projection and the filters
+     */
+    boolean[] neededColumns() {
+        final boolean[] needed = new boolean[model.getColumns().size()];
+        for (int c : projection) {
+            needed[c] = true;
+        }
+        for (Condition f : filters) {
+            f.collect(needed);
+        }
+        return needed;
+    }
+
+    boolean hasFilters() {
+        return !filters.isEmpty();
+    }
+
+    /**
+     * @param row Row number
+     * @return true if the row passes the table sampling
+     */
+    boolean sampled(long row) {
+        if (sample >= 1D) {
+            return true;
+        }
+        return SyntheticColumn.unit(SyntheticModel.mix(row * 0x2545F4914F6CDD1DL + table)) < sample;
+    }
+
+    /**
+     * @param values Values of the needed table columns
+     * @return true if the row matches all the filters
+     */
+    boolean matches(Object[] values) {
+        for (Condition f : filters) {
+            if (!f.test(values)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void narrow() {
+        for (Condition f : filters) {
+            final long[] r = f.rows(model);
+            from = Math.max(from, r[0]);
+            to = Math.min(to, r[1]);
+        }
+        if (to < from) {
+            to = from;
+        }
+    }
+
+    /**
+     * Row filter, with the conservative range of the rows it can accept.
+     */
+    private interface Condition {
+
+        boolean test(Object[] values);
+
+        long[] rows(SyntheticModel model);
+
+        void collect(boolean[] needed);
+    }
+
+    private static boolean compareOp(int cmp, String op) {
+        switch (op) {
+            case "<":
+                return cmp < 0;
+            case "<=":
+                return cmp <= 0;
+            case ">":
+                return cmp > 0;
+            case ">=":
+                return cmp >= 0;
+            case "=":
+                return cmp == 0;
+            default:
+                return cmp != 0;
+        }
+    }
+
+    private static long[] allRows(SyntheticModel model) {
+        return new long[]{0L, model.getRows()};
+    }
+
+    private static final class Constant implements Condition {
+        private final boolean value;
+
+        Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Object[] values) {
+            return value;
+        }
+
+        @Override
+        public long[] rows(SyntheticModel model) {
+            return value ? allRows(model) : new long[]{0L, 0L};
+        }
+
+        @Override
+        public void collect(boolean[] needed) {
+        }
+    }
+
+    private static final class Junction implements Condition {
+        private final boolean and;
+        private final List<Condition> items;
+
+        Junction(boolean and, List<Condition> items) {
+            this.and = and;
+            this.items = items;
+        }
+
+        @Override
+        public boolean test(Object[] values) {
+            for (Condition c : items) {
+                if (c.test(values) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+
+        @Override
+        public long[] rows(SyntheticModel model) {
+            long lo = and ? 0L : Long.MAX_VALUE;
+            long hi = and ? model.getRows() : Long.MIN_VALUE;
+            for (Condition c : items) {
+                final long[] r = c.rows(model);
+                if (r[0] >= r[1]) {
+                    if (and) {
+                        return new long[]{0L, 0L};
+                    }
+                    continue;
+                }
+                lo = and ? Math.max(lo, r[0]) : Math.min(lo, r[0]);
+                hi = and ? Math.min(hi, r[1]) : Math.max(hi, r[1]);
+            }
+            return (lo < hi) ? new long[]{lo, hi} : new long[]{0L, 0L};
+        }
+
+        @Override
+        public void collect(boolean[] needed) {
+            for (Condition c : items) {
+                c.collect(needed);
+            }
+        }
+    }
+
+    private static final class NullCheck implements Condition {
+        private final int column;
+        private final boolean isNull;
+        private final boolean key;
+
+        NullCheck(int column, boolean isNull, boolean key) {
+            this.column = column;
+            this.isNull = isNull;
+            this.key = key;
+        }
+
+        @Override
+        public boolean test(Object[] values) {
+            return (values[column] == null) == isNull;
+        }
+
+        @Override
+        public long[] rows(SyntheticModel model) {
+            return (key && isNull) ? new long[]{0L, 0L} : allRows(model);
+        }
+
+        @Override
+        public void collect(boolean[] needed) {
+            needed[column] = true;
+        }
+    }
+
+    private static final class Comparison implements Condition {
+        private final int column;
+        private final String op;
+        private final Literal literal;
+        private final boolean key;
+
+        Comparison(int column, String op, Literal literal, boolean key) {
+            this.column = column;
+            this.op = op;
+            this.literal = literal;
+            this.key = key;
+        }
+
+        @Override
+        public boolean test(Object[] values) {
+            final Object v = values[column];
+            if (v == null) {
+                return false;
+            }
+            return compareOp(literal.compare(v), op);
+        }
+
+        @Override
+        public long[] rows(SyntheticModel model) {
+            if (!key) {
+                return allRows(model);
+            }
+            switch (op) {
+                case "<":
+                    return new long[]{0L, firstRow(model, true)};
+                case "<=":
+                    return new long[]{0L, firstRow(model, false)};
+                case ">":
+                    return new long[]{firstRow(model, false), model.getRows()};
+                case ">=":
+                    return new long[]{firstRow(model, true), model.getRows()};
+                case "=":
+                    return new long[]{firstRow(model, true), firstRow(model, false)};
+                default:
+                    return allRows(model);
+            }
+        }
+
+        /**
+         * Binary search over the ascending keys.
+         *
+         * @param inclusive true to find the first key at or above the literal,
+         *     false to find the first key above it
+         * @return Row number of that key, or the row count
+         */
+        private long firstRow(SyntheticModel model, boolean inclusive) {
+            long lo = 0L;
+            long hi = model.getRows();
+            while (lo < hi) {
+                final long mid = (lo + hi) >>> 1;
+                final int cmp = literal.compare(model.key(mid));
+                if (inclusive ? cmp >= 0 : cmp > 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1L;
+                }
+            }
+            return lo;
+        }
+
+        @Override
+        public void collect(boolean[] needed) {
+            needed[column] = true;
+        }
+    }
+
+    /**
+     * Literal converted to the value class of the compared column.
+     */
+    private static final class Literal {
+        private final SyntheticColumn.Kind kind;
+        private final Object value;
+        private final boolean integral;
+        private final long longValue;
+
+        Literal(SyntheticColumn column, String text) {
+            this.kind = column.getKind();
+            switch (kind) {
+                case INT:
+                case BIGINT:
+                case DECIMAL: {
+                    final BigDecimal v = new BigDecimal(text.trim());
+                    this.value = v;
+                    boolean exact;
+                    long lv = 0L;
+                    try {
+                        lv = v.longValueExact();
+                        exact = true;
+                    } catch (ArithmeticException ex) {
+                        exact = false;
+                    }
+                    this.integral = exact && kind != SyntheticColumn.Kind.DECIMAL;
+                    this.longValue = lv;
+                    break;
+                }
+                case DOUBLE:
+                    this.value = Double.valueOf(text.trim());
+                    this.integral = false;
+                    this.longValue = 0L;
+                    break;
+                case BOOL:
+                    this.value = "true".equalsIgnoreCase(text) || "1".equals(text);
+                    this.integral = false;
+                    this.longValue = 0L;
+                    break;
+                case DATE:
+                    this.value = Date.valueOf(text.trim());
+                    this.integral = false;
+                    this.longValue = 0L;
+                    break;
+                case TIMESTAMP:
+                    this.value = Timestamp.valueOf(text.trim());
+                    this.integral = false;
+                    this.longValue = 0L;
+                    break;
+                case TEXT:
+                case UUID:
+                case CLOB:
+                    this.value = text;
+                    this.integral = false;
+                    this.longValue = 0L;
+                    break;
+                default:
+                    throw new IllegalArgumentException("cannot compare the binary column "
+                            + column.getName());
+            }
+        }
+
+        /**
+         * @return The sign of the difference between the column value and the literal
+         */
+        int compare(Object v) {
+            switch (kind) {
+                case INT:
+                case BIGINT:
+                    if (integral) {
+                        return Long.compare(((Number) v).longValue(), longValue);
+                    }
+                    return BigDecimal.valueOf(((Number) v).longValue()).compareTo((BigDecimal) value);
+                case DECIMAL:
+                    return ((BigDecimal) v).compareTo((BigDecimal) value);
+                case DOUBLE:
+                    return Double.compare((Double) v, (Double) value);
+                case BOOL:
+                    return Boolean.compare((Boolean) v, (Boolean) value);
+                case DATE:
+                    return ((Date) v).compareTo((Date) value);
+                case TIMESTAMP:
+                    return ((Timestamp) v).compareTo((Timestamp) value);
+                default:
+                    return Integer.signum(((String) v).compareTo((String) value));
+            }
+        }
+    }
+
+    /**
+     * Name of a result column and its position in the table.
+     */
+    private static final class Output {
+        private final String name;
+        private final int column;
+
+        Output(String name, int column) {
+            this.name = name;
+            this.column = column;
+        }
+    }
+
+    /**
+     * Recursive descent parser over the query tokens.
+     */
+    private static final class Parser {
+        private final SyntheticModel model;
+        private final List<String> tokens;
+        private int pos = 0;
+
+        Parser(SyntheticModel model, String sql) {
+            this.model = model;
+            this.tokens = tokenize(sql);
+        }
+
+        boolean atEnd() {
+            return pos >= tokens.size();
+        }
+
+        String peek() {
+            return atEnd() ? "end of statement" : tokens.get(pos);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message);
+        }
+
+        private boolean accept(String word) {
+            if (!atEnd() && tokens.get(pos).equalsIgnoreCase(word)) {
+                ++pos;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String word) {
+            if (!accept(word)) {
+                throw error("expected " + word + " but got " + peek());
+            }
+        }
+
+        private String next() {
+            if (atEnd()) {
+                throw error("unexpected end of statement");
+            }
+            return tokens.get(pos++);
+        }
+
+        private String identifier() {
+            final String t = next();
+            if (t.startsWith("\"")) {
+                return t.substring(1, t.length() - 1).replace("\"\"", "\"");
+            }
+            if (!Character.isLetter(t.charAt(0)) && t.charAt(0) != '_') {
+                throw error("expected identifier but got " + t);
+            }
+            return t;
+        }
+
+        private boolean isKeyword(String... words) {
+            if (atEnd()) {
+                return false;
+            }
+            for (String w : words) {
+                if (tokens.get(pos).equalsIgnoreCase(w)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        SyntheticQuery query() {
+            expect("SELECT");
+            // select list items: {function or null, column name or null for *}
+            final List<String[]> items = new ArrayList<>();
+            do {
+                items.add(selectItem());
+            } while (accept(","));
+            expect("FROM");
+            final SyntheticQuery q;
+            final List<Output> source;
+            if (accept("(")) {
+                q = query();
+                expect(")");
+                if (q.maximum != null) {
+                    throw error("aggregates in subqueries are not supported");
+                }
+                source = new ArrayList<>();
+                for (int c : q.projection) {
+                    source.add(new Output(model.getColumns().get(c).getName(), c));
+                }
+                alias();
+            } else {
+                String name = identifier();
+                if (accept(".")) {
+                    if (!name.equalsIgnoreCase(model.getSchema())) {
+                        throw error("unknown schema " + name);
+                    }
+                    name = identifier();
+                }
+                final int table = model.tableIndex(name);
+                if (table < 0) {
+                    throw error("unknown table " + name);
+                }
+                q = new SyntheticQuery(model, table);
+                source = new ArrayList<>();
+                for (int c = 0; c < model.getColumns().size(); ++c) {
+                    source.add(new Output(model.getColumns().get(c).getName(), c));
+                }
+                alias();
+                if (accept("PARTITION")) {
+                    partition(q);
+                }
+                if (accept("TABLESAMPLE")) {
+                    sample(q);
+                }
+            }
+            if (accept("WHERE")) {
+                q.filters.add(disjunction(source));
+            }
+            project(q, items, source);
+            return q;
+        }
+
+        private String[] selectItem() {
+            if (accept("*")) {
+                return new String[]{null, null};
+            }
+            if (isKeyword("MIN", "MAX") && pos + 1 < tokens.size() && "(".equals(tokens.get(pos + 1))) {
+                final String func = next().toUpperCase(Locale.ROOT);
+                expect("(");
+                final String name = columnRef();
+                expect(")");
+                alias();
+                return new String[]{func, name};
+            }
+            String name = identifier();
+            if (accept(".")) {
+                if (accept("*")) {
+                    return new String[]{null, null};
+                }
+                name = identifier();
+            }
+            alias();
+            return new String[]{null, name};
+        }
+
+        private String columnRef() {
+            String name = identifier();
+            if (accept(".")) {
+                name = identifier();
+            }
+            return name;
+        }
+
+        private void alias() {
+            accept("AS");
+            if (!atEnd() && !isKeyword("FROM", "WHERE", "PARTITION", "TABLESAMPLE", "AND", "OR")
+                    && !isSymbol(tokens.get(pos))) {
+                identifier();
+            }
+        }
+
+        private void partition(SyntheticQuery q) {
+            expect("(");
+            final String name = identifier();
+            expect(")");
+            final int part = model.partitionIndex(name);
+            if (part < 0) {
+                throw error("unknown partition " + name);
+            }
+            q.from = model.partitionStart(part);
+            q.to = model.partitionStart(part + 1);
+        }
+
+        private void sample(SyntheticQuery q) {
+            if (!"(".equals(peek())) {
+                identifier(); // sampling method
+            }
+            expect("(");
+            q.sample = Double.parseDouble(next()) / 100D;
+            expect(")");
+        }
+
+        private void project(SyntheticQuery q, List<String[]> items, List<Output> source) {
+            final List<Integer> columns = new ArrayList<>();
+            final List<Boolean> aggregates = new ArrayList<>();
+            for (String[] item : items) {
+                if (item[1] == null) {
+                    for (Output o : source) {
+                        columns.add(o.column);
+                    }
+                } else {
+                    columns.add(resolve(item[1], source));
+                }
+                if (item[0] != null) {
+                    aggregates.add("MAX".equals(item[0]));
+                } else if (!aggregates.isEmpty()) {
+                    throw error("mixing aggregates and plain columns is not supported");
+                }
+            }
+            q.projection = new int[columns.size()];
+            for (int i = 0; i < q.projection.length; ++i) {
+                q.projection[i] = columns.get(i);
+            }
+            if (!aggregates.isEmpty()) {
+                if (aggregates.size() != columns.size()) {
+                    throw error("mixing aggregates and plain columns is not supported");
+                }
+                q.maximum = new boolean[aggregates.size()];
+                for (int i = 0; i < q.maximum.length; ++i) {
+                    q.maximum[i] = aggregates.get(i);
+                }
+            }
+        }
+
+        private int resolve(String name, List<Output> source) {
+            for (Output o : source) {
+                if (o.name.equalsIgnoreCase(name)) {
+                    return o.column;
+                }
+            }
+            throw error("unknown column " + name);
+        }
+
+        private Condition disjunction(List<Output> source) {
+            final List<Condition> items = new ArrayList<>();
+            do {
+                items.add(conjunction(source));
+            } while (accept("OR"));
+            return (items.size() == 1) ? items.get(0) : new Junction(false, items);
+        }
+
+        private Condition conjunction(List<Output> source) {
+            final List<Condition> items = new ArrayList<>();
+            do {
+                items.add(predicate(source));
+            } while (accept("AND"));
+            return (items.size() == 1) ? items.get(0) : new Junction(true, items);
+        }
+
+        private Condition predicate(List<Output> source) {
+            if (accept("(")) {
+                final Condition c = disjunction(source);
+                expect(")");
+                return c;
+            }
+            if (isNumber(peek())) {
+                final BigDecimal left = new BigDecimal(next());
+                final String op = next();
+                final BigDecimal right = new BigDecimal(next());
+                return new Constant(compareOp(left.compareTo(right), op));
+            }
+            final int column = resolve(columnRef(), source);
+            final SyntheticColumn sc = model.getColumns().get(column);
+            if (accept("IS")) {
+                final boolean not = accept("NOT");
+                expect("NULL");
+                return new NullCheck(column, !not, sc.isKey());
+            }
+            final String op = next();
+            if (!Arrays.asList("<", "<=", ">", ">=", "=", "<>", "!=").contains(op)) {
+                throw error("unsupported operator " + op);
+            }
+            return new Comparison(column, op, literal(sc), sc.isKey());
+        }
+
+        private Literal literal(SyntheticColumn sc) {
+            if (isKeyword("DATE", "TIMESTAMP") && pos + 1 < tokens.size()
+                    && tokens.get(pos + 1).startsWith("'")) {
+                ++pos;
+            }
+            String t = next();
+            if ("-".equals(t)) {
+                t = "-" + next();
+            }
+            if (t.startsWith("'")) {
+                return new Literal(sc, t.substring(1, t.length() - 1).replace("''", "'"));
+            }
+            return new Literal(sc, t);
+        }
+
+        private static boolean isNumber(String t) {
+            return !t.isEmpty() && (Character.isDigit(t.charAt(0)) || t.charAt(0) == '.');
+        }
+
+        private static boolean isSymbol(String t) {
+            return "(),.*;".contains(t.substring(0, 1)) || "<>=!-".contains(t.substring(0, 1));
+        }
+
+        private static List<String> tokenize(String sql) {
+            final List<String> result = new ArrayList<>();
+            final int n = sql.length();
+            int i = 0;
+            while (i < n) {
+                final char c = sql.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    ++i;
+                } else if (c == '"' || c == '\'') {
+                    int j = i + 1;
+                    while (true) {
+                        if (j >= n) {
+                            throw new IllegalArgumentException("unterminated quote");
+                        }
+                        if (sql.charAt(j) == c) {
+                            if (j + 1 < n && sql.charAt(j + 1) == c) {
+                                j += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        ++j;
+                    }
+                    result.add(sql.substring(i, j + 1));
+                    i = j + 1;
+                } else if (Character.isLetterOrDigit(c) || c == '_' || c == '.' && i + 1 < n
+                        && Character.isDigit(sql.charAt(i + 1))) {
+                    int j = i + 1;
+                    final boolean number = Character.isDigit(c) || c == '.';
+                    while (j < n && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '_'
+                            || sql.charAt(j) == '$' || number && sql.charAt(j) == '.')) {
+                        ++j;
+                    }
+                    result.add(sql.substring(i, j));
+                    i = j;
+                } else if ((c == '<' || c == '>' || c == '!') && i + 1 < n
+                        && (sql.charAt(i + 1) == '=' || c == '<' && sql.charAt(i + 1) == '>')) {
+                    result.add(sql.substring(i, i + 2));
+                    i += 2;
+                } else if (c == ';' && sql.substring(i + 1).trim().isEmpty()) {
+                    i = n;
+                } else {
+                    result.add(String.valueOf(c));
+                    ++i;
+                }
+            }
+            return result;
+        }
+    }
+}
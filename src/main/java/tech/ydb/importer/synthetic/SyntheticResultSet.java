@@ -0,0 +1,405 @@
+package tech.ydb.importer.synthetic;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+/**
+ * Forward-only result set of a synthetic query, computing the row values
+ * on the fly while moving over the rows.
+ */
+public class SyntheticResultSet extends ResultSetAdapter {
+
+    private final SyntheticModel model;
+    private final SyntheticQuery query;
+    private final Statement statement;
+    private final boolean[] needed;
+    private final int[] projection;
+    private final Object[] values;
+    private Object[] aggregated;
+    private long row;
+    private boolean aggregateRead;
+    private Object lastValue;
+    private int fetchSize;
+    private boolean closed;
+
+    SyntheticResultSet(SyntheticModel model, SyntheticQuery query, Statement statement) throws SQLException {
+        this.model = model;
+        this.query = query;
+        this.statement = statement;
+        this.needed = query.neededColumns();
+        this.projection = query.getProjection();
+        this.values = new Object[model.getColumns().size()];
+        this.row = query.getFrom() - 1L;
+        if (query.getAggregates() != null) {
+            aggregate();
+        }
+    }
+
+    /**
+     * Computes min() and max() into the single result row.
+     */
+    private void aggregate() throws SQLException {
+        final boolean[] maximum = query.getAggregates();
+        final Object[] result = new Object[projection.length];
+        boolean scan = false;
+        for (int i = 0; i < projection.length; ++i) {
+            if (model.getColumns().get(projection[i]).isKey() && !query.hasFilters()
+                    && query.getFrom() < query.getTo()) {
+                // the keys are ascending
+                result[i] = model.key(maximum[i] ? query.getTo() - 1L : query.getFrom());
+            } else {
+                scan = true;
+            }
+        }
+        while (scan && moveNext()) {
+            for (int i = 0; i < projection.length; ++i) {
+                final Object v = values[projection[i]];
+                if (v == null) {
+                    continue;
+                }
+                if (v instanceof byte[]) {
+                    throw new SQLException("min() and max() are not supported for binary columns");
+                }
+                if (result[i] == null || better(v, result[i], maximum[i])) {
+                    result[i] = v;
+                }
+            }
+        }
+        aggregated = result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean better(Object v, Object current, boolean maximum) {
+        final int cmp = ((Comparable) v).compareTo(current);
+        return maximum ? cmp > 0 : cmp < 0;
+    }
+
+    private boolean moveNext() {
+        final int table = query.getTable();
+        while (++row < query.getTo()) {
+            if (!query.sampled(row)) {
+                continue;
+            }
+            for (int c = 0; c < values.length; ++c) {
+                if (needed[c]) {
+                    values[c] = model.value(table, row, c);
+                }
+            }
+            if (query.matches(values)) {
+                return true;
+            }
+        }
+        row = query.getTo();
+        return false;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (closed) {
+            throw new SQLException("Result set is closed");
+        }
+        if (aggregated != null) {
+            if (aggregateRead) {
+                return false;
+            }
+            aggregateRead = true;
+            return true;
+        }
+        return moveNext();
+    }
+
+    private Object value(int columnIndex) throws SQLException {
+        if (columnIndex < 1 || columnIndex > projection.length) {
+            throw new SQLException("Column index out of range: " + columnIndex);
+        }
+        lastValue = (aggregated != null) ? aggregated[columnIndex - 1] : values[projection[columnIndex - 1]];
+        return lastValue;
+    }
+
+    private Number number(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        if (v == null || v instanceof Number) {
+            return (Number) v;
+        }
+        if (v instanceof Boolean) {
+            return ((Boolean) v) ? 1 : 0;
+        }
+        if (v instanceof String) {
+            return new BigDecimal((String) v);
+        }
+        throw new SQLException("Cannot convert " + v.getClass().getSimpleName() + " to a number");
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed;
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return lastValue == null;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        final List<SyntheticColumn> columns = new ArrayList<>(projection.length);
+        final List<String> labels = new ArrayList<>(projection.length);
+        final boolean[] maximum = query.getAggregates();
+        for (int i = 0; i < projection.length; ++i) {
+            final SyntheticColumn c = model.getColumns().get(projection[i]);
+            columns.add(c);
+            labels.add((maximum == null) ? c.getName() : (maximum[i] ? "max" : "min"));
+        }
+        return new SyntheticResultSetMetaData(model.getSchema(),
+                model.getTables().get(query.getTable()), columns, labels);
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        final ResultSetMetaData rsmd = getMetaData();
+        for (int i = 1; i <= rsmd.getColumnCount(); ++i) {
+            if (rsmd.getColumnLabel(i).equalsIgnoreCase(columnLabel)) {
+                return i;
+            }
+        }
+        throw new SQLException("Unknown column: " + columnLabel);
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        return statement;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        return ResultSet.TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        return ResultSet.CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return ResultSet.FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return fetchSize;
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return value(columnIndex);
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        if (v == null) {
+            return null;
+        }
+        if (v instanceof byte[]) {
+            final byte[] b = (byte[]) v;
+            final StringBuilder sb = new StringBuilder(b.length * 2);
+            for (byte x : b) {
+                sb.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+            }
+            return sb.toString();
+        }
+        if (v instanceof BigDecimal) {
+            return ((BigDecimal) v).toPlainString();
+        }
+        return v.toString();
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        if (v instanceof Boolean) {
+            return (Boolean) v;
+        }
+        if (v instanceof String) {
+            return Boolean.parseBoolean((String) v);
+        }
+        final Number n = number(columnIndex);
+        return n != null && n.doubleValue() != 0D;
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        return (n == null) ? 0 : n.byteValue();
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        return (n == null) ? 0 : n.shortValue();
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        return (n == null) ? 0 : n.intValue();
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        return (n == null) ? 0L : n.longValue();
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        return (n == null) ? 0F : n.floatValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        return (n == null) ? 0D : n.doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        final Number n = number(columnIndex);
+        if (n == null || n instanceof BigDecimal) {
+            return (BigDecimal) n;
+        }
+        if (n instanceof Double) {
+            return BigDecimal.valueOf(n.doubleValue());
+        }
+        return BigDecimal.valueOf(n.longValue());
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        if (v == null || v instanceof byte[]) {
+            return (byte[]) v;
+        }
+        return getString(columnIndex).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        if (v == null || v instanceof Date) {
+            return (Date) v;
+        }
+        if (v instanceof Timestamp) {
+            return new Date(((Timestamp) v).getTime());
+        }
+        throw new SQLException("Cannot convert " + v.getClass().getSimpleName() + " to a date");
+    }
+
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        return getDate(columnIndex);
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        final Timestamp ts = getTimestamp(columnIndex);
+        return (ts == null) ? null : new Time(ts.getTime());
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        return getTime(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        final Object v = value(columnIndex);
+        if (v == null || v instanceof Timestamp) {
+            return (Timestamp) v;
+        }
+        if (v instanceof Date) {
+            return new Timestamp(((Date) v).getTime());
+        }
+        throw new SQLException("Cannot convert " + v.getClass().getSimpleName() + " to a timestamp");
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        return getTimestamp(columnIndex);
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        final byte[] v = getBytes(columnIndex);
+        return (v == null) ? null : new ByteArrayInputStream(v);
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        final String v = getString(columnIndex);
+        return (v == null) ? null : new StringReader(v);
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        final byte[] v = getBytes(columnIndex);
+        return (v == null) ? null : new SerialBlob(v);
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        final String v = getString(columnIndex);
+        return (v == null) ? null : new SerialClob(v.toCharArray());
+    }
+}
@@ -0,0 +1,178 @@
+package tech.ydb.importer.synthetic;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Result set columns of a synthetic query.
+ */
+public class SyntheticResultSetMetaData implements ResultSetMetaData {
+
+    private final String schema;
+    private final String table;
+    private final List<SyntheticColumn> columns;
+    private final List<String> labels;
+
+    SyntheticResultSetMetaData(String schema, String table, List<SyntheticColumn> columns,
+            List<String> labels) {
+        this.schema = schema;
+        this.table = table;
+        this.columns = columns;
+        this.labels = labels;
+    }
+
+    private SyntheticColumn column(int column) throws SQLException {
+        if (column < 1 || column > columns.size()) {
+            throw new SQLException("Column index out of range: " + column);
+        }
+        return columns.get(column - 1);
+    }
+
+    @Override
+    public int getColumnCount() throws SQLException {
+        return columns.size();
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+        return column(column).getSqlType() == java.sql.Types.VARCHAR;
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+        return false;
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+        return column(column).isKey() ? columnNoNulls : columnNullable;
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        switch (column(column).getKind()) {
+            case INT:
+            case BIGINT:
+            case DOUBLE:
+            case DECIMAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        return column(column).getPrecision();
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        column(column);
+        return labels.get(column - 1);
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        return getColumnLabel(column);
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+        return schema;
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        return column(column).getPrecision();
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        return column(column).getScale();
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+        return table;
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+        return "";
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        return column(column).getSqlType();
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        return column(column).getTypeName();
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+        return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        switch (column(column).getKind()) {
+            case INT:
+                return Integer.class.getName();
+            case BIGINT:
+                return Long.class.getName();
+            case DOUBLE:
+                return Double.class.getName();
+            case DECIMAL:
+                return java.math.BigDecimal.class.getName();
+            case BOOL:
+                return Boolean.class.getName();
+            case DATE:
+                return java.sql.Date.class.getName();
+            case TIMESTAMP:
+                return java.sql.Timestamp.class.getName();
+            case BYTES:
+            case BLOB:
+                return byte[].class.getName();
+            default:
+                return String.class.getName();
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
@@ -5,9 +5,11 @@ import java.sql.Blob;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import com.google.protobuf.ByteString;
 
+import tech.ydb.importer.trace.ImporterEvents;
 import tech.ydb.table.SessionRetryContext;
 import tech.ydb.table.query.BulkUpsertData;
 import tech.ydb.table.values.ListType;
@@ -46,12 +48,19 @@ public class BlobReader extends ValueReader {
 
     private final boolean isBlob;
     private final List<Value<?>> currentBulk = new ArrayList<>();
+    private final String tablePath;
+    private long currentBulkSize = 0L;
 
-    public BlobReader(String tablePath, SessionRetryContext ctx, ProgressCounter progress, int maxBlobRecords,
-            boolean isBlob) {
-        this.upsertOp = new YdbUpsertOp(
-                ctx, tablePath, "blob rows upsert issue for " + tablePath, progress::countBlobRows
-        );
+    /**
+     * @param ctx Session retry context, or null to drop the fragments instead of uploading them
+     */
+    public BlobReader(String tablePath, SessionRetryContext ctx, ProgressCounter progress, TableCounters counters,
+            int maxBlobRecords, boolean isBlob) {
+        this.tablePath = tablePath;
+        final IntConsumer counter = count -> progress.countBlobRows(counters, count);
+        this.upsertOp = (ctx == null)
+                ? YdbUpsertOp.discarding(tablePath, counter)
+                : new YdbUpsertOp(ctx, tablePath, "blob rows upsert issue for " + tablePath, counter);
 
         this.maxBlobRecords = maxBlobRecords;
         this.posId = BLOB_ROW.getMemberIndex("id");
@@ -136,14 +145,12 @@ public class BlobReader extends ValueReader {
             members[posPos] = PrimitiveValue.newInt32(position);
             members[posVal] = PrimitiveValue.newBytes(ByteString.copyFrom(block, 0, bytesRead));
             currentBulk.add(BLOB_ROW.newValueUnsafe(members));
+            currentBulkSize += bytesRead;
             position += 1;
 
             // Send the values list to YDB if it's time
             if (currentBulk.size() >= maxBlobRecords) {
-                final ListValue lv = BLOB_LIST.newValue(currentBulk);
-                upsertOp.upload(new BulkUpsertData(lv), currentBulk.size(),
-                        () -> RowValueWriter.logValues(lv));
-                currentBulk.clear();
+                uploadBulk();
             }
         }
     }
@@ -151,10 +158,16 @@ public class BlobReader extends ValueReader {
     @Override
     public void flush() {
         if (!currentBulk.isEmpty()) {
-            final ListValue lv = BLOB_LIST.newValue(currentBulk);
-            upsertOp.upload(new BulkUpsertData(lv), currentBulk.size(),
-                    () -> RowValueWriter.logValues(lv));
-            currentBulk.clear();
+            uploadBulk();
         }
     }
+
+    private void uploadBulk() {
+        final ListValue lv = BLOB_LIST.newValue(currentBulk);
+        upsertOp.upload(new BulkUpsertData(lv), currentBulk.size(),
+                () -> RowValueWriter.logValues(lv));
+        ImporterEvents.get().lobChunks(tablePath, currentBulk.size(), currentBulkSize);
+        currentBulk.clear();
+        currentBulkSize = 0L;
+    }
 }
@@ -0,0 +1,164 @@
+package tech.ydb.importer.target;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.source.ColumnInfo;
+import tech.ydb.table.values.OptionalType;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Type;
+
+/**
+ * Memory limit of the partition buffers, shared by all reader tasks.
+ * The buffered batches hold converted values, so their sizes are estimated
+ * from the row width instead of being measured.
+ */
+public class BufferBudget {
+
+    // per-row and per-value overhead of the buffered rows
+    private static final int ROW_OVERHEAD = 32;
+    private static final int VALUE_OVERHEAD = 16;
+    // assumed width of the strings without a declared length
+    private static final int DEFAULT_STRING = 64;
+    private static final int MAX_STRING = 4096;
+
+    private final long limit;
+    private final AtomicLong used = new AtomicLong(0L);
+    private final AtomicLong peak = new AtomicLong(0L);
+    private final AtomicInteger holders = new AtomicInteger(0);
+
+    /**
+     * @param limit Maximum bytes held in the partition buffers of all reader tasks
+     */
+    public BufferBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Highest estimated memory held in the partition buffers
+     */
+    public long getPeak() {
+        return peak.get();
+    }
+
+    /**
+     * Opens the budget account of a single set of partition buffers.
+     *
+     * @param rowBytes Estimated size of a buffered row
+     * @return New account, to be closed when the buffers are released
+     */
+    Account open(int rowBytes) {
+        holders.incrementAndGet();
+        return new Account(rowBytes);
+    }
+
+    /**
+     * Estimates the memory of a buffered row from the target column types,
+     * using the declared source lengths for the strings.
+     */
+    static int estimateRowBytes(TableDecision tab, StructType type) {
+        int total = ROW_OVERHEAD;
+        for (int i = 0; i < type.getMembersCount(); ++i) {
+            total += VALUE_OVERHEAD + estimateValueBytes(tab, type.getMemberName(i), type.getMemberType(i));
+        }
+        return total;
+    }
+
+    private static int estimateValueBytes(TableDecision tab, String name, Type type) {
+        if (type.getKind() == Type.Kind.OPTIONAL) {
+            type = ((OptionalType) type).getItemType();
+        }
+        if (type.getKind() == Type.Kind.DECIMAL) {
+            return 16;
+        }
+        if (type.getKind() != Type.Kind.PRIMITIVE) {
+            return DEFAULT_STRING;
+        }
+        switch ((PrimitiveType) type) {
+            case Bool:
+            case Int8:
+            case Uint8:
+                return 1;
+            case Int16:
+            case Uint16:
+                return 2;
+            case Int32:
+            case Uint32:
+            case Float:
+            case Date:
+            case Datetime:
+                return 4;
+            case Uuid:
+                return 16;
+            case Text:
+            case Bytes:
+            case Json:
+            case JsonDocument:
+            case Yson:
+                return declaredLength(tab, name);
+            default:
+                return 8;
+        }
+    }
+
+    private static int declaredLength(TableDecision tab, String name) {
+        final List<ColumnInfo> columns = tab.getMetadata().getColumns();
+        for (ColumnInfo ci : columns) {
+            if (name.equals(ci.getDestinationName())) {
+                int len = ci.getSqlPrecision();
+                return (len <= 0) ? DEFAULT_STRING : Math.min(len, MAX_STRING);
+            }
+        }
+        return DEFAULT_STRING;
+    }
+
+    /**
+     * Memory held by the partition buffers of a single reading or converting thread.
+     */
+    final class Account implements AutoCloseable {
+
+        private final int rowBytes;
+        private long held = 0L;
+
+        private Account(int rowBytes) {
+            this.rowBytes = rowBytes;
+        }
+
+        /**
+         * Accounts a buffered row.
+         *
+         * @return true if the budget is exceeded and this account holds
+         *     at least its fair share, so its fullest buffer should be flushed
+         */
+        boolean addRow() {
+            held += rowBytes;
+            final long total = used.addAndGet(rowBytes);
+            if (total > peak.get()) {
+                peak.accumulateAndGet(total, Math::max);
+            }
+            return total > limit && held >= limit / Math.max(1, holders.get());
+        }
+
+        /** Releases the rows of a submitted batch. */
+        void releaseRows(int rows) {
+            final long bytes = (long) rows * rowBytes;
+            held -= bytes;
+            used.addAndGet(-bytes);
+        }
+
+        @Override
+        public void close() {
+            used.addAndGet(-held);
+            held = 0L;
+            holders.decrementAndGet();
+        }
+    }
+
+}
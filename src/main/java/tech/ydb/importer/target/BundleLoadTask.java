@@ -0,0 +1,101 @@
+package tech.ydb.importer.target;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.importer.source.SourceCP;
+
+/**
+ * Reader task for a group of small tables, which are read one after another
+ * over a single source connection. The batches are flushed per table.
+ */
+public class BundleLoadTask implements Callable<Boolean> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BundleLoadTask.class);
+
+    private static final int VALID_CHECK_SECONDS = 5;
+
+    private final SourceCP source;
+    private final boolean autoCommit;
+    private final List<LoadDataTask> members;
+
+    public BundleLoadTask(SourceCP source, boolean autoCommit, List<LoadDataTask> members) {
+        this.source = source;
+        this.autoCommit = autoCommit;
+        this.members = new ArrayList<>(members);
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    @Override
+    public Boolean call() throws Exception {
+        boolean success = true;
+        Connection con = null;
+        try {
+            for (LoadDataTask member : members) {
+                if (Thread.currentThread().isInterrupted()) {
+                    LOG.warn("Interrupted bundle of {} tables", members.size());
+                    return false;
+                }
+                if (con == null) {
+                    con = openConnection();
+                }
+                if (con == null) {
+                    // let the task report the connection failure in its usual way
+                    success &= member.load(null);
+                } else if (!member.load(con)) {
+                    success = false;
+                    // the connection may be broken after a failure
+                    if (!isUsable(con)) {
+                        closeQuietly(con);
+                        con = null;
+                    }
+                }
+            }
+        } finally {
+            if (con != null) {
+                closeQuietly(con);
+            }
+        }
+        return success;
+    }
+
+    private Connection openConnection() {
+        Connection con = null;
+        try {
+            con = source.getConnection();
+            con.setAutoCommit(autoCommit);
+            return con;
+        } catch (SQLException ex) {
+            LOG.warn("Cannot open a connection for the bundle of {} tables", members.size(), ex);
+            if (con != null) {
+                closeQuietly(con);
+            }
+            return null;
+        }
+    }
+
+    private static boolean isUsable(Connection con) {
+        try {
+            return con.isValid(VALID_CHECK_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection con) {
+        try {
+            con.close();
+        } catch (SQLException ex) {
+            LOG.debug("Failed to close the bundle connection", ex);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
+import tech.ydb.importer.trace.ImporterEvents;
 import tech.ydb.table.SessionRetryContext;
 import tech.ydb.table.query.BulkUpsertData;
 import tech.ydb.table.values.ListType;
@@ -42,12 +44,19 @@ public class ClobReader extends ValueReader {
     private final boolean useStringFallback;
 
     private final List<Value<?>> currentBulk = new ArrayList<>();
+    private final String tablePath;
+    private long currentBulkSize = 0L;
 
+    /**
+     * @param ctx Session retry context, or null to drop the fragments instead of uploading them
+     */
     public ClobReader(String tablePath, SessionRetryContext ctx, ProgressCounter progress,
-            int maxClobRecords, boolean useStringFallback) {
-        this.upsertOp = new YdbUpsertOp(
-                ctx, tablePath, "clob rows upsert issue for " + tablePath, progress::countBlobRows
-        );
+            TableCounters counters, int maxClobRecords, boolean useStringFallback) {
+        this.tablePath = tablePath;
+        final IntConsumer counter = count -> progress.countBlobRows(counters, count);
+        this.upsertOp = (ctx == null)
+                ? YdbUpsertOp.discarding(tablePath, counter)
+                : new YdbUpsertOp(ctx, tablePath, "clob rows upsert issue for " + tablePath, counter);
         this.maxClobRecords = maxClobRecords;
         this.posId = CLOB_ROW.getMemberIndex("id");
         this.posPos = CLOB_ROW.getMemberIndex("pos");
@@ -118,13 +127,11 @@ public class ClobReader extends ValueReader {
                 members[posPos] = PrimitiveValue.newInt32(position);
                 members[posVal] = PrimitiveValue.newText(new String(block, 0, len));
                 currentBulk.add(CLOB_ROW.newValueUnsafe(members));
+                currentBulkSize += len;
                 position += 1;
 
                 if (currentBulk.size() >= maxClobRecords) {
-                    final ListValue lv = CLOB_LIST.newValue(currentBulk);
-                    upsertOp.upload(new BulkUpsertData(lv), currentBulk.size(),
-                            () -> RowValueWriter.logValues(lv));
-                    currentBulk.clear();
+                    uploadBulk();
                 }
             }
 
@@ -137,10 +144,16 @@ public class ClobReader extends ValueReader {
     @Override
     public void flush() {
         if (!currentBulk.isEmpty()) {
-            final ListValue lv = CLOB_LIST.newValue(currentBulk);
-            upsertOp.upload(new BulkUpsertData(lv), currentBulk.size(),
-                    () -> RowValueWriter.logValues(lv));
-            currentBulk.clear();
+            uploadBulk();
         }
     }
+
+    private void uploadBulk() {
+        final ListValue lv = CLOB_LIST.newValue(currentBulk);
+        upsertOp.upload(new BulkUpsertData(lv), currentBulk.size(),
+                () -> RowValueWriter.logValues(lv));
+        ImporterEvents.get().lobChunks(tablePath, currentBulk.size(), currentBulkSize);
+        currentBulk.clear();
+        currentBulkSize = 0L;
+    }
 }
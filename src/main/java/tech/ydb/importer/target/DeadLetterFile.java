@@ -0,0 +1,249 @@
+package tech.ydb.importer.target;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tech.ydb.core.Status;
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.source.ColumnInfo;
+import tech.ydb.table.values.DecimalValue;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.StructValue;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
+
+/**
+ * Local JSON Lines file with the rows rejected by the target database,
+ * and the per-table budget of the rejected rows.
+ * Each line holds the source table name, the error, the row key and the row values.
+ */
+public class DeadLetterFile implements AutoCloseable {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(DeadLetterFile.class);
+
+    private final String fileName;
+    private final long maxRowsPerTable;
+    private final BufferedWriter writer;
+    private final Map<TableDecision, AtomicLong> rejected = new ConcurrentHashMap<>();
+
+    /**
+     * @param fileName Output file name, appended if exists
+     * @param maxRowsPerTable Rejected rows allowed per table before the table fails
+     * @throws IOException
+     */
+    public DeadLetterFile(String fileName, long maxRowsPerTable) throws IOException {
+        this.fileName = fileName;
+        this.maxRowsPerTable = maxRowsPerTable;
+        this.writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(fileName, true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Records a single rejected row.
+     *
+     * @param tab Source table
+     * @param row Row value
+     * @param status Error returned for the row
+     * @return true if the table is still within its error budget
+     */
+    public boolean rejectRow(TableDecision tab, StructValue row, Status status) {
+        final StringBuilder sb = header(tab, status);
+        sb.append(",\"key\":{");
+        final Set<String> key = keyNames(tab);
+        boolean comma = false;
+        for (int i = 0; i < row.getMembersCount(); ++i) {
+            String name = row.getType().getMemberName(i);
+            if (key.contains(name)) {
+                comma = appendMember(sb, comma, name, row.getMemberValue(i));
+            }
+        }
+        sb.append("},\"row\":{");
+        comma = false;
+        for (int i = 0; i < row.getMembersCount(); ++i) {
+            comma = appendMember(sb, comma, row.getType().getMemberName(i), row.getMemberValue(i));
+        }
+        sb.append("}}");
+        return record(tab, sb, 1);
+    }
+
+    /**
+     * @param tab Source table
+     * @return Number of the rows rejected for the table
+     */
+    public long getRejected(TableDecision tab) {
+        AtomicLong v = rejected.get(tab);
+        return v == null ? 0L : v.get();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            LOG.warn("Cannot close the dead-letter file {}", fileName, ex);
+        }
+        for (Map.Entry<TableDecision, AtomicLong> me : rejected.entrySet()) {
+            LOG.warn("Table {}.{}: {} rows rejected, written to {}", me.getKey().getSchema(),
+                    me.getKey().getTable(), me.getValue().get(), fileName);
+        }
+    }
+
+    private boolean record(TableDecision tab, StringBuilder sb, int rows) {
+        synchronized (this) {
+            try {
+                writer.append(sb).append('\n');
+                writer.flush();
+            } catch (IOException ex) {
+                LOG.error("Cannot write to the dead-letter file {}", fileName, ex);
+                return false;
+            }
+        }
+        long total = rejected.computeIfAbsent(tab, k -> new AtomicLong()).addAndGet(rows);
+        if (total > maxRowsPerTable) {
+            LOG.error("Table {}.{}: {} rejected rows exceed the limit of {}",
+                    tab.getSchema(), tab.getTable(), total, maxRowsPerTable);
+            return false;
+        }
+        return true;
+    }
+
+    private static StringBuilder header(TableDecision tab, Status status) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\"table\":");
+        appendString(sb, tab.getSchema() + "." + tab.getTable());
+        sb.append(",\"error\":");
+        appendString(sb, String.valueOf(status));
+        return sb;
+    }
+
+    private static Set<String> keyNames(TableDecision tab) {
+        final Set<String> names = new HashSet<>();
+        final List<ColumnInfo> key = tab.getMetadata().getKey();
+        if (key.isEmpty()) {
+            names.add(TargetTable.SYNTH_KEY_FIELD);
+        }
+        for (ColumnInfo ci : key) {
+            names.add(ci.getDestinationName());
+        }
+        return names;
+    }
+
+    private static boolean appendMember(StringBuilder sb, boolean comma, String name, Value<?> v) {
+        if (comma) {
+            sb.append(',');
+        }
+        appendString(sb, name);
+        sb.append(':');
+        appendValue(sb, v);
+        return true;
+    }
+
+    private static void appendValue(StringBuilder sb, Value<?> v) {
+        if (v.getType().getKind() == Type.Kind.OPTIONAL) {
+            if (!v.asOptional().isPresent()) {
+                sb.append("null");
+                return;
+            }
+            v = v.asOptional().get();
+        }
+        if (v.getType().getKind() == Type.Kind.VOID) {
+            sb.append("null");
+            return;
+        }
+        if (v instanceof DecimalValue) {
+            appendString(sb, ((DecimalValue) v).toBigDecimal().toPlainString());
+            return;
+        }
+        if (v.getType().getKind() == Type.Kind.PRIMITIVE) {
+            PrimitiveValue pv = v.asData();
+            switch (pv.getType()) {
+                case Bool:
+                    sb.append(pv.getBool());
+                    return;
+                case Int8:
+                    sb.append(pv.getInt8());
+                    return;
+                case Int16:
+                    sb.append(pv.getInt16());
+                    return;
+                case Int32:
+                    sb.append(pv.getInt32());
+                    return;
+                case Int64:
+                    sb.append(pv.getInt64());
+                    return;
+                case Uint8:
+                    sb.append(pv.getUint8());
+                    return;
+                case Uint16:
+                    sb.append(pv.getUint16());
+                    return;
+                case Uint32:
+                    sb.append(pv.getUint32());
+                    return;
+                case Text:
+                    appendString(sb, pv.getText());
+                    return;
+                case Bytes:
+                    appendString(sb, toHex(pv.getBytes()));
+                    return;
+                default:
+                    break;
+            }
+        }
+        appendString(sb, v.toString());
+    }
+
+    private static String toHex(byte[] value) {
+        final StringBuilder sb = new StringBuilder(value.length * 2);
+        for (byte b : value) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+}
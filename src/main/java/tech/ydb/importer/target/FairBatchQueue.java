@@ -0,0 +1,221 @@
+package tech.ydb.importer.target;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import tech.ydb.importer.TableDecision;
+
+/**
+ * Bounded queue of upload batches with a separate FIFO lane per table.
+ * Writers take from the lane with the smallest virtual time, which grows by
+ * 1/weight for each batch taken, so tables share the writers according to
+ * their weights. A table with a cap on in-flight batches blocks its readers
+ * while that many of its batches are queued or being uploaded.
+ * Batches parked for a retry keep their in-flight slots until re-queued.
+ */
+final class FairBatchQueue {
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<TableDecision, Lane> lanes = new HashMap<>();
+    private final List<Lane> active = new ArrayList<>();
+    private int size;
+    private int parked;
+    private double clock;
+    private boolean closed;
+
+    FairBatchQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void put(UploadBatch batch) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Lane lane = laneOf(batch.getTable());
+            while (size >= capacity || (lane.cap > 0 && lane.inFlight >= lane.cap)) {
+                notFull.await();
+                // the lane is dropped while waiting if its last batch completes
+                lane = laneOf(batch.getTable());
+            }
+            if (lane.queue.isEmpty()) {
+                // an idle lane must not claim the service it missed while idle
+                lane.vtime = Math.max(lane.vtime, clock);
+                active.add(lane);
+            }
+            batch.setQueuedNanos(System.nanoTime());
+            lane.queue.add(batch);
+            lane.inFlight++;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The next batch to upload, or null when the queue is closed and drained.
+     */
+    UploadBatch take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (active.isEmpty()) {
+                if (closed && parked == 0) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+            Lane best = active.get(0);
+            for (Lane lane : active) {
+                if (lane.vtime < best.vtime) {
+                    best = lane;
+                }
+            }
+            UploadBatch batch = best.queue.poll();
+            clock = best.vtime;
+            best.vtime += 1.0 / best.weight;
+            if (best.queue.isEmpty()) {
+                active.remove(best);
+            }
+            size--;
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of the queued batches
+     */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Keeps the writers running while the failed batch waits for its retry. */
+    void park(UploadBatch batch) {
+        lock.lock();
+        try {
+            parked++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the parked batch back in front of its lane, reusing its in-flight slot
+     * and ignoring the capacity, so that the retries never block.
+     */
+    void requeue(UploadBatch batch) {
+        lock.lock();
+        try {
+            parked--;
+            Lane lane = lanes.get(batch.getTable());
+            if (lane == null) {
+                // not expected, as the parked batch keeps its in-flight slot
+                lane = laneOf(batch.getTable());
+                lane.inFlight++;
+            }
+            if (lane.queue.isEmpty()) {
+                lane.vtime = Math.max(lane.vtime, clock);
+                active.add(lane);
+            }
+            batch.setQueuedNanos(System.nanoTime());
+            lane.queue.addFirst(batch);
+            size++;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Releases the in-flight slot of an uploaded batch. */
+    void done(UploadBatch batch) {
+        List<CompletableFuture<Void>> drained = null;
+        lock.lock();
+        try {
+            Lane lane = lanes.get(batch.getTable());
+            if (lane == null) {
+                return;
+            }
+            lane.inFlight--;
+            if (lane.inFlight == 0) {
+                lanes.remove(batch.getTable());
+                drained = lane.drained;
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (drained != null) {
+            for (CompletableFuture<Void> f : drained) {
+                f.complete(null);
+            }
+        }
+    }
+
+    /**
+     * @return Future completed once no batches of the table are queued or being uploaded.
+     */
+    CompletableFuture<Void> whenDrained(TableDecision tab) {
+        lock.lock();
+        try {
+            Lane lane = lanes.get(tab);
+            if (lane == null || lane.inFlight == 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            lane.drained.add(f);
+            return f;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Lets the writers exit once the remaining batches are taken. */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lane laneOf(TableDecision tab) {
+        Lane lane = lanes.get(tab);
+        if (lane == null) {
+            lane = new Lane(tab);
+            lanes.put(tab, lane);
+        }
+        return lane;
+    }
+
+    private static final class Lane {
+
+        private final ArrayDeque<UploadBatch> queue = new ArrayDeque<>();
+        private final List<CompletableFuture<Void>> drained = new ArrayList<>();
+        private final int weight;
+        private final int cap;
+        private int inFlight;
+        private double vtime;
+
+        Lane(TableDecision tab) {
+            this.weight = (tab == null) ? 1 : tab.weight();
+            this.cap = (tab == null) ? 0 : tab.maxUploadBatches();
+        }
+    }
+}
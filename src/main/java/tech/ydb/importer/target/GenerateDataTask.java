@@ -0,0 +1,560 @@
+package tech.ydb.importer.target;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.YdbImporter;
+import tech.ydb.importer.source.ColumnInfo;
+import tech.ydb.importer.trace.ImporterEvents;
+import tech.ydb.table.query.BulkUpsertData;
+import tech.ydb.table.query.arrow.ApacheArrowData;
+import tech.ydb.table.query.arrow.ApacheArrowWriter;
+import tech.ydb.table.values.DecimalType;
+import tech.ydb.table.values.ListType;
+import tech.ydb.table.values.ListValue;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
+
+/**
+ * Uploads generated rows to a target table in place of the source data,
+ * to measure the write side alone. The rows follow the target structure,
+ * with the text and binary values sized by the source column definitions.
+ * Each task covers a single YDB partition between the planned or existing
+ * boundaries of the leading key column, so the keys are spread over
+ * the partitions like the real data would be.
+ */
+public class GenerateDataTask implements Callable<Boolean> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GenerateDataTask.class);
+
+    // share of NULL values in the optional non-key columns
+    private static final double NULL_SHARE = 0.05D;
+    private static final int DEFAULT_LENGTH = 64;
+    private static final int MAX_LENGTH = 4096;
+    // YDB Date range, in days since the epoch
+    private static final long MAX_DATE = 49673L;
+    private static final long BASE_SECONDS = 946684800L;
+    private static final long SPAN_SECONDS = 946080000L;
+
+    /** Way of producing the values of a column. */
+    private enum Role { VALUE, KEY, LEADING, SYNTH_KEY, NONE }
+
+    private final TableDecision tab;
+    private final Column[] columns;
+    private final Column leading;
+    private final PartitionRouter.Kind leadingKind;
+    private final long tableSeed;
+    private final long firstRow;
+    private final long rowCount;
+    private final long keyFrom;
+    private final long keyStep;
+    private final Object keyPrefix;
+    private final YdbUpsertOp ydbOp;
+    private final ProgressCounter progress;
+    private final TableCounters counters;
+    private final WriterPool writerPool;
+    private final RowRateLimiter limiter;
+    private final int maxBatchRows;
+    private final boolean useArrow;
+    private final String name;
+
+    private GenerateDataTask(YdbImporter owner, ProgressCounter progress, TableDecision tab,
+            WriterPool writerPool, RowRateLimiter limiter, Layout layout, int part) {
+        final TableCounters tc = progress.forTable(tab);
+        final TargetCP target = owner.getTargetCP();
+        this.tab = tab;
+        this.columns = layout.columns;
+        this.leading = layout.leading;
+        this.leadingKind = layout.leadingKind;
+        this.tableSeed = layout.seed;
+        this.firstRow = layout.firstRow(part);
+        this.rowCount = layout.firstRow(part + 1) - firstRow;
+        this.ydbOp = new YdbUpsertOp(
+                target.getRetryCtx(),
+                target.getDatabase() + "/" + tab.getTarget().getFullName(),
+                "failed upsert to " + tab.getTarget().getFullName(),
+                count -> progress.countWrittenRows(tc, count)
+        );
+        this.progress = progress;
+        this.counters = tc;
+        this.writerPool = writerPool;
+        this.limiter = limiter;
+        this.maxBatchRows = owner.getConfig().getTarget().getMaxBatchRows();
+        this.useArrow = owner.getConfig().getWorkers().isUseArrow();
+        this.name = tc.getLabel() + "#" + part;
+        final List<Object> cuts = layout.cuts;
+        if (leading == null || cuts.isEmpty()) {
+            this.keyFrom = firstRow + 1L;
+            this.keyStep = 1L;
+            this.keyPrefix = null;
+        } else if (leadingKind == PartitionRouter.Kind.TEXT || leadingKind == PartitionRouter.Kind.BYTES) {
+            // the keys of the partition start with its lower boundary
+            this.keyFrom = 0L;
+            this.keyStep = 1L;
+            this.keyPrefix = (part == 0) ? null : cuts.get(part - 1);
+        } else {
+            final int m = cuts.size();
+            final long first = asLong(cuts.get(0));
+            final long last = asLong(cuts.get(m - 1));
+            final long width = Math.max(rowCount, (m > 1) ? (last - first) / (m - 1) : rowCount);
+            long lo = (part == 0) ? first - width : asLong(cuts.get(part - 1));
+            if (leadingKind == PartitionRouter.Kind.UNSIGNED && lo < 0L) {
+                // the negative longs would be the top of the Uint64 range
+                lo = 0L;
+            }
+            final long hi = (part == m) ? last + width : asLong(cuts.get(part));
+            this.keyFrom = lo;
+            this.keyStep = Math.max(1L, (hi - lo) / Math.max(1L, rowCount));
+            this.keyPrefix = null;
+        }
+    }
+
+    /**
+     * Plans the generated data of a table: one task per YDB partition when the
+     * partition boundaries are known, otherwise one task per planned read task.
+     *
+     * @param owner Importer
+     * @param progress Progress counter
+     * @param tab Table with metadata and target definition
+     * @param writerPool Writers
+     * @param limiter Rate limiter shared by all the tables, or null
+     * @return The tasks generating the table rows
+     */
+    public static List<GenerateDataTask> forTable(YdbImporter owner, ProgressCounter progress,
+            TableDecision tab, WriterPool writerPool, RowRateLimiter limiter) {
+        final Layout layout = new Layout(tab, owner.getConfig().getTarget().getGenerateRows());
+        final List<GenerateDataTask> tasks = new ArrayList<>(layout.parts);
+        for (int part = 0; part < layout.parts; ++part) {
+            tasks.add(new GenerateDataTask(owner, progress, tab, writerPool, limiter, layout, part));
+        }
+        return tasks;
+    }
+
+    @Override
+    public Boolean call() {
+        if (tab.isFailure()) {
+            LOG.warn("Skipping {} because the table has already failed", name);
+            return false;
+        }
+        LOG.info("Generating {} rows for {}", rowCount, name);
+        progress.readerStarted(counters);
+        final long startedNanos = System.nanoTime();
+        final ImporterEvents.Span span = ImporterEvents.get().loadTask(counters.getLabel(), name);
+        String status = "FAILED";
+        try {
+            if (useArrow) {
+                generateArrow(tab.getTarget().getFields());
+            } else {
+                generateRows(tab.getTarget().getFields());
+            }
+            status = "OK";
+            return true;
+        } catch (InterruptedException ex) {
+            LOG.warn("Interrupted {}", name);
+            return false;
+        } catch (Exception ex) {
+            if (!tab.isFailure()) {
+                LOG.error("Failed to generate data for {}", name, ex);
+                tab.setFailure(true);
+            }
+            return false;
+        } finally {
+            progress.readerFinished(counters, name, rowCount, startedNanos, 0, "OK".equals(status));
+            span.end(rowCount, status);
+        }
+    }
+
+    private void generateRows(StructType type) throws Exception {
+        final ListType listType = ListType.of(type);
+        final RowValueWriter writer = new RowValueWriter(type);
+        long row = 0L;
+        while (row < rowCount) {
+            final int count = nextBatch(row);
+            final long started = System.nanoTime();
+            final List<Value<?>> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i, ++row) {
+                final Value<?>[] values = new Value<?>[type.getMembersCount()];
+                writer.setValues(values);
+                writeRow(writer, row);
+                batch.add(type.newValueUnsafe(values));
+            }
+            final ListValue lv = listType.newValue(batch);
+            submit(started, new UploadBatch(ydbOp, new BulkUpsertData(lv), count,
+                    () -> RowValueWriter.logValues(lv), tab, lv));
+        }
+    }
+
+    private void generateArrow(StructType type) throws Exception {
+        try (ArrowBatchBuilder builder = new ArrowBatchBuilder(type, maxBatchRows)) {
+            final ArrowValueWriter writer = new ArrowValueWriter(type);
+            long row = 0L;
+            while (row < rowCount) {
+                final int count = nextBatch(row);
+                final long started = System.nanoTime();
+                final ApacheArrowWriter.Batch batch = builder.newBatch();
+                for (int i = 0; i < count; ++i, ++row) {
+                    writer.setRow(batch.writeNextRow());
+                    writeRow(writer, row);
+                }
+                final ApacheArrowData data = batch.buildBatch();
+                submit(started, new UploadBatch(ydbOp, data, count,
+                        () -> ArrowValueWriter.logValues(data), tab));
+            }
+        }
+    }
+
+    /**
+     * Waits for the rate limiter, if any.
+     *
+     * @return Number of rows in the next batch
+     */
+    private int nextBatch(long row) throws InterruptedException {
+        if (tab.isFailure()) {
+            throw new IllegalStateException("Cancelled: table " + counters.getLabel()
+                    + " marked as failed by another task");
+        }
+        final int count = (int) Math.min(maxBatchRows, rowCount - row);
+        if (limiter != null) {
+            limiter.acquire(count);
+        }
+        return count;
+    }
+
+    private void submit(long started, UploadBatch batch) throws InterruptedException {
+        final long nanos = System.nanoTime() - started;
+        progress.countReadRows(counters, batch.getRowCount());
+        progress.countReadBatch(counters, nanos);
+        progress.recordLatency(counters, LatencyHistogram.Stage.SERIALIZE, nanos);
+        writerPool.submit(batch);
+    }
+
+    /**
+     * @param row Row number within the task
+     */
+    private void writeRow(ValueWriter w, long row) {
+        final long global = firstRow + row;
+        for (Column c : columns) {
+            switch (c.role) {
+                case LEADING:
+                    writeLeading(w, c, row);
+                    break;
+                case KEY:
+                    writeLong(w, c, global + 1L);
+                    break;
+                case SYNTH_KEY:
+                    // unique, as the mix is a bijection
+                    w.writeText(c.index, Long.toHexString(mix(tableSeed + global)));
+                    break;
+                case VALUE: {
+                    final long h = mix(tableSeed ^ (global * 0x9E3779B97F4A7C15L + c.index * 0xC2B2AE3D27D4EB4FL));
+                    if (c.optional && unit(h) < NULL_SHARE) {
+                        w.writeNull(c.index);
+                    } else {
+                        writeRandom(w, c, mix(h));
+                    }
+                    break;
+                }
+                default:
+                    w.writeNull(c.index);
+            }
+        }
+    }
+
+    private void writeLeading(ValueWriter w, Column c, long row) {
+        if (leadingKind == PartitionRouter.Kind.TEXT) {
+            final String prefix = (keyPrefix == null) ? "" : (String) keyPrefix;
+            w.writeText(c.index, prefix + String.format("%012d", keyFrom + row));
+        } else if (leadingKind == PartitionRouter.Kind.BYTES) {
+            final byte[] prefix = (keyPrefix == null) ? new byte[0] : (byte[]) keyPrefix;
+            final byte[] v = new byte[prefix.length + 8];
+            System.arraycopy(prefix, 0, v, 0, prefix.length);
+            long x = keyFrom + row;
+            for (int i = v.length - 1; i >= prefix.length; --i, x >>>= 8) {
+                v[i] = (byte) x;
+            }
+            w.writeBytes(c.index, v);
+        } else {
+            writeLong(w, c, keyFrom + row * keyStep);
+        }
+    }
+
+    /**
+     * Writes the number in the value order of the partition boundaries:
+     * days for the dates, microseconds for the timestamps.
+     */
+    private static void writeLong(ValueWriter w, Column c, long v) {
+        if (c.decimal != null) {
+            final int digits = c.decimal.getPrecision() - c.decimal.getScale();
+            final long unscaled = (digits < 18) ? v % pow10(digits) : v;
+            w.writeDecimal(c.index, BigDecimal.valueOf(unscaled).setScale(c.decimal.getScale()));
+            return;
+        }
+        switch (c.type) {
+            case Bool:
+                w.writeBool(c.index, (v & 1L) != 0L);
+                break;
+            case Uint8:
+                w.writeUint8(c.index, (int) (v & 0xFFL));
+                break;
+            case Uint16:
+                w.writeUint16(c.index, (int) (v & 0xFFFFL));
+                break;
+            case Int32:
+                w.writeInt32(c.index, (int) v);
+                break;
+            case Uint32:
+                w.writeUint32(c.index, v & 0xFFFFFFFFL);
+                break;
+            case Int64:
+                w.writeInt64(c.index, v);
+                break;
+            case Uint64:
+                w.writeUint64(c.index, v);
+                break;
+            case Float:
+                w.writeFloat(c.index, (float) v);
+                break;
+            case Double:
+                w.writeDouble(c.index, (double) v);
+                break;
+            case Text:
+                w.writeText(c.index, Long.toString(v));
+                break;
+            case Bytes:
+                w.writeBytes(c.index, Long.toString(v).getBytes(StandardCharsets.US_ASCII));
+                break;
+            case Date:
+                w.writeDate(c.index, LocalDate.ofEpochDay(Math.floorMod(v, MAX_DATE)));
+                break;
+            case Date32:
+                w.writeDate32(c.index, LocalDate.ofEpochDay(v));
+                break;
+            case Datetime:
+                w.writeDatetime(c.index, micros(Math.max(0L, v)));
+                break;
+            case Datetime64:
+                w.writeDatetime64(c.index, micros(v));
+                break;
+            case Timestamp:
+                w.writeTimestamp(c.index, micros(Math.max(0L, v)));
+                break;
+            case Timestamp64:
+                w.writeTimestamp64(c.index, micros(v));
+                break;
+            default:
+                w.writeNull(c.index);
+        }
+    }
+
+    private static void writeRandom(ValueWriter w, Column c, long h) {
+        if (c.decimal != null) {
+            final long unscaled = (h >>> 1) % pow10(Math.min(c.decimal.getPrecision(), 18));
+            w.writeDecimal(c.index, BigDecimal.valueOf(unscaled, c.decimal.getScale()));
+            return;
+        }
+        final long positive = h >>> 1;
+        switch (c.type) {
+            case Int32:
+                writeLong(w, c, positive % 1_000_000_000L);
+                break;
+            case Int64:
+            case Uint64:
+                writeLong(w, c, positive % 1_000_000_000_000_000L);
+                break;
+            case Float:
+            case Double:
+                w.writeDouble(c.index, unit(h) * 1_000_000D);
+                break;
+            case Text:
+                w.writeText(c.index, randomText(h, c.length));
+                break;
+            case Bytes:
+                w.writeBytes(c.index, randomBytes(h, c.length));
+                break;
+            case Date:
+            case Date32:
+                writeLong(w, c, BASE_SECONDS / 86400L + positive % (SPAN_SECONDS / 86400L));
+                break;
+            case Datetime:
+            case Datetime64:
+            case Timestamp:
+            case Timestamp64:
+                writeLong(w, c, (BASE_SECONDS + positive % SPAN_SECONDS) * 1_000_000L + positive % 1_000_000L);
+                break;
+            default:
+                writeLong(w, c, positive);
+        }
+    }
+
+    private static String randomText(long h, int length) {
+        final char[] v = new char[size(h, length)];
+        long x = h;
+        for (int i = 0; i < v.length; ++i) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+            v[i] = (char) ('a' + (int) ((x >>> 33) % 26));
+        }
+        return new String(v);
+    }
+
+    private static byte[] randomBytes(long h, int length) {
+        final byte[] v = new byte[size(h, length)];
+        long x = h;
+        for (int i = 0; i < v.length; ++i) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+            v[i] = (byte) (x >>> 56);
+        }
+        return v;
+    }
+
+    /** Value length between the half of the maximum and the maximum. */
+    private static int size(long h, int length) {
+        final int min = Math.max(1, length / 2);
+        return min + (int) ((h >>> 40) % (length - min + 1));
+    }
+
+    private static Instant micros(long v) {
+        return Instant.ofEpochSecond(Math.floorDiv(v, 1_000_000L), Math.floorMod(v, 1_000_000L) * 1000L);
+    }
+
+    private static long pow10(int digits) {
+        long v = 1L;
+        for (int i = 0; i < digits; ++i) {
+            v *= 10L;
+        }
+        return v;
+    }
+
+    private static long asLong(Object v) {
+        if (v instanceof BigDecimal) {
+            return ((BigDecimal) v).setScale(0, RoundingMode.FLOOR).longValue();
+        }
+        if (v instanceof Double) {
+            return (long) Math.floor((Double) v);
+        }
+        return (Long) v;
+    }
+
+    private static double unit(long h) {
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Generation plan of a single target column.
+     */
+    private static final class Column {
+
+        private final int index;
+        private final Role role;
+        private final PrimitiveType type;
+        private final DecimalType decimal;
+        private final boolean optional;
+        private final int length;
+
+        Column(int index, Role role, Type type, ColumnInfo ci) {
+            this.index = index;
+            this.optional = (type.getKind() == Type.Kind.OPTIONAL);
+            final Type item = optional ? type.unwrapOptional() : type;
+            this.decimal = (item.getKind() == Type.Kind.DECIMAL) ? (DecimalType) item : null;
+            this.type = (item.getKind() == Type.Kind.PRIMITIVE) ? (PrimitiveType) item : null;
+            this.role = (decimal == null && this.type == null) ? Role.NONE : role;
+            final int precision = (ci == null) ? 0 : ci.getSqlPrecision();
+            this.length = (precision > 0) ? Math.min(precision, MAX_LENGTH) : DEFAULT_LENGTH;
+        }
+    }
+
+    /**
+     * Column plans and the partitions of a table, shared by its tasks.
+     */
+    private static final class Layout {
+
+        private final Column[] columns;
+        private final Column leading;
+        private final PartitionRouter.Kind leadingKind;
+        private final List<Object> cuts;
+        private final int parts;
+        private final long rows;
+        private final long seed;
+
+        Layout(TableDecision tab, long rows) {
+            final StructType type = tab.getTarget().getFields();
+            final List<ColumnInfo> key = tab.getMetadata().getKey();
+            this.columns = new Column[type.getMembersCount()];
+            Column lead = null;
+            PartitionRouter.Kind kind = null;
+            for (int i = 0; i < columns.length; ++i) {
+                final String member = type.getMemberName(i);
+                final ColumnInfo ci = findColumn(tab, member);
+                Role role = Role.VALUE;
+                if (i == tab.getTarget().getSynthKeyPos()) {
+                    role = Role.SYNTH_KEY;
+                } else if (ci != null && (ci.isBlob() || tab.getClobTargets().containsKey(ci.getName()))) {
+                    // the LOB fragments are not generated
+                    role = Role.NONE;
+                } else if (!key.isEmpty() && key.get(0) == ci) {
+                    kind = PartitionRouter.kindOf(ci, PartitionRouter.targetType(type, member));
+                    role = (kind == null) ? Role.KEY : Role.LEADING;
+                } else if (key.contains(ci)) {
+                    role = Role.KEY;
+                }
+                columns[i] = new Column(i, role, type.getMemberType(i), ci);
+                if (columns[i].role == Role.LEADING) {
+                    lead = columns[i];
+                }
+            }
+            this.leading = lead;
+            this.leadingKind = (lead == null) ? null : kind;
+            List<Object> found = (lead == null) ? null : PartitionRouter.leadingCuts(tab, kind);
+            if (found != null && kind == PartitionRouter.Kind.UNSIGNED && hasUint64Top(found)) {
+                // the key spreading below works in the signed range only
+                found = null;
+            }
+            this.cuts = (found == null) ? Collections.emptyList() : found;
+            this.parts = cuts.isEmpty() ? Math.max(1, tab.getMetadata().getTasks().size()) : cuts.size() + 1;
+            this.rows = rows;
+            this.seed = mix(tab.getSchema().hashCode() * 31L + tab.getTable().hashCode());
+        }
+
+        /** First row of the task, with the rows split evenly between the tasks. */
+        long firstRow(int part) {
+            return rows / parts * part + Math.min(part, rows % parts);
+        }
+
+        private static boolean hasUint64Top(List<Object> cuts) {
+            for (Object v : cuts) {
+                if ((Long) v < 0L) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static ColumnInfo findColumn(TableDecision tab, String member) {
+            for (ColumnInfo ci : tab.getMetadata().getColumns()) {
+                if (member.equals(ci.getDestinationName())) {
+                    return ci;
+                }
+            }
+            return null;
+        }
+    }
+}
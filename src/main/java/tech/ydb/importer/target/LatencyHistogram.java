@@ -0,0 +1,127 @@
+package tech.ydb.importer.target;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets in microseconds.
+ * Each power of two is split into four buckets, so the reported percentiles
+ * are within 25% of the actual values.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Load stages measured per batch.
+     */
+    public enum Stage {
+        /** Reading the source rows, per batch, or per chunk in the pipelined mode. */
+        FETCH("fetch"),
+        /** Converting the fetched chunk of rows, in the pipelined mode only. */
+        CONVERT("convert"),
+        /** Building the upsert message of a batch. */
+        SERIALIZE("serialize"),
+        /** Waiting in the writer queue. */
+        QUEUE("queue"),
+        /** Bulk upsert round trip. */
+        UPLOAD("upload");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // up to 2^31 microseconds, about 36 minutes
+    private static final int BUCKETS = (31 - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong(0L);
+
+    public void record(long nanos) {
+        final long micros = Math.max(0L, nanos / 1000L);
+        counts.incrementAndGet(bucketOf(micros));
+        if (micros > max.get()) {
+            max.accumulateAndGet(micros, Math::max);
+        }
+    }
+
+    public long getCount() {
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return Longest recorded latency, in microseconds
+     */
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile Quantile, between 0 and 1
+     * @return Upper bound of the bucket holding the quantile, in microseconds, or 0 if empty
+     */
+    public long getPercentileMicros(double quantile) {
+        final long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return Percentiles in the form "p50/p90/p99/max ms"
+     */
+    public String format() {
+        return String.format("%s/%s/%s/%s ms",
+                formatMs(getPercentileMicros(0.5)), formatMs(getPercentileMicros(0.9)),
+                formatMs(getPercentileMicros(0.99)), formatMs(getMaxMicros()));
+    }
+
+    private static String formatMs(long micros) {
+        return (micros < 10_000L)
+                ? String.format("%.2f", micros / 1000d)
+                : String.valueOf(micros / 1000L);
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        final int exp = 63 - Long.numberOfLeadingZeros(micros);
+        final int sub = (int) (micros >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return Math.min((exp - SUB_BITS + 1) * SUB_COUNT + sub, BUCKETS - 1);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket + 1;
+        }
+        final int exp = bucket / SUB_COUNT + SUB_BITS - 1;
+        final long sub = bucket % SUB_COUNT;
+        return (SUB_COUNT + sub + 1) << (exp - SUB_BITS);
+    }
+}
@@ -11,6 +11,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +25,7 @@ import tech.ydb.importer.source.SourceCP;
 import tech.ydb.importer.source.TaskInfo;
 import tech.ydb.importer.source.TaskQuery;
 import tech.ydb.importer.source.YdbPartitioning;
+import tech.ydb.importer.trace.ImporterEvents;
 import tech.ydb.table.query.BulkUpsertData;
 import tech.ydb.table.query.arrow.ApacheArrowData;
 import tech.ydb.table.query.arrow.ApacheArrowWriter;
@@ -46,6 +50,8 @@ public class LoadDataTask implements Callable<Boolean> {
     private final TableDecision tab;
     private final TaskInfo task;
     private final ProgressCounter progress;
+    private final TableCounters counters;
+    private final ImporterEvents events = ImporterEvents.get();
 
     private final int maxBatchRows;
     private final int maxBlobRows;
@@ -57,9 +63,21 @@ public class LoadDataTask implements Callable<Boolean> {
     private final boolean useArrow;
     private final boolean useStringForClob;
     private final boolean defaultAutoCommit;
+    // batches are dropped, and the direct reads get timed row by row
+    private final boolean discard;
     private final WriterPool writerPool;
+    private final BufferBudget bufferBudget;
+    private final ExecutorService prefetchWorkers;
+    private final ExecutorService convertWorkers;
+    private final int convertThreads;
+    private final int ringSlots;
+    private final int chunkRows;
     private long rowIndex;
+    private int rowBytes;
+    private int queryRetries;
 
+    // rows read between the updates of the shared counters
+    private static final int REPORT_ROWS = 256;
     private static final long INITIAL_BACKOFF_MS = 1000;
     private static final long MAX_BACKOFF_MS = 30_000;
 
@@ -68,15 +86,21 @@ public class LoadDataTask implements Callable<Boolean> {
         this.source = owner.getSourceCP();
         this.target = owner.getTargetCP();
 
-        this.ydbOp = new YdbUpsertOp(
-                target.getRetryCtx(),
-                target.getDatabase() + "/" + tab.getTarget().getFullName(),
-                "failed upsert to " + tab.getTarget().getFullName(),
-                progress::countWrittenRows
-        );
+        final TableCounters tc = progress.forTable(tab);
+        this.discard = owner.getConfig().isDiscardTarget();
+        this.ydbOp = discard
+                ? YdbUpsertOp.discarding(tab.getTarget().getFullName(),
+                        count -> progress.countWrittenRows(tc, count))
+                : new YdbUpsertOp(
+                        target.getRetryCtx(),
+                        target.getDatabase() + "/" + tab.getTarget().getFullName(),
+                        "failed upsert to " + tab.getTarget().getFullName(),
+                        count -> progress.countWrittenRows(tc, count)
+                );
         this.tab = tab;
         this.task = task;
         this.progress = progress;
+        this.counters = tc;
         this.maxBatchRows = owner.getConfig().getTarget().getMaxBatchRows();
         this.maxBlobRows = owner.getConfig().getTarget().getMaxBlobRows();
         this.fetchSize = owner.getConfig().getSource().getFetchSize();
@@ -92,11 +116,28 @@ public class LoadDataTask implements Callable<Boolean> {
         this.useStringForClob = owner.getTableLister().useStringForClobRead();
         this.defaultAutoCommit = owner.getTableLister().defaultAutoCommit();
         this.writerPool = writerPool;
+        this.bufferBudget = owner.getBufferBudget();
+        this.prefetchWorkers = owner.getPrefetchWorkers();
+        this.convertWorkers = owner.getConvertWorkers();
+        this.convertThreads = owner.getConfig().getWorkers().getConvertThreads();
+        this.ringSlots = owner.getConfig().getWorkers().getRingSlots();
+        this.chunkRows = owner.getConfig().getWorkers().getChunkRows();
         this.rowIndex = 0;
     }
 
     @Override
     public Boolean call() throws Exception {
+        return load(null);
+    }
+
+    /**
+     * Loads the task data, reading on the provided connection when one is given.
+     * The provided connection stays open, and gets rolled back on failure.
+     *
+     * @param shared Source connection shared by several tasks, or null to use own connections
+     * @return true on success, false otherwise
+     */
+    boolean load(Connection shared) {
         if (!tab.isValid()) {
             LOG.warn("Skipping incomplete source table {}.{}", tab.getSchema(), tab.getTable());
             return false;
@@ -106,9 +147,15 @@ public class LoadDataTask implements Callable<Boolean> {
             return false;
         }
         LOG.info("Loading data from {}", task.getName());
+        progress.readerStarted(counters);
+        final long startedNanos = System.nanoTime();
+        final ImporterEvents.Span span = events.loadTask(counters.getLabel(), task.getName());
+        String status = "FAILED";
+        long copied = 0L;
         try {
-            long copied = executeTask();
+            copied = (shared == null) ? executeTask(0, 0) : executeShared(shared);
             LOG.info("Copied {} rows from {}", copied, task.getName());
+            status = "OK";
             return true;
         } catch (Throwable e) {
             if (e instanceof InterruptedException) {
@@ -122,6 +169,10 @@ public class LoadDataTask implements Callable<Boolean> {
                 tab.setFailure(true);
             }
             return false;
+        } finally {
+            progress.readerFinished(counters, task.getName(), copied, startedNanos,
+                    queryRetries, "OK".equals(status));
+            span.end(copied, status);
         }
     }
 
@@ -133,45 +184,114 @@ public class LoadDataTask implements Callable<Boolean> {
     }
 
     /**
-     * Reads all queries of a task, retrying each one on failure.
+     * Reads the queries of a task, retrying each one on failure.
+     * With query prefetch enabled, the next query is opened on a separate
+     * connection while the current one is being read.
+     *
+     * @param firstQuery Index of the first query to read
+     * @param failures Number of the failed attempts of the first query
      */
-    private long executeTask() throws Exception {
+    private long executeTask(int firstQuery, int failures) throws Exception {
         List<TaskQuery> queries = task.getQueries();
         long copied = 0;
-        int nextQuery = 0;
-        int attempt = 0;
+        int nextQuery = firstQuery;
+        int attempt = failures;
         long backoffMs = INITIAL_BACKOFF_MS;
         long savedRowIndex = rowIndex;
+        PrefetchedQuery ahead = null;
 
-        while (nextQuery < queries.size()) {
-            try (Connection con = source.getConnection()) {
-                con.setAutoCommit(defaultAutoCommit);
-                while (nextQuery < queries.size()) {
-                    checkCancelled();
-                    savedRowIndex = rowIndex;
-                    TaskQuery query = queries.get(nextQuery);
-                    if (queries.size() > 1) {
-                        LOG.debug("Reading range {}", query.getName());
+        try {
+            while (nextQuery < queries.size()) {
+                try (Connection con = source.getConnection()) {
+                    con.setAutoCommit(defaultAutoCommit);
+                    while (nextQuery < queries.size()) {
+                        checkCancelled();
+                        savedRowIndex = rowIndex;
+                        TaskQuery query = queries.get(nextQuery);
+                        if (queries.size() > 1) {
+                            LOG.debug("Reading range {}", query.getName());
+                        }
+                        PrefetchedQuery current = ahead;
+                        ahead = null;
+                        if (prefetchWorkers != null && nextQuery + 1 < queries.size()) {
+                            TaskQuery following = queries.get(nextQuery + 1);
+                            ahead = new PrefetchedQuery(source, following.getName(), following.getSql(),
+                                    fetchSize, defaultAutoCommit, prefetchWorkers);
+                        }
+                        if (current == null) {
+                            copied += executeQuery(con, query.getSql());
+                        } else {
+                            try {
+                                copied += current.consume(this::copyData);
+                            } finally {
+                                current.close();
+                            }
+                        }
+                        nextQuery++;
+                        attempt = 0;
+                        backoffMs = INITIAL_BACKOFF_MS;
                     }
-                    copied += executeQuery(con, query.getSql());
-                    nextQuery++;
-                    attempt = 0;
-                    backoffMs = INITIAL_BACKOFF_MS;
-                }
-            } catch (SQLException e) {
-                if (tab.isFailure()) {
-                    throw e;
+                } catch (SQLException e) {
+                    if (ahead != null) {
+                        ahead.close();
+                        ahead = null;
+                    }
+                    if (tab.isFailure()) {
+                        throw e;
+                    }
+                    rowIndex = savedRowIndex;
+                    if (++attempt > retryCount) {
+                        throw e;
+                    }
+                    queryRetries++;
+                    TaskQuery failed = queries.get(nextQuery);
+                    LOG.warn("Query {} failed (attempt {}/{}), retrying in {} ms",
+                            failed.getName(), attempt, retryCount, backoffMs, e);
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
                 }
-                rowIndex = savedRowIndex;
-                if (++attempt > retryCount) {
-                    throw e;
+            }
+        } finally {
+            if (ahead != null) {
+                ahead.close();
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Reads all queries of a task on the connection of a bundle.
+     * A failed query is retried on a connection of its own, as in {@link #executeTask},
+     * leaving the shared connection to the bundle.
+     */
+    private long executeShared(Connection con) throws Exception {
+        final List<TaskQuery> queries = task.getQueries();
+        long copied = 0;
+        int nextQuery = 0;
+        long savedRowIndex = rowIndex;
+        try {
+            for (; nextQuery < queries.size(); nextQuery++) {
+                checkCancelled();
+                savedRowIndex = rowIndex;
+                copied += executeQuery(con, queries.get(nextQuery).getSql());
+            }
+        } catch (Exception ex) {
+            try {
+                if (!con.getAutoCommit()) {
+                    con.rollback();
                 }
-                TaskQuery failed = queries.get(nextQuery);
-                LOG.warn("Query {} failed (attempt {}/{}), retrying in {} ms",
-                        failed.getName(), attempt, retryCount, backoffMs, e);
-                Thread.sleep(backoffMs);
-                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            } catch (SQLException rx) {
+                ex.addSuppressed(rx);
             }
+            if (!(ex instanceof SQLException) || tab.isFailure() || retryCount < 1) {
+                throw ex;
+            }
+            rowIndex = savedRowIndex;
+            queryRetries++;
+            LOG.warn("Query {} failed on the shared connection (attempt 1/{}), retrying in {} ms",
+                    queries.get(nextQuery).getName(), retryCount, INITIAL_BACKOFF_MS, ex);
+            Thread.sleep(INITIAL_BACKOFF_MS);
+            copied += executeTask(nextQuery, 1);
         }
         return copied;
     }
@@ -202,18 +322,22 @@ public class LoadDataTask implements Callable<Boolean> {
         final ColumnIndex[] columns = buildMainIndex(paramType, rsmd);
         final List<BlobReader> blobReaders = collectBlobReaders(columns);
         final List<ClobReader> clobReaders = collectClobReaders(columns);
-        final SynthKey synthKey = tab.getTarget().hasSynthKey() ? new SynthKey() : null;
+        rowBytes = BufferBudget.estimateRowBytes(tab, paramType);
+        counters.setRowBytes(rowBytes);
 
         boolean needsBuffering = needsPartitionBuffering();
-        PartitionBounds pb = (partitionBuffers && needsBuffering) ? resolvePartitionBounds(rsmd) : null;
+        PartitionRouter pb = (partitionBuffers && needsBuffering) ? PartitionRouter.create(tab, rsmd) : null;
         if (partitionBuffers && needsBuffering && pb == null) {
-            LOG.debug("partition-buffers requested for {}.{} but no integer partition cuts, "
+            LOG.debug("partition-buffers requested for {}.{} but no usable partition boundaries, "
                     + "plain batching", tab.getSchema(), tab.getTable());
         }
 
-        long copied = useArrow
-                ? copyDataArrow(rs, paramType, columns, blobReaders, clobReaders, synthKey, pb)
-                : copyDataRows(rs, paramType, columns, blobReaders, clobReaders, synthKey, pb);
+        long copied;
+        if (convertWorkers != null && isTwoPhase(columns)) {
+            copied = copyDataPipelined(rs, paramType, columns, pb);
+        } else {
+            copied = copyDataDirect(rs, paramType, columns, blobReaders, clobReaders, pb);
+        }
 
         for (ColumnIndex ci : columns) {
             if (ci != null) {
@@ -224,115 +348,422 @@ public class LoadDataTask implements Callable<Boolean> {
         return copied;
     }
 
-    /** Row batching, one buffer per partition when bounds are known, else a single buffer. */
-    private long copyDataRows(ResultSet rs, StructType paramType, ColumnIndex[] columns,
-            List<BlobReader> blobReaders, List<ClobReader> clobReaders, SynthKey synthKey,
-            PartitionBounds pb) throws Exception {
-        final ListType paramListType = ListType.of(paramType);
-        final int partCount = (pb == null) ? 1 : pb.cuts.length + 1;
-        final List<List<Value<?>>> buffers = new ArrayList<>(partCount);
-        for (int i = 0; i < partCount; i++) {
-            buffers.add(new ArrayList<>(maxBatchRows));
-        }
-        final RowValueWriter writer = new RowValueWriter(paramType);
+    /** Fetches and converts the rows on the current thread. */
+    private long copyDataDirect(ResultSet rs, StructType paramType, ColumnIndex[] columns,
+            List<BlobReader> blobReaders, List<ClobReader> clobReaders,
+            PartitionRouter pb) throws Exception {
+        final SynthKey synthKey = tab.getTarget().hasSynthKey() ? new SynthKey() : null;
         long copied = 0;
-        long readStart = System.nanoTime();
+        int unreported = 0;
+        long fetchNanos = 0L;
+        long convertNanos = 0L;
+        try (BatchSink sink = newSink(paramType, pb, LatencyHistogram.Stage.FETCH)) {
+            long mark = discard ? System.nanoTime() : 0L;
+            while (rs.next()) {
+                final long fetched = discard ? System.nanoTime() : 0L;
+                rowIndex++;
+                copied++;
+                if (++unreported >= REPORT_ROWS) {
+                    progress.countReadRows(counters, unreported);
+                    if (discard) {
+                        progress.countReadTime(counters, fetchNanos, convertNanos);
+                        fetchNanos = 0L;
+                        convertNanos = 0L;
+                    }
+                    unreported = 0;
+                }
+                setupBlobIds(blobReaders, clobReaders);
 
-        while (rs.next()) {
-            rowIndex++;
-            copied++;
-            progress.countReadRows(1);
-            setupBlobIds(blobReaders, clobReaders);
+                int part = (pb == null) ? 0 : pb.partitionOf(rs);
+                readRow(rs, paramType, columns, sink.startRow(part), synthKey);
+                if (discard) {
+                    final long converted = System.nanoTime();
+                    fetchNanos += fetched - mark;
+                    convertNanos += converted - fetched;
+                }
+                sink.endRow(part);
+                if (discard) {
+                    mark = System.nanoTime();
+                }
+            }
+            sink.flushAll();
+        } finally {
+            progress.countReadRows(counters, unreported);
+            if (discard) {
+                progress.countReadTime(counters, fetchNanos, convertNanos);
+            }
+        }
+        return copied;
+    }
 
-            int part = (pb == null) ? 0 : partitionOf(rs.getLong(pb.pkIndex), pb.cuts);
-            Value<?>[] values = new Value[paramType.getMembersCount()];
+    /**
+     * Fetches raw column values on the current thread and hands them over
+     * to the conversion threads through a ring of pre-allocated chunks.
+     * Each conversion thread builds and submits its own batches.
+     */
+    private long copyDataPipelined(ResultSet rs, StructType paramType, ColumnIndex[] columns,
+            PartitionRouter pb) throws Exception {
+        final int width = columns.length;
+        final RowRing ring = new RowRing(ringSlots, chunkRows, width, convertThreads);
+        final List<Future<Void>> converters = new ArrayList<>(convertThreads);
+        Exception failure = null;
+        long copied = 0;
+        int unreported = 0;
+        try {
+            for (int i = 0; i < convertThreads; i++) {
+                converters.add(convertWorkers.submit(() -> convertRows(ring, paramType, columns, pb)));
+            }
+            RowRing.Chunk chunk = ring.takeFree();
+            long fetchStart = System.nanoTime();
+            while (rs.next()) {
+                rowIndex++;
+                copied++;
+                if (++unreported >= REPORT_ROWS) {
+                    progress.countReadRows(counters, unreported);
+                    unreported = 0;
+                }
+                Object[] raw = chunk.rows[chunk.count];
+                for (int rsIdx = 1; rsIdx <= width; rsIdx += 1) {
+                    ColumnIndex column = columns[rsIdx - 1];
+                    if (column != null) {
+                        raw[rsIdx - 1] = fetchColumn(rs, rsIdx, column, paramType);
+                    }
+                }
+                chunk.parts[chunk.count] = (pb == null) ? 0 : pb.partitionOf(rs);
+                chunk.count++;
+                if (chunk.isFull()) {
+                    countFetchTime(System.nanoTime() - fetchStart);
+                    ring.publish(chunk);
+                    chunk = ring.takeFree();
+                    fetchStart = System.nanoTime();
+                }
+            }
+            if (chunk.count > 0) {
+                countFetchTime(System.nanoTime() - fetchStart);
+                ring.publish(chunk);
+            } else {
+                ring.release(chunk);
+            }
+        } catch (Exception ex) {
+            ring.abort();
+            failure = ex;
+        } finally {
+            ring.finish(convertThreads);
+            progress.countReadRows(counters, unreported);
+        }
+
+        for (Future<Void> f : converters) {
+            try {
+                f.get();
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    Throwable cause = ex.getCause();
+                    failure = (cause instanceof Exception) ? (Exception) cause : ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        LOG.info("Pipeline stats for {}: {}", task.getName(), ring.stats());
+        return copied;
+    }
+
+    /** Conversion stage of the pipelined mode, running until the ring is finished. */
+    private Void convertRows(RowRing ring, StructType paramType, ColumnIndex[] columns,
+            PartitionRouter pb) throws Exception {
+        final SynthKey synthKey = tab.getTarget().hasSynthKey() ? new SynthKey() : null;
+        try (BatchSink sink = newSink(paramType, pb, null)) {
+            RowRing.Chunk chunk;
+            while ((chunk = ring.takeFilled()) != null) {
+                try {
+                    final long convertStart = System.nanoTime();
+                    final long handoffStart = sink.handoffNanos();
+                    // after a failure the remaining chunks are only drained
+                    for (int i = 0; i < chunk.count && !ring.isAborted(); i++) {
+                        int part = chunk.parts[i];
+                        convertRow(chunk.rows[i], paramType, columns, sink.startRow(part), synthKey);
+                        sink.endRow(part);
+                    }
+                    // the time of the batch submission is measured by the later stages
+                    final long nanos = System.nanoTime() - convertStart - (sink.handoffNanos() - handoffStart);
+                    progress.recordLatency(counters, LatencyHistogram.Stage.CONVERT, nanos);
+                    progress.countReadTime(counters, 0L, nanos);
+                } catch (Exception ex) {
+                    ring.fail(ex);
+                } finally {
+                    ring.release(chunk);
+                }
+            }
+            ring.checkFailure();
+            if (!ring.isAborted()) {
+                sink.flushAll();
+            }
+        } catch (Exception ex) {
+            ring.fail(ex);
+            throw ex;
+        }
+        return null;
+    }
+
+    /**
+     * @param buildStage Stage to record the batch build time in, or null
+     */
+    private BatchSink newSink(StructType paramType, PartitionRouter pb, LatencyHistogram.Stage buildStage) {
+        final int partCount = (pb == null) ? 1 : pb.getPartitionCount();
+        // the budget only limits the per-partition buffers
+        final BufferBudget.Account account = (partCount > 1 && bufferBudget != null)
+                ? bufferBudget.open(BufferBudget.estimateRowBytes(tab, paramType)) : null;
+        try {
+            return useArrow
+                    ? new ArrowBatchSink(paramType, partCount, account, buildStage)
+                    : new RowBatchSink(paramType, partCount, account, buildStage);
+        } catch (RuntimeException ex) {
+            if (account != null) {
+                account.close();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Per-partition batch buffers of a single reading or converting thread.
+     */
+    private interface BatchSink extends AutoCloseable {
+
+        /** @return Writer for the values of the next row in the given partition. */
+        ValueWriter startRow(int part);
+
+        /** Completes the row, submitting the partition batch once it is full. */
+        void endRow(int part) throws Exception;
+
+        /** Submits all non-empty batches. */
+        void flushAll() throws Exception;
+
+        /** @return Total time spent submitting the batches to the writers. */
+        long handoffNanos();
+
+        @Override
+        void close();
+    }
+
+    /** Row batching, one buffer per partition when bounds are known, else a single buffer. */
+    private final class RowBatchSink implements BatchSink {
+
+        private final StructType paramType;
+        private final ListType paramListType;
+        private final List<List<Value<?>>> buffers;
+        private final RowValueWriter writer;
+        private final BufferBudget.Account account;
+        private final LatencyHistogram.Stage buildStage;
+        private Value<?>[] values;
+        private long readStart = System.nanoTime();
+        private long handoffNanos = 0L;
+
+        RowBatchSink(StructType paramType, int partCount, BufferBudget.Account account,
+                LatencyHistogram.Stage buildStage) {
+            this.paramType = paramType;
+            this.paramListType = ListType.of(paramType);
+            this.buffers = new ArrayList<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                buffers.add(new ArrayList<>(partCount > 1 ? Math.min(maxBatchRows, 1000) : maxBatchRows));
+            }
+            this.writer = new RowValueWriter(paramType);
+            this.account = account;
+            this.buildStage = buildStage;
+        }
+
+        @Override
+        public ValueWriter startRow(int part) {
+            values = new Value[paramType.getMembersCount()];
             Arrays.fill(values, VoidValue.of());
             writer.setValues(values);
-            readRow(rs, paramType, columns, writer, synthKey);
+            return writer;
+        }
+
+        @Override
+        public void endRow(int part) throws Exception {
             List<Value<?>> buffer = buffers.get(part);
             buffer.add(paramType.newValueUnsafe(values));
-
+            boolean evict = (account != null) && account.addRow();
             if (buffer.size() >= maxBatchRows) {
-                progress.countReadBatch(System.nanoTime() - readStart);
-                checkCancelled();
-                submitRowBatch(paramListType, buffer);
-                buffer.clear();
+                countBuiltBatch(buildStage, System.nanoTime() - readStart);
+                submit(part, false);
+                readStart = System.nanoTime();
+            } else if (evict) {
+                countBuiltBatch(buildStage, System.nanoTime() - readStart);
+                submit(fullest(), true);
                 readStart = System.nanoTime();
             }
         }
 
-        boolean counted = false;
-        for (List<Value<?>> buffer : buffers) {
-            if (!buffer.isEmpty()) {
-                if (!counted) {
-                    progress.countReadBatch(System.nanoTime() - readStart);
-                    counted = true;
+        @Override
+        public void flushAll() throws Exception {
+            boolean counted = false;
+            for (int i = 0; i < buffers.size(); i++) {
+                if (!buffers.get(i).isEmpty()) {
+                    if (!counted) {
+                        countBuiltBatch(buildStage, System.nanoTime() - readStart);
+                        counted = true;
+                    }
+                    submit(i, false);
                 }
-                checkCancelled();
-                submitRowBatch(paramListType, buffer);
-                buffer.clear();
             }
         }
-        return copied;
-    }
 
-    /** Arrow batching, one batch per partition when bounds are known, else a single batch. */
-    private long copyDataArrow(ResultSet rs, StructType paramType, ColumnIndex[] columns,
-            List<BlobReader> blobReaders, List<ClobReader> clobReaders, SynthKey synthKey,
-            PartitionBounds pb) throws Exception {
-        final int partCount = (pb == null) ? 1 : pb.cuts.length + 1;
-        final ArrowBatchBuilder[] builders = new ArrowBatchBuilder[partCount];
-        final ApacheArrowWriter.Batch[] batches = new ApacheArrowWriter.Batch[partCount];
-        final int[] counts = new int[partCount];
-        final ArrowValueWriter writer = new ArrowValueWriter(paramType);
-        long copied = 0;
-        long readStart = System.nanoTime();
-        try {
-            for (int i = 0; i < partCount; i++) {
-                builders[i] = new ArrowBatchBuilder(paramType, maxBatchRows);
+        private void submit(int part, boolean evicted) throws Exception {
+            List<Value<?>> buffer = buffers.get(part);
+            checkCancelled();
+            final long started = System.nanoTime();
+            submitRowBatch(paramListType, buffer);
+            handoffNanos += System.nanoTime() - started;
+            events.batchBuilt(counters.getLabel(), part, buffer.size(), (long) buffer.size() * rowBytes);
+            if (buffers.size() > 1) {
+                progress.countPartitionBatch(buffer.size(), maxBatchRows, evicted);
             }
-            while (rs.next()) {
-                rowIndex++;
-                copied++;
-                progress.countReadRows(1);
-                setupBlobIds(blobReaders, clobReaders);
+            if (account != null) {
+                account.releaseRows(buffer.size());
+            }
+            buffer.clear();
+        }
 
-                int part = (pb == null) ? 0 : partitionOf(rs.getLong(pb.pkIndex), pb.cuts);
-                if (batches[part] == null) {
-                    batches[part] = builders[part].newBatch();
+        @Override
+        public long handoffNanos() {
+            return handoffNanos;
+        }
+
+        private int fullest() {
+            int best = 0;
+            for (int i = 1; i < buffers.size(); i++) {
+                if (buffers.get(i).size() > buffers.get(best).size()) {
+                    best = i;
                 }
-                writer.setRow(batches[part].writeNextRow());
-                readRow(rs, paramType, columns, writer, synthKey);
-                counts[part]++;
-
-                if (counts[part] >= maxBatchRows) {
-                    progress.countReadBatch(System.nanoTime() - readStart);
-                    checkCancelled();
-                    submitArrowBatch(batches[part], counts[part]);
-                    batches[part] = null;
-                    counts[part] = 0;
-                    readStart = System.nanoTime();
+            }
+            return best;
+        }
+
+        @Override
+        public void close() {
+            if (account != null) {
+                account.close();
+            }
+        }
+    }
+
+    /** Arrow batching, one batch per partition when bounds are known, else a single batch. */
+    private final class ArrowBatchSink implements BatchSink {
+
+        private final ArrowBatchBuilder[] builders;
+        private final ApacheArrowWriter.Batch[] batches;
+        private final int[] counts;
+        private final ArrowValueWriter writer;
+        private final BufferBudget.Account account;
+        private final LatencyHistogram.Stage buildStage;
+        private long readStart = System.nanoTime();
+        private long handoffNanos = 0L;
+
+        ArrowBatchSink(StructType paramType, int partCount, BufferBudget.Account account,
+                LatencyHistogram.Stage buildStage) {
+            this.builders = new ArrowBatchBuilder[partCount];
+            this.batches = new ApacheArrowWriter.Batch[partCount];
+            this.counts = new int[partCount];
+            this.writer = new ArrowValueWriter(paramType);
+            this.account = account;
+            this.buildStage = buildStage;
+            try {
+                for (int i = 0; i < partCount; i++) {
+                    builders[i] = new ArrowBatchBuilder(paramType, maxBatchRows);
                 }
+            } catch (RuntimeException ex) {
+                closeBuilders();
+                throw ex;
+            }
+        }
+
+        @Override
+        public ValueWriter startRow(int part) {
+            if (batches[part] == null) {
+                batches[part] = builders[part].newBatch();
             }
+            writer.setRow(batches[part].writeNextRow());
+            return writer;
+        }
+
+        @Override
+        public void endRow(int part) throws Exception {
+            counts[part]++;
+            boolean evict = (account != null) && account.addRow();
+            if (counts[part] >= maxBatchRows) {
+                countBuiltBatch(buildStage, System.nanoTime() - readStart);
+                submit(part, false);
+                readStart = System.nanoTime();
+            } else if (evict) {
+                countBuiltBatch(buildStage, System.nanoTime() - readStart);
+                submit(fullest(), true);
+                readStart = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void flushAll() throws Exception {
             boolean counted = false;
-            for (int i = 0; i < partCount; i++) {
+            for (int i = 0; i < counts.length; i++) {
                 if (counts[i] > 0) {
                     if (!counted) {
-                        progress.countReadBatch(System.nanoTime() - readStart);
+                        countBuiltBatch(buildStage, System.nanoTime() - readStart);
                         counted = true;
                     }
-                    checkCancelled();
-                    submitArrowBatch(batches[i], counts[i]);
+                    submit(i, false);
                 }
             }
-        } finally {
+        }
+
+        private void submit(int part, boolean evicted) throws Exception {
+            checkCancelled();
+            final long started = System.nanoTime();
+            submitArrowBatch(batches[part], counts[part]);
+            handoffNanos += System.nanoTime() - started;
+            events.batchBuilt(counters.getLabel(), part, counts[part], (long) counts[part] * rowBytes);
+            if (counts.length > 1) {
+                progress.countPartitionBatch(counts[part], maxBatchRows, evicted);
+            }
+            if (account != null) {
+                account.releaseRows(counts[part]);
+            }
+            batches[part] = null;
+            counts[part] = 0;
+        }
+
+        @Override
+        public long handoffNanos() {
+            return handoffNanos;
+        }
+
+        private int fullest() {
+            int best = 0;
+            for (int i = 1; i < counts.length; i++) {
+                if (counts[i] > counts[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public void close() {
+            closeBuilders();
+            if (account != null) {
+                account.close();
+            }
+        }
+
+        private void closeBuilders() {
             for (ArrowBatchBuilder b : builders) {
                 if (b != null) {
                     b.close();
                 }
             }
         }
-        return copied;
     }
 
     private void setupBlobIds(List<BlobReader> blobReaders, List<ClobReader> clobReaders) {
@@ -348,82 +779,45 @@ public class LoadDataTask implements Callable<Boolean> {
         }
     }
 
+    private void countFetchTime(long nanos) {
+        progress.recordLatency(counters, LatencyHistogram.Stage.FETCH, nanos);
+        progress.countReadTime(counters, nanos, 0L);
+    }
+
+    private void countBuiltBatch(LatencyHistogram.Stage stage, long nanos) {
+        progress.countReadBatch(counters, nanos);
+        if (stage != null) {
+            progress.recordLatency(counters, stage, nanos);
+        }
+    }
+
     private void submitRowBatch(ListType paramListType, List<Value<?>> batch) throws Exception {
+        final long started = System.nanoTime();
         final ListValue lv = paramListType.newValue(batch);
-        writerPool.submit(new UploadBatch(ydbOp, new BulkUpsertData(lv), batch.size(),
-                () -> RowValueWriter.logValues(lv), tab));
+        final BulkUpsertData data = new BulkUpsertData(lv);
+        progress.recordLatency(counters, LatencyHistogram.Stage.SERIALIZE, System.nanoTime() - started);
+        writerPool.submit(new UploadBatch(ydbOp, data, batch.size(),
+                () -> RowValueWriter.logValues(lv), tab, lv));
     }
 
     private void submitArrowBatch(ApacheArrowWriter.Batch arrowBatch, int rowCount) throws Exception {
+        final long started = System.nanoTime();
         final ApacheArrowData data = arrowBatch.buildBatch();
+        progress.recordLatency(counters, LatencyHistogram.Stage.SERIALIZE, System.nanoTime() - started);
         writerPool.submit(new UploadBatch(ydbOp, data, rowCount,
                 () -> ArrowValueWriter.logValues(data), tab));
     }
 
     private boolean needsPartitionBuffering() {
+        if (tab.getTarget().getPartitionBounds() != null) {
+            // the existing target table has its own partitions
+            return true;
+        }
         final YdbPartitioning part = tab.getMetadata().getYdbPartitioning();
         return !(part.isKeyRange() && part.isOnePartitionPerTask()
                 && tab.getMetadata().getTasks().size() == part.getCuts().size() + 1);
     }
 
-    /** Which YDB partition a key falls into, by binary search over the cuts. */
-    private static int partitionOf(long key, long[] cuts) {
-        int lo = 0;
-        int hi = cuts.length;
-        while (lo < hi) {
-            int mid = (lo + hi) >>> 1;
-            if (key >= cuts[mid]) {
-                lo = mid + 1;
-            } else {
-                hi = mid;
-            }
-        }
-        return lo;
-    }
-
-    /** Resolves the leading-PK column index and integer partition cuts.
-     *  Returns null when regrouping is not possible. */
-    private PartitionBounds resolvePartitionBounds(ResultSetMetaData rsmd) throws SQLException {
-        List<ColumnInfo> key = tab.getMetadata().getKey();
-        List<String> cutStrings = tab.getMetadata().getYdbPartitioning().getCuts();
-        if (key.isEmpty() || cutStrings.isEmpty()) {
-            return null;
-        }
-        ColumnInfo pk = key.get(0);
-        if (!YdbTypeMapper.partitionableInteger(pk, tab.getOptions())) {
-            return null;
-        }
-        long[] cuts = new long[cutStrings.size()];
-        try {
-            for (int i = 0; i < cuts.length; i++) {
-                cuts[i] = Long.parseLong(cutStrings.get(i).trim());
-            }
-        } catch (NumberFormatException ex) {
-            return null;
-        }
-        int pkIndex = -1;
-        for (int i = 1; i <= rsmd.getColumnCount(); i++) {
-            if (pk.getName().equalsIgnoreCase(rsmd.getColumnName(i))) {
-                pkIndex = i;
-                break;
-            }
-        }
-        if (pkIndex < 0) {
-            return null;
-        }
-        return new PartitionBounds(cuts, pkIndex);
-    }
-
-    private static final class PartitionBounds {
-        private final long[] cuts;
-        private final int pkIndex;
-
-        PartitionBounds(long[] cuts, int pkIndex) {
-            this.cuts = cuts;
-            this.pkIndex = pkIndex;
-        }
-    }
-
     private static List<BlobReader> collectBlobReaders(ColumnIndex[] columns) {
         List<BlobReader> readers = new ArrayList<>();
         for (ColumnIndex ci : columns) {
@@ -444,6 +838,10 @@ public class LoadDataTask implements Callable<Boolean> {
         return readers;
     }
 
+    private String lobPath(TargetTable tt) {
+        return discard ? tt.getFullName() : target.getDatabase() + "/" + tt.getFullName();
+    }
+
     private ColumnIndex[] buildMainIndex(StructType paramListType, ResultSetMetaData rsmd) throws Exception {
         final Map<String, Integer> targetColumns = new HashMap<>();
         for (int i = 0; i < paramListType.getMembersCount(); ++i) {
@@ -478,16 +876,17 @@ public class LoadDataTask implements Callable<Boolean> {
                     LOG.warn("Missing aux target table for BLOB column {} "
                             + "of source {}.{}", columnName, tab.getSchema(), tab.getTable());
                 } else {
-                    String blobPath = target.getDatabase() + "/" + tt.getFullName();
+                    String blobPath = lobPath(tt);
                     boolean isBlob = ci.isBlobAsObject();
-                    ValueReader reader = new BlobReader(blobPath, target.getRetryCtx(), progress, maxBlobRows, isBlob);
+                    ValueReader reader = new BlobReader(blobPath, discard ? null : target.getRetryCtx(),
+                            progress, counters, maxBlobRows, isBlob);
                     index[i] = new ColumnIndex(ixTarget, reader);
                 }
             } else if (tab.getClobTargets().containsKey(columnName)) {
                 TargetTable tt = tab.getClobTargets().get(columnName);
-                String clobPath = target.getDatabase() + "/" + tt.getFullName();
-                ValueReader reader = new ClobReader(clobPath, target.getRetryCtx(),
-                        progress, maxBlobRows, useStringForClob);
+                String clobPath = lobPath(tt);
+                ValueReader reader = new ClobReader(clobPath, discard ? null : target.getRetryCtx(),
+                        progress, counters, maxBlobRows, useStringForClob);
                 index[i] = new ColumnIndex(ixTarget, reader);
             } else {
                 ValueReader reader = ValueReader.getReader(paramListType.getMemberType(ixTarget), ci.getSqlType());
@@ -502,6 +901,18 @@ public class LoadDataTask implements Callable<Boolean> {
         return index;
     }
 
+    /**
+     * @return true if all the column readers can be split into the fetch and conversion steps
+     */
+    private static boolean isTwoPhase(ColumnIndex[] columns) {
+        for (ColumnIndex ci : columns) {
+            if (ci != null && !(ci.getReader() instanceof ValueReader.TwoPhase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Reads the current source row column by column and writes the synthetic key column when configured.
      *
@@ -533,6 +944,41 @@ public class LoadDataTask implements Callable<Boolean> {
         }
     }
 
+    private Object fetchColumn(ResultSet rs, int rsIdx, ColumnIndex column, StructType type)
+            throws Exception {
+        try {
+            return column.getTwoPhase().fetch(rs, rsIdx);
+        } catch (Exception ex) {
+            throw new Exception("Failed fetch for column " + rsIdx + " "
+                    + type.getMemberName(column.getStructIndex()), ex);
+        }
+    }
+
+    /**
+     * Converts the raw values of a row fetched in the pipelined mode,
+     * in the same column order as {@link #readRow}.
+     */
+    private void convertRow(Object[] raw, StructType type, ColumnIndex[] columns,
+            ValueWriter writer, SynthKey synthKey) throws Exception {
+        for (int rsIdx = 1; rsIdx <= columns.length; rsIdx += 1) {
+            ColumnIndex column = columns[rsIdx - 1];
+            if (column == null) {
+                continue;
+            }
+
+            int valuesIdx = column.getStructIndex();
+            try {
+                column.getTwoPhase().convert(raw[rsIdx - 1], valuesIdx, writer, synthKey);
+            } catch (Exception ex) {
+                throw new Exception("Failed conversion for column " + rsIdx + " " + type.getMemberName(valuesIdx), ex);
+            }
+        }
+
+        if (synthKey != null) {
+            writer.writeText(tab.getTarget().getSynthKeyPos(), synthKey.buildString());
+        }
+    }
+
     private static class ColumnIndex {
 
         private final int structIndex;
@@ -550,5 +996,9 @@ public class LoadDataTask implements Callable<Boolean> {
         public ValueReader getReader() {
             return reader;
         }
+
+        public ValueReader.TwoPhase getTwoPhase() {
+            return (ValueReader.TwoPhase) reader;
+        }
     }
 }
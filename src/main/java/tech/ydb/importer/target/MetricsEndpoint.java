@@ -0,0 +1,169 @@
+package tech.ydb.importer.target;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToLongFunction;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP endpoint serving the load metrics in the Prometheus text format.
+ * The values are collected from the progress counters on each request.
+ */
+public class MetricsEndpoint implements AutoCloseable {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    private static final String PREFIX = "ydb_importer_";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ProgressCounter progress;
+    private final WriterPool writerPool;
+    private final int readerCount;
+
+    /**
+     * @param host Address to listen on, or null for all the interfaces
+     * @param port Port to listen on
+     * @param progress Progress counters
+     * @param writerPool Writer pool
+     * @param readerCount Number of the reader threads
+     * @throws IOException
+     */
+    public MetricsEndpoint(String host, int port, ProgressCounter progress,
+            WriterPool writerPool, int readerCount) throws IOException {
+        this.progress = progress;
+        this.writerPool = writerPool;
+        this.readerCount = readerCount;
+        this.server = HttpServer.create((host == null)
+                ? new InetSocketAddress(port) : new InetSocketAddress(host, port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-endpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext("/metrics", this::handle);
+        this.server.start();
+        LOG.info("Metrics endpoint listening on {}", server.getAddress());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            final byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to render the metrics", ex);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    String render() {
+        final StringBuilder sb = new StringBuilder(4096);
+        final List<TableCounters> tables = progress.getTables();
+        tables.sort(Comparator.comparing(TableCounters::getLabel));
+
+        perTable(sb, tables, "rows_read_total", "Rows read from the source table.",
+                TableCounters::getRowsRead);
+        perTable(sb, tables, "rows_written_total", "Rows written to the target table.",
+                TableCounters::getRowsWritten);
+        perTable(sb, tables, "bytes_written_total",
+                "Estimated size of the rows written, by the target column types.",
+                TableCounters::getBytesWritten);
+        perTable(sb, tables, "read_batches_total", "Batches built from the source rows.",
+                TableCounters::getReadBatches);
+        perTable(sb, tables, "upload_batches_total", "Bulk upsert batches finished, uploaded or failed for good.",
+                TableCounters::getUploadBatches);
+        perTable(sb, tables, "upload_failures_total", "Batches failed to upload after all retries.",
+                TableCounters::getUploadFailures);
+        perTable(sb, tables, "lob_fragments_total", "BLOB and CLOB fragment rows written.",
+                TableCounters::getBlobRows);
+
+        final int active = progress.getActiveReaders();
+        final int uploading = writerPool.getUploadsInFlight();
+        gauge(sb, "writer_queue_depth", "Batches waiting for a writer.", writerPool.getQueueDepth());
+        gauge(sb, "uploads_in_flight", "Batches being uploaded.", uploading);
+        gauge(sb, "readers_active", "Reader tasks running.", active);
+        gauge(sb, "reader_threads", "Reader threads configured.", readerCount);
+        gauge(sb, "writer_threads", "Writer threads configured.", writerPool.getWriterCount());
+        gauge(sb, "reader_utilization", "Share of the reader threads running tasks.",
+                (double) active / Math.max(1, readerCount));
+        gauge(sb, "writer_utilization", "Share of the writer threads uploading.",
+                (double) uploading / Math.max(1, writerPool.getWriterCount()));
+        counter(sb, "read_seconds_total", "Time spent reading and converting the batches.",
+                progress.getReadNanos() / 1e9);
+        counter(sb, "upload_seconds_total", "Time spent in the bulk upsert calls.",
+                progress.getUploadNanos() / 1e9);
+        counter(sb, "upload_retries_total", "Uploads retried after transient errors.",
+                progress.getUploadRetries());
+        return sb.toString();
+    }
+
+    private static void perTable(StringBuilder sb, List<TableCounters> tables, String name,
+            String help, ToLongFunction<TableCounters> value) {
+        header(sb, name, help, "counter");
+        for (TableCounters tc : tables) {
+            sb.append(PREFIX).append(name).append("{table=\"");
+            appendLabel(sb, tc.getLabel());
+            sb.append("\"} ").append(value.applyAsLong(tc)).append('\n');
+        }
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, double value) {
+        header(sb, name, help, "gauge");
+        sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, long value) {
+        header(sb, name, help, "gauge");
+        sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, double value) {
+        header(sb, name, help, "counter");
+        sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, long value) {
+        header(sb, name, help, "counter");
+        sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void header(StringBuilder sb, String name, String help, String type) {
+        sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void appendLabel(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package tech.ydb.importer.target;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.source.ColumnInfo;
+import tech.ydb.table.values.DecimalValue;
+import tech.ydb.table.values.OptionalType;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.TupleValue;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
+
+/**
+ * Finds the YDB partition of a source row, comparing the leading key columns
+ * of the row with the partition boundaries of the target table.
+ * The boundaries come from the description of the existing target table,
+ * or from the planned PARTITION_AT_KEYS cuts of the new one.
+ * Used by a single reading thread.
+ */
+final class PartitionRouter {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(PartitionRouter.class);
+
+    /**
+     * Comparison kind of a key column, matching the YDB value order.
+     * UNSIGNED holds the Uint64 values as the raw 64 bits of a long.
+     */
+    enum Kind { INTEGER, UNSIGNED, DECIMAL, DOUBLE, TEXT, BYTES, DATE, TIMESTAMP }
+
+    private final Kind[] kinds;
+    private final int[] rsIndexes;
+    private final boolean[] timestampSource;
+    private final int[] rsTypes;
+    // the fast path for a single integer column
+    private final long[] longCuts;
+    private final Object[][] cuts;
+    private final Object[] key;
+    private final Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    private PartitionRouter(Kind[] kinds, int[] rsIndexes, boolean[] timestampSource,
+            int[] rsTypes, List<Object[]> cuts) {
+        this.kinds = kinds;
+        this.rsIndexes = rsIndexes;
+        this.timestampSource = timestampSource;
+        this.rsTypes = rsTypes;
+        this.cuts = cuts.toArray(new Object[0][]);
+        this.key = new Object[kinds.length];
+        if (kinds.length == 1 && kinds[0] == Kind.INTEGER && allPresent(this.cuts)) {
+            this.longCuts = new long[this.cuts.length];
+            for (int i = 0; i < longCuts.length; ++i) {
+                longCuts[i] = (Long) this.cuts[i][0];
+            }
+        } else {
+            this.longCuts = null;
+        }
+    }
+
+    /**
+     * @param tab Table being loaded
+     * @param rsmd Metadata of the source result set
+     * @return Router, or null if the key types or the boundaries are not supported
+     */
+    static PartitionRouter create(TableDecision tab, ResultSetMetaData rsmd) throws SQLException {
+        final List<ColumnInfo> keyColumns = tab.getMetadata().getKey();
+        if (keyColumns.isEmpty()) {
+            return null;
+        }
+        final List<Value<?>> bounds = tab.getTarget().getPartitionBounds();
+        final List<String> planned = tab.getMetadata().getYdbPartitioning().getCuts();
+        if (bounds == null && planned.isEmpty()) {
+            return null;
+        }
+        int width = 1;
+        if (bounds != null) {
+            for (Value<?> b : bounds) {
+                width = Math.max(width, elements(b).size());
+            }
+        }
+        width = Math.min(width, keyColumns.size());
+        final Kind[] kinds = new Kind[width];
+        final int[] rsIndexes = new int[width];
+        final boolean[] timestampSource = new boolean[width];
+        final int[] rsTypes = new int[width];
+        for (int i = 0; i < width; ++i) {
+            ColumnInfo ci = keyColumns.get(i);
+            kinds[i] = kindOf(ci, targetType(tab.getTarget().getFields(), ci.getDestinationName()));
+            rsIndexes[i] = findColumn(rsmd, ci.getName());
+            if (kinds[i] == null || rsIndexes[i] < 0) {
+                LOG.debug("Key column {} of {}.{} cannot be used for the partition routing",
+                        ci.getName(), tab.getSchema(), tab.getTable());
+                return null;
+            }
+            timestampSource[i] = (ci.getSqlType() == java.sql.Types.TIMESTAMP);
+            rsTypes[i] = ci.getSqlType();
+        }
+        final List<Object[]> cuts = new ArrayList<>();
+        try {
+            if (bounds != null) {
+                for (Value<?> b : bounds) {
+                    List<Value<?>> items = elements(b);
+                    Object[] cut = new Object[Math.min(items.size(), width)];
+                    for (int i = 0; i < cut.length; ++i) {
+                        cut[i] = fromYdb(items.get(i), kinds[i]);
+                    }
+                    cuts.add(cut);
+                }
+            } else {
+                for (String s : planned) {
+                    cuts.add(new Object[]{fromPlanned(s.trim(), kinds[0])});
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOG.debug("Unsupported partition boundaries for {}.{}", tab.getSchema(), tab.getTable(), ex);
+            return null;
+        }
+        return new PartitionRouter(kinds, rsIndexes, timestampSource, rsTypes, cuts);
+    }
+
+    /**
+     * Boundaries of the leading key column, used to spread the generated keys
+     * over the YDB partitions.
+     *
+     * @param tab Table being loaded
+     * @param kind Comparison kind of the leading key column
+     * @return Boundary values of the column, empty for a single partition,
+     *     or null if the boundaries are not supported
+     */
+    static List<Object> leadingCuts(TableDecision tab, Kind kind) {
+        final List<Value<?>> bounds = tab.getTarget().getPartitionBounds();
+        final List<Object> retval = new ArrayList<>();
+        try {
+            if (bounds != null) {
+                for (Value<?> b : bounds) {
+                    Object v = fromYdb(elements(b).get(0), kind);
+                    // composite boundaries may repeat the leading value
+                    if (v != null && (retval.isEmpty() || !v.equals(retval.get(retval.size() - 1)))) {
+                        retval.add(v);
+                    }
+                }
+            } else {
+                for (String s : tab.getMetadata().getYdbPartitioning().getCuts()) {
+                    retval.add(fromPlanned(s.trim(), kind));
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOG.debug("Unsupported partition boundaries for {}.{}", tab.getSchema(), tab.getTable(), ex);
+            return null;
+        }
+        return retval;
+    }
+
+    /** Number of the YDB partitions. */
+    int getPartitionCount() {
+        return cuts.length + 1;
+    }
+
+    /** Which YDB partition the current row falls into, by binary search over the cuts. */
+    int partitionOf(ResultSet rs) throws SQLException {
+        if (longCuts != null) {
+            long v = rs.getLong(rsIndexes[0]);
+            if (rs.wasNull()) {
+                return 0;
+            }
+            return partitionOf(v, longCuts);
+        }
+        for (int i = 0; i < kinds.length; ++i) {
+            key[i] = readKey(rs, i);
+        }
+        int lo = 0;
+        int hi = cuts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareToCut(kinds, key, cuts[mid]) >= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static int partitionOf(long key, long[] cuts) {
+        int lo = 0;
+        int hi = cuts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key >= cuts[mid]) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Compares the key with a boundary. The missing trailing elements of the boundary
+     * stand for the lowest values, and NULL goes before any other value, like in YDB.
+     */
+    static int compareToCut(Kind[] kinds, Object[] k, Object[] cut) {
+        for (int i = 0; i < cut.length; ++i) {
+            int cmp = compareValues(kinds[i], k[i], cut[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    static int compareValues(Kind kind, Object a, Object b) {
+        if (a == null || b == null) {
+            return (a == null) ? (b == null ? 0 : -1) : 1;
+        }
+        switch (kind) {
+            case INTEGER:
+            case DATE:
+            case TIMESTAMP:
+                return Long.compare((Long) a, (Long) b);
+            case UNSIGNED:
+                return Long.compareUnsigned((Long) a, (Long) b);
+            case DECIMAL:
+                return ((BigDecimal) a).compareTo((BigDecimal) b);
+            case DOUBLE:
+                return Double.compare((Double) a, (Double) b);
+            case TEXT:
+                return YdbTypeMapper.compareText((String) a, (String) b);
+            case BYTES:
+                return compareBytes((byte[]) a, (byte[]) b);
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    private Object readKey(ResultSet rs, int i) throws SQLException {
+        final int idx = rsIndexes[i];
+        switch (kinds[i]) {
+            case INTEGER: {
+                long v = rs.getLong(idx);
+                return rs.wasNull() ? null : v;
+            }
+            case UNSIGNED: {
+                if (isNumeric(rsTypes[i])) {
+                    BigDecimal v = rs.getBigDecimal(idx);
+                    // the low 64 bits are the unsigned value for anything within the Uint64 range
+                    return v == null ? null : v.toBigInteger().longValue();
+                }
+                long v = rs.getLong(idx);
+                return rs.wasNull() ? null : v;
+            }
+            case DECIMAL:
+                return rs.getBigDecimal(idx);
+            case DOUBLE: {
+                double v = rs.getDouble(idx);
+                return rs.wasNull() ? null : v;
+            }
+            case TEXT:
+                return rs.getString(idx);
+            case BYTES:
+                return rs.getBytes(idx);
+            case DATE: {
+                if (timestampSource[i]) {
+                    Timestamp ts = rs.getTimestamp(idx, utc);
+                    return ts == null ? null : ts.toInstant().atOffset(ZoneOffset.UTC).toLocalDate().toEpochDay();
+                }
+                java.sql.Date d = rs.getDate(idx);
+                return d == null ? null : d.toLocalDate().toEpochDay();
+            }
+            case TIMESTAMP: {
+                Timestamp ts = rs.getTimestamp(idx, utc);
+                return ts == null ? null : micros(ts.toInstant());
+            }
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Picks the comparison kind from the target column type, provided that the source
+     * column is read with the same value order.
+     */
+    static Kind kindOf(ColumnInfo ci, Type type) {
+        if (type == null) {
+            return null;
+        }
+        final int sqlType = ci.getSqlType();
+        if (type.getKind() == Type.Kind.DECIMAL) {
+            return isNumeric(sqlType) ? Kind.DECIMAL : null;
+        }
+        if (type.getKind() != Type.Kind.PRIMITIVE) {
+            return null;
+        }
+        switch ((PrimitiveType) type) {
+            case Int8:
+            case Int16:
+            case Int32:
+            case Int64:
+            case Uint8:
+            case Uint16:
+            case Uint32:
+                return (isNumeric(sqlType) && ci.getSqlScale() == 0) || isInteger(sqlType) ? Kind.INTEGER : null;
+            case Uint64:
+                return (isNumeric(sqlType) && ci.getSqlScale() == 0) || isInteger(sqlType) ? Kind.UNSIGNED : null;
+            case Float:
+            case Double:
+                return isNumeric(sqlType) || sqlType == java.sql.Types.DOUBLE
+                        || sqlType == java.sql.Types.FLOAT || sqlType == java.sql.Types.REAL
+                        ? Kind.DOUBLE : null;
+            case Text:
+                return isText(sqlType) ? Kind.TEXT : null;
+            case Bytes:
+                return (sqlType == java.sql.Types.BINARY || sqlType == java.sql.Types.VARBINARY)
+                        ? Kind.BYTES : null;
+            case Date:
+            case Date32:
+                return (sqlType == java.sql.Types.DATE || sqlType == java.sql.Types.TIMESTAMP)
+                        ? Kind.DATE : null;
+            case Datetime:
+            case Timestamp:
+            case Datetime64:
+            case Timestamp64:
+                return (sqlType == java.sql.Types.TIMESTAMP) ? Kind.TIMESTAMP : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isInteger(int sqlType) {
+        switch (sqlType) {
+            case java.sql.Types.TINYINT:
+            case java.sql.Types.SMALLINT:
+            case java.sql.Types.INTEGER:
+            case java.sql.Types.BIGINT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        return sqlType == java.sql.Types.DECIMAL || sqlType == java.sql.Types.NUMERIC;
+    }
+
+    private static boolean isText(int sqlType) {
+        switch (sqlType) {
+            case java.sql.Types.VARCHAR:
+            case java.sql.Types.CHAR:
+            case java.sql.Types.NVARCHAR:
+            case java.sql.Types.NCHAR:
+            case java.sql.Types.LONGNVARCHAR:
+            case java.sql.Types.LONGVARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static Type targetType(StructType fields, String name) {
+        for (int i = 0; i < fields.getMembersCount(); ++i) {
+            if (fields.getMemberName(i).equals(name)) {
+                Type type = fields.getMemberType(i);
+                if (type.getKind() == Type.Kind.OPTIONAL) {
+                    type = ((OptionalType) type).getItemType();
+                }
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static int findColumn(ResultSetMetaData rsmd, String name) throws SQLException {
+        for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+            if (name.equalsIgnoreCase(rsmd.getColumnName(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Value<?>> elements(Value<?> bound) {
+        final List<Value<?>> items = new ArrayList<>();
+        if (bound.getType().getKind() == Type.Kind.TUPLE) {
+            TupleValue tv = bound.asTuple();
+            for (int i = 0; i < tv.size(); ++i) {
+                items.add(tv.get(i));
+            }
+        } else {
+            items.add(bound);
+        }
+        return items;
+    }
+
+    private static Object fromYdb(Value<?> v, Kind kind) {
+        if (v.getType().getKind() == Type.Kind.OPTIONAL) {
+            if (!v.asOptional().isPresent()) {
+                return null;
+            }
+            v = v.asOptional().get();
+        }
+        if (kind == Kind.DECIMAL) {
+            return ((DecimalValue) v).toBigDecimal();
+        }
+        final PrimitiveValue pv = v.asData();
+        switch (pv.getType()) {
+            case Int8:        return (long) pv.getInt8();
+            case Int16:       return (long) pv.getInt16();
+            case Int32:       return (long) pv.getInt32();
+            case Int64:       return pv.getInt64();
+            case Uint8:       return (long) pv.getUint8();
+            case Uint16:      return (long) pv.getUint16();
+            case Uint32:      return pv.getUint32();
+            case Uint64:      return pv.getUint64();
+            case Float:       return (double) pv.getFloat();
+            case Double:      return pv.getDouble();
+            case Text:        return pv.getText();
+            case Bytes:       return pv.getBytes();
+            case Date:        return pv.getDate().toEpochDay();
+            case Date32:      return pv.getDate32().toEpochDay();
+            case Datetime:    return micros(pv.getDatetime());
+            case Datetime64:  return micros(pv.getDatetime64());
+            case Timestamp:   return micros(pv.getTimestamp());
+            case Timestamp64: return micros(pv.getTimestamp64());
+            default:
+                throw new IllegalArgumentException("Unsupported boundary type " + pv.getType());
+        }
+    }
+
+    /** The planned cuts are integers, plain strings of the Text keys, or hex strings of the Bytes keys. */
+    private static Object fromPlanned(String s, Kind kind) {
+        switch (kind) {
+            case INTEGER:
+                return Long.parseLong(s);
+            case UNSIGNED:
+                return Long.parseUnsignedLong(s);
+            case DECIMAL:
+                return new BigDecimal(s);
+            case TEXT:
+                return s;
+            case BYTES: {
+                byte[] b = new byte[s.length() / 2];
+                for (int i = 0; i < b.length; ++i) {
+                    b[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+                }
+                return b;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported planned cut for " + kind);
+        }
+    }
+
+    private static long micros(Instant v) {
+        return v.getEpochSecond() * 1000000L + v.getNano() / 1000;
+    }
+
+    private static long micros(LocalDateTime v) {
+        return micros(v.toInstant(ZoneOffset.UTC));
+    }
+
+    static int compareBytes(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; ++i) {
+            int cmp = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static boolean allPresent(Object[][] cuts) {
+        for (Object[] cut : cuts) {
+            if (cut.length != 1 || cut[0] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,142 @@
+package tech.ydb.importer.target;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.importer.source.SourceCP;
+
+/**
+ * Source query opened ahead of time on its own pooled connection, so that its
+ * startup latency overlaps with reading of the previous query.
+ */
+class PrefetchedQuery implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrefetchedQuery.class);
+
+    private final String name;
+    private final Future<Opened> future;
+    // guarded by this: the query opened by the task, and whether the owner has closed it
+    private Opened opened;
+    private boolean closed;
+
+    PrefetchedQuery(SourceCP source, String name, String sql, int fetchSize,
+            boolean autoCommit, ExecutorService executor) {
+        this.name = name;
+        this.future = executor.submit(() -> handOver(Opened.open(source, sql, fetchSize, autoCommit)));
+    }
+
+    /**
+     * Registers the opened query, or closes it when the owner has already
+     * given up on it while the task was running.
+     */
+    private Opened handOver(Opened o) {
+        synchronized (this) {
+            if (!closed) {
+                opened = o;
+                return o;
+            }
+        }
+        LOG.debug("Prefetch of {} closed before the query was opened", name);
+        o.close();
+        return null;
+    }
+
+    /**
+     * Waits for the query to open, then passes its result set to the consumer.
+     *
+     * @param consumer Result set reader
+     * @return Number of rows reported by the consumer
+     * @throws Exception
+     */
+    long consume(Consumer consumer) throws Exception {
+        Opened opened;
+        try {
+            opened = future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
+        }
+        long copied = consumer.accept(opened.rs);
+        if (!opened.con.getAutoCommit()) {
+            opened.con.commit();
+        }
+        return copied;
+    }
+
+    @Override
+    public void close() {
+        final Opened o;
+        synchronized (this) {
+            closed = true;
+            o = opened;
+            opened = null;
+        }
+        // a task not started yet never runs, a running one closes its query itself
+        future.cancel(false);
+        if (o != null) {
+            o.close();
+        }
+    }
+
+    @FunctionalInterface
+    interface Consumer {
+        long accept(ResultSet rs) throws Exception;
+    }
+
+    private static final class Opened implements AutoCloseable {
+
+        private final Connection con;
+        private final PreparedStatement ps;
+        private final ResultSet rs;
+
+        private Opened(Connection con, PreparedStatement ps, ResultSet rs) {
+            this.con = con;
+            this.ps = ps;
+            this.rs = rs;
+        }
+
+        static Opened open(SourceCP source, String sql, int fetchSize, boolean autoCommit)
+                throws SQLException {
+            Connection con = source.getConnection();
+            PreparedStatement ps = null;
+            try {
+                con.setAutoCommit(autoCommit);
+                ps = con.prepareStatement(sql);
+                ps.setFetchSize(fetchSize);
+                return new Opened(con, ps, ps.executeQuery());
+            } catch (SQLException | RuntimeException ex) {
+                if (ps != null) {
+                    closeQuietly(ps);
+                }
+                closeQuietly(con);
+                throw ex;
+            }
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(rs);
+            closeQuietly(ps);
+            closeQuietly(con);
+        }
+
+        private static void closeQuietly(AutoCloseable ac) {
+            try {
+                ac.close();
+            } catch (Exception ex) {
+                LOG.debug("Failed to close prefetched query resource", ex);
+            }
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package tech.ydb.importer.target;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import tech.ydb.importer.TableDecision;
+
 /**
  * Async data load progress measurement and tracing.
+ * The totals are kept both globally and per source table.
  *
  * @author zinal
  */
@@ -14,24 +25,41 @@ public class ProgressCounter implements AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProgressCounter.class);
 
-    private final AtomicLong numRowsRRead;
-    private final AtomicLong numRowsWritten;
-    private final AtomicLong numRowsBlob;
-    private final AtomicLong numReadBatches;
-    private final AtomicLong numReadNanos;
-    private final AtomicLong numUploadBatches;
-    private final AtomicLong numUploadNanos;
+    private final LongAdder numRowsRRead;
+    private final LongAdder numRowsWritten;
+    private final LongAdder numRowsBlob;
+    private final LongAdder numReadBatches;
+    private final LongAdder numReadNanos;
+    private final LongAdder numUploadBatches;
+    private final LongAdder numUploadNanos;
+    // partition buffer batches by the fill ratio, in 10% steps
+    private final AtomicLongArray partitionFill;
+    private final LongAdder numEvictedBatches;
+    private final LongAdder numUploadRetries;
+    private final LongAdder numRetriedBatches;
+    private final LongAdder numRetryNanos;
+    private final AtomicInteger activeReaders;
+    private final Map<TableDecision, TableCounters> tables;
+    private final LatencyHistogram[] latency;
     private final Thread workerThread;
     private final long startedAt;
 
     public ProgressCounter() {
-        this.numRowsRRead = new AtomicLong(0L);
-        this.numRowsWritten = new AtomicLong(0L);
-        this.numRowsBlob = new AtomicLong(0L);
-        this.numReadBatches = new AtomicLong(0L);
-        this.numReadNanos = new AtomicLong(0L);
-        this.numUploadBatches = new AtomicLong(0L);
-        this.numUploadNanos = new AtomicLong(0L);
+        this.numRowsRRead = new LongAdder();
+        this.numRowsWritten = new LongAdder();
+        this.numRowsBlob = new LongAdder();
+        this.numReadBatches = new LongAdder();
+        this.numReadNanos = new LongAdder();
+        this.numUploadBatches = new LongAdder();
+        this.numUploadNanos = new LongAdder();
+        this.partitionFill = new AtomicLongArray(10);
+        this.numEvictedBatches = new LongAdder();
+        this.numUploadRetries = new LongAdder();
+        this.numRetriedBatches = new LongAdder();
+        this.numRetryNanos = new LongAdder();
+        this.activeReaders = new AtomicInteger(0);
+        this.tables = new ConcurrentHashMap<>();
+        this.latency = TableCounters.newLatency();
 
         this.workerThread = new Thread(new ProgressWorker());
         this.workerThread.setDaemon(true);
@@ -55,26 +83,284 @@ public class ProgressCounter implements AutoCloseable {
         }
     }
 
-    public long countReadRows(int count) {
-        return numRowsRRead.addAndGet(count);
+    /**
+     * @param tab Source table
+     * @return Counters of the table, created on the first use
+     */
+    public TableCounters forTable(TableDecision tab) {
+        return tables.computeIfAbsent(tab, t -> new TableCounters(t.getSchema() + "." + t.getTable()));
+    }
+
+    /**
+     * @param tab Source table
+     * @return Counters of the table, or null if nothing was counted for it
+     */
+    public TableCounters findTable(TableDecision tab) {
+        return tables.get(tab);
+    }
+
+    /**
+     * @return Counters of all the tables loaded so far
+     */
+    public List<TableCounters> getTables() {
+        return new ArrayList<>(tables.values());
+    }
+
+    public void countReadRows(TableCounters tc, int count) {
+        numRowsRRead.add(count);
+        tc.countReadRows(count);
+    }
+
+    public void countWrittenRows(TableCounters tc, int count) {
+        numRowsWritten.add(count);
+        tc.countWrittenRows(count);
+    }
+
+    public void countBlobRows(TableCounters tc, int count) {
+        numRowsBlob.add(count);
+        tc.countBlobRows(count);
+    }
+
+    /**
+     * Records the reader time split between the source driver and the conversion.
+     *
+     * @param tc Table counters
+     * @param fetchNanos Time spent fetching the rows
+     * @param convertNanos Time spent converting the values
+     */
+    public void countReadTime(TableCounters tc, long fetchNanos, long convertNanos) {
+        tc.countReadTime(fetchNanos, convertNanos);
+    }
+
+    public void countReadBatch(TableCounters tc, long nanos) {
+        numReadNanos.add(nanos);
+        numReadBatches.increment();
+        tc.countReadBatch();
+    }
+
+    public void countUploadBatch(TableDecision tab, long nanos) {
+        numUploadNanos.add(nanos);
+        numUploadBatches.increment();
+        latency[LatencyHistogram.Stage.UPLOAD.ordinal()].record(nanos);
+        if (tab != null) {
+            TableCounters tc = forTable(tab);
+            tc.countUploadBatch(nanos);
+            tc.getLatency(LatencyHistogram.Stage.UPLOAD).record(nanos);
+        }
+    }
+
+    public void countQueueWait(TableDecision tab, long nanos) {
+        recordLatency((tab == null) ? null : forTable(tab), LatencyHistogram.Stage.QUEUE, nanos);
+    }
+
+    /**
+     * Records the duration of a load stage for a single batch.
+     *
+     * @param tc Table counters, or null for the batches without a table
+     * @param stage Load stage
+     * @param nanos Duration of the stage
+     */
+    public void recordLatency(TableCounters tc, LatencyHistogram.Stage stage, long nanos) {
+        latency[stage.ordinal()].record(nanos);
+        if (tc != null) {
+            tc.getLatency(stage).record(nanos);
+        }
+    }
+
+    /**
+     * @param stage Load stage
+     * @return Batch latencies of the stage over all the tables
+     */
+    public LatencyHistogram getLatency(LatencyHistogram.Stage stage) {
+        return latency[stage.ordinal()];
+    }
+
+    /** Records a batch which failed to upload, after all retries. */
+    public void countUploadFailure(TableDecision tab) {
+        if (tab != null) {
+            forTable(tab).countUploadFailure();
+        }
+    }
+
+    public void readerStarted() {
+        activeReaders.incrementAndGet();
+    }
+
+    /**
+     * @param tc Counters of the table the reader task belongs to
+     */
+    public void readerStarted(TableCounters tc) {
+        tc.markReadStarted();
+        readerStarted();
+    }
+
+    public void readerFinished() {
+        activeReaders.decrementAndGet();
+    }
+
+    /**
+     * Records the completion of a reader task.
+     *
+     * @param tc Counters of the table the reader task belongs to
+     * @param name Task name
+     * @param rows Rows copied by the task
+     * @param startedNanos Start time of the task, as of System.nanoTime()
+     * @param retries Number of the source query retries
+     * @param success true if the task has completed successfully
+     */
+    public void readerFinished(TableCounters tc, String name, long rows, long startedNanos,
+            int retries, boolean success) {
+        tc.countTask(new TableCounters.TaskStats(name, rows, System.nanoTime() - startedNanos,
+                retries, success));
+        readerFinished();
+    }
+
+    /**
+     * @return Number of the reader tasks running now
+     */
+    public int getActiveReaders() {
+        return activeReaders.get();
+    }
+
+    public long getReadNanos() {
+        return numReadNanos.sum();
+    }
+
+    public long getUploadNanos() {
+        return numUploadNanos.sum();
+    }
+
+    public long getUploadRetries() {
+        return numUploadRetries.sum();
+    }
+
+    /**
+     * @return Start time of the load, as of System.currentTimeMillis()
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Records a failed upload parked for a retry. Its time counts as upload time,
+     * but the batch is counted once, by its final attempt.
+     *
+     * @param tab Source table, or null for the batches without a table
+     * @param nanos Duration of the failed attempt
+     */
+    public void countUploadRetry(TableDecision tab, long nanos) {
+        numUploadRetries.increment();
+        numUploadNanos.add(nanos);
+        if (tab != null) {
+            forTable(tab).countUploadRetry(nanos);
+        }
+    }
+
+    /**
+     * Records the size of a batch submitted for upload.
+     *
+     * @param tab Source table, or null for the batches without a table
+     * @param rows Rows in the batch
+     */
+    public void countSubmittedBatch(TableDecision tab, int rows) {
+        if (tab != null) {
+            forTable(tab).countBatchRows(rows);
+        }
     }
 
-    public long countWrittenRows(int count) {
-        return numRowsWritten.addAndGet(count);
+    /**
+     * Records the completion of a batch which needed retries.
+     *
+     * @param nanos Time from the first failure to the final upload attempt
+     */
+    public void countRetriedBatch(long nanos) {
+        numRetryNanos.add(nanos);
+        numRetriedBatches.increment();
+    }
+
+    /**
+     * Records a batch submitted from the partition buffers.
+     *
+     * @param rows Rows in the batch
+     * @param capacity Maximum rows per batch
+     * @param evicted true if the batch was flushed early to stay within the memory budget
+     */
+    public void countPartitionBatch(int rows, int capacity, boolean evicted) {
+        int bucket = (int) (10L * rows / Math.max(1, capacity));
+        partitionFill.incrementAndGet(Math.max(0, Math.min(bucket, 9)));
+        if (evicted) {
+            numEvictedBatches.increment();
+        }
     }
 
-    public long countBlobRows(int count) {
-        return numRowsBlob.addAndGet(count);
+    /**
+     * Logs the read throughput of every table, along with the split of the reader
+     * time between fetching and conversion. Meant for the runs which discard
+     * the batches, where the reads are the only thing being measured.
+     */
+    public void logReadReport() {
+        final List<TableCounters> all = getTables();
+        all.sort(Comparator.comparing(TableCounters::getLabel));
+        for (TableCounters tc : all) {
+            final double seconds = Math.max(tc.getReadWallNanos(), 1L) / 1_000_000_000d;
+            final double mb = tc.getBytesRead() / 1048576d;
+            final long fetch = tc.getFetchNanos();
+            final long convert = tc.getConvertNanos();
+            final double fetchShare = (fetch + convert == 0L) ? 0d : 100d * fetch / (fetch + convert);
+            LOG.info("Read {}: {} rows, {} MB in {} s [{} rows/sec, {} MB/sec], "
+                    + "fetch {} s, convert {} s ({}% fetch), {} batches, {} LOB fragments",
+                    tc.getLabel(), tc.getRowsRead(), String.format("%.1f", mb),
+                    String.format("%.2f", seconds),
+                    String.format("%.0f", tc.getRowsRead() / seconds), String.format("%.2f", mb / seconds),
+                    String.format("%.2f", fetch / 1_000_000_000d), String.format("%.2f", convert / 1_000_000_000d),
+                    String.format("%.0f", fetchShare), tc.getReadBatches(), tc.getBlobRows());
+        }
     }
 
-    public void countReadBatch(long nanos) {
-        numReadNanos.addAndGet(nanos);
-        numReadBatches.incrementAndGet();
+    /**
+     * Logs the sustained write rate and the upload latencies of every table,
+     * and the overall rate. Meant for the runs which upload generated rows,
+     * where the writes are the only thing being measured.
+     */
+    public void logWriteReport() {
+        final List<TableCounters> all = getTables();
+        all.sort(Comparator.comparing(TableCounters::getLabel));
+        long total = 0L;
+        for (TableCounters tc : all) {
+            final double seconds = Math.max(tc.getWriteWallNanos(), 1L) / 1_000_000_000d;
+            final double mb = tc.getBytesWritten() / 1048576d;
+            LOG.info("Write {}: {} rows, {} MB in {} s [{} rows/sec, {} MB/sec], "
+                    + "{} batches, {} failed, upload p50/p90/p99/max {}",
+                    tc.getLabel(), tc.getRowsWritten(), String.format("%.1f", mb),
+                    String.format("%.2f", seconds),
+                    String.format("%.0f", tc.getRowsWritten() / seconds), String.format("%.2f", mb / seconds),
+                    tc.getUploadBatches(), tc.getUploadFailures(),
+                    tc.getLatency(LatencyHistogram.Stage.UPLOAD).format());
+            total += tc.getRowsWritten();
+        }
+        final double seconds = Math.max(System.currentTimeMillis() - startedAt, 1L) / 1000d;
+        LOG.info("Write total: {} rows in {} s [{} rows/sec], upload p50/p90/p99/max {}, queue wait {}",
+                total, String.format("%.2f", seconds), String.format("%.0f", total / seconds),
+                getLatency(LatencyHistogram.Stage.UPLOAD).format(),
+                getLatency(LatencyHistogram.Stage.QUEUE).format());
     }
 
-    public void countUploadBatch(long nanos) {
-        numUploadNanos.addAndGet(nanos);
-        numUploadBatches.incrementAndGet();
+    /**
+     * @return Percentiles of the stages with any batches recorded, or null if none
+     */
+    private static String formatLatency(LatencyHistogram[] stages) {
+        final StringBuilder sb = new StringBuilder();
+        for (LatencyHistogram.Stage stage : LatencyHistogram.Stage.values()) {
+            LatencyHistogram h = stages[stage.ordinal()];
+            if (h.getCount() == 0L) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(stage.getLabel()).append(' ').append(h.format());
+        }
+        return (sb.length() == 0) ? null : sb.toString();
     }
 
     private static String avgMs(long deltaNanos, long deltaBatches) {
@@ -93,18 +379,20 @@ public class ProgressCounter implements AutoCloseable {
         private long lastReadNanos = 0;
         private long lastUploadBatches = 0;
         private long lastUploadNanos = 0;
+        private long lastRetries = 0;
         private long lastTs = 0;
+        private final Map<TableCounters, Long> lastTableBatches = new HashMap<>();
 
         @Override
         @SuppressWarnings("SleepWhileInLoop")
         public void run() {
-            lastRead = numRowsRRead.get();
-            lastWritten = numRowsWritten.get();
-            lastBlobs = numRowsBlob.get();
-            lastReadBatches = numReadBatches.get();
-            lastReadNanos = numReadNanos.get();
-            lastUploadBatches = numUploadBatches.get();
-            lastUploadNanos = numUploadNanos.get();
+            lastRead = numRowsRRead.sum();
+            lastWritten = numRowsWritten.sum();
+            lastBlobs = numRowsBlob.sum();
+            lastReadBatches = numReadBatches.sum();
+            lastReadNanos = numReadNanos.sum();
+            lastUploadBatches = numUploadBatches.sum();
+            lastUploadNanos = numUploadNanos.sum();
             lastTs = System.currentTimeMillis();
 
             while (!Thread.currentThread().isInterrupted()) {
@@ -126,13 +414,13 @@ public class ProgressCounter implements AutoCloseable {
                 return;
             }
 
-            long readed = numRowsRRead.get();
-            long writed = numRowsWritten.get();
-            long blobs = numRowsBlob.get();
-            long readBatches = numReadBatches.get();
-            long readNanos = numReadNanos.get();
-            long uploadBatches = numUploadBatches.get();
-            long uploadNanos = numUploadNanos.get();
+            long readed = numRowsRRead.sum();
+            long writed = numRowsWritten.sum();
+            long blobs = numRowsBlob.sum();
+            long readBatches = numReadBatches.sum();
+            long readNanos = numReadNanos.sum();
+            long uploadBatches = numUploadBatches.sum();
+            long uploadNanos = numUploadNanos.sum();
 
             double readedRate = 1000d * (readed - lastRead) / diff;
             double writedRate = 1000d * (writed - lastWritten) / diff;
@@ -151,6 +439,11 @@ public class ProgressCounter implements AutoCloseable {
                 LOG.info("\t BLOB fragments: {} rows total [{} rows/sec]", blobs, String.format("%.2f", blobsRate));
             }
 
+            long retries = numUploadRetries.sum();
+            if (retries > lastRetries) {
+                LOG.info("\t Upload retries: {} total, {} since last report", retries, retries - lastRetries);
+            }
+
             lastTs = ts;
             lastRead = readed;
             lastWritten = writed;
@@ -159,24 +452,88 @@ public class ProgressCounter implements AutoCloseable {
             lastReadNanos = readNanos;
             lastUploadBatches = uploadBatches;
             lastUploadNanos = uploadNanos;
+            lastRetries = retries;
+            traceLatency();
+        }
+
+        /**
+         * Logs the latency percentiles since the start, overall and for the tables
+         * which had any batches uploaded since the previous report.
+         */
+        private void traceLatency() {
+            String overall = formatLatency(latency);
+            if (overall == null) {
+                return;
+            }
+            LOG.info("\t Batch latency p50/p90/p99/max: {}", overall);
+            for (TableCounters tc : getTables()) {
+                long batches = tc.getUploadBatches();
+                Long last = lastTableBatches.put(tc, batches);
+                if (last == null || last != batches) {
+                    String text = formatLatency(tc.latencies());
+                    if (text != null) {
+                        LOG.info("\t\t {}: {}", tc.getLabel(), text);
+                    }
+                }
+            }
         }
 
         private void traceFinal() {
             long ts = System.currentTimeMillis();
             final long diff = ts - startedAt;
 
-            long readed = numRowsRRead.get();
-            long writed = numRowsWritten.get();
+            long readed = numRowsRRead.sum();
+            long writed = numRowsWritten.sum();
             double readedRate = 1000d * readed / diff;
             double writedRate = 1000d * writed / diff;
-            String avgRead = avgMs(numReadNanos.get(), numReadBatches.get());
-            String avgUpload = avgMs(numUploadNanos.get(), numUploadBatches.get());
+            String avgRead = avgMs(numReadNanos.sum(), numReadBatches.sum());
+            String avgUpload = avgMs(numUploadNanos.sum(), numUploadBatches.sum());
 
             LOG.info("Final: {} rows read total [{} rows/sec], {} rows written total [{} rows/sec]"
                     + ", avg read {} ms/batch, avg upload {} ms/batch",
                     readed, String.format("%.2f", readedRate),
                     writed, String.format("%.2f", writedRate),
                     avgRead, avgUpload);
+            if (numUploadRetries.sum() > 0L) {
+                LOG.info("\t Upload retries: {} total, {} batches retried, avg {} ms from first failure",
+                        numUploadRetries.sum(), numRetriedBatches.sum(),
+                        avgMs(numRetryNanos.sum(), numRetriedBatches.sum()));
+            }
+            tracePartitionFill();
+            traceFinalLatency();
+        }
+
+        private void traceFinalLatency() {
+            String overall = formatLatency(latency);
+            if (overall == null) {
+                return;
+            }
+            LOG.info("\t Batch latency p50/p90/p99/max: {}", overall);
+            List<TableCounters> all = getTables();
+            all.sort(Comparator.comparing(TableCounters::getLabel));
+            for (TableCounters tc : all) {
+                String text = formatLatency(tc.latencies());
+                if (text != null) {
+                    LOG.info("\t\t {}: {}", tc.getLabel(), text);
+                }
+            }
+        }
+
+        private void tracePartitionFill() {
+            long total = 0L;
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < partitionFill.length(); ++i) {
+                long count = partitionFill.get(i);
+                total += count;
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(i * 10).append('-').append(i * 10 + 10).append("%: ").append(count);
+            }
+            if (total > 0L) {
+                LOG.info("\t Partition buffer batches: {} total, {} flushed early, fill ratio [{}]",
+                        total, numEvictedBatches.sum(), sb);
+            }
         }
     }
 }
@@ -0,0 +1,48 @@
+package tech.ydb.importer.target;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of the rows produced by several threads together.
+ * Each call reserves the time slot for its rows and sleeps until the slot starts,
+ * so the rate stays even without a burst after an idle period.
+ */
+public class RowRateLimiter {
+
+    private final double nanosPerRow;
+    private long nextFreeNanos;
+
+    /**
+     * @param rowsPerSecond Maximum number of rows per second, positive
+     */
+    public RowRateLimiter(long rowsPerSecond) {
+        if (rowsPerSecond < 1L) {
+            throw new IllegalArgumentException("Illegal row rate: " + rowsPerSecond);
+        }
+        this.nanosPerRow = 1_000_000_000d / rowsPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits until the given number of rows may be produced.
+     *
+     * @param rows Number of rows
+     * @throws InterruptedException
+     */
+    public void acquire(int rows) throws InterruptedException {
+        final long waitNanos = reserve(rows);
+        if (waitNanos > 0L) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int rows) {
+        final long now = System.nanoTime();
+        if (nextFreeNanos < now) {
+            nextFreeNanos = now;
+        }
+        final long start = nextFreeNanos;
+        nextFreeNanos += (long) (rows * nanosPerRow);
+        return start - now;
+    }
+}
@@ -0,0 +1,143 @@
+package tech.ydb.importer.target;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed ring of pre-allocated row chunks between the fetch thread and the
+ * conversion threads of a single reader task.
+ * Chunks travel from the free queue to the filled queue and back, so that
+ * no per-row storage gets allocated while the task runs.
+ */
+final class RowRing {
+
+    private static final long POLL_MS = 100L;
+
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Chunk endMarker = new Chunk(0, 0);
+    private final int slots;
+    private volatile Throwable failure;
+    private volatile boolean aborted;
+
+    // written by the fetch thread only
+    private long fetchWaitNanos;
+    private long publishedChunks;
+    private long occupancySum;
+    // written by conversion threads
+    private final AtomicLong convertWaitNanos = new AtomicLong();
+
+    RowRing(int slots, int chunkRows, int width, int consumers) {
+        this.slots = slots;
+        this.free = new ArrayBlockingQueue<>(slots);
+        // room for every chunk plus one end marker per consumer, so publish never blocks
+        this.filled = new ArrayBlockingQueue<>(slots + consumers);
+        for (int i = 0; i < slots; i++) {
+            free.add(new Chunk(chunkRows, width));
+        }
+    }
+
+    /**
+     * Takes an empty chunk for the fetch thread, failing fast when a conversion
+     * thread has already failed.
+     */
+    Chunk takeFree() throws Exception {
+        long started = System.nanoTime();
+        try {
+            while (true) {
+                checkFailure();
+                Chunk c = free.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (c != null) {
+                    c.count = 0;
+                    return c;
+                }
+            }
+        } finally {
+            fetchWaitNanos += System.nanoTime() - started;
+        }
+    }
+
+    void publish(Chunk c) {
+        occupancySum += filled.size();
+        publishedChunks++;
+        filled.add(c);
+    }
+
+    /**
+     * @return The next filled chunk, or null when the fetch thread has finished.
+     */
+    Chunk takeFilled() throws InterruptedException {
+        long started = System.nanoTime();
+        Chunk c = filled.take();
+        convertWaitNanos.addAndGet(System.nanoTime() - started);
+        return (c == endMarker) ? null : c;
+    }
+
+    void release(Chunk c) {
+        free.add(c);
+    }
+
+    /** Signals the end of input to the given number of conversion threads. */
+    void finish(int consumers) {
+        for (int i = 0; i < consumers; i++) {
+            filled.add(endMarker);
+        }
+    }
+
+    /** Makes conversion threads drop the remaining chunks. */
+    void abort() {
+        aborted = true;
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    void fail(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+        aborted = true;
+    }
+
+    void checkFailure() throws Exception {
+        Throwable t = failure;
+        if (t == null) {
+            return;
+        }
+        if (t instanceof Exception) {
+            throw (Exception) t;
+        }
+        throw new Exception("Conversion failed", t);
+    }
+
+    String stats() {
+        double occupancy = publishedChunks == 0 ? 0d
+                : 100d * occupancySum / publishedChunks / slots;
+        return String.format("%d chunks, avg ring occupancy %.1f%%, fetch stalled %d ms, convert idle %d ms",
+                publishedChunks, occupancy, fetchWaitNanos / 1_000_000L,
+                convertWaitNanos.get() / 1_000_000L);
+    }
+
+    /**
+     * Raw column values of consecutive source rows, along with their target partitions.
+     */
+    static final class Chunk {
+
+        final Object[][] rows;
+        final int[] parts;
+        int count;
+
+        Chunk(int chunkRows, int width) {
+            this.rows = new Object[chunkRows][width];
+            this.parts = new int[chunkRows];
+            this.count = 0;
+        }
+
+        boolean isFull() {
+            return count >= rows.length;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package tech.ydb.importer.target;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.config.TableRef;
+import tech.ydb.importer.source.TableMetadata;
+import tech.ydb.importer.source.YdbPartitioning;
+
+/**
+ * End-of-run performance report in the JSON format, for capacity planning
+ * and for tuning the split counts and pool sizes of the next run.
+ * Holds the read plan, totals, read task timings, retries and batch sizes
+ * of every table, and the reader and writer utilization over the whole load.
+ */
+public class RunReport {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(RunReport.class);
+
+    // number of the slowest tasks listed separately for each table
+    private static final int SLOWEST_TASKS = 5;
+
+    private final ProgressCounter progress;
+    private final int readerCount;
+    private final int writerCount;
+
+    /**
+     * @param progress Progress counters of the load
+     * @param readerCount Number of the reader threads
+     * @param writerCount Number of the writer threads
+     */
+    public RunReport(ProgressCounter progress, int readerCount, int writerCount) {
+        this.progress = progress;
+        this.readerCount = readerCount;
+        this.writerCount = writerCount;
+    }
+
+    /**
+     * Writes the report, logging the failure instead of throwing,
+     * as the report is not a part of the load itself.
+     *
+     * @param fileName Output file name, overwritten if exists
+     * @param tables Tables of the load
+     */
+    public void write(String fileName, List<TableDecision> tables) {
+        try {
+            Files.write(Paths.get(fileName), build(tables).getBytes(StandardCharsets.UTF_8));
+            LOG.info("Performance report written to {}", fileName);
+        } catch (IOException ex) {
+            LOG.warn("Cannot write the performance report {}", fileName, ex);
+        }
+    }
+
+    String build(List<TableDecision> tables) {
+        final long wallMs = Math.max(System.currentTimeMillis() - progress.getStartedAt(), 1L);
+        long readerNanos = 0L;
+        long writerNanos = 0L;
+        long rowsRead = 0L;
+        long rowsWritten = 0L;
+        int failed = 0;
+        final StringBuilder body = new StringBuilder();
+        for (TableDecision td : tables) {
+            final TableCounters tc = progress.findTable(td);
+            if (td.isFailure()) {
+                ++failed;
+            }
+            if (tc == null) {
+                continue;
+            }
+            for (TableCounters.TaskStats ts : tc.getTasks()) {
+                readerNanos += ts.getNanos();
+            }
+            writerNanos += tc.getUploadNanos();
+            rowsRead += tc.getRowsRead();
+            rowsWritten += tc.getRowsWritten();
+            body.append((body.length() == 0) ? "\n" : ",\n");
+            appendTable(body, td, tc);
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"wallMs\": ").append(wallMs).append(",\n");
+        sb.append("  \"tableCount\": ").append(tables.size()).append(",\n");
+        sb.append("  \"failedTables\": ").append(failed).append(",\n");
+        sb.append("  \"rowsRead\": ").append(rowsRead).append(",\n");
+        sb.append("  \"rowsWritten\": ").append(rowsWritten).append(",\n");
+        sb.append("  \"rowsPerSec\": ").append(rate(rowsWritten, wallMs * 1_000_000L)).append(",\n");
+        sb.append("  \"uploadRetries\": ").append(progress.getUploadRetries()).append(",\n");
+        sb.append("  \"readers\": ");
+        appendUtilization(sb, readerCount, readerNanos, wallMs);
+        sb.append(",\n");
+        sb.append("  \"writers\": ");
+        appendUtilization(sb, writerCount, writerNanos, wallMs);
+        sb.append(",\n");
+        sb.append("  \"latencyMs\": ");
+        appendLatency(sb, stageHistograms(null));
+        sb.append(",\n");
+        sb.append("  \"tables\": [").append(body).append(body.length() == 0 ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void appendUtilization(StringBuilder sb, int threads, long busyNanos, long wallMs) {
+        sb.append("{\"threads\": ").append(threads)
+                .append(", \"busyMs\": ").append(busyNanos / 1_000_000L)
+                .append(", \"utilization\": ")
+                .append(fmt(busyNanos / 1_000_000d / Math.max(1, threads) / wallMs))
+                .append('}');
+    }
+
+    private void appendTable(StringBuilder sb, TableDecision td, TableCounters tc) {
+        final long wallNanos = Math.max(tc.getReadWallNanos(), tc.getWriteWallNanos());
+        final List<TableCounters.TaskStats> tasks = tc.getTasks();
+        int queryRetries = 0;
+        int failedTasks = 0;
+        for (TableCounters.TaskStats ts : tasks) {
+            queryRetries += ts.getRetries();
+            if (!ts.isSuccess()) {
+                ++failedTasks;
+            }
+        }
+        sb.append("    {\n");
+        sb.append("      \"table\": ");
+        DeadLetterFile.appendString(sb, tc.getLabel());
+        sb.append(",\n");
+        if (td.getTarget() != null) {
+            sb.append("      \"target\": ");
+            DeadLetterFile.appendString(sb, td.getTarget().getFullName());
+            sb.append(",\n");
+        }
+        sb.append("      \"failed\": ").append(td.isFailure()).append(",\n");
+        sb.append("      \"readPlan\": ");
+        appendReadPlan(sb, td);
+        sb.append(",\n");
+        sb.append("      \"rowsRead\": ").append(tc.getRowsRead()).append(",\n");
+        sb.append("      \"rowsWritten\": ").append(tc.getRowsWritten()).append(",\n");
+        sb.append("      \"bytesRead\": ").append(tc.getBytesRead()).append(",\n");
+        sb.append("      \"bytesWritten\": ").append(tc.getBytesWritten()).append(",\n");
+        sb.append("      \"lobFragments\": ").append(tc.getBlobRows()).append(",\n");
+        sb.append("      \"wallMs\": ").append(wallNanos / 1_000_000L).append(",\n");
+        sb.append("      \"rowsPerSec\": ").append(rate(tc.getRowsWritten(), wallNanos)).append(",\n");
+        sb.append("      \"fetchMs\": ").append(tc.getFetchNanos() / 1_000_000L).append(",\n");
+        sb.append("      \"convertMs\": ").append(tc.getConvertNanos() / 1_000_000L).append(",\n");
+        sb.append("      \"readBatches\": ").append(tc.getReadBatches()).append(",\n");
+        sb.append("      \"uploadBatches\": ").append(tc.getUploadBatches()).append(",\n");
+        sb.append("      \"uploadMs\": ").append(tc.getUploadNanos() / 1_000_000L).append(",\n");
+        sb.append("      \"uploadRetries\": ").append(tc.getUploadRetries()).append(",\n");
+        sb.append("      \"uploadFailures\": ").append(tc.getUploadFailures()).append(",\n");
+        sb.append("      \"queryRetries\": ").append(queryRetries).append(",\n");
+        sb.append("      \"batchRows\": ");
+        appendBatchRows(sb, tc);
+        sb.append(",\n");
+        sb.append("      \"latencyMs\": ");
+        appendLatency(sb, stageHistograms(tc));
+        sb.append(",\n");
+        sb.append("      \"taskCount\": ").append(tasks.size()).append(",\n");
+        sb.append("      \"failedTasks\": ").append(failedTasks).append(",\n");
+        appendTaskSpread(sb, tasks);
+
+        final List<TableCounters.TaskStats> slowest = new ArrayList<>(tasks);
+        slowest.sort(Comparator.comparingLong(TableCounters.TaskStats::getNanos).reversed());
+        sb.append("      \"slowestTasks\": ");
+        appendTasks(sb, slowest.subList(0, Math.min(SLOWEST_TASKS, slowest.size())));
+        sb.append(",\n");
+        sb.append("      \"tasks\": ");
+        appendTasks(sb, tasks);
+        sb.append("\n    }");
+    }
+
+    private static void appendReadPlan(StringBuilder sb, TableDecision td) {
+        final TableMetadata tm = td.getMetadata();
+        sb.append('{');
+        if (tm == null) {
+            sb.append('}');
+            return;
+        }
+        sb.append("\"description\": ");
+        if (tm.getReadPlan() == null) {
+            sb.append("null");
+        } else {
+            DeadLetterFile.appendString(sb, tm.getReadPlan());
+        }
+        sb.append(", \"tasks\": ").append(tm.getTasks().size());
+        final TableRef ref = td.getTableRef();
+        if (ref != null && ref.hasSplit()) {
+            sb.append(", \"splitBy\": ");
+            DeadLetterFile.appendString(sb, ref.getSplitBy());
+            sb.append(", \"splitCount\": ").append(ref.getSplitCount());
+        }
+        sb.append(", \"sourcePartitions\": ").append(td.useSourcePartitions());
+        final YdbPartitioning yp = tm.getYdbPartitioning();
+        int ydbPartitions = 0;
+        if (yp.isKeyRange()) {
+            ydbPartitions = yp.getCuts().size() + 1;
+        } else if (yp.isHash()) {
+            ydbPartitions = yp.getHashPartitions();
+        }
+        sb.append(", \"ydbPartitions\": ").append(ydbPartitions);
+        if (ydbPartitions > 0 && yp.getStrategy() != null) {
+            sb.append(", \"ydbStrategy\": ");
+            DeadLetterFile.appendString(sb, yp.getStrategy());
+        }
+        sb.append('}');
+    }
+
+    /**
+     * Writes the non-empty power of two buckets of the submitted batch sizes.
+     */
+    private static void appendBatchRows(StringBuilder sb, TableCounters tc) {
+        sb.append('[');
+        boolean comma = false;
+        for (int i = 0; i < TableCounters.BATCH_BUCKETS; ++i) {
+            final long count = tc.getBatchCount(i);
+            if (count == 0L) {
+                continue;
+            }
+            if (comma) {
+                sb.append(", ");
+            }
+            final long from = (i == 0) ? 0L : (1L << (i - 1));
+            final long to = (i == 0) ? 0L : (1L << i) - 1L;
+            sb.append("{\"from\": ").append(from).append(", \"to\": ").append(to)
+                    .append(", \"batches\": ").append(count).append('}');
+            comma = true;
+        }
+        sb.append(']');
+    }
+
+    private LatencyHistogram[] stageHistograms(TableCounters tc) {
+        final LatencyHistogram.Stage[] stages = LatencyHistogram.Stage.values();
+        final LatencyHistogram[] v = new LatencyHistogram[stages.length];
+        for (LatencyHistogram.Stage stage : stages) {
+            v[stage.ordinal()] = (tc == null) ? progress.getLatency(stage) : tc.getLatency(stage);
+        }
+        return v;
+    }
+
+    private static void appendLatency(StringBuilder sb, LatencyHistogram[] histograms) {
+        sb.append('{');
+        boolean comma = false;
+        for (LatencyHistogram.Stage stage : LatencyHistogram.Stage.values()) {
+            final LatencyHistogram h = histograms[stage.ordinal()];
+            if (h.getCount() == 0L) {
+                continue;
+            }
+            if (comma) {
+                sb.append(", ");
+            }
+            sb.append('"').append(stage.getLabel()).append("\": {\"batches\": ").append(h.getCount())
+                    .append(", \"p50\": ").append(fmt(h.getPercentileMicros(0.5) / 1000d))
+                    .append(", \"p90\": ").append(fmt(h.getPercentileMicros(0.9) / 1000d))
+                    .append(", \"p99\": ").append(fmt(h.getPercentileMicros(0.99) / 1000d))
+                    .append(", \"max\": ").append(fmt(h.getMaxMicros() / 1000d))
+                    .append('}');
+            comma = true;
+        }
+        sb.append('}');
+    }
+
+    /**
+     * Writes the spread of the task durations: a large max to median ratio
+     * points at the skewed splits, worth a different split column or count.
+     */
+    private static void appendTaskSpread(StringBuilder sb, List<TableCounters.TaskStats> tasks) {
+        final long[] nanos = new long[tasks.size()];
+        for (int i = 0; i < nanos.length; ++i) {
+            nanos[i] = tasks.get(i).getNanos();
+        }
+        Arrays.sort(nanos);
+        final long min = (nanos.length == 0) ? 0L : nanos[0];
+        final long median = (nanos.length == 0) ? 0L : nanos[nanos.length / 2];
+        final long max = (nanos.length == 0) ? 0L : nanos[nanos.length - 1];
+        sb.append("      \"taskMs\": {\"min\": ").append(min / 1_000_000L)
+                .append(", \"median\": ").append(median / 1_000_000L)
+                .append(", \"max\": ").append(max / 1_000_000L)
+                .append(", \"maxToMedian\": ").append(fmt((median == 0L) ? 0d : (double) max / median))
+                .append("},\n");
+    }
+
+    private static void appendTasks(StringBuilder sb, List<TableCounters.TaskStats> tasks) {
+        if (tasks.isEmpty()) {
+            sb.append("[]");
+            return;
+        }
+        sb.append('[');
+        boolean comma = false;
+        for (TableCounters.TaskStats ts : tasks) {
+            sb.append(comma ? ",\n        " : "\n        ");
+            sb.append("{\"name\": ");
+            DeadLetterFile.appendString(sb, ts.getName());
+            sb.append(", \"rows\": ").append(ts.getRows())
+                    .append(", \"ms\": ").append(ts.getNanos() / 1_000_000L)
+                    .append(", \"rowsPerSec\": ").append(rate(ts.getRows(), ts.getNanos()))
+                    .append(", \"retries\": ").append(ts.getRetries())
+                    .append(", \"success\": ").append(ts.isSuccess())
+                    .append('}');
+            comma = true;
+        }
+        sb.append("\n      ]");
+    }
+
+    private static String rate(long rows, long nanos) {
+        return (nanos <= 0L) ? "0" : String.format(Locale.ROOT, "%.0f", rows * 1_000_000_000d / nanos);
+    }
+
+    private static String fmt(double v) {
+        return String.format(Locale.ROOT, "%.3f", v);
+    }
+}
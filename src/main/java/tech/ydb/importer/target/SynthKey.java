@@ -9,7 +9,9 @@ import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * Builder of synthetic primary keys for imported rows.
@@ -19,6 +21,9 @@ import java.util.Base64;
 public class SynthKey {
 
     private static final byte[] SEPARATOR = new byte[]{0x02};
+    // URL-safe base64 alphabet in the byte order of the YDB Text values
+    private static final String ALPHABET =
+            "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
     private final MessageDigest digest;
     private final Base64.Encoder base64Encoder;
     private final ByteBuffer scratch = ByteBuffer.allocate(16);
@@ -124,4 +129,24 @@ public class SynthKey {
         byte[] sign = digest.digest();
         return base64Encoder.encodeToString(sign);
     }
+
+    /**
+     * Computes the boundaries of the key ranges holding equal shares of the synthetic keys.
+     * The digest bits are uniform, and so is each base64 character over the alphabet,
+     * so the two leading characters give up to 4096 equal ranges.
+     *
+     * @param count Number of key ranges
+     * @return count - 1 ascending boundaries, or less if count exceeds 4096
+     */
+    public static List<String> uniformCuts(int count) {
+        final int width = ALPHABET.length();
+        final int slots = width * width;
+        final int n = Math.min(count, slots);
+        final List<String> cuts = new ArrayList<>(Math.max(0, n - 1));
+        for (int i = 1; i < n; ++i) {
+            int slot = (int) ((long) i * slots / n);
+            cuts.add(new String(new char[]{ALPHABET.charAt(slot / width), ALPHABET.charAt(slot % width)}));
+        }
+        return cuts;
+    }
 }
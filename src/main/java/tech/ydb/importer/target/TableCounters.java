@@ -0,0 +1,274 @@
+package tech.ydb.importer.target;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load counters and stage latencies of a single source table, updated by
+ * the readers and writers without contention, and summed on the metrics requests.
+ */
+public class TableCounters {
+
+    private final String label;
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder readBatches = new LongAdder();
+    private final LongAdder uploadBatches = new LongAdder();
+    private final LongAdder uploadFailures = new LongAdder();
+    private final LongAdder uploadRetries = new LongAdder();
+    private final LongAdder uploadNanos = new LongAdder();
+    // submitted batches by the row count, in power of two buckets
+    private final AtomicLongArray batchRows = new AtomicLongArray(BATCH_BUCKETS);
+    private final Queue<TaskStats> tasks = new ConcurrentLinkedQueue<>();
+    private final LongAdder blobRows = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder convertNanos = new LongAdder();
+    private final AtomicLong firstReadNanos = new AtomicLong(0L);
+    private final AtomicLong lastReadNanos = new AtomicLong(0L);
+    private final AtomicLong lastWriteNanos = new AtomicLong(0L);
+    private final LatencyHistogram[] latency;
+    private volatile int rowBytes = 0;
+
+    static final int BATCH_BUCKETS = 32;
+
+    TableCounters(String label) {
+        this.label = label;
+        this.latency = newLatency();
+    }
+
+    static LatencyHistogram[] newLatency() {
+        final LatencyHistogram[] v = new LatencyHistogram[LatencyHistogram.Stage.values().length];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = new LatencyHistogram();
+        }
+        return v;
+    }
+
+    /**
+     * @return Source table name, schema-qualified
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    /**
+     * @return Estimated size of the written rows, based on the target column types
+     */
+    public long getBytesWritten() {
+        return rowsWritten.sum() * rowBytes;
+    }
+
+    /**
+     * @return Estimated size of the read rows, based on the target column types
+     */
+    public long getBytesRead() {
+        return rowsRead.sum() * rowBytes;
+    }
+
+    /**
+     * @return Time from the start of the first reader task to the last rows read, or 0
+     */
+    public long getReadWallNanos() {
+        final long first = firstReadNanos.get();
+        final long last = lastReadNanos.get();
+        return (first == 0L || last < first) ? 0L : last - first;
+    }
+
+    /**
+     * @return Time from the start of the first reader task to the last rows written, or 0
+     */
+    public long getWriteWallNanos() {
+        final long first = firstReadNanos.get();
+        final long last = lastWriteNanos.get();
+        return (first == 0L || last < first) ? 0L : last - first;
+    }
+
+    /**
+     * @return Reader time spent in the source driver, fetching the rows
+     */
+    public long getFetchNanos() {
+        return fetchNanos.sum();
+    }
+
+    /**
+     * @return Reader time spent converting the fetched values to the target types
+     */
+    public long getConvertNanos() {
+        return convertNanos.sum();
+    }
+
+    public long getReadBatches() {
+        return readBatches.sum();
+    }
+
+    /**
+     * @return Number of the batches uploaded or failed for good, not counting the retried attempts
+     */
+    public long getUploadBatches() {
+        return uploadBatches.sum();
+    }
+
+    public long getUploadFailures() {
+        return uploadFailures.sum();
+    }
+
+    /**
+     * @return Number of the failed uploads parked for a retry
+     */
+    public long getUploadRetries() {
+        return uploadRetries.sum();
+    }
+
+    /**
+     * @return Writer time spent uploading the batches, including the failed attempts
+     */
+    public long getUploadNanos() {
+        return uploadNanos.sum();
+    }
+
+    /**
+     * @param bucket Bucket index, 0 for the empty batches, N for 2^(N-1) to 2^N-1 rows
+     * @return Number of the submitted batches with the row count in the bucket
+     */
+    public long getBatchCount(int bucket) {
+        return batchRows.get(bucket);
+    }
+
+    /**
+     * @return Completed read tasks, in the order of completion
+     */
+    public List<TaskStats> getTasks() {
+        return new ArrayList<>(tasks);
+    }
+
+    /**
+     * @return Number of the BLOB and CLOB fragment rows written
+     */
+    public long getBlobRows() {
+        return blobRows.sum();
+    }
+
+    /**
+     * @param stage Load stage
+     * @return Batch latencies of the stage
+     */
+    public LatencyHistogram getLatency(LatencyHistogram.Stage stage) {
+        return latency[stage.ordinal()];
+    }
+
+    LatencyHistogram[] latencies() {
+        return latency;
+    }
+
+    void setRowBytes(int rowBytes) {
+        this.rowBytes = rowBytes;
+    }
+
+    void markReadStarted() {
+        firstReadNanos.compareAndSet(0L, System.nanoTime());
+    }
+
+    void countReadRows(long count) {
+        rowsRead.add(count);
+        lastReadNanos.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    void countReadTime(long fetch, long convert) {
+        fetchNanos.add(fetch);
+        convertNanos.add(convert);
+    }
+
+    void countWrittenRows(long count) {
+        rowsWritten.add(count);
+        lastWriteNanos.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    void countReadBatch() {
+        readBatches.increment();
+    }
+
+    void countUploadBatch(long nanos) {
+        uploadBatches.increment();
+        uploadNanos.add(nanos);
+    }
+
+    void countUploadRetry(long nanos) {
+        uploadRetries.increment();
+        uploadNanos.add(nanos);
+    }
+
+    void countBatchRows(int rows) {
+        batchRows.incrementAndGet(Math.min(32 - Integer.numberOfLeadingZeros(rows), BATCH_BUCKETS - 1));
+    }
+
+    void countTask(TaskStats ts) {
+        tasks.add(ts);
+    }
+
+    void countUploadFailure() {
+        uploadFailures.increment();
+    }
+
+    void countBlobRows(long count) {
+        blobRows.add(count);
+    }
+
+    /**
+     * Outcome of a single read task.
+     */
+    public static final class TaskStats {
+
+        private final String name;
+        private final long rows;
+        private final long nanos;
+        private final int retries;
+        private final boolean success;
+
+        TaskStats(String name, long rows, long nanos, int retries, boolean success) {
+            this.name = name;
+            this.rows = rows;
+            this.nanos = nanos;
+            this.retries = retries;
+            this.success = success;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return Time from the start of the task to its completion
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return Number of the source query retries
+         */
+        public int getRetries() {
+            return retries;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+    }
+}
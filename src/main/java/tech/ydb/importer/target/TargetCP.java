@@ -11,6 +11,7 @@ import tech.ydb.core.auth.StaticCredentials;
 import tech.ydb.core.grpc.GrpcTransport;
 import tech.ydb.core.grpc.GrpcTransportBuilder;
 import tech.ydb.importer.config.TargetConfig;
+import tech.ydb.scheme.SchemeClient;
 import tech.ydb.table.SessionRetryContext;
 import tech.ydb.table.TableClient;
 
@@ -24,6 +25,7 @@ public class TargetCP implements AutoCloseable {
 
     private final GrpcTransport transport;
     private final TableClient tableClient;
+    private final SchemeClient schemeClient;
     private final SessionRetryContext retryCtx;
     private final String database;
 
@@ -70,6 +72,7 @@ public class TargetCP implements AutoCloseable {
                     .sessionPoolSize(0, poolSize)
                     .build();
             this.retryCtx = SessionRetryContext.create(tableClient).build();
+            this.schemeClient = SchemeClient.newClient(tempTransport).build();
             this.transport = tempTransport;
             tempTransport = null; // to avoid closing below
         } finally {
@@ -83,6 +86,10 @@ public class TargetCP implements AutoCloseable {
         return tableClient;
     }
 
+    public SchemeClient getSchemeClient() {
+        return schemeClient;
+    }
+
     public SessionRetryContext getRetryCtx() {
         return retryCtx;
     }
@@ -93,6 +100,13 @@ public class TargetCP implements AutoCloseable {
 
     @Override
     public void close() {
+        if (schemeClient != null) {
+            try {
+                schemeClient.close();
+            } catch (Exception ex) {
+                LOG.warn("SchemeClient closing threw an exception", ex);
+            }
+        }
         if (tableClient != null) {
             try {
                 tableClient.close();
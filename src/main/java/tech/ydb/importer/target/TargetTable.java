@@ -1,7 +1,12 @@
 package tech.ydb.importer.target;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import tech.ydb.importer.TableDecision;
 import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Value;
 
 /**
  * Structure of the target YDB table.
@@ -17,6 +22,9 @@ public class TargetTable extends tech.ydb.importer.config.JdomHelper {
     private final String yqlScript;
     private StructType fields;
     private int synthKeyPos;
+    private final List<String> restoreScript = new ArrayList<>();
+    private final List<String> postLoadScript = new ArrayList<>();
+    private List<Value<?>> partitionBounds;
 
     public TargetTable(TableDecision original, String fullName,
             String yqlScript, StructType fields) {
@@ -52,6 +60,48 @@ public class TargetTable extends tech.ydb.importer.config.JdomHelper {
         return yqlScript;
     }
 
+    /**
+     * @return YQL statements restoring the regular table settings after the load,
+     *     to be executed even if the load of the table fails.
+     */
+    public List<String> getRestoreScript() {
+        return Collections.unmodifiableList(restoreScript);
+    }
+
+    public void addRestoreScript(String yql) {
+        restoreScript.add(yql);
+    }
+
+    /**
+     * @return YQL statements to be executed after the table data is loaded.
+     */
+    public List<String> getPostLoadScript() {
+        return Collections.unmodifiableList(postLoadScript);
+    }
+
+    public void addPostLoadScript(String yql) {
+        postLoadScript.add(yql);
+    }
+
+    /**
+     * Drops all post-load statements, including the restore ones.
+     */
+    public void clearPostLoadScript() {
+        restoreScript.clear();
+        postLoadScript.clear();
+    }
+
+    /**
+     * @return Partition boundaries of the existing target table, or null if not known.
+     */
+    public List<Value<?>> getPartitionBounds() {
+        return partitionBounds;
+    }
+
+    public void setPartitionBounds(List<Value<?>> partitionBounds) {
+        this.partitionBounds = partitionBounds;
+    }
+
     public StructType getFields() {
         return fields;
     }
@@ -2,27 +2,40 @@ package tech.ydb.importer.target;
 
 import tech.ydb.importer.TableDecision;
 import tech.ydb.table.query.BulkUpsertData;
+import tech.ydb.table.values.ListValue;
 
 /**
  * Batch of rows paired with the target upsert operation.
  */
 public class UploadBatch {
 
-    static final UploadBatch SHUTDOWN_SIGNAL = new UploadBatch(null, null, 0, null, null);
-
     private final YdbUpsertOp op;
     private final BulkUpsertData data;
     private final int rowCount;
     private final Runnable onFailure;
     private final TableDecision tab;
+    private final ListValue rows;
+    // retry state, only touched by the writer currently holding the batch
+    private int failures = 0;
+    private long firstFailureNanos = 0L;
+    private long queuedNanos = 0L;
 
     public UploadBatch(YdbUpsertOp op, BulkUpsertData data, int rowCount, Runnable onFailure,
             TableDecision tab) {
+        this(op, data, rowCount, onFailure, tab, null);
+    }
+
+    /**
+     * @param rows Rows of the batch, which allow to split the batch on failure, or null
+     */
+    public UploadBatch(YdbUpsertOp op, BulkUpsertData data, int rowCount, Runnable onFailure,
+            TableDecision tab, ListValue rows) {
         this.op = op;
         this.data = data;
         this.rowCount = rowCount;
         this.onFailure = onFailure;
         this.tab = tab;
+        this.rows = rows;
     }
 
     public void markFailed() {
@@ -31,6 +44,10 @@ public class UploadBatch {
         }
     }
 
+    public TableDecision getTable() {
+        return tab;
+    }
+
     public String label() {
         return tab == null ? "?" : tab.getSchema() + "." + tab.getTable();
     }
@@ -50,4 +67,49 @@ public class UploadBatch {
     public Runnable getOnFailure() {
         return onFailure;
     }
+
+    /**
+     * @return Rows of the batch, or null for the batches which cannot be split.
+     */
+    public ListValue getRows() {
+        return rows;
+    }
+
+    /**
+     * Records a failed upload of the batch.
+     *
+     * @param nanos Time of the failure, as of System.nanoTime()
+     * @return Number of the failed uploads, including this one
+     */
+    int countFailure(long nanos) {
+        if (failures == 0) {
+            firstFailureNanos = nanos;
+        }
+        return ++failures;
+    }
+
+    /**
+     * @return Number of the failed uploads of the batch
+     */
+    int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return Time of the first failed upload, as of System.nanoTime()
+     */
+    long getFirstFailureNanos() {
+        return firstFailureNanos;
+    }
+
+    /**
+     * @return Time the batch was put in the writer queue, as of System.nanoTime()
+     */
+    long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
 }
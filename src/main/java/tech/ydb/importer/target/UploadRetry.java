@@ -0,0 +1,98 @@
+package tech.ydb.importer.target;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import tech.ydb.core.Status;
+
+/**
+ * Retry policy for the batches failed with transient errors after the
+ * retries of the session retry context. Failed batches are retried after
+ * an exponential backoff with jitter, until the maximum number of attempts
+ * or the deadline counted from the first failure is reached.
+ */
+public class UploadRetry {
+
+    /** Policy which fails the batch on the first error. */
+    public static final UploadRetry NONE = new UploadRetry(1, 0L, 0L, 0L);
+
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final long deadlineMs;
+
+    /**
+     * @param maxAttempts Maximum number of uploads of a single batch, including the first one
+     * @param backoffMs Delay before the first retry
+     * @param maxBackoffMs Maximum delay between the retries
+     * @param deadlineMs Maximum time between the first failure and the last retry
+     */
+    public UploadRetry(int maxAttempts, long backoffMs, long maxBackoffMs, long deadlineMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(0L, backoffMs);
+        this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+        this.deadlineMs = deadlineMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    /**
+     * @return Longest time a failed batch may spend waiting for its retries
+     */
+    public long getMaxRetryMs() {
+        if (deadlineMs > 0L) {
+            return deadlineMs;
+        }
+        long total = 0L;
+        for (int failures = 1; failures < maxAttempts; ++failures) {
+            total += Math.min(backoffMs << Math.min(failures - 1, 16), maxBackoffMs);
+        }
+        return total;
+    }
+
+    /**
+     * @param status Upload status
+     * @return true for the errors expected to go away, like tablet moves and overloads
+     */
+    public boolean isTransient(Status status) {
+        switch (status.getCode()) {
+            case OVERLOADED:
+            case UNAVAILABLE:
+            case TIMEOUT:
+            case SESSION_BUSY:
+            case BAD_SESSION:
+            case SESSION_EXPIRED:
+            case UNDETERMINED:
+            case TRANSPORT_UNAVAILABLE:
+            case CLIENT_RESOURCE_EXHAUSTED:
+            case CLIENT_DEADLINE_EXCEEDED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param failures Number of the failed uploads of the batch, starting with 1
+     * @param failedForMs Time since the first failure of the batch
+     * @return Delay before the next upload, or -1 if the batch should not be retried
+     */
+    long nextDelay(int failures, long failedForMs) {
+        if (failures >= maxAttempts) {
+            return -1L;
+        }
+        long ms = backoffMs << Math.min(failures - 1, 16);
+        ms = Math.min(ms, maxBackoffMs);
+        // full jitter over the upper half, to spread the retries of parallel writers
+        ms = ms / 2 + ThreadLocalRandom.current().nextLong(ms / 2 + 1);
+        if (deadlineMs > 0L && failedForMs + ms > deadlineMs) {
+            return -1L;
+        }
+        return ms;
+    }
+}
@@ -91,10 +91,51 @@ public abstract class ValueReader {
     public abstract void read(ResultSet rs, int rsIdx, int targetIdx, ValueWriter writer, SynthKey synthKey)
             throws Exception;
 
+    /**
+     * Reader which can split the column read into two steps, so that the
+     * conversion of the fetched values can run on another thread. The values
+     * are still decoded by the driver (getBigDecimal(), getTimestamp() and
+     * the like) on the fetching thread, only the conversion to the YDB values,
+     * the synthetic key hashing and the value writing are moved.
+     * The LOB readers upload the data while reading, and are not two-phase.
+     */
+    public abstract static class TwoPhase extends ValueReader {
+
+        /**
+         * Reads a single column from the source ResultSet without converting it.
+         *
+         * @param rs Source result set
+         * @param rsIdx Index of the source column
+         * @return The column value as returned by the driver, or null for SQL NULL
+         * @throws Exception
+         */
+        public abstract Object fetch(ResultSet rs, int rsIdx) throws Exception;
+
+        /**
+         * Converts the value produced by {@link #fetch(ResultSet, int)} in the same way
+         * {@link #read(ResultSet, int, int, ValueWriter, SynthKey)} would.
+         *
+         * @param value Column value, or null for SQL NULL
+         * @param targetIdx Index of the target struct member
+         * @param writer Destination for the converted value
+         * @param synthKey Row synthetic key, or null when unused
+         * @throws Exception
+         */
+        public abstract void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception;
+    }
+
     public void flush() {
         // Nothing
     }
 
+    protected static void writeNull(int targetIdx, ValueWriter writer, SynthKey synthKey) {
+        if (synthKey != null) {
+            synthKey.hashNull();
+        }
+        writer.writeNull(targetIdx);
+    }
+
     public static ValueReader getReader(Type ydbType, int sqlType) throws Exception {
         Type paramType = ydbType;
         while (Type.Kind.OPTIONAL.equals(paramType.getKind())) {
@@ -248,7 +289,7 @@ public abstract class ValueReader {
         void write(ValueWriter w, int idx, T v);
     }
 
-    private static class StringReader extends ValueReader {
+    private static class StringReader extends TwoPhase {
 
         private final ObjWriteOp<String> op;
 
@@ -261,12 +302,29 @@ public abstract class ValueReader {
                 throws Exception {
             String value = rs.getString(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            String value = rs.getString(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((String) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(String value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashString(value);
             }
@@ -274,7 +332,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class BytesReader extends ValueReader {
+    private static class BytesReader extends TwoPhase {
 
         private final ObjWriteOp<byte[]> op;
 
@@ -287,12 +345,29 @@ public abstract class ValueReader {
                 throws Exception {
             byte[] value = rs.getBytes(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            byte[] value = rs.getBytes(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((byte[]) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(byte[] value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashBytes(value);
             }
@@ -300,7 +375,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class IntReader extends ValueReader {
+    private static class IntReader extends TwoPhase {
 
         private final IntWriteOp op;
 
@@ -313,12 +388,29 @@ public abstract class ValueReader {
                 throws Exception {
             int value = rs.getInt(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            int value = rs.getInt(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write((Integer) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(int value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashInt(value);
             }
@@ -326,7 +418,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class LongReader extends ValueReader {
+    private static class LongReader extends TwoPhase {
 
         private final LongWriteOp op;
 
@@ -339,12 +431,29 @@ public abstract class ValueReader {
                 throws Exception {
             long value = rs.getLong(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            long value = rs.getLong(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((Long) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(long value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashLong(value);
             }
@@ -352,7 +461,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class FloatReader extends ValueReader {
+    private static class FloatReader extends TwoPhase {
 
         private final FloatWriteOp op;
 
@@ -365,12 +474,29 @@ public abstract class ValueReader {
                 throws Exception {
             float value = rs.getFloat(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            float value = rs.getFloat(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((Float) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(float value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashFloat(value);
             }
@@ -378,7 +504,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class DoubleReader extends ValueReader {
+    private static class DoubleReader extends TwoPhase {
 
         private final DoubleWriteOp op;
 
@@ -391,12 +517,29 @@ public abstract class ValueReader {
                 throws Exception {
             double value = rs.getDouble(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            double value = rs.getDouble(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write((Double) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(double value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashDouble(value);
             }
@@ -404,7 +547,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class BoolReader extends ValueReader {
+    private static class BoolReader extends TwoPhase {
 
         private final BoolWriteOp op;
 
@@ -417,12 +560,29 @@ public abstract class ValueReader {
                 throws Exception {
             boolean value = rs.getBoolean(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            boolean value = rs.getBoolean(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((Boolean) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(boolean value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashBool(value);
             }
@@ -430,7 +590,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class BigDecimalReader extends ValueReader {
+    private static class BigDecimalReader extends TwoPhase {
 
         private final ObjWriteOp<BigDecimal> op;
 
@@ -443,12 +603,29 @@ public abstract class ValueReader {
                 throws Exception {
             BigDecimal value = rs.getBigDecimal(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            BigDecimal value = rs.getBigDecimal(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((BigDecimal) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(BigDecimal value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashBigDecimal(value);
             }
@@ -456,7 +633,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class DateReader extends ValueReader {
+    private static class DateReader extends TwoPhase {
 
         private final ObjWriteOp<Date> op;
 
@@ -469,12 +646,29 @@ public abstract class ValueReader {
                 throws Exception {
             Date value = rs.getDate(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            Date value = rs.getDate(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((Date) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(Date value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashDate(value);
             }
@@ -482,7 +676,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class TimeReader extends ValueReader {
+    private static class TimeReader extends TwoPhase {
 
         private final ObjWriteOp<Time> op;
 
@@ -495,12 +689,29 @@ public abstract class ValueReader {
                 throws Exception {
             Time value = rs.getTime(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            Time value = rs.getTime(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write((Time) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(Time value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashTime(value);
             }
@@ -508,7 +719,7 @@ public abstract class ValueReader {
         }
     }
 
-    private static class TimestampReader extends ValueReader {
+    private static class TimestampReader extends TwoPhase {
 
         private final ObjWriteOp<Timestamp> op;
 
@@ -521,12 +732,29 @@ public abstract class ValueReader {
                 throws Exception {
             Timestamp value = rs.getTimestamp(rsIdx, UTC_CALENDAR.get());
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            Timestamp value = rs.getTimestamp(rsIdx, UTC_CALENDAR.get());
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write((Timestamp) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(Timestamp value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashTimestamp(value);
             }
@@ -534,19 +762,36 @@ public abstract class ValueReader {
         }
     }
 
-    private static class UuidReaderText extends ValueReader {
+    private static class UuidReaderText extends TwoPhase {
 
         @Override
         public void read(ResultSet rs, int rsIdx, int targetIdx, ValueWriter writer, SynthKey synthKey)
                 throws Exception {
             String value = rs.getString(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            String value = rs.getString(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write((String) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(String value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashBytes(value.getBytes(StandardCharsets.UTF_8));
             }
@@ -554,19 +799,36 @@ public abstract class ValueReader {
         }
     }
 
-    private static class UuidReaderBinary extends ValueReader {
+    private static class UuidReaderBinary extends TwoPhase {
 
         @Override
         public void read(ResultSet rs, int rsIdx, int targetIdx, ValueWriter writer, SynthKey synthKey)
                 throws Exception {
             byte[] value = rs.getBytes(rsIdx);
             if (rs.wasNull()) {
-                if (synthKey != null) {
-                    synthKey.hashNull();
-                }
-                writer.writeNull(targetIdx);
+                writeNull(targetIdx, writer, synthKey);
+                return;
+            }
+            write(value, targetIdx, writer, synthKey);
+        }
+
+        @Override
+        public Object fetch(ResultSet rs, int rsIdx) throws Exception {
+            byte[] value = rs.getBytes(rsIdx);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void convert(Object value, int targetIdx, ValueWriter writer, SynthKey synthKey)
+                throws Exception {
+            if (value == null) {
+                writeNull(targetIdx, writer, synthKey);
                 return;
             }
+            write((byte[]) value, targetIdx, writer, synthKey);
+        }
+
+        private void write(byte[] value, int targetIdx, ValueWriter writer, SynthKey synthKey) {
             if (synthKey != null) {
                 synthKey.hashBytes(value);
             }
@@ -1,17 +1,33 @@
 package tech.ydb.importer.target;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import tech.ydb.core.Status;
+import tech.ydb.core.StatusCode;
+import tech.ydb.core.UnexpectedResultException;
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.trace.ImporterEvents;
+import tech.ydb.table.query.BulkUpsertData;
+import tech.ydb.table.values.ListValue;
+import tech.ydb.table.values.StructValue;
+import tech.ydb.table.values.Value;
+
 /**
  * Bounded queue of pending upserts processed by writer threads.
+ * The queue is shared between tables by their weights and in-flight caps.
+ * Batches failed with transient errors are parked on a timer until their retry,
+ * so that the writers keep uploading the other batches meanwhile.
  */
 public class WriterPool implements AutoCloseable {
 
@@ -20,14 +36,39 @@ public class WriterPool implements AutoCloseable {
     private static final long FORCE_SHUTDOWN_TIMEOUT_MS = 10_000;
 
     private final ExecutorService executor;
-    private final BlockingQueue<UploadBatch> queue;
-    private final int writerCount;
+    private final ScheduledExecutorService retryTimer;
+    private final FairBatchQueue queue;
     private final ProgressCounter progress;
+    private final DeadLetterFile deadLetter;
+    private final UploadRetry retry;
+    private final int writerCount;
+    private final AtomicInteger uploading = new AtomicInteger();
+    private final ImporterEvents events = ImporterEvents.get();
 
     public WriterPool(int writerCount, int queueCapacity, ProgressCounter progress) {
-        this.writerCount = writerCount;
-        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this(writerCount, queueCapacity, progress, null, UploadRetry.NONE);
+    }
+
+    /**
+     * @param writerCount Number of writer threads
+     * @param queueCapacity Maximum number of pending batches
+     * @param progress Progress counter
+     * @param deadLetter Destination of the rows rejected by the database,
+     *     or null to fail the table on the first rejected batch
+     * @param retry Retry policy for the transient upload errors
+     */
+    public WriterPool(int writerCount, int queueCapacity, ProgressCounter progress,
+            DeadLetterFile deadLetter, UploadRetry retry) {
+        this.queue = new FairBatchQueue(queueCapacity);
         this.progress = progress;
+        this.deadLetter = deadLetter;
+        this.retry = retry;
+        this.writerCount = writerCount;
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ydb-writer-retry");
+            t.setDaemon(true);
+            return t;
+        });
 
         final AtomicInteger threadId = new AtomicInteger();
         this.executor = Executors.newFixedThreadPool(writerCount, r -> {
@@ -43,28 +84,66 @@ public class WriterPool implements AutoCloseable {
     }
 
     public void submit(UploadBatch batch) throws InterruptedException {
+        progress.countSubmittedBatch(batch.getTable(), batch.getRowCount());
+        if (batch.getOp().isDiscarding()) {
+            // nothing to wait for, the batch is dropped by the reader itself
+            long started = System.nanoTime();
+            batch.getOp().upload(batch.getData(), batch.getRowCount(), null);
+            progress.countUploadBatch(batch.getTable(), System.nanoTime() - started);
+            return;
+        }
         queue.put(batch);
     }
 
+    /**
+     * @param tab Source table
+     * @return Future completed once all submitted batches of the table are uploaded.
+     */
+    public CompletableFuture<Void> whenDrained(TableDecision tab) {
+        return queue.whenDrained(tab);
+    }
+
+    public int getWriterCount() {
+        return writerCount;
+    }
+
+    /**
+     * @return Number of the batches waiting for a writer, excluding the ones parked for a retry
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return Number of the batches being uploaded now
+     */
+    public int getUploadsInFlight() {
+        return uploading.get();
+    }
+
+    /**
+     * Waits for the writers to upload the remaining batches, including the ones
+     * parked for a retry, which may take up to the retry deadline.
+     */
     public void shutdownAndWait() throws Exception {
-        for (int i = 0; i < writerCount; i++) {
-            queue.put(UploadBatch.SHUTDOWN_SIGNAL);
-        }
+        queue.close();
         executor.shutdown();
-        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
-            LOG.error("Writer pool did not terminate within {} ms, forcing shutdown",
-                    SHUTDOWN_TIMEOUT_MS);
+        final long timeoutMs = SHUTDOWN_TIMEOUT_MS + retry.getMaxRetryMs();
+        if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            LOG.error("Writer pool did not terminate within {} ms, forcing shutdown", timeoutMs);
             executor.shutdownNow();
             if (!executor.awaitTermination(FORCE_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
                 throw new IllegalStateException("Writer pool did not terminate after forced shutdown ("
-                        + (SHUTDOWN_TIMEOUT_MS + FORCE_SHUTDOWN_TIMEOUT_MS) + " ms)");
+                        + (timeoutMs + FORCE_SHUTDOWN_TIMEOUT_MS) + " ms)");
             }
         }
+        retryTimer.shutdown();
     }
 
     @Override
     public void close() {
         executor.shutdownNow();
+        retryTimer.shutdownNow();
     }
 
     private void writerLoop() {
@@ -76,18 +155,142 @@ public class WriterPool implements AutoCloseable {
                 Thread.currentThread().interrupt();
                 return;
             }
-            if (batch == UploadBatch.SHUTDOWN_SIGNAL) {
+            if (batch == null) {
                 return;
             }
             long started = System.nanoTime();
+            progress.countQueueWait(batch.getTable(), started - batch.getQueuedNanos());
+            events.queueWait(batch.label(), started - batch.getQueuedNanos());
+            boolean parked = false;
+            uploading.incrementAndGet();
             try {
                 batch.getOp().upload(batch.getData(), batch.getRowCount(), batch.getOnFailure());
             } catch (Exception e) {
-                LOG.error("Upload failed for table {}", batch.label(), e);
-                batch.markFailed();
+                parked = retryLater(batch, e);
+                if (!parked && !quarantine(batch, e)) {
+                    LOG.error("Upload failed for table {}", batch.label(), e);
+                    progress.countUploadFailure(batch.getTable());
+                    batch.markFailed();
+                }
             } finally {
-                progress.countUploadBatch(System.nanoTime() - started);
+                uploading.decrementAndGet();
+                long finished = System.nanoTime();
+                if (parked) {
+                    // the batch is counted by its final attempt
+                    progress.countUploadRetry(batch.getTable(), finished - started);
+                } else {
+                    progress.countUploadBatch(batch.getTable(), finished - started);
+                    if (batch.getFailures() > 0) {
+                        progress.countRetriedBatch(finished - batch.getFirstFailureNanos());
+                    }
+                    queue.done(batch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parks the batch failed with a transient error until its retry.
+     *
+     * @return true if the batch got parked, false if it should not be retried
+     */
+    private boolean retryLater(UploadBatch batch, Exception e) {
+        if (!(e instanceof UnexpectedResultException)
+                || (batch.getTable() != null && batch.getTable().isFailure())) {
+            return false;
+        }
+        final Status status = ((UnexpectedResultException) e).getStatus();
+        if (!retry.isTransient(status)) {
+            return false;
+        }
+        final long now = System.nanoTime();
+        final int failures = batch.countFailure(now);
+        final long delayMs = retry.nextDelay(failures,
+                TimeUnit.NANOSECONDS.toMillis(now - batch.getFirstFailureNanos()));
+        if (delayMs < 0L) {
+            if (retry.getMaxAttempts() > 1) {
+                LOG.error("Upload retries exhausted for table {} after {} attempts", batch.label(), failures);
             }
+            return false;
+        }
+        LOG.warn("Upload failed for table {} (attempt {}/{}), retrying in {} ms: {}",
+                batch.label(), failures, retry.getMaxAttempts(), delayMs, status);
+        queue.park(batch);
+        events.uploadRetry(batch.label(), failures, delayMs, String.valueOf(status.getCode()));
+        try {
+            retryTimer.schedule(() -> queue.requeue(batch), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ree) {
+            // the timer is stopped on shutdown, retry right away
+            queue.requeue(batch);
+        }
+        return true;
+    }
+
+    /**
+     * Isolates the rows rejected by the database into the dead-letter file.
+     *
+     * @return true if the rest of the batch got uploaded, and the table
+     *     stays within its error budget
+     */
+    private boolean quarantine(UploadBatch batch, Exception e) {
+        if (deadLetter == null || batch.getTable() == null
+                || !(e instanceof UnexpectedResultException)) {
+            return false;
+        }
+        final Status status = ((UnexpectedResultException) e).getStatus();
+        if (!isDataError(status)) {
+            return false;
+        }
+        final ListValue rows = batch.getRows();
+        if (rows == null) {
+            // columnar batches cannot be split, and the good rows must not be dropped with the bad ones
+            LOG.error("Batch of {} rows rejected for table {}, the Apache Arrow batches cannot be split "
+                    + "to isolate the failed rows, disable use-arrow for that: {}",
+                    batch.getRowCount(), batch.label(), status);
+            return false;
         }
+        LOG.warn("Batch of {} rows rejected for table {}, isolating the failed rows: {}",
+                batch.getRowCount(), batch.label(), status);
+        return bisect(batch, rows, 0, rows.size(), status);
+    }
+
+    /**
+     * Splits the failed range of rows in halves and uploads each half,
+     * recursing into the halves which fail with data errors.
+     */
+    private boolean bisect(UploadBatch batch, ListValue rows, int from, int to, Status status) {
+        if (to - from == 1) {
+            return deadLetter.rejectRow(batch.getTable(), (StructValue) rows.get(from), status);
+        }
+        final int mid = (from + to) >>> 1;
+        return upload(batch, rows, from, mid) && upload(batch, rows, mid, to);
+    }
+
+    private boolean upload(UploadBatch batch, ListValue rows, int from, int to) {
+        if (batch.getTable().isFailure()) {
+            return false;
+        }
+        final List<Value<?>> part = new ArrayList<>(to - from);
+        for (int i = from; i < to; ++i) {
+            part.add(rows.get(i));
+        }
+        final ListValue lv = rows.getType().newValue(part);
+        final Status status = batch.getOp().tryUpload(new BulkUpsertData(lv), part.size());
+        if (status.isSuccess()) {
+            return true;
+        }
+        if (!isDataError(status)) {
+            LOG.error("Upload failed for table {}: {}", batch.label(), status);
+            return false;
+        }
+        return bisect(batch, rows, from, to, status);
+    }
+
+    /**
+     * @return true for the errors caused by the row values rather than by the database state
+     */
+    private static boolean isDataError(Status status) {
+        return status.getCode() == StatusCode.BAD_REQUEST
+                || status.getCode() == StatusCode.PRECONDITION_FAILED;
     }
 }
@@ -1,7 +1,9 @@
 package tech.ydb.importer.target;
 
 import java.io.BufferedWriter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.text.StringSubstitutor;
@@ -9,6 +11,7 @@ import org.apache.commons.text.StringSubstitutor;
 import tech.ydb.importer.TableDecision;
 import tech.ydb.importer.config.TableOptions;
 import tech.ydb.importer.source.ColumnInfo;
+import tech.ydb.importer.source.IndexInfo;
 import tech.ydb.importer.source.YdbPartitioning;
 import tech.ydb.table.values.PrimitiveType;
 import tech.ydb.table.values.StructType;
@@ -25,9 +28,20 @@ public class YdbTableBuilder {
 
     public static final String EOL = System.getProperty("line.separator");
     private final TableDecision tab;
+    private final boolean loadFollows;
 
     public YdbTableBuilder(TableDecision tab) {
+        this(tab, true);
+    }
+
+    /**
+     * @param tab The table to be converted
+     * @param loadFollows true, if the table data is loaded after the creation,
+     *     false to create the table in its final form
+     */
+    public YdbTableBuilder(TableDecision tab, boolean loadFollows) {
         this.tab = tab;
+        this.loadFollows = loadFollows;
     }
 
     public void build() {
@@ -107,6 +121,13 @@ public class YdbTableBuilder {
                     tab.getSchema(), tab.getTable());
             return null;
         }
+        final List<String> indexes = makeIndexes();
+        if (!loadFollows) {
+            // nothing is loaded, so the indexes are built along with the table
+            for (String index : indexes) {
+                sb.append("  INDEX ").append(index).append(",").append(EOL);
+            }
+        }
         if (tab.getMetadata().getKey().isEmpty()) {
             addSyntheticKey(sb, types);
         } else {
@@ -114,7 +135,44 @@ public class YdbTableBuilder {
         }
         sb.append(")").append(EOL);
         appendPartitioning(sb);
-        return new TargetTable(tab, fullName, sb.toString(), StructType.of(types));
+        TargetTable tt = new TargetTable(tab, fullName, sb.toString(), StructType.of(types));
+        appendPartitioningReset(tt);
+        if (loadFollows) {
+            for (String index : indexes) {
+                tt.addPostLoadScript("ALTER TABLE `" + fullName + "` ADD INDEX " + index + ";" + EOL);
+            }
+        }
+        return tt;
+    }
+
+    /**
+     * @return Secondary index definitions, like "`ix1` GLOBAL ON (`a`, `b`)".
+     */
+    private List<String> makeIndexes() {
+        final List<String> indexes = new ArrayList<>();
+        if (TableOptions.StoreType.COLUMN.equals(tab.getOptions().getStoreType())) {
+            if (!tab.getMetadata().getIndexes().isEmpty()) {
+                LOG.warn("Secondary indexes of table {}.{} are skipped for the column store",
+                        tab.getSchema(), tab.getTable());
+            }
+            return indexes;
+        }
+        for (IndexInfo ii : tab.getMetadata().getIndexes()) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append('`').append(ColumnInfo.safeYdbColumnName(ii.getName())).append("` GLOBAL ON (");
+            boolean comma = false;
+            for (String name : ii.getColumns()) {
+                if (comma) {
+                    sb.append(", ");
+                } else {
+                    comma = true;
+                }
+                sb.append('`').append(tab.getMetadata().getColumn(name).getDestinationName()).append('`');
+            }
+            sb.append(')');
+            indexes.add(sb.toString());
+        }
+        return indexes;
     }
 
     private void appendPartitioning(StringBuilder sb) {
@@ -132,22 +190,92 @@ public class YdbTableBuilder {
                         .append(part.getHashPartitions()).append(EOL);
             }
         } else if (part.isKeyRange()) {
-            appendAutoPartitioning(sb, part.getCuts().size() + 1);
+            appendAutoPartitioning(sb, part.getCuts().size() + 1, !isBulkLoadProfile());
             sb.append(", PARTITION_AT_KEYS = (")
-                    .append(String.join(", ", part.getCuts())).append(")").append(EOL);
+                    .append(formatCuts(part.getCuts())).append(")").append(EOL);
         } else {
-            appendAutoPartitioning(sb, 9999);
+            appendAutoPartitioning(sb, 9999, !isBulkLoadProfile());
         }
         sb.append(");").append(EOL);
     }
 
-    private void appendAutoPartitioning(StringBuilder sb, int minPartitions) {
+    /**
+     * Formats the boundaries as the literals of the leading key type. The cuts of
+     * the Text keys are plain strings, and the cuts of the Bytes keys are hex strings.
+     */
+    private String formatCuts(List<String> cuts) {
+        final Type type;
+        if (tab.getMetadata().getKey().isEmpty()) {
+            type = PrimitiveType.Text;
+        } else {
+            type = YdbTypeMapper.convertType(tab.getMetadata().getKey().get(0), tab.getOptions());
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (String cut : cuts) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            if (type == PrimitiveType.Text) {
+                appendQuoted(sb, cut).append('u');
+            } else if (type == PrimitiveType.Bytes) {
+                sb.append('"');
+                for (int i = 0; i + 1 < cut.length(); i += 2) {
+                    sb.append("\\x").append(cut, i, i + 2);
+                }
+                sb.append('"');
+            } else {
+                sb.append(cut);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\x%02x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    private void appendAutoPartitioning(StringBuilder sb, int minPartitions, boolean byLoad) {
         sb.append("  AUTO_PARTITIONING_BY_SIZE = ENABLED").append(EOL);
-        sb.append(", AUTO_PARTITIONING_BY_LOAD = ENABLED").append(EOL);
+        sb.append(", AUTO_PARTITIONING_BY_LOAD = ").append(byLoad ? "ENABLED" : "DISABLED").append(EOL);
         sb.append(", AUTO_PARTITIONING_MIN_PARTITIONS_COUNT = ").append(minPartitions).append(EOL);
         sb.append(", AUTO_PARTITIONING_MAX_PARTITIONS_COUNT = 9999").append(EOL);
     }
 
+    private boolean isBulkLoadProfile() {
+        return loadFollows && tab.bulkLoadProfile()
+                && !TableOptions.StoreType.COLUMN.equals(tab.getOptions().getStoreType());
+    }
+
+    /**
+     * With the bulk load profile, the table is created with the load-based splits
+     * and merges disabled, so the partitions stay stable during the ingestion.
+     * The regular settings are restored once the table data is loaded,
+     * or once the load of the table fails.
+     */
+    private void appendPartitioningReset(TargetTable tt) {
+        if (!isBulkLoadProfile()) {
+            return;
+        }
+        final YdbPartitioning part = tab.getMetadata().getYdbPartitioning();
+        final int minPartitions = part.isKeyRange() ? part.getCuts().size() + 1 : 9999;
+        final StringBuilder sb = new StringBuilder();
+        sb.append("ALTER TABLE `").append(tt.getFullName()).append("` SET (").append(EOL);
+        appendAutoPartitioning(sb, minPartitions, true);
+        sb.append(");").append(EOL);
+        tt.addRestoreScript(sb.toString());
+    }
+
     private TargetTable buildAuxTable(ColumnInfo ci, String valType, StructType rowType) {
         final StringBuilder sb = new StringBuilder();
         final String fullName = makeBlobName(ci.getDestinationName());
@@ -170,4 +170,36 @@ public final class YdbTypeMapper {
                 return false;
         }
     }
+
+    /**
+     * Checks that the column maps to a YDB Text or Bytes type.
+     */
+    public static boolean partitionableString(ColumnInfo ci, TableOptions options) {
+        final Type type;
+        try {
+            type = convertType(ci, options);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        return type == PrimitiveType.Text || type == PrimitiveType.Bytes;
+    }
+
+    /**
+     * Compares the strings in the order of the YDB Text values, which is the UTF-8
+     * byte order, and the same as the code point order.
+     */
+    public static int compareText(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
 }
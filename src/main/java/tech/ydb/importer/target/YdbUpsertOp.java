@@ -3,6 +3,7 @@ package tech.ydb.importer.target;
 import java.util.function.IntConsumer;
 
 import tech.ydb.core.Status;
+import tech.ydb.importer.trace.ImporterEvents;
 import tech.ydb.table.SessionRetryContext;
 import tech.ydb.table.query.BulkUpsertData;
 import tech.ydb.table.settings.BulkUpsertSettings;
@@ -28,17 +29,32 @@ public class YdbUpsertOp {
         this.counter = counter;
     }
 
+    /**
+     * Creates the operation which drops the rows instead of uploading them,
+     * still counting them as written.
+     *
+     * @param tablePath Target table path, for tracing only
+     * @param counter Counter of the dropped rows
+     * @return Discarding operation
+     */
+    public static YdbUpsertOp discarding(String tablePath, IntConsumer counter) {
+        return new YdbUpsertOp(null, tablePath, "failed discard to " + tablePath, counter);
+    }
+
+    /**
+     * @return true if the rows are dropped instead of being uploaded
+     */
+    public boolean isDiscarding() {
+        return retryCtx == null;
+    }
+
     public void upload(BulkUpsertData data, int rowCount, Runnable onFailure) {
         if (data == null || rowCount == 0) {
             return;
         }
 
-        Status status = retryCtx.supplyStatus(
-                session -> session.executeBulkUpsert(tablePath, data, upsertSettings)
-        ).join();
-
+        Status status = tryUpload(data, rowCount);
         if (status.isSuccess()) {
-            counter.accept(rowCount);
             return;
         }
 
@@ -48,4 +64,27 @@ public class YdbUpsertOp {
 
         status.expectSuccess(errorMsg);
     }
+
+    /**
+     * Uploads the rows, counting them on success.
+     *
+     * @param data Rows to upload
+     * @param rowCount Number of rows
+     * @return Status of the upload
+     */
+    public Status tryUpload(BulkUpsertData data, int rowCount) {
+        if (retryCtx == null) {
+            counter.accept(rowCount);
+            return Status.SUCCESS;
+        }
+        final ImporterEvents.Span span = ImporterEvents.get().bulkUpsert(tablePath, rowCount);
+        Status status = retryCtx.supplyStatus(
+                session -> session.executeBulkUpsert(tablePath, data, upsertSettings)
+        ).join();
+        span.end(rowCount, String.valueOf(status.getCode()));
+        if (status.isSuccess()) {
+            counter.accept(rowCount);
+        }
+        return status;
+    }
 }
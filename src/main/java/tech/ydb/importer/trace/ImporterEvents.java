@@ -0,0 +1,108 @@
+package tech.ydb.importer.trace;
+
+/**
+ * Flight recorder events of the importer hot paths. This base implementation
+ * discards the events. On JDK 11 and later the JFR-based implementation,
+ * built from a separate source root, is loaded instead; its events are only
+ * allocated while a recording with the events enabled is running.
+ */
+public class ImporterEvents {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(ImporterEvents.class);
+
+    private static final String JFR_IMPL = "tech.ydb.importer.trace.JfrImporterEvents";
+
+    private static final ImporterEvents INSTANCE = load();
+
+    protected ImporterEvents() {
+    }
+
+    public static ImporterEvents get() {
+        return INSTANCE;
+    }
+
+    private static ImporterEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (ImporterEvents) Class.forName(JFR_IMPL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            // JDK 8, or the build without the JFR classes
+            LOG.debug("Flight recorder events are not available", ex);
+            return new ImporterEvents();
+        }
+    }
+
+    /**
+     * @param table Source table
+     * @param task Read task name, which identifies the key range
+     * @return Span to be ended with the number of rows copied
+     */
+    public Span loadTask(String table, String task) {
+        return Span.NONE;
+    }
+
+    /**
+     * @param table Source table
+     * @return Span to be ended with the number of columns retrieved
+     */
+    public Span metadataQuery(String table) {
+        return Span.NONE;
+    }
+
+    /**
+     * @param tablePath Target table path
+     * @param rows Number of rows uploaded
+     * @return Span to be ended with the number of rows and the upload status
+     */
+    public Span bulkUpsert(String tablePath, int rows) {
+        return Span.NONE;
+    }
+
+    /**
+     * @param table Source table
+     * @param partition Target partition index, 0 without the partition buffers
+     * @param rows Number of rows in the batch
+     * @param bytes Estimated batch size
+     */
+    public void batchBuilt(String table, int partition, int rows, long bytes) {
+    }
+
+    /**
+     * @param table Source table
+     * @param waitNanos Time the batch spent in the writer queue
+     */
+    public void queueWait(String table, long waitNanos) {
+    }
+
+    /**
+     * @param table Source table
+     * @param attempt Number of the failed uploads of the batch
+     * @param delayMs Delay before the next upload
+     * @param status Status of the failed upload
+     */
+    public void uploadRetry(String table, int attempt, long delayMs, String status) {
+    }
+
+    /**
+     * @param tablePath Target BLOB or CLOB table path
+     * @param fragments Number of the fragment rows uploaded
+     * @param size Fragment data size, bytes for BLOB and characters for CLOB
+     */
+    public void lobChunks(String tablePath, int fragments, long size) {
+    }
+
+    /**
+     * Operation in progress, recorded as a single event once ended.
+     */
+    public interface Span {
+
+        /** Span of the operation which is not recorded. */
+        Span NONE = (count, status) -> { };
+
+        /**
+         * @param count Operation result size, like the number of rows
+         * @param status Operation status
+         */
+        void end(long count, String status);
+    }
+}
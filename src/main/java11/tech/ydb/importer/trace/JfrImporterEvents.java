@@ -0,0 +1,215 @@
+package tech.ydb.importer.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder implementation of the importer events, loaded by
+ * {@link ImporterEvents#get()} when the JFR API is available.
+ * Each event is checked for being enabled before its fields are filled.
+ */
+public class JfrImporterEvents extends ImporterEvents {
+
+    private static final String CATEGORY = "YDB Importer";
+
+    public JfrImporterEvents() {
+    }
+
+    @Override
+    public Span loadTask(String table, String task) {
+        final LoadTaskEvent e = new LoadTaskEvent();
+        if (!e.isEnabled()) {
+            return Span.NONE;
+        }
+        e.table = table;
+        e.task = task;
+        e.begin();
+        return (count, status) -> {
+            e.rows = count;
+            e.status = status;
+            e.commit();
+        };
+    }
+
+    @Override
+    public Span metadataQuery(String table) {
+        final MetadataQueryEvent e = new MetadataQueryEvent();
+        if (!e.isEnabled()) {
+            return Span.NONE;
+        }
+        e.table = table;
+        e.begin();
+        return (count, status) -> {
+            e.columns = (int) count;
+            e.status = status;
+            e.commit();
+        };
+    }
+
+    @Override
+    public Span bulkUpsert(String tablePath, int rows) {
+        final BulkUpsertEvent e = new BulkUpsertEvent();
+        if (!e.isEnabled()) {
+            return Span.NONE;
+        }
+        e.tablePath = tablePath;
+        e.begin();
+        return (count, status) -> {
+            e.rows = (int) count;
+            e.status = status;
+            e.commit();
+        };
+    }
+
+    @Override
+    public void batchBuilt(String table, int partition, int rows, long bytes) {
+        final BatchBuiltEvent e = new BatchBuiltEvent();
+        if (e.isEnabled()) {
+            e.table = table;
+            e.partition = partition;
+            e.rows = rows;
+            e.bytes = bytes;
+            e.commit();
+        }
+    }
+
+    @Override
+    public void queueWait(String table, long waitNanos) {
+        final QueueWaitEvent e = new QueueWaitEvent();
+        if (e.isEnabled()) {
+            e.table = table;
+            e.wait = waitNanos;
+            e.commit();
+        }
+    }
+
+    @Override
+    public void uploadRetry(String table, int attempt, long delayMs, String status) {
+        final UploadRetryEvent e = new UploadRetryEvent();
+        if (e.isEnabled()) {
+            e.table = table;
+            e.attempt = attempt;
+            e.delay = delayMs;
+            e.status = status;
+            e.commit();
+        }
+    }
+
+    @Override
+    public void lobChunks(String tablePath, int fragments, long size) {
+        final LobChunksEvent e = new LobChunksEvent();
+        if (e.isEnabled()) {
+            e.tablePath = tablePath;
+            e.fragments = fragments;
+            e.size = size;
+            e.commit();
+        }
+    }
+
+    @Name("tech.ydb.importer.LoadTask")
+    @Label("Load Task")
+    @Description("Reading of a single source key range and its conversion")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class LoadTaskEvent extends Event {
+        @Label("Table")
+        private String table;
+        @Label("Task")
+        private String task;
+        @Label("Rows")
+        private long rows;
+        @Label("Status")
+        private String status;
+    }
+
+    @Name("tech.ydb.importer.MetadataQuery")
+    @Label("Metadata Query")
+    @Description("Retrieval of the source table metadata and read plan")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class MetadataQueryEvent extends Event {
+        @Label("Table")
+        private String table;
+        @Label("Columns")
+        private int columns;
+        @Label("Status")
+        private String status;
+    }
+
+    @Name("tech.ydb.importer.BulkUpsert")
+    @Label("Bulk Upsert")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class BulkUpsertEvent extends Event {
+        @Label("Table Path")
+        private String tablePath;
+        @Label("Rows")
+        private int rows;
+        @Label("Status")
+        private String status;
+    }
+
+    @Name("tech.ydb.importer.BatchBuilt")
+    @Label("Batch Built")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class BatchBuiltEvent extends Event {
+        @Label("Table")
+        private String table;
+        @Label("Partition")
+        private int partition;
+        @Label("Rows")
+        private int rows;
+        @Label("Estimated Size")
+        @DataAmount
+        private long bytes;
+    }
+
+    @Name("tech.ydb.importer.QueueWait")
+    @Label("Writer Queue Wait")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class QueueWaitEvent extends Event {
+        @Label("Table")
+        private String table;
+        @Label("Wait")
+        @Timespan(Timespan.NANOSECONDS)
+        private long wait;
+    }
+
+    @Name("tech.ydb.importer.UploadRetry")
+    @Label("Upload Retry")
+    @Description("Batch parked for a retry after a transient upload error")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class UploadRetryEvent extends Event {
+        @Label("Table")
+        private String table;
+        @Label("Attempt")
+        private int attempt;
+        @Label("Delay")
+        @Timespan(Timespan.MILLISECONDS)
+        private long delay;
+        @Label("Status")
+        private String status;
+    }
+
+    @Name("tech.ydb.importer.LobChunks")
+    @Label("LOB Chunks Uploaded")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class LobChunksEvent extends Event {
+        @Label("Table Path")
+        private String tablePath;
+        @Label("Fragments")
+        private int fragments;
+        @Label("Size")
+        private long size;
+    }
+}
@@ -0,0 +1,172 @@
+package tech.ydb.importer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LoadSchedulerTest {
+
+    private static List<Callable<Boolean>> tasks(List<String> log, String name, int count) {
+        final List<Callable<Boolean>> retval = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            retval.add(() -> {
+                synchronized (log) {
+                    log.add(name);
+                }
+                return true;
+            });
+        }
+        return retval;
+    }
+
+    @Test
+    public void equalWeightsRoundRobin() throws Exception {
+        final ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            final List<String> log = new ArrayList<>();
+            final LoadScheduler ls = new LoadScheduler(es, 1);
+            ls.add(0, 1, tasks(log, "a", 3));
+            ls.add(0, 1, tasks(log, "b", 3));
+            ls.start();
+            ls.close();
+            ls.await();
+            Assertions.assertEquals(Arrays.asList("a", "b", "a", "b", "a", "b"), log);
+            Assertions.assertEquals(6, ls.getTotal());
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    @Test
+    public void weightedShares() throws Exception {
+        final ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            final List<String> log = new ArrayList<>();
+            final LoadScheduler ls = new LoadScheduler(es, 1);
+            ls.add(0, 2, tasks(log, "a", 4));
+            ls.add(0, 1, tasks(log, "b", 2));
+            ls.start();
+            ls.close();
+            ls.await();
+            // the heavier flow gets two tasks for each task of the other one
+            Assertions.assertEquals(Arrays.asList("a", "b", "a", "a", "b", "a"), log);
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    @Test
+    public void lateFlowStartsAtCurrentTime() throws Exception {
+        final ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            final List<String> log = new ArrayList<>();
+            final LoadScheduler ls = new LoadScheduler(es, 1);
+            ls.add(0, 1, tasks(log, "a", 4));
+            ls.start();
+            ls.add(0, 1, tasks(log, "b", 2));
+            ls.close();
+            ls.await();
+            // the late flow does not get the readers for the time it missed,
+            // so the flows alternate from its arrival on
+            int firstB = log.indexOf("b");
+            Assertions.assertTrue(firstB >= 1 && firstB <= 2, log.toString());
+            for (int i = 1; i < log.size(); ++i) {
+                Assertions.assertFalse("b".equals(log.get(i)) && "b".equals(log.get(i - 1)), log.toString());
+            }
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrencyCap() throws Exception {
+        final ExecutorService es = Executors.newFixedThreadPool(4);
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger peak = new AtomicInteger();
+            final List<Callable<Boolean>> capped = new ArrayList<>();
+            for (int i = 0; i < 6; ++i) {
+                capped.add(() -> {
+                    int now = running.incrementAndGet();
+                    peak.accumulateAndGet(now, Math::max);
+                    Thread.sleep(20L);
+                    running.decrementAndGet();
+                    return true;
+                });
+            }
+            final AtomicInteger others = new AtomicInteger();
+            final List<Callable<Boolean>> free = new ArrayList<>();
+            for (int i = 0; i < 6; ++i) {
+                free.add(() -> {
+                    others.incrementAndGet();
+                    Thread.sleep(5L);
+                    return true;
+                });
+            }
+            final LoadScheduler ls = new LoadScheduler(es, 4);
+            ls.add(2, 1, capped);
+            ls.add(0, 1, free);
+            ls.start();
+            ls.close();
+            ls.await();
+            Assertions.assertEquals(2, peak.get());
+            Assertions.assertEquals(6, others.get());
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    @Test
+    public void completionAction() throws Exception {
+        final ExecutorService es = Executors.newFixedThreadPool(2);
+        try {
+            final List<String> log = new ArrayList<>();
+            final LoadScheduler ls = new LoadScheduler(es, 2);
+            ls.add(0, 1, tasks(log, "a", 3), () -> {
+                synchronized (log) {
+                    log.add("done");
+                }
+            });
+            final AtomicInteger empty = new AtomicInteger();
+            ls.add(0, 1, Collections.emptyList(), empty::incrementAndGet);
+            Assertions.assertEquals(1, empty.get());
+            ls.start();
+            ls.close();
+            ls.await();
+            Assertions.assertEquals(4, log.size());
+            Assertions.assertEquals("done", log.get(3));
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    @Test
+    public void failureIsReported() throws Exception {
+        final ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            final List<String> log = new ArrayList<>();
+            final List<Callable<Boolean>> failing = new ArrayList<>();
+            failing.add(() -> {
+                throw new IllegalStateException("read failed");
+            });
+            failing.addAll(tasks(log, "a", 2));
+            final LoadScheduler ls = new LoadScheduler(es, 1);
+            ls.add(0, 1, failing);
+            ls.start();
+            ls.close();
+            IllegalStateException ex = Assertions.assertThrows(IllegalStateException.class, ls::await);
+            Assertions.assertEquals("read failed", ex.getMessage());
+            // no more tasks get dispatched after a failure
+            Assertions.assertTrue(log.isEmpty());
+        } finally {
+            es.shutdown();
+        }
+    }
+}
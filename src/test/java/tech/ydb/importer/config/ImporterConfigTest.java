@@ -1,6 +1,9 @@
 package tech.ydb.importer.config;
 
 import java.io.File;
+import java.io.StringReader;
+import org.jdom2.Element;
+import org.jdom2.input.SAXBuilder;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import static tech.ydb.importer.config.JdomHelper.*;
@@ -11,6 +14,29 @@ import static tech.ydb.importer.config.JdomHelper.*;
  */
 public class ImporterConfigTest {
 
+    private static Element parse(String xml) throws Exception {
+        return new SAXBuilder().build(new StringReader(xml)).detachRootElement();
+    }
+
+    private static WorkerConfig workers(String extra) throws Exception {
+        return new WorkerConfig(parse("<workers><reader-pool size='2'/>" + extra + "</workers>"));
+    }
+
+    private static TableOptions options(String extra) throws Exception {
+        return new TableOptions(parse("<table-options name='opts1'>"
+                + "<table-name-format>${schema}/${table}</table-name-format>" + extra + "</table-options>"));
+    }
+
+    private static TargetConfig target(String extra) throws Exception {
+        return new TargetConfig(parse("<target type='ydb'>" + extra + "</target>"));
+    }
+
+    private static SourceConfig source(String extra) throws Exception {
+        return new SourceConfig(parse("<source type='postgresql'><jdbc-class>org.postgresql.Driver</jdbc-class>"
+                + "<jdbc-url>jdbc:postgresql://host1/db1</jdbc-url><username>user1</username>"
+                + "<password>passw0rd</password>" + extra + "</source>"));
+    }
+
     @Test
     public void checkLoad() throws Exception {
         final ImporterConfig ic = new ImporterConfig(
@@ -28,4 +54,206 @@ public class ImporterConfigTest {
         Assertions.assertFalse(isBlank(ic.getTarget().getScript().getFileName()), "empty target script filename");
     }
 
+    @Test
+    public void pipelineSettings() throws Exception {
+        WorkerConfig wc = workers("");
+        Assertions.assertFalse(wc.isPipelined());
+        Assertions.assertEquals(0, wc.getConvertThreads());
+
+        wc = workers("<pipeline/>");
+        Assertions.assertTrue(wc.isPipelined());
+        Assertions.assertEquals(1, wc.getConvertThreads());
+        Assertions.assertEquals(4, wc.getRingSlots());
+        Assertions.assertEquals(1000, wc.getChunkRows());
+
+        wc = workers("<pipeline threads='3' slots='8' chunk-rows='500'/>");
+        Assertions.assertEquals(3, wc.getConvertThreads());
+        Assertions.assertEquals(8, wc.getRingSlots());
+        Assertions.assertEquals(500, wc.getChunkRows());
+
+        Assertions.assertThrows(RuntimeException.class, () -> workers("<pipeline chunk-rows='0'/>"));
+    }
+
+    @Test
+    public void schedulingOptions() throws Exception {
+        TableOptions opts = options("");
+        Assertions.assertNull(opts.getWeight());
+        Assertions.assertNull(opts.getMaxReadTasks());
+        Assertions.assertNull(opts.getMaxUploadBatches());
+
+        opts = options("<weight>3</weight><max-read-tasks>2</max-read-tasks>"
+                + "<max-upload-batches>5</max-upload-batches>");
+        Assertions.assertEquals(Integer.valueOf(3), opts.getWeight());
+        Assertions.assertEquals(Integer.valueOf(2), opts.getMaxReadTasks());
+        Assertions.assertEquals(Integer.valueOf(5), opts.getMaxUploadBatches());
+
+        Assertions.assertThrows(RuntimeException.class, () -> options("<weight>0</weight>"));
+        Assertions.assertThrows(RuntimeException.class, () -> options("<max-upload-batches>x</max-upload-batches>"));
+    }
+
+    @Test
+    public void deadLetterSettings() throws Exception {
+        TargetConfig tc = target("");
+        Assertions.assertNull(tc.getDeadLetterFile());
+
+        tc = target("<dead-letter file='rejected.jsonl'/>");
+        Assertions.assertEquals("rejected.jsonl", tc.getDeadLetterFile());
+        Assertions.assertEquals(1000L, tc.getDeadLetterMaxRows());
+
+        tc = target("<dead-letter file='rejected.jsonl' max-rows='0'/>");
+        Assertions.assertEquals(0L, tc.getDeadLetterMaxRows());
+
+        Assertions.assertThrows(RuntimeException.class, () -> target("<dead-letter max-rows='10'/>"));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> target("<dead-letter file='rejected.jsonl' max-rows='-1'/>"));
+    }
+
+    @Test
+    public void uploadRetrySettings() throws Exception {
+        TargetConfig tc = target("");
+        Assertions.assertEquals(10, tc.getUploadRetryAttempts());
+        Assertions.assertEquals(500L, tc.getUploadRetryBackoffMs());
+        Assertions.assertEquals(30000L, tc.getUploadRetryMaxBackoffMs());
+        Assertions.assertEquals(600000L, tc.getUploadRetryDeadlineMs());
+
+        tc = target("<upload-retry attempts='3' backoff-ms='100' max-backoff-ms='1000' deadline-ms='0'/>");
+        Assertions.assertEquals(3, tc.getUploadRetryAttempts());
+        Assertions.assertEquals(100L, tc.getUploadRetryBackoffMs());
+        Assertions.assertEquals(1000L, tc.getUploadRetryMaxBackoffMs());
+        Assertions.assertEquals(0L, tc.getUploadRetryDeadlineMs());
+
+        Assertions.assertThrows(RuntimeException.class, () -> target("<upload-retry attempts='0'/>"));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> target("<upload-retry backoff-ms='1000' max-backoff-ms='100'/>"));
+    }
+
+    @Test
+    public void metricsSettings() throws Exception {
+        WorkerConfig wc = workers("");
+        Assertions.assertEquals(0, wc.getMetricsPort());
+        Assertions.assertNull(wc.getMetricsHost());
+
+        wc = workers("<metrics port='9464'/>");
+        Assertions.assertEquals(9464, wc.getMetricsPort());
+        Assertions.assertNull(wc.getMetricsHost());
+
+        wc = workers("<metrics port='9464' host='127.0.0.1'/>");
+        Assertions.assertEquals("127.0.0.1", wc.getMetricsHost());
+
+        Assertions.assertThrows(RuntimeException.class, () -> workers("<metrics/>"));
+        Assertions.assertThrows(RuntimeException.class, () -> workers("<metrics port='70000'/>"));
+    }
+
+    @Test
+    public void generatorSettings() throws Exception {
+        TargetConfig tc = target("");
+        Assertions.assertFalse(tc.isGenerateData());
+        Assertions.assertFalse(tc.isDiscard());
+
+        tc = target("<generate-data/>");
+        Assertions.assertTrue(tc.isGenerateData());
+        Assertions.assertEquals(1000000L, tc.getGenerateRows());
+        Assertions.assertEquals(0L, tc.getGenerateRate());
+
+        tc = target("<generate-data rows='5000' rate='100'/>");
+        Assertions.assertEquals(5000L, tc.getGenerateRows());
+        Assertions.assertEquals(100L, tc.getGenerateRate());
+
+        Assertions.assertThrows(RuntimeException.class, () -> target("<generate-data rows='0'/>"));
+        Assertions.assertThrows(RuntimeException.class, () -> target("<generate-data rate='-1'/>"));
+    }
+
+    @Test
+    public void discardTarget() throws Exception {
+        Assertions.assertTrue(new TargetConfig(parse("<target type='discard'/>")).isDiscard());
+    }
+
+    @Test
+    public void prefetchSetting() throws Exception {
+        Assertions.assertFalse(source("").isPrefetchQueries());
+        Assertions.assertTrue(source("<prefetch-queries>true</prefetch-queries>").isPrefetchQueries());
+        Assertions.assertFalse(source("<prefetch-queries>false</prefetch-queries>").isPrefetchQueries());
+    }
+
+    @Test
+    public void bulkMetadataSetting() throws Exception {
+        Assertions.assertFalse(source("").isBulkMetadata());
+        Assertions.assertTrue(source("<bulk-metadata>true</bulk-metadata>").isBulkMetadata());
+    }
+
+    @Test
+    public void metadataCacheSettings() throws Exception {
+        SourceConfig sc = source("");
+        Assertions.assertNull(sc.getMetadataCacheFile());
+
+        sc = source("<metadata-cache file='cache.xml'/>");
+        Assertions.assertEquals("cache.xml", sc.getMetadataCacheFile());
+        Assertions.assertFalse(sc.isMetadataCacheTrusted());
+
+        sc = source("<metadata-cache file='cache.xml' trust='true'/>");
+        Assertions.assertTrue(sc.isMetadataCacheTrusted());
+
+        Assertions.assertThrows(RuntimeException.class, () -> source("<metadata-cache trust='true'/>"));
+    }
+
+    @Test
+    public void smallTablesSettings() throws Exception {
+        WorkerConfig wc = workers("");
+        Assertions.assertFalse(wc.isBundleSmallTables());
+
+        wc = workers("<small-tables max-rows='10000'/>");
+        Assertions.assertTrue(wc.isBundleSmallTables());
+        Assertions.assertEquals(10000L, wc.getSmallTableRows());
+        Assertions.assertEquals(50, wc.getSmallTablesPerTask());
+
+        wc = workers("<small-tables max-rows='10000' per-task='20'/>");
+        Assertions.assertEquals(20, wc.getSmallTablesPerTask());
+
+        Assertions.assertThrows(RuntimeException.class, () -> workers("<small-tables max-rows='-1'/>"));
+    }
+
+    @Test
+    public void deferredIndexesOption() throws Exception {
+        Assertions.assertNull(options("").getDeferredIndexes());
+        Assertions.assertEquals(Boolean.TRUE,
+                options("<deferred-indexes>true</deferred-indexes>").getDeferredIndexes());
+        Assertions.assertEquals(Boolean.FALSE,
+                options("<deferred-indexes>false</deferred-indexes>").getDeferredIndexes());
+    }
+
+    @Test
+    public void bulkLoadProfileOption() throws Exception {
+        Assertions.assertNull(options("").getBulkLoadProfile());
+        Assertions.assertEquals(Boolean.TRUE,
+                options("<bulk-load-profile>true</bulk-load-profile>").getBulkLoadProfile());
+    }
+
+    @Test
+    public void partitionBufferSettings() throws Exception {
+        Assertions.assertEquals(0L, workers("").getPartitionBufferBytes());
+        Assertions.assertEquals(64L * 1024L * 1024L,
+                workers("<partition-buffers memory-mb='64'/>").getPartitionBufferBytes());
+        Assertions.assertThrows(RuntimeException.class, () -> workers("<partition-buffers memory-mb='0'/>"));
+
+        Assertions.assertNull(options("").getPartitionBuffers());
+        Assertions.assertEquals(Boolean.TRUE,
+                options("<use-partition-buffers>true</use-partition-buffers>").getPartitionBuffers());
+    }
+
+    @Test
+    public void reportSetting() throws Exception {
+        Assertions.assertNull(workers("").getReportFile());
+        Assertions.assertEquals("report.json", workers("<report file='report.json'/>").getReportFile());
+        Assertions.assertThrows(RuntimeException.class, () -> workers("<report/>"));
+    }
+
+    @Test
+    public void metadataPoolSize() throws Exception {
+        Assertions.assertEquals(2, new WorkerConfig(parse("<workers><reader-pool size='8'/></workers>"))
+                .getMetadataPoolSize());
+        Assertions.assertEquals(1, new WorkerConfig(parse("<workers><reader-pool size='1'/></workers>"))
+                .getMetadataPoolSize());
+        Assertions.assertEquals(6, workers("<metadata-pool size='6'/>").getMetadataPoolSize());
+    }
+
 }
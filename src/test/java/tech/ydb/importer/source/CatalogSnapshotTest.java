@@ -0,0 +1,131 @@
+package tech.ydb.importer.source;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CatalogSnapshotTest {
+
+    private static CatalogSnapshot snapshot(String table, String... columns) {
+        final CatalogSnapshot cs = new CatalogSnapshot();
+        for (String column : columns) {
+            cs.addColumn(table, column, null, null);
+        }
+        return cs;
+    }
+
+    @Test
+    public void columnsInOrder() {
+        final CatalogSnapshot cs = new CatalogSnapshot();
+        cs.addColumn("t1", "b", "varchar", null);
+        cs.addColumn("t1", "a", null, 6);
+        cs.addColumn("t2", "c", null, null);
+        Assertions.assertEquals(2, cs.size());
+        Assertions.assertNull(cs.get("t3"));
+        final CatalogSnapshot.Entry e = cs.get("t1");
+        Assertions.assertEquals(Arrays.asList("b", "a"), e.getColumns());
+        Assertions.assertEquals(Collections.singletonMap("b", "varchar"), e.getNativeTypes());
+        Assertions.assertEquals(Collections.singletonMap("a", 6), e.getDatetimePrecisions());
+        Assertions.assertEquals(-1L, e.getRowCount());
+        cs.setRowCount("t1", 1000L);
+        cs.setRowCount("t3", 5L);
+        Assertions.assertEquals(1000L, e.getRowCount());
+        Assertions.assertEquals(-1L, cs.get("t2").getRowCount());
+    }
+
+    @Test
+    public void smallestUniqueIndexIsTheKey() {
+        final CatalogSnapshot cs = snapshot("t1", "a", "b", "c");
+        cs.addUniqueColumn("t1", "ix_wide", "a");
+        cs.addUniqueColumn("t1", "ix_wide", "b");
+        cs.addUniqueColumn("t1", "ix_wide", "c");
+        cs.addUniqueColumn("t1", "ix_pair", "c");
+        cs.addUniqueColumn("t1", "ix_pair", "b");
+        cs.resolveKeys();
+        Assertions.assertEquals(Arrays.asList("c", "b"), cs.get("t1").getKey());
+    }
+
+    @Test
+    public void equalIndexesResolvedByName() {
+        final CatalogSnapshot cs = snapshot("t1", "a", "b");
+        cs.addUniqueColumn("t1", "ix_z", "a");
+        cs.addUniqueColumn("t1", "ix_a", "b");
+        cs.resolveKeys();
+        Assertions.assertEquals(Collections.singletonList("b"), cs.get("t1").getKey());
+    }
+
+    @Test
+    public void primaryKeyWins() {
+        final CatalogSnapshot cs = snapshot("t1", "a", "b", "c");
+        cs.addKeyColumn("t1", "a");
+        cs.addKeyColumn("t1", "b");
+        cs.addUniqueColumn("t1", "ix_c", "c");
+        cs.addKeyColumn("t2", "x");
+        cs.addUniqueColumn("t2", "ix_x", "x");
+        cs.resolveKeys();
+        Assertions.assertEquals(Arrays.asList("a", "b"), cs.get("t1").getKey());
+        Assertions.assertNull(cs.get("t2"));
+    }
+
+    @Test
+    public void applyTypes() {
+        final CatalogSnapshot cs = snapshot("t1", "id", "name");
+        cs.setColumnType("t1", "id",
+                new CatalogSnapshot.ColumnType(java.sql.Types.BIGINT, 19, 0, false, false));
+        final TableMetadata tm = new TableMetadata();
+        tm.addColumn(new ColumnInfo("id"));
+        tm.addColumn(new ColumnInfo("name"));
+        // a column without the type requires the probe query
+        Assertions.assertFalse(cs.get("t1").applyTypes(tm));
+        Assertions.assertNotEquals(java.sql.Types.BIGINT, tm.getColumn("id").getSqlType());
+
+        cs.setColumnType("t1", "name",
+                new CatalogSnapshot.ColumnType(java.sql.Types.VARCHAR, 100, 0, true, false));
+        Assertions.assertTrue(cs.get("t1").applyTypes(tm));
+        final ColumnInfo id = tm.getColumn("id");
+        Assertions.assertEquals(java.sql.Types.BIGINT, id.getSqlType());
+        Assertions.assertEquals(19, id.getSqlPrecision());
+        Assertions.assertFalse(id.isNullable());
+        final ColumnInfo name = tm.getColumn("name");
+        Assertions.assertEquals(java.sql.Types.VARCHAR, name.getSqlType());
+        Assertions.assertEquals(100, name.getSqlPrecision());
+        Assertions.assertTrue(name.isNullable());
+
+        Assertions.assertFalse(cs.get("t1").applyTypes(new TableMetadata()));
+    }
+
+    @Test
+    public void mysqlCatalogTypes() {
+        CatalogSnapshot.ColumnType ct = MySqlTableLister.catalogType("decimal", "decimal(12,3)",
+                12L, 3, 0L, true);
+        Assertions.assertEquals(java.sql.Types.DECIMAL, ct.getSqlType());
+        Assertions.assertEquals(12, ct.getPrecision());
+        Assertions.assertEquals(3, ct.getScale());
+        ct = MySqlTableLister.catalogType("VARCHAR", "varchar(40)", 0L, 0, 40L, false);
+        Assertions.assertEquals(java.sql.Types.VARCHAR, ct.getSqlType());
+        Assertions.assertEquals(40, ct.getPrecision());
+        Assertions.assertFalse(ct.isNullable());
+        // these depend on the driver settings, so the probe query decides
+        Assertions.assertNull(MySqlTableLister.catalogType("int", "int(10) unsigned", 10L, 0, 0L, true));
+        Assertions.assertNull(MySqlTableLister.catalogType("tinyint", "tinyint(1)", 3L, 0, 0L, true));
+        Assertions.assertNull(MySqlTableLister.catalogType("json", "json", 0L, 0, 0L, true));
+    }
+
+    @Test
+    public void postgresCatalogTypes() {
+        CatalogSnapshot.ColumnType ct = PostgresTableLister.catalogType("numeric", ((10 << 16) | 2) + 4, true);
+        Assertions.assertEquals(java.sql.Types.NUMERIC, ct.getSqlType());
+        Assertions.assertEquals(10, ct.getPrecision());
+        Assertions.assertEquals(2, ct.getScale());
+        ct = PostgresTableLister.catalogType("varchar", 24, false);
+        Assertions.assertEquals(java.sql.Types.VARCHAR, ct.getSqlType());
+        Assertions.assertEquals(20, ct.getPrecision());
+        ct = PostgresTableLister.catalogType("timestamp", -1, true);
+        Assertions.assertEquals(java.sql.Types.TIMESTAMP, ct.getSqlType());
+        Assertions.assertEquals(6, ct.getScale());
+        // unconstrained numeric has no fixed precision
+        Assertions.assertNull(PostgresTableLister.catalogType("numeric", -1, true));
+        Assertions.assertNull(PostgresTableLister.catalogType("jsonb", -1, true));
+    }
+}
@@ -0,0 +1,196 @@
+package tech.ydb.importer.source;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetadataCacheTest {
+
+    private static final String URL = "jdbc:postgresql://host1/db1";
+    private static final SourceTableName TAB = new SourceTableName("public", "orders");
+
+    private static TableMetadata sample() {
+        final TableMetadata tm = new TableMetadata();
+        tm.setRowCount(12345L);
+        tm.setReadPlan("ctid-ranges");
+        tm.addColumn("id", java.sql.Types.BIGINT, 19, 0);
+        tm.addColumn("amount", java.sql.Types.NUMERIC, 12, 2);
+        tm.addColumn("payload", java.sql.Types.BLOB, 0, 0);
+        tm.getColumn("id").setNullable(false);
+        tm.getColumn("id").setUnsigned(true);
+        tm.getColumn("payload").setBlobAsObject(true);
+        tm.addKey("id");
+        tm.addIndex(new IndexInfo("ix_amount", Arrays.asList("amount", "id"), true));
+        tm.setYdbPartitioning(YdbPartitioning.keyRange(Arrays.asList("1000", "2000"), "sample", true));
+        tm.setTasks(Arrays.asList(
+                new TaskInfo("part1", Arrays.asList(
+                        new TaskQuery("q1", "SELECT * FROM orders WHERE id < 1000"),
+                        new TaskQuery("q2", "SELECT * FROM orders WHERE id >= 1000"))),
+                new TaskInfo("part2", "SELECT * FROM orders_archive")));
+        return tm;
+    }
+
+    private static Path cacheFile() throws Exception {
+        final Path dir = Files.createTempDirectory("metadata-cache");
+        dir.toFile().deleteOnExit();
+        final Path path = dir.resolve("cache.xml");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    private static MetadataCache reload(Path path, String signature, boolean trusted) {
+        final MetadataCache cache = new MetadataCache(path.toFile(), URL, signature, trusted);
+        cache.load();
+        return cache;
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final Path path = cacheFile();
+        final MetadataCache cache = reload(path, "sig1", false);
+        Assertions.assertNull(cache.get(TAB, "fp1"));
+        cache.put(TAB, "fp1", sample());
+        cache.save();
+        Assertions.assertTrue(Files.isRegularFile(path));
+
+        final TableMetadata tm = reload(path, "sig1", false).get(TAB, "fp1");
+        Assertions.assertNotNull(tm);
+        Assertions.assertEquals(12345L, tm.getRowCount());
+        Assertions.assertEquals("ctid-ranges", tm.getReadPlan());
+        Assertions.assertEquals(3, tm.getColumns().size());
+        final ColumnInfo id = tm.getColumn("id");
+        Assertions.assertEquals(java.sql.Types.BIGINT, id.getSqlType());
+        Assertions.assertEquals(19, id.getSqlPrecision());
+        Assertions.assertFalse(id.isNullable());
+        Assertions.assertTrue(id.isUnsigned());
+        final ColumnInfo amount = tm.getColumn("amount");
+        Assertions.assertEquals(java.sql.Types.NUMERIC, amount.getSqlType());
+        Assertions.assertEquals(12, amount.getSqlPrecision());
+        Assertions.assertEquals(2, amount.getSqlScale());
+        Assertions.assertTrue(amount.isNullable());
+        Assertions.assertTrue(tm.getColumn("payload").isBlobAsObject());
+        Assertions.assertEquals(1, tm.getKey().size());
+        Assertions.assertSame(id, tm.getKey().get(0));
+
+        Assertions.assertEquals(1, tm.getIndexes().size());
+        final IndexInfo ii = tm.getIndexes().get(0);
+        Assertions.assertEquals("ix_amount", ii.getName());
+        Assertions.assertEquals(Arrays.asList("amount", "id"), ii.getColumns());
+        Assertions.assertTrue(ii.isUnique());
+
+        final YdbPartitioning yp = tm.getYdbPartitioning();
+        Assertions.assertTrue(yp.isKeyRange());
+        Assertions.assertEquals(Arrays.asList("1000", "2000"), yp.getCuts());
+        Assertions.assertEquals("sample", yp.getStrategy());
+        Assertions.assertTrue(yp.isOnePartitionPerTask());
+
+        Assertions.assertEquals(2, tm.getTasks().size());
+        final TaskInfo part1 = tm.getTasks().get(0);
+        Assertions.assertEquals("part1", part1.getName());
+        Assertions.assertEquals(2, part1.getQueries().size());
+        Assertions.assertEquals("q2", part1.getQueries().get(1).getName());
+        Assertions.assertEquals("SELECT * FROM orders WHERE id >= 1000", part1.getQueries().get(1).getSql());
+        Assertions.assertEquals("SELECT * FROM orders_archive",
+                tm.getTasks().get(1).getQueries().get(0).getSql());
+    }
+
+    @Test
+    public void hashPartitioning() throws Exception {
+        final Path path = cacheFile();
+        final TableMetadata source = sample();
+        source.setYdbPartitioning(YdbPartitioning.hash(16, "id"));
+        final MetadataCache cache = reload(path, "sig1", false);
+        cache.put(TAB, "fp1", source);
+        cache.save();
+
+        final YdbPartitioning yp = reload(path, "sig1", false).get(TAB, "fp1").getYdbPartitioning();
+        Assertions.assertTrue(yp.isHash());
+        Assertions.assertEquals(16, yp.getHashPartitions());
+        Assertions.assertEquals("id", yp.getHashColumn());
+    }
+
+    @Test
+    public void changedFingerprintInvalidates() throws Exception {
+        final Path path = cacheFile();
+        final MetadataCache cache = reload(path, "sig1", false);
+        cache.put(TAB, "fp1", sample());
+        cache.save();
+
+        final MetadataCache checked = reload(path, "sig1", false);
+        Assertions.assertNull(checked.get(TAB, "fp2"));
+        Assertions.assertNull(checked.get(TAB, null));
+        // the trusted cache skips the fingerprint checks
+        Assertions.assertNotNull(reload(path, "sig1", true).get(TAB, null));
+        // the refreshed entry replaces the outdated one
+        final TableMetadata changed = sample();
+        changed.setRowCount(1L);
+        checked.put(TAB, "fp2", changed);
+        checked.save();
+        final MetadataCache updated = reload(path, "sig1", false);
+        Assertions.assertNull(updated.get(TAB, "fp1"));
+        Assertions.assertEquals(1L, updated.get(TAB, "fp2").getRowCount());
+    }
+
+    @Test
+    public void changedSignatureInvalidates() throws Exception {
+        final Path path = cacheFile();
+        final MetadataCache cache = reload(path, "sig1", false);
+        cache.put(TAB, "fp1", sample());
+        cache.save();
+
+        Assertions.assertNull(reload(path, "sig2", false).get(TAB, "fp1"));
+        Assertions.assertNull(reload(path, "sig2", true).get(TAB, "fp1"));
+    }
+
+    @Test
+    public void entriesKeyedBySourceAndTable() throws Exception {
+        final Path path = cacheFile();
+        final MetadataCache cache = reload(path, "sig1", false);
+        cache.put(TAB, "fp1", sample());
+        cache.save();
+
+        final MetadataCache other = new MetadataCache(path.toFile(), "jdbc:postgresql://host2/db1", "sig1", false);
+        other.load();
+        Assertions.assertNull(other.get(TAB, "fp1"));
+        final MetadataCache same = reload(path, "sig1", false);
+        Assertions.assertNull(same.get(new SourceTableName("public", "customers"), "fp1"));
+        Assertions.assertNull(same.get(new SourceTableName("archive", "orders"), "fp1"));
+    }
+
+    @Test
+    public void entryWithoutTasksIsIgnored() throws Exception {
+        final Path path = cacheFile();
+        final TableMetadata tm = sample();
+        tm.setTasks(Collections.emptyList());
+        final MetadataCache cache = reload(path, "sig1", false);
+        cache.put(TAB, "fp1", tm);
+        cache.save();
+        Assertions.assertNull(reload(path, "sig1", false).get(TAB, "fp1"));
+    }
+
+    @Test
+    public void unreadableFileStartsEmpty() throws Exception {
+        final Path path = cacheFile();
+        Files.write(path, "<metadata-cache><table".getBytes(StandardCharsets.UTF_8));
+        final MetadataCache cache = reload(path, "sig1", true);
+        Assertions.assertNull(cache.get(TAB, null));
+        cache.put(TAB, "fp1", sample());
+        cache.save();
+        Assertions.assertNotNull(reload(path, "sig1", true).get(TAB, null));
+    }
+
+    @Test
+    public void unchangedCacheIsNotWritten() throws Exception {
+        final File file = cacheFile().toFile();
+        final MetadataCache cache = new MetadataCache(file, URL, "sig1", false);
+        cache.load();
+        cache.get(TAB, "fp1");
+        cache.save();
+        Assertions.assertFalse(file.exists());
+    }
+}
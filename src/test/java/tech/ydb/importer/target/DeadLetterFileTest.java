@@ -0,0 +1,79 @@
+package tech.ydb.importer.target;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tech.ydb.core.Status;
+import tech.ydb.core.StatusCode;
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.config.TableOptions;
+import tech.ydb.importer.source.TableMetadata;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.StructValue;
+
+public class DeadLetterFileTest {
+
+    private static String quote(String s) {
+        final StringBuilder sb = new StringBuilder();
+        DeadLetterFile.appendString(sb, s);
+        return sb.toString();
+    }
+
+    @Test
+    public void plainString() {
+        Assertions.assertEquals("\"abc\"", quote("abc"));
+        Assertions.assertEquals("\"\"", quote(""));
+    }
+
+    @Test
+    public void escapes() {
+        Assertions.assertEquals("\"a\\\"b\"", quote("a\"b"));
+        Assertions.assertEquals("\"a\\\\b\"", quote("a\\b"));
+        Assertions.assertEquals("\"a\\nb\\rc\\td\"", quote("a\nb\rc\td"));
+    }
+
+    @Test
+    public void controlCharacters() {
+        Assertions.assertEquals("\"\\u0000\\u001f\\u0008\"", quote("\u0000\u001f\b"));
+    }
+
+    @Test
+    public void nonAsciiKeptAsIs() {
+        Assertions.assertEquals("\"строка €\"", quote("строка €"));
+    }
+
+    @Test
+    public void rejectedRows() throws Exception {
+        final TableMetadata tm = new TableMetadata();
+        tm.addColumn("id", java.sql.Types.INTEGER, 10, 0);
+        tm.addColumn("name", java.sql.Types.VARCHAR, 50, 0);
+        tm.addKey("id");
+        final TableDecision td = new TableDecision("schema1", "table1", new TableOptions("nf1", "${table}"));
+        td.setMetadata(tm);
+
+        final Path path = Files.createTempFile("dead-letter", ".jsonl");
+        try {
+            try (DeadLetterFile dlf = new DeadLetterFile(path.toString(), 1L)) {
+                final StructValue row = StructValue.of(
+                        "id", PrimitiveValue.newInt32(7),
+                        "name", PrimitiveValue.newText("quote \" and\nnewline"));
+                Assertions.assertTrue(dlf.rejectRow(td, row, Status.of(StatusCode.BAD_REQUEST)));
+                // the second row exceeds the budget of the table
+                Assertions.assertFalse(dlf.rejectRow(td, row, Status.of(StatusCode.BAD_REQUEST)));
+                Assertions.assertEquals(2L, dlf.getRejected(td));
+            }
+            final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            Assertions.assertEquals(2, lines.size());
+            final String line = lines.get(0);
+            Assertions.assertTrue(line.startsWith("{\"table\":\"schema1.table1\",\"error\":"), line);
+            Assertions.assertTrue(line.contains(",\"key\":{\"id\":7},"), line);
+            Assertions.assertTrue(line.endsWith(
+                    "\"row\":{\"id\":7,\"name\":\"quote \\\" and\\nnewline\"}}"), line);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
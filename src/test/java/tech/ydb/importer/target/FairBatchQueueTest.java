@@ -0,0 +1,201 @@
+package tech.ydb.importer.target;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tech.ydb.importer.TableDecision;
+import tech.ydb.importer.config.TableOptions;
+
+public class FairBatchQueueTest {
+
+    private static TableDecision table(String name, int weight, int maxUploadBatches) {
+        final TableOptions opts = new TableOptions("opts-" + name, "${table}");
+        opts.setWeight(weight);
+        opts.setMaxUploadBatches(maxUploadBatches);
+        return new TableDecision("schema1", name, opts);
+    }
+
+    private static UploadBatch batch(TableDecision tab) {
+        return new UploadBatch(null, null, 1, null, tab);
+    }
+
+    private static Thread putAsync(FairBatchQueue queue, UploadBatch batch) {
+        final Thread t = new Thread(() -> {
+            try {
+                queue.put(batch);
+            } catch (InterruptedException ix) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    @Test
+    public void weightedOrder() throws Exception {
+        final TableDecision a = table("a", 2, 0);
+        final TableDecision b = table("b", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(100);
+        for (int i = 0; i < 4; ++i) {
+            queue.put(batch(a));
+        }
+        for (int i = 0; i < 2; ++i) {
+            queue.put(batch(b));
+        }
+        Assertions.assertEquals(6, queue.size());
+        final List<String> order = new ArrayList<>();
+        for (int i = 0; i < 6; ++i) {
+            order.add(queue.take().getTable().getTable());
+        }
+        // the table with the double weight gets two batches for each batch of the other one
+        Assertions.assertEquals(Arrays.asList("a", "b", "a", "a", "b", "a"), order);
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void fifoWithinTable() throws Exception {
+        final TableDecision a = table("a", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(10);
+        final UploadBatch first = batch(a);
+        final UploadBatch second = batch(a);
+        queue.put(first);
+        queue.put(second);
+        Assertions.assertSame(first, queue.take());
+        Assertions.assertSame(second, queue.take());
+    }
+
+    @Test
+    public void capacityBlocksReaders() throws Exception {
+        final TableDecision a = table("a", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(1);
+        queue.put(batch(a));
+        final Thread blocked = putAsync(queue, batch(a));
+        blocked.join(100L);
+        Assertions.assertTrue(blocked.isAlive(), "put must wait for a free place");
+        queue.take();
+        blocked.join(5000L);
+        Assertions.assertFalse(blocked.isAlive());
+        Assertions.assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void tableCapCountsUploadsInFlight() throws Exception {
+        final TableDecision a = table("a", 1, 1);
+        final FairBatchQueue queue = new FairBatchQueue(10);
+        queue.put(batch(a));
+        final Thread blocked = putAsync(queue, batch(a));
+        final UploadBatch taken = queue.take();
+        blocked.join(100L);
+        // taken by a writer, but still being uploaded
+        Assertions.assertTrue(blocked.isAlive(), "put must wait for the upload to complete");
+        queue.done(taken);
+        blocked.join(5000L);
+        Assertions.assertFalse(blocked.isAlive());
+    }
+
+    @Test
+    public void capDoesNotBlockOtherTables() throws Exception {
+        final TableDecision a = table("a", 1, 1);
+        final TableDecision b = table("b", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(10);
+        queue.put(batch(a));
+        queue.put(batch(b));
+        queue.put(batch(b));
+        Assertions.assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void whenDrained() throws Exception {
+        final TableDecision a = table("a", 1, 0);
+        final TableDecision b = table("b", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(10);
+        Assertions.assertTrue(queue.whenDrained(b).isDone());
+        queue.put(batch(a));
+        queue.put(batch(a));
+        final CompletableFuture<Void> drained = queue.whenDrained(a);
+        queue.done(queue.take());
+        Assertions.assertFalse(drained.isDone());
+        queue.done(queue.take());
+        Assertions.assertTrue(drained.isDone());
+    }
+
+    @Test
+    public void parkedBatchKeepsWritersRunning() throws Exception {
+        final TableDecision a = table("a", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(10);
+        final UploadBatch failed = batch(a);
+        queue.put(failed);
+        Assertions.assertSame(failed, queue.take());
+        queue.park(failed);
+        queue.close();
+
+        final AtomicReference<UploadBatch> retried = new AtomicReference<>();
+        final Thread writer = new Thread(() -> {
+            try {
+                retried.set(queue.take());
+            } catch (InterruptedException ix) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+        writer.join(100L);
+        Assertions.assertTrue(writer.isAlive(), "closed queue must wait for the parked batch");
+        queue.requeue(failed);
+        writer.join(5000L);
+        Assertions.assertSame(failed, retried.get());
+        queue.done(failed);
+        Assertions.assertNull(queue.take());
+    }
+
+    @Test
+    public void requeueGoesFirst() throws Exception {
+        final TableDecision a = table("a", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(10);
+        final UploadBatch failed = batch(a);
+        final UploadBatch next = batch(a);
+        queue.put(failed);
+        queue.put(next);
+        Assertions.assertSame(failed, queue.take());
+        queue.park(failed);
+        queue.requeue(failed);
+        Assertions.assertSame(failed, queue.take());
+        Assertions.assertSame(next, queue.take());
+    }
+
+    @Test
+    public void laneDrainedWhilePutWaits() throws Exception {
+        final TableDecision a = table("a", 1, 0);
+        final TableDecision b = table("b", 1, 0);
+        final FairBatchQueue queue = new FairBatchQueue(1);
+        queue.put(batch(a));
+        final UploadBatch first = queue.take();
+        queue.put(batch(b));
+        // waits for the global capacity, while the only batch of its table completes
+        final UploadBatch second = batch(a);
+        final Thread blocked = putAsync(queue, second);
+        blocked.join(100L);
+        Assertions.assertTrue(blocked.isAlive(), "put must wait for a free place");
+        queue.done(first);
+        Assertions.assertTrue(queue.whenDrained(a).isDone());
+        queue.done(queue.take());
+        blocked.join(5000L);
+        Assertions.assertFalse(blocked.isAlive());
+
+        final CompletableFuture<Void> drained = queue.whenDrained(a);
+        Assertions.assertFalse(drained.isDone(), "the queued batch must keep the table busy");
+        Assertions.assertSame(second, queue.take());
+        queue.park(second);
+        queue.requeue(second);
+        Assertions.assertSame(second, queue.take());
+        Assertions.assertFalse(drained.isDone());
+        queue.done(second);
+        Assertions.assertTrue(drained.isDone());
+    }
+
+}
@@ -0,0 +1,111 @@
+package tech.ydb.importer.target;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tech.ydb.importer.source.ColumnInfo;
+import tech.ydb.table.values.PrimitiveType;
+
+public class PartitionRouterTest {
+
+    private static ColumnInfo column(int sqlType, int scale) {
+        final ColumnInfo ci = new ColumnInfo("c1");
+        ci.setSqlType(sqlType);
+        ci.setSqlScale(scale);
+        return ci;
+    }
+
+    @Test
+    public void integerPartitions() {
+        final long[] cuts = {100L, 200L};
+        Assertions.assertEquals(0, PartitionRouter.partitionOf(Long.MIN_VALUE, cuts));
+        Assertions.assertEquals(0, PartitionRouter.partitionOf(99L, cuts));
+        // the boundary value belongs to the next partition
+        Assertions.assertEquals(1, PartitionRouter.partitionOf(100L, cuts));
+        Assertions.assertEquals(1, PartitionRouter.partitionOf(199L, cuts));
+        Assertions.assertEquals(2, PartitionRouter.partitionOf(200L, cuts));
+        Assertions.assertEquals(2, PartitionRouter.partitionOf(Long.MAX_VALUE, cuts));
+        Assertions.assertEquals(0, PartitionRouter.partitionOf(5L, new long[0]));
+    }
+
+    @Test
+    public void nullsFirst() {
+        final Object[] samples = {0L, 0L, BigDecimal.ZERO, 0.0, "", new byte[0], 0L, 0L};
+        final PartitionRouter.Kind[] kinds = PartitionRouter.Kind.values();
+        Assertions.assertEquals(samples.length, kinds.length);
+        for (int i = 0; i < kinds.length; ++i) {
+            Assertions.assertTrue(PartitionRouter.compareValues(kinds[i], null, samples[i]) < 0);
+            Assertions.assertTrue(PartitionRouter.compareValues(kinds[i], samples[i], null) > 0);
+            Assertions.assertEquals(0, PartitionRouter.compareValues(kinds[i], null, null));
+        }
+    }
+
+    @Test
+    public void unsignedOrder() {
+        final PartitionRouter.Kind u = PartitionRouter.Kind.UNSIGNED;
+        // Uint64 values above Long.MAX_VALUE are negative as a signed long
+        Assertions.assertTrue(PartitionRouter.compareValues(u, -1L, 1L) > 0);
+        Assertions.assertTrue(PartitionRouter.compareValues(u, Long.MIN_VALUE, Long.MAX_VALUE) > 0);
+        Assertions.assertTrue(PartitionRouter.compareValues(u, 0L, 1L) < 0);
+        Assertions.assertTrue(PartitionRouter.compareValues(PartitionRouter.Kind.INTEGER, -1L, 1L) < 0);
+    }
+
+    @Test
+    public void valueOrder() {
+        Assertions.assertEquals(0, PartitionRouter.compareValues(PartitionRouter.Kind.DECIMAL,
+                new BigDecimal("1.50"), new BigDecimal("1.5")));
+        Assertions.assertTrue(PartitionRouter.compareValues(PartitionRouter.Kind.DOUBLE, -0.5, 0.25) < 0);
+        Assertions.assertTrue(PartitionRouter.compareValues(PartitionRouter.Kind.TEXT, "a", "ab") < 0);
+        // code point order, not the UTF-16 order of String.compareTo
+        Assertions.assertTrue(PartitionRouter.compareValues(PartitionRouter.Kind.TEXT,
+                "\uFFFF", "\uD83D\uDE00") < 0);
+    }
+
+    @Test
+    public void unsignedBytes() {
+        Assertions.assertTrue(PartitionRouter.compareBytes(new byte[]{(byte) 0x80}, new byte[]{0x7F}) > 0);
+        Assertions.assertTrue(PartitionRouter.compareBytes(new byte[]{1}, new byte[]{1, 0}) < 0);
+        Assertions.assertEquals(0, PartitionRouter.compareBytes(new byte[]{1, 2}, new byte[]{1, 2}));
+        Assertions.assertTrue(PartitionRouter.compareValues(PartitionRouter.Kind.BYTES,
+                new byte[]{(byte) 0xFF}, new byte[]{0, 0}) > 0);
+    }
+
+    @Test
+    public void compositeKeys() {
+        final PartitionRouter.Kind[] kinds = {PartitionRouter.Kind.INTEGER, PartitionRouter.Kind.TEXT};
+        Assertions.assertTrue(PartitionRouter.compareToCut(kinds,
+                new Object[]{5L, "b"}, new Object[]{5L, "a"}) > 0);
+        Assertions.assertTrue(PartitionRouter.compareToCut(kinds,
+                new Object[]{4L, "z"}, new Object[]{5L, "a"}) < 0);
+        // the leading column decides when the boundary has no more elements
+        Assertions.assertEquals(0, PartitionRouter.compareToCut(kinds,
+                new Object[]{5L, "b"}, new Object[]{5L}));
+        // NULL key elements go before any boundary value
+        Assertions.assertTrue(PartitionRouter.compareToCut(kinds,
+                new Object[]{5L, null}, new Object[]{5L, "a"}) < 0);
+        Assertions.assertTrue(PartitionRouter.compareToCut(kinds,
+                new Object[]{null, "z"}, new Object[]{Long.MIN_VALUE, "a"}) < 0);
+        Assertions.assertTrue(PartitionRouter.compareToCut(kinds,
+                new Object[]{5L, ""}, new Object[]{5L, null}) > 0);
+        Assertions.assertEquals(0, PartitionRouter.compareToCut(kinds,
+                new Object[]{5L, null}, new Object[]{5L, null}));
+    }
+
+    @Test
+    public void kinds() {
+        final ColumnInfo bigint = column(java.sql.Types.BIGINT, 0);
+        Assertions.assertEquals(PartitionRouter.Kind.UNSIGNED, PartitionRouter.kindOf(bigint, PrimitiveType.Uint64));
+        Assertions.assertEquals(PartitionRouter.Kind.INTEGER, PartitionRouter.kindOf(bigint, PrimitiveType.Int64));
+        Assertions.assertEquals(PartitionRouter.Kind.INTEGER, PartitionRouter.kindOf(bigint, PrimitiveType.Uint32));
+        Assertions.assertEquals(PartitionRouter.Kind.UNSIGNED,
+                PartitionRouter.kindOf(column(java.sql.Types.NUMERIC, 0), PrimitiveType.Uint64));
+        // fractional or text sources do not keep the integer value order
+        Assertions.assertNull(PartitionRouter.kindOf(column(java.sql.Types.NUMERIC, 2), PrimitiveType.Uint64));
+        Assertions.assertNull(PartitionRouter.kindOf(column(java.sql.Types.VARCHAR, 0), PrimitiveType.Int64));
+        Assertions.assertEquals(PartitionRouter.Kind.TEXT,
+                PartitionRouter.kindOf(column(java.sql.Types.VARCHAR, 0), PrimitiveType.Text));
+        Assertions.assertEquals(PartitionRouter.Kind.DATE,
+                PartitionRouter.kindOf(column(java.sql.Types.TIMESTAMP, 0), PrimitiveType.Date));
+        Assertions.assertNull(PartitionRouter.kindOf(bigint, null));
+    }
+}
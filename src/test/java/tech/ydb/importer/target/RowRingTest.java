@@ -0,0 +1,97 @@
+package tech.ydb.importer.target;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RowRingTest {
+
+    @Test
+    public void endMarkerPerConsumer() throws Exception {
+        final RowRing ring = new RowRing(2, 3, 2, 2);
+        RowRing.Chunk chunk = ring.takeFree();
+        chunk.rows[0][0] = "a";
+        chunk.count = 1;
+        ring.publish(chunk);
+        ring.finish(2);
+
+        Assertions.assertSame(chunk, ring.takeFilled());
+        // each consumer gets its own end marker, and the marker is never handed out as a chunk
+        Assertions.assertNull(ring.takeFilled());
+        Assertions.assertNull(ring.takeFilled());
+    }
+
+    @Test
+    public void releasedChunkIsReset() throws Exception {
+        final RowRing ring = new RowRing(1, 2, 1, 1);
+        RowRing.Chunk chunk = ring.takeFree();
+        chunk.count = 2;
+        Assertions.assertTrue(chunk.isFull());
+        ring.publish(chunk);
+        Assertions.assertSame(chunk, ring.takeFilled());
+        ring.release(chunk);
+        RowRing.Chunk again = ring.takeFree();
+        Assertions.assertSame(chunk, again);
+        Assertions.assertEquals(0, again.count);
+        Assertions.assertFalse(again.isFull());
+    }
+
+    @Test
+    public void failureStopsTheFetchThread() throws Exception {
+        final RowRing ring = new RowRing(1, 1, 1, 1);
+        ring.takeFree();
+        final IOException cause = new IOException("conversion failed");
+        final Thread converter = new Thread(() -> {
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException ix) {
+                Thread.currentThread().interrupt();
+            }
+            ring.fail(cause);
+        });
+        converter.start();
+        // no free chunks left, so only the failure can release the fetch thread
+        IOException ex = Assertions.assertThrows(IOException.class, ring::takeFree);
+        converter.join();
+        Assertions.assertSame(cause, ex);
+        Assertions.assertTrue(ring.isAborted());
+    }
+
+    @Test
+    public void firstFailureWins() {
+        final RowRing ring = new RowRing(1, 1, 1, 1);
+        final IllegalStateException first = new IllegalStateException("first");
+        ring.fail(first);
+        ring.fail(new IllegalArgumentException("second"));
+        Assertions.assertSame(first, Assertions.assertThrows(IllegalStateException.class, ring::checkFailure));
+    }
+
+    @Test
+    public void errorIsWrapped() {
+        final RowRing ring = new RowRing(1, 1, 1, 1);
+        final AssertionError error = new AssertionError("broken");
+        ring.fail(error);
+        Exception ex = Assertions.assertThrows(Exception.class, ring::checkFailure);
+        Assertions.assertSame(error, ex.getCause());
+    }
+
+    @Test
+    public void abortWithoutFailure() throws Exception {
+        final RowRing ring = new RowRing(1, 1, 1, 1);
+        Assertions.assertFalse(ring.isAborted());
+        ring.abort();
+        Assertions.assertTrue(ring.isAborted());
+        // abort alone is not a failure, the fetch thread reports its own error
+        ring.checkFailure();
+    }
+
+    @Test
+    public void stats() throws Exception {
+        final RowRing ring = new RowRing(2, 1, 1, 1);
+        Assertions.assertTrue(ring.stats().startsWith("0 chunks, avg ring occupancy 0"), ring.stats());
+        ring.publish(ring.takeFree());
+        ring.publish(ring.takeFree());
+        // the occupancy is sampled before each publish: 0 and 1 of 2 slots
+        Assertions.assertTrue(ring.stats().startsWith("2 chunks, avg ring occupancy 25"), ring.stats());
+    }
+}
@@ -0,0 +1,73 @@
+package tech.ydb.importer.target;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UploadRetryTest {
+
+    @Test
+    public void backoffBounds() {
+        final UploadRetry retry = new UploadRetry(10, 100L, 1000L, 0L);
+        long base = 100L;
+        for (int failures = 1; failures < 10; ++failures) {
+            final long expected = Math.min(base, 1000L);
+            for (int i = 0; i < 100; ++i) {
+                long delay = retry.nextDelay(failures, 0L);
+                // jitter over the upper half of the exponential delay
+                Assertions.assertTrue(delay >= expected / 2 && delay <= expected,
+                        "attempt " + failures + ": " + delay);
+            }
+            base *= 2L;
+        }
+    }
+
+    @Test
+    public void maxAttempts() {
+        final UploadRetry retry = new UploadRetry(3, 10L, 100L, 0L);
+        Assertions.assertTrue(retry.nextDelay(1, 0L) >= 0L);
+        Assertions.assertTrue(retry.nextDelay(2, 0L) >= 0L);
+        Assertions.assertEquals(-1L, retry.nextDelay(3, 0L));
+        Assertions.assertEquals(-1L, retry.nextDelay(4, 0L));
+    }
+
+    @Test
+    public void deadline() {
+        final UploadRetry retry = new UploadRetry(100, 100L, 100L, 1000L);
+        Assertions.assertTrue(retry.nextDelay(1, 0L) >= 0L);
+        Assertions.assertTrue(retry.nextDelay(5, 850L) >= 0L);
+        // the next retry would start after the deadline
+        Assertions.assertEquals(-1L, retry.nextDelay(5, 951L));
+        Assertions.assertEquals(-1L, retry.nextDelay(5, 1000L));
+    }
+
+    @Test
+    public void noRetries() {
+        Assertions.assertEquals(1, UploadRetry.NONE.getMaxAttempts());
+        Assertions.assertEquals(-1L, UploadRetry.NONE.nextDelay(1, 0L));
+        Assertions.assertEquals(0L, UploadRetry.NONE.getMaxRetryMs());
+    }
+
+    @Test
+    public void largeAttemptCountDoesNotOverflow() {
+        final UploadRetry retry = new UploadRetry(1000, 50L, 30000L, 0L);
+        for (int i = 0; i < 100; ++i) {
+            long delay = retry.nextDelay(999, 0L);
+            Assertions.assertTrue(delay >= 15000L && delay <= 30000L, String.valueOf(delay));
+        }
+    }
+
+    @Test
+    public void maxRetryWindow() {
+        // the deadline bounds the retries when set
+        Assertions.assertEquals(5000L, new UploadRetry(100, 100L, 1000L, 5000L).getMaxRetryMs());
+        // otherwise the sum of the longest delays: 100 + 200 + 400 + 500
+        Assertions.assertEquals(1200L, new UploadRetry(5, 100L, 500L, 0L).getMaxRetryMs());
+    }
+
+    @Test
+    public void illegalSettingsAreClamped() {
+        final UploadRetry retry = new UploadRetry(0, -5L, 0L, 0L);
+        Assertions.assertEquals(1, retry.getMaxAttempts());
+        Assertions.assertEquals(-1L, retry.nextDelay(1, 0L));
+    }
+}
@@ -44,4 +44,40 @@ public class YdbTableBuilderTest {
         System.out.println(td.getTarget().getYqlScript());
     }
 
+    @Test
+    public void bulkLoadProfile() throws Exception {
+        TableDecision td = makeDecision1();
+        td.getTableRef().setBulkLoadProfile(true);
+        new YdbTableBuilder(td).build();
+        Assertions.assertTrue(td.getTarget().getYqlScript().contains("AUTO_PARTITIONING_BY_LOAD = DISABLED"));
+        Assertions.assertEquals(1, td.getTarget().getRestoreScript().size());
+        Assertions.assertTrue(td.getTarget().getRestoreScript().get(0)
+                .contains("AUTO_PARTITIONING_BY_LOAD = ENABLED"));
+
+        // without the load, the table is created with the regular settings
+        td = makeDecision1();
+        td.getTableRef().setBulkLoadProfile(true);
+        new YdbTableBuilder(td, false).build();
+        Assertions.assertTrue(td.getTarget().getYqlScript().contains("AUTO_PARTITIONING_BY_LOAD = ENABLED"));
+        Assertions.assertTrue(td.getTarget().getRestoreScript().isEmpty());
+    }
+
+    @Test
+    public void deferredIndexes() throws Exception {
+        TableDecision td = makeDecision1();
+        td.getMetadata().addIndex(new IndexInfo("ix_owner", java.util.Arrays.asList("owner"), false));
+        new YdbTableBuilder(td).build();
+        Assertions.assertFalse(td.getTarget().getYqlScript().contains("INDEX"));
+        Assertions.assertEquals(1, td.getTarget().getPostLoadScript().size());
+        Assertions.assertTrue(td.getTarget().getPostLoadScript().get(0)
+                .contains("ADD INDEX `ix_owner` GLOBAL ON (`owner`);"));
+
+        // without the load, the indexes are created along with the table
+        td = makeDecision1();
+        td.getMetadata().addIndex(new IndexInfo("ix_owner", java.util.Arrays.asList("owner"), false));
+        new YdbTableBuilder(td, false).build();
+        Assertions.assertTrue(td.getTarget().getYqlScript().contains("  INDEX `ix_owner` GLOBAL ON (`owner`),"));
+        Assertions.assertTrue(td.getTarget().getPostLoadScript().isEmpty());
+    }
+
 }